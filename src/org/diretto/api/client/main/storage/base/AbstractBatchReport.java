@@ -0,0 +1,114 @@
+package org.diretto.api.client.main.storage.base;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This {@code abstract} class provides a skeletal implementation of a
+ * <i>Batch Report</i>, which provides aggregated information about a finished
+ * batch of processes.
+ * 
+ * @author Tobias Schlecht
+ * 
+ * @param <P> The type of the corresponding processes
+ * @param <R> The type of the corresponding {@link ProcessReport}
+ */
+public abstract class AbstractBatchReport<P extends StorageProcess<?>, R extends ProcessReport>
+{
+	private final List<R> processReports;
+	private final List<P> failedProcesses;
+	private final long totalBytes;
+	private final long batchTime;
+	private final double batchRate;
+
+	/**
+	 * Provides base implementation to construct a <i>Batch Report</i>.
+	 * 
+	 * @param processReports The {@code ProcessReport} objects of the successful
+	 *        processes in completion order
+	 * @param failedProcesses The processes which were not successful
+	 * @param batchStartTime The start time of the batch in {@code nanoseconds}
+	 * @param batchEndTime The end time of the batch in {@code nanoseconds}
+	 */
+	public AbstractBatchReport(List<R> processReports, List<P> failedProcesses, long batchStartTime, long batchEndTime)
+	{
+		this.processReports = Collections.unmodifiableList(new ArrayList<R>(processReports));
+		this.failedProcesses = Collections.unmodifiableList(new ArrayList<P>(failedProcesses));
+
+		long bytes = 0L;
+
+		for(R processReport : processReports)
+		{
+			bytes += processReport.getFileSize();
+		}
+
+		totalBytes = bytes;
+
+		batchTime = Math.round(((double) (batchEndTime - batchStartTime)) / 1000000.0d);
+
+		batchRate = ((double) totalBytes) / (((double) batchTime) / 1000.0d);
+	}
+
+	/**
+	 * Returns the {@link ProcessReport} objects of all successful processes in
+	 * the order of their completion.
+	 * 
+	 * @return The {@code ProcessReport} objects in completion order
+	 */
+	public List<R> getProcessReports()
+	{
+		return processReports;
+	}
+
+	/**
+	 * Returns the processes of the batch, which were not successful.
+	 * 
+	 * @return The failed processes
+	 */
+	public List<P> getFailedProcesses()
+	{
+		return failedProcesses;
+	}
+
+	/**
+	 * Returns the number of processes of the batch, which were not successful.
+	 * 
+	 * @return The number of failed processes
+	 */
+	public int getFailureCount()
+	{
+		return failedProcesses.size();
+	}
+
+	/**
+	 * Returns the total number of {@code Bytes} transmitted by the successful
+	 * processes of the batch.
+	 * 
+	 * @return The total number of transmitted {@code Bytes}
+	 */
+	public long getTotalBytes()
+	{
+		return totalBytes;
+	}
+
+	/**
+	 * Returns the wall time of the complete batch in {@code milliseconds}.
+	 * 
+	 * @return The batch time in {@code milliseconds}
+	 */
+	public long getBatchTime()
+	{
+		return batchTime;
+	}
+
+	/**
+	 * Returns the effective data rate of the complete batch in {@code Byte/s}.
+	 * 
+	 * @return The effective batch data rate in {@code Byte/s}
+	 */
+	public double getBatchRate()
+	{
+		return batchRate;
+	}
+}
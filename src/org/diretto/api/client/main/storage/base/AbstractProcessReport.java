@@ -19,6 +19,13 @@ public abstract class AbstractProcessReport implements ProcessReport
 	private final AttachmentID attachmentID;
 	private final URL fileURL;
 
+	private final long queueWaitDuration;
+	private final long connectDuration;
+	private final long timeToFirstByte;
+	private final long transferDuration;
+	private final long serverResponseDuration;
+	private final long publishDuration;
+
 	/**
 	 * Provides base implementation to construct a {@link ProcessReport}.
 	 * 
@@ -28,11 +35,47 @@ public abstract class AbstractProcessReport implements ProcessReport
 	 * @param fileURL The {@code URL} of the file
 	 */
 	public AbstractProcessReport(long fileSize, PlatformMediaType platformMediaType, AttachmentID attachmentID, URL fileURL)
+	{
+		this(fileSize, platformMediaType, attachmentID, fileURL, null);
+	}
+
+	/**
+	 * Provides base implementation to construct a {@link ProcessReport}, which
+	 * copies the durations of the phases from the given
+	 * {@link ProcessTimings}.
+	 * 
+	 * @param fileSize The size of the file
+	 * @param platformMediaType The {@code PlatformMediaType} of the resource
+	 * @param attachmentID The corresponding {@code AttachmentID}
+	 * @param fileURL The {@code URL} of the file
+	 * @param processTimings The {@code ProcessTimings} of the process or
+	 *        {@code null} if they have not been recorded
+	 */
+	public AbstractProcessReport(long fileSize, PlatformMediaType platformMediaType, AttachmentID attachmentID, URL fileURL, ProcessTimings processTimings)
 	{
 		this.fileSize = fileSize;
 		this.platformMediaType = platformMediaType;
 		this.attachmentID = attachmentID;
 		this.fileURL = fileURL;
+
+		if(processTimings != null)
+		{
+			queueWaitDuration = processTimings.getQueueWaitDuration();
+			connectDuration = processTimings.getConnectDuration();
+			timeToFirstByte = processTimings.getTimeToFirstByte();
+			transferDuration = processTimings.getTransferDuration();
+			serverResponseDuration = processTimings.getServerResponseDuration();
+			publishDuration = processTimings.getPublishDuration();
+		}
+		else
+		{
+			queueWaitDuration = -1L;
+			connectDuration = -1L;
+			timeToFirstByte = -1L;
+			transferDuration = -1L;
+			serverResponseDuration = -1L;
+			publishDuration = -1L;
+		}
 	}
 
 	@Override
@@ -58,4 +101,40 @@ public abstract class AbstractProcessReport implements ProcessReport
 	{
 		return fileURL;
 	}
+
+	@Override
+	public long getQueueWaitDuration()
+	{
+		return queueWaitDuration;
+	}
+
+	@Override
+	public long getConnectDuration()
+	{
+		return connectDuration;
+	}
+
+	@Override
+	public long getTimeToFirstByte()
+	{
+		return timeToFirstByte;
+	}
+
+	@Override
+	public long getTransferDuration()
+	{
+		return transferDuration;
+	}
+
+	@Override
+	public long getServerResponseDuration()
+	{
+		return serverResponseDuration;
+	}
+
+	@Override
+	public long getPublishDuration()
+	{
+		return publishDuration;
+	}
 }
@@ -1,25 +1,41 @@
 package org.diretto.api.client.main.storage.base;
 
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
-import org.apache.commons.io.output.CountingOutputStream;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 
 /**
  * This {@code abstract} class provides a skeletal implementation for a
  * <i>Progress</i> {@link HttpEntity}, to minimize the effort required to
- * implement a specific <i>Progress</i> {@code HttpEntity}.
+ * implement a specific <i>Progress</i> {@code HttpEntity}. <br/><br/>
+ * 
+ * If a {@link BandwidthLimiter} is given, every transmitted chunk of the
+ * content is reserved at the {@code BandwidthLimiter}, so that the data rate
+ * of the transmission is limited. As long as the {@code BandwidthLimiter} is
+ * unlimited, the content is written without splitting it into chunks. If an
+ * {@link AbortSignal} is given, a transmission which waits for bandwidth
+ * ends as soon as it is aborted. If a {@link ProgressTracker} is given, every
+ * transmitted chunk is additionally added to the {@code ProgressTracker} of
+ * the corresponding process.
  * 
  * @author Tobias Schlecht
  */
 public abstract class AbstractProgressHttpEntity implements HttpEntity
 {
+	private static final int MAX_LIMITED_CHUNK_SIZE = 16 * 1024;
+
 	private final HttpEntity httpEntity;
+	private final BandwidthLimiter bandwidthLimiter;
+	private final ProgressTracker progressTracker;
+	private final AbortSignal abortSignal;
 
-	private CountingOutputStream countingOutputStream = null;
+	private volatile long byteCount = 0L;
+	private volatile long writeEndTime = 0L;
 
 	/**
 	 * Provides base implementation to construct a <i>Progress</i>
@@ -28,33 +44,154 @@ public abstract class AbstractProgressHttpEntity implements HttpEntity
 	 * @param httpEntity The corresponding {@code HttpEntity}
 	 */
 	public AbstractProgressHttpEntity(HttpEntity httpEntity)
+	{
+		this(httpEntity, null);
+	}
+
+	/**
+	 * Provides base implementation to construct a <i>Progress</i>
+	 * {@link HttpEntity}, whose data rate is limited by the given
+	 * {@link BandwidthLimiter}.
+	 * 
+	 * @param httpEntity The corresponding {@code HttpEntity}
+	 * @param bandwidthLimiter The {@code BandwidthLimiter} or {@code null}
+	 */
+	public AbstractProgressHttpEntity(HttpEntity httpEntity, BandwidthLimiter bandwidthLimiter)
+	{
+		this(httpEntity, bandwidthLimiter, null);
+	}
+
+	/**
+	 * Provides base implementation to construct a <i>Progress</i>
+	 * {@link HttpEntity}, whose data rate is limited by the given
+	 * {@link BandwidthLimiter} and whose transmitted {@code Bytes} are added
+	 * to the given {@link ProgressTracker}.
+	 * 
+	 * @param httpEntity The corresponding {@code HttpEntity}
+	 * @param bandwidthLimiter The {@code BandwidthLimiter} or {@code null}
+	 * @param progressTracker The {@code ProgressTracker} or {@code null}
+	 */
+	public AbstractProgressHttpEntity(HttpEntity httpEntity, BandwidthLimiter bandwidthLimiter, ProgressTracker progressTracker)
+	{
+		this(httpEntity, bandwidthLimiter, progressTracker, null);
+	}
+
+	/**
+	 * Provides base implementation to construct a <i>Progress</i>
+	 * {@link HttpEntity}, whose data rate is limited by the given
+	 * {@link BandwidthLimiter}, whose transmitted {@code Bytes} are added to
+	 * the given {@link ProgressTracker} and whose waiting for bandwidth ends
+	 * as soon as the given {@link AbortSignal} is aborted.
+	 * 
+	 * @param httpEntity The corresponding {@code HttpEntity}
+	 * @param bandwidthLimiter The {@code BandwidthLimiter} or {@code null}
+	 * @param progressTracker The {@code ProgressTracker} or {@code null}
+	 * @param abortSignal The {@code AbortSignal} or {@code null}
+	 */
+	public AbstractProgressHttpEntity(HttpEntity httpEntity, BandwidthLimiter bandwidthLimiter, ProgressTracker progressTracker, AbortSignal abortSignal)
 	{
 		this.httpEntity = httpEntity;
+		this.bandwidthLimiter = bandwidthLimiter;
+		this.progressTracker = progressTracker;
+		this.abortSignal = abortSignal;
 	}
 
 	/**
 	 * Returns the number of {@code Bytes} that have already been transmitted.
+	 * If the content is transmitted repeatedly, only the current transmission
+	 * is taken into account.
 	 * 
 	 * @return The number of transmitted {@code Bytes}
 	 */
 	public long getByteCount()
 	{
-		if(countingOutputStream == null)
+		return byteCount;
+	}
+
+	/**
+	 * Returns the point in time at which the content has been written
+	 * completely for the last time.
+	 * 
+	 * @return The point in time in {@code nanoseconds} or {@code 0} if the
+	 *         content has not been written completely yet
+	 */
+	public long getWriteEndTime()
+	{
+		return writeEndTime;
+	}
+
+	/**
+	 * Adds the given number of {@code Bytes} to the number of transmitted
+	 * {@code Bytes} and to the {@link ProgressTracker} and reserves them at
+	 * the {@link BandwidthLimiter}.
+	 * Subclasses, which transmit the content without the
+	 * {@link #writeTo(OutputStream)} method, have to invoke this method.
+	 * <br/><br/>
+	 * 
+	 * <i>Annotation:</i> Only the transmitting thread is allowed to invoke
+	 * this method.
+	 * 
+	 * @param count The number of additionally transmitted {@code Bytes}
+	 * @throws InterruptedIOException If the thread has been interrupted or the
+	 *         transmission has been aborted while waiting for bandwidth
+	 */
+	protected void addByteCount(long count) throws InterruptedIOException
+	{
+		byteCount += count;
+
+		if(progressTracker != null)
 		{
-			return 0;
+			progressTracker.add(count);
 		}
-		else
+
+		if(bandwidthLimiter != null)
 		{
-			return countingOutputStream.getByteCount();
+			bandwidthLimiter.acquire(count, abortSignal);
 		}
 	}
 
 	@Override
 	public void writeTo(OutputStream outputStream) throws IOException
 	{
-		countingOutputStream = new CountingOutputStream(outputStream);
+		byteCount = 0L;
+
+		httpEntity.writeTo(new FilterOutputStream(outputStream)
+		{
+			@Override
+			public void write(int b) throws IOException
+			{
+				out.write(b);
+
+				addByteCount(1L);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException
+			{
+				if(bandwidthLimiter == null || bandwidthLimiter.isUnlimited())
+				{
+					out.write(b, off, len);
+
+					addByteCount(len);
+
+					return;
+				}
+
+				while(len > 0)
+				{
+					int chunkSize = Math.min(len, MAX_LIMITED_CHUNK_SIZE);
+
+					out.write(b, off, chunkSize);
+
+					addByteCount(chunkSize);
+
+					off += chunkSize;
+					len -= chunkSize;
+				}
+			}
+		});
 
-		httpEntity.writeTo(countingOutputStream);
+		writeEndTime = System.nanoTime();
 	}
 
 	@Override
@@ -0,0 +1,379 @@
+package org.diretto.api.client.main.storage.base;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.commons.configuration.XMLConfiguration;
+
+/**
+ * A {@code BandwidthLimiter} limits the data rate of all transmissions which
+ * share it by means of a <i>Token Bucket</i>. The bucket is refilled with the
+ * maximum data rate and holds at most the <i>Burst Size</i>. <br/><br/>
+ * 
+ * Every transmitting thread reserves the {@code Bytes} it has transmitted.
+ * If the bucket does not contain enough tokens, the reservation is recorded
+ * as debt and the thread is parked until the debt has been paid off by the
+ * refill. Thus the threads are served in the order of their reservations and
+ * no thread has to spin. A parked thread is woken up early by the
+ * {@link AbortSignal} of its transmission, whose outstanding debt is then
+ * refunded. As long as no maximum data rate is set, neither here nor at the
+ * parent, a reservation only counts the {@code Bytes} without reading the
+ * clock or acquiring a monitor. <br/><br/>
+ * 
+ * A {@code BandwidthLimiter} may have a parent {@code BandwidthLimiter} (e.g.
+ * the global one), whose limit is enforced additionally. The maximum data
+ * rate and the <i>Burst Size</i> can be adjusted at runtime. <br/><br/>
+ * 
+ * Since every transmission passes through its {@code BandwidthLimiter}, the
+ * reserved {@code Bytes} are additionally counted by a
+ * {@link StripedCounter}, which does not require the monitor.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class BandwidthLimiter
+{
+	private final BandwidthLimiter parentBandwidthLimiter;
+	private final StripedCounter transmittedBytes = new StripedCounter();
+
+	private volatile long maxRate;
+	private long burstSize;
+
+	private double availableTokens;
+	private long lastRefillTime;
+
+	/**
+	 * Constructs a {@link BandwidthLimiter}.
+	 * 
+	 * @param maxRate The maximum data rate in {@code Byte/s} or {@code 0} if
+	 *        the data rate should not be limited
+	 * @param burstSize The maximum number of {@code Bytes} which can be
+	 *        transmitted without delay after an idle period
+	 * @param parentBandwidthLimiter The parent {@code BandwidthLimiter} or
+	 *        {@code null}
+	 */
+	public BandwidthLimiter(long maxRate, long burstSize, BandwidthLimiter parentBandwidthLimiter)
+	{
+		if(maxRate < 0L || burstSize <= 0L)
+		{
+			throw new IllegalArgumentException("The maximum data rate must not be negative and the burst size must be positive.");
+		}
+
+		this.maxRate = maxRate;
+		this.burstSize = burstSize;
+		this.parentBandwidthLimiter = parentBandwidthLimiter;
+
+		availableTokens = burstSize;
+		lastRefillTime = System.nanoTime();
+	}
+
+	/**
+	 * Creates a {@link BandwidthLimiter}, which is loaded from the
+	 * configuration element with the given key.
+	 * 
+	 * @param xmlConfiguration The {@code XMLConfiguration} object (of the
+	 *        {@code StorageService})
+	 * @param configurationKey The key of the {@code bandwidth} element (e.g.
+	 *        {@code upload/bandwidth})
+	 * @param parentBandwidthLimiter The parent {@code BandwidthLimiter} or
+	 *        {@code null}
+	 * @return The configured {@code BandwidthLimiter}
+	 */
+	public static BandwidthLimiter createBandwidthLimiter(XMLConfiguration xmlConfiguration, String configurationKey, BandwidthLimiter parentBandwidthLimiter)
+	{
+		long maxRate = xmlConfiguration.getLong(configurationKey + "/max-rate");
+		long burstSize = xmlConfiguration.getLong(configurationKey + "/burst-size");
+
+		return new BandwidthLimiter(maxRate, burstSize, parentBandwidthLimiter);
+	}
+
+	/**
+	 * Returns the maximum data rate in {@code Byte/s}.
+	 * 
+	 * @return The maximum data rate or {@code 0} if the data rate is not
+	 *         limited
+	 */
+	public long getMaxRate()
+	{
+		return maxRate;
+	}
+
+	/**
+	 * Returns whether neither this {@link BandwidthLimiter} nor its parent
+	 * {@code BandwidthLimiter} limits the data rate, so that a reservation
+	 * does not have to be made at all.
+	 * 
+	 * @return {@code true} if the data rate is not limited; otherwise
+	 *         {@code false}
+	 */
+	public boolean isUnlimited()
+	{
+		return maxRate == 0L && (parentBandwidthLimiter == null || parentBandwidthLimiter.isUnlimited());
+	}
+
+	/**
+	 * Sets the maximum data rate in {@code Byte/s}. The new data rate applies
+	 * to all subsequent reservations.
+	 * 
+	 * @param maxRate The maximum data rate or {@code 0} if the data rate
+	 *        should not be limited
+	 */
+	public synchronized void setMaxRate(long maxRate)
+	{
+		if(maxRate < 0L)
+		{
+			throw new IllegalArgumentException("The maximum data rate must not be negative.");
+		}
+
+		refill(System.nanoTime());
+
+		this.maxRate = maxRate;
+	}
+
+	/**
+	 * Returns the <i>Burst Size</i> in {@code Bytes}.
+	 * 
+	 * @return The <i>Burst Size</i>
+	 */
+	public synchronized long getBurstSize()
+	{
+		return burstSize;
+	}
+
+	/**
+	 * Sets the <i>Burst Size</i> in {@code Bytes}.
+	 * 
+	 * @param burstSize The maximum number of {@code Bytes} which can be
+	 *        transmitted without delay after an idle period
+	 */
+	public synchronized void setBurstSize(long burstSize)
+	{
+		if(burstSize <= 0L)
+		{
+			throw new IllegalArgumentException("The burst size must be positive.");
+		}
+
+		refill(System.nanoTime());
+
+		this.burstSize = burstSize;
+
+		availableTokens = Math.min(availableTokens, burstSize);
+	}
+
+	/**
+	 * Returns the total number of {@code Bytes} which have been reserved at
+	 * this {@link BandwidthLimiter}, excluding the reservations of its child
+	 * {@code BandwidthLimiter} objects.
+	 * 
+	 * @return The number of transmitted {@code Bytes}
+	 */
+	public long getTransmittedBytes()
+	{
+		return transmittedBytes.sum();
+	}
+
+	/**
+	 * Reserves the given number of {@code Bytes} at this
+	 * {@link BandwidthLimiter} and its parent {@code BandwidthLimiter}. The
+	 * invoking thread is parked until the reservation is covered by both
+	 * limits.
+	 * 
+	 * @param count The number of transmitted {@code Bytes}
+	 * @throws InterruptedIOException If the thread has been interrupted while
+	 *         waiting
+	 */
+	public void acquire(long count) throws InterruptedIOException
+	{
+		acquire(count, null);
+	}
+
+	/**
+	 * Reserves the given number of {@code Bytes} at this
+	 * {@link BandwidthLimiter} and its parent {@code BandwidthLimiter}. The
+	 * invoking thread is parked until the reservation is covered by both
+	 * limits or until the given {@link AbortSignal} is aborted. <br/><br/>
+	 * 
+	 * If the waiting ends early, the part of the reservation which has not
+	 * been paid off yet is refunded, so that the following reservations do
+	 * not have to wait for the debt of an aborted transmission.
+	 * 
+	 * @param count The number of transmitted {@code Bytes}
+	 * @param abortSignal The {@code AbortSignal} of the transmission or
+	 *        {@code null}
+	 * @throws InterruptedIOException If the thread has been interrupted or
+	 *         the transmission has been aborted while waiting
+	 */
+	public void acquire(long count, AbortSignal abortSignal) throws InterruptedIOException
+	{
+		transmittedBytes.add(count);
+
+		if(isUnlimited())
+		{
+			return;
+		}
+
+		long now = System.nanoTime();
+
+		long waitTime = reserve(count, now);
+
+		if(waitTime <= 0L)
+		{
+			return;
+		}
+
+		long wakeUpTime = now + waitTime;
+
+		Thread currentThread = Thread.currentThread();
+
+		if(abortSignal != null)
+		{
+			abortSignal.addWaitingThread(currentThread);
+		}
+
+		try
+		{
+			while(waitTime > 0L)
+			{
+				if(abortSignal != null && abortSignal.isAborted())
+				{
+					refund(count, System.nanoTime());
+
+					throw new InterruptedIOException("The transmission has been aborted while waiting for bandwidth.");
+				}
+
+				LockSupport.parkNanos(this, waitTime);
+
+				if(Thread.interrupted())
+				{
+					currentThread.interrupt();
+
+					refund(count, System.nanoTime());
+
+					throw new InterruptedIOException("The transmission has been interrupted while waiting for bandwidth.");
+				}
+
+				waitTime = wakeUpTime - System.nanoTime();
+			}
+		}
+		finally
+		{
+			if(abortSignal != null)
+			{
+				abortSignal.removeWaitingThread(currentThread);
+			}
+		}
+	}
+
+	/**
+	 * Reserves the given number of {@code Bytes} at this
+	 * {@link BandwidthLimiter} and its parent {@code BandwidthLimiter} without
+	 * blocking. An event-driven transmission has to suspend itself for the
+	 * returned time instead of parking its thread.
+	 * 
+	 * @param count The number of transmitted {@code Bytes}
+	 * @return The time which has to elapse until the reservation is covered in
+	 *         {@code nanoseconds}
+	 */
+	public long reserve(long count)
+	{
+		transmittedBytes.add(count);
+
+		if(isUnlimited())
+		{
+			return 0L;
+		}
+
+		return reserve(count, System.nanoTime());
+	}
+
+	/**
+	 * Reserves the given number of {@code Bytes} at this
+	 * {@link BandwidthLimiter} and its parent {@code BandwidthLimiter} and
+	 * returns the time which has to elapse until the reservation is covered.
+	 * 
+	 * @param count The number of transmitted {@code Bytes}
+	 * @param now The current time in {@code nanoseconds}
+	 * @return The waiting time in {@code nanoseconds}
+	 */
+	private long reserve(long count, long now)
+	{
+		long waitTime = 0L;
+
+		if(maxRate > 0L)
+		{
+			synchronized(this)
+			{
+				refill(now);
+
+				if(maxRate > 0L)
+				{
+					availableTokens -= count;
+
+					if(availableTokens < 0.0d)
+					{
+						waitTime = (long) (-availableTokens * 1000000000.0d / maxRate);
+					}
+				}
+			}
+		}
+
+		if(parentBandwidthLimiter != null)
+		{
+			waitTime = Math.max(waitTime, parentBandwidthLimiter.reserve(count, now));
+		}
+
+		return waitTime;
+	}
+
+	/**
+	 * Refunds the given number of {@code Bytes} of an aborted reservation at
+	 * this {@link BandwidthLimiter} and its parent {@code BandwidthLimiter}.
+	 * Only the debt which is still outstanding is cancelled, since the tokens
+	 * that have already been refilled for the reservation have been spent.
+	 * 
+	 * @param count The number of reserved {@code Bytes}
+	 * @param now The current time in {@code nanoseconds}
+	 */
+	private void refund(long count, long now)
+	{
+		if(maxRate > 0L)
+		{
+			synchronized(this)
+			{
+				refill(now);
+
+				if(availableTokens < 0.0d)
+				{
+					availableTokens = Math.min(0.0d, availableTokens + count);
+				}
+			}
+		}
+
+		if(parentBandwidthLimiter != null)
+		{
+			parentBandwidthLimiter.refund(count, now);
+		}
+	}
+
+	/**
+	 * Refills the bucket according to the elapsed time since the last refill.
+	 * <br/><br/>
+	 * 
+	 * <i>Annotation:</i> The invoking thread has to hold the monitor of this
+	 * {@link BandwidthLimiter}.
+	 * 
+	 * @param now The current time in {@code nanoseconds}
+	 */
+	private void refill(long now)
+	{
+		if(maxRate > 0L && now > lastRefillTime)
+		{
+			availableTokens = Math.min(burstSize, availableTokens + (now - lastRefillTime) * maxRate / 1000000000.0d);
+		}
+		else if(maxRate == 0L)
+		{
+			availableTokens = burstSize;
+		}
+
+		lastRefillTime = Math.max(lastRefillTime, now);
+	}
+}
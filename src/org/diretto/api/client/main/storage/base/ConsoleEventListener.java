@@ -0,0 +1,28 @@
+package org.diretto.api.client.main.storage.base;
+
+/**
+ * The {@code ConsoleEventListener} writes the {@link StorageEvent} objects to
+ * the console. Events of the levels {@link StorageLogLevel#ERROR} and
+ * {@link StorageLogLevel#WARN} are written to {@code System.err}, all other
+ * events to {@code System.out}. <br/><br/>
+ * 
+ * Since it is invoked by the dispatcher thread of the {@link StorageLogger},
+ * the console streams are never locked by a transmitting thread.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class ConsoleEventListener implements StorageEventListener
+{
+	@Override
+	public void eventPublished(StorageEvent storageEvent)
+	{
+		if(storageEvent.getLevel() == StorageLogLevel.ERROR || storageEvent.getLevel() == StorageLogLevel.WARN)
+		{
+			System.err.println(storageEvent);
+		}
+		else
+		{
+			System.out.println(storageEvent);
+		}
+	}
+}
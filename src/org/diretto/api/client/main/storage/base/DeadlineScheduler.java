@@ -0,0 +1,58 @@
+package org.diretto.api.client.main.storage.base;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code DeadlineScheduler} supervises the <i>Deadlines</i> of the
+ * running processes (see {@link ProcessTimeouts}). A single daemon thread
+ * invokes the expiration task of a process as soon as its <i>Deadline</i> has
+ * expired, unless the task has been cancelled in the meantime.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class DeadlineScheduler
+{
+	private static final ScheduledExecutorService DEADLINE_EXECUTOR_SERVICE = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+	{
+		@Override
+		public Thread newThread(Runnable runnable)
+		{
+			Thread thread = new Thread(runnable, "StorageService-Deadline");
+			thread.setDaemon(true);
+
+			return thread;
+		}
+	});
+
+	/**
+	 * The constructor is {@code private} to prevent the instantiation of this
+	 * class.
+	 */
+	private DeadlineScheduler()
+	{
+	}
+
+	/**
+	 * Schedules the given expiration task for the given <i>Deadline</i>. The
+	 * returned {@link ScheduledFuture} has to be cancelled as soon as the
+	 * process has been finished.
+	 * 
+	 * @param expirationTask The task which aborts the process
+	 * @param deadline The <i>Deadline</i> in {@code milliseconds}
+	 * @return The {@code ScheduledFuture} of the expiration task or
+	 *         {@code null} if the <i>Deadline</i> is infinite
+	 */
+	public static ScheduledFuture<?> schedule(Runnable expirationTask, long deadline)
+	{
+		if(deadline <= 0L)
+		{
+			return null;
+		}
+
+		return DEADLINE_EXECUTOR_SERVICE.schedule(expirationTask, deadline, TimeUnit.MILLISECONDS);
+	}
+}
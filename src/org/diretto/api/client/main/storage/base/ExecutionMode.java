@@ -0,0 +1,103 @@
+package org.diretto.api.client.main.storage.base;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * An {@code ExecutionMode} represents the kind of threads on which the
+ * processes of a manager are executed and provides a description of this
+ * {@code ExecutionMode}. <br/><br/>
+ * 
+ * <i>Annotation:</i> Virtual threads are looked up by reflection, because
+ * they are only available on a <i>Java Runtime Environment</i> of version
+ * {@code 21} or newer.
+ * 
+ * @author Tobias Schlecht
+ */
+public enum ExecutionMode
+{
+	PLATFORM("Every running process occupies a platform thread of the operating system."),
+
+	VIRTUAL("Every running process occupies a virtual thread, which releases its carrier thread while it is blocked.");
+
+	private static final ThreadFactory VIRTUAL_THREAD_FACTORY = lookupVirtualThreadFactory();
+
+	private final String description;
+
+	/**
+	 * Constructs an {@link ExecutionMode}.
+	 * 
+	 * @param description The description
+	 */
+	ExecutionMode(String description)
+	{
+		this.description = description;
+	}
+
+	/**
+	 * Returns the description for this {@link ExecutionMode}.
+	 * 
+	 * @return The description
+	 */
+	public String getDescription()
+	{
+		return description;
+	}
+
+	/**
+	 * Returns whether this {@link ExecutionMode} is supported by the running
+	 * <i>Java Runtime Environment</i>.
+	 * 
+	 * @return {@code true} if this {@code ExecutionMode} is supported;
+	 *         otherwise {@code false}
+	 */
+	public boolean isSupported()
+	{
+		return this == PLATFORM || VIRTUAL_THREAD_FACTORY != null;
+	}
+
+	/**
+	 * Returns a {@link ThreadFactory}, which creates the threads of this
+	 * {@link ExecutionMode}.
+	 * 
+	 * @return The {@code ThreadFactory}
+	 * @throws UnsupportedOperationException If this {@code ExecutionMode} is
+	 *         not supported
+	 */
+	public ThreadFactory getThreadFactory()
+	{
+		if(this == PLATFORM)
+		{
+			return Executors.defaultThreadFactory();
+		}
+
+		if(VIRTUAL_THREAD_FACTORY == null)
+		{
+			throw new UnsupportedOperationException("Virtual threads are not supported by the Java Runtime Environment.");
+		}
+
+		return VIRTUAL_THREAD_FACTORY;
+	}
+
+	/**
+	 * Looks up the {@link ThreadFactory} of the virtual threads.
+	 * 
+	 * @return The {@code ThreadFactory} or {@code null} if virtual threads are
+	 *         not supported
+	 */
+	private static ThreadFactory lookupVirtualThreadFactory()
+	{
+		try
+		{
+			Method ofVirtualMethod = Thread.class.getMethod("ofVirtual");
+			Method factoryMethod = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+
+			return (ThreadFactory) factoryMethod.invoke(ofVirtualMethod.invoke(null));
+		}
+		catch(Exception e)
+		{
+			return null;
+		}
+	}
+}
@@ -0,0 +1,193 @@
+package org.diretto.api.client.main.storage.base;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration.XMLConfiguration;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * The {@code HttpClientFactory} creates the <i>Apache</i>
+ * {@link DefaultHttpClient} objects which are shared by all processes of a
+ * manager. The connections of such a {@code DefaultHttpClient} are pooled and
+ * kept alive, so that consecutive processes are able to reuse them. Idle and
+ * expired connections are evicted periodically until the
+ * {@code DefaultHttpClient} is shut down by means of
+ * {@link #shutdownHttpClient(DefaultHttpClient)}. <br/><br/>
+ * 
+ * Moreover the {@code HttpClientFactory} loads the default
+ * {@link ProcessTimeouts} and applies them to the requests of a process.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class HttpClientFactory
+{
+	private static final ScheduledExecutorService EVICTION_EXECUTOR_SERVICE = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+	{
+		@Override
+		public Thread newThread(Runnable runnable)
+		{
+			Thread thread = new Thread(runnable, "StorageService-ConnectionEviction");
+			thread.setDaemon(true);
+
+			return thread;
+		}
+	});
+
+	private static final ConcurrentMap<ClientConnectionManager, ScheduledFuture<?>> EVICTION_FUTURES = new ConcurrentHashMap<ClientConnectionManager, ScheduledFuture<?>>();
+
+	/**
+	 * The constructor is {@code private} to prevent the instantiation of this
+	 * class.
+	 */
+	private HttpClientFactory()
+	{
+	}
+
+	/**
+	 * Creates a thread-safe <i>Apache</i> {@link DefaultHttpClient} with a
+	 * pooled connection manager. The limits of the connection pool as well as
+	 * the idle and <i>Keep-Alive</i> timeouts are loaded from the
+	 * {@code connection-pool} element below the given configuration key. The
+	 * <i>Connect Timeout</i> and the <i>Socket Timeout</i> are loaded from the
+	 * {@code timeouts} element. The {@link ProcessTimings#CONNECT_INTERCEPTOR}
+	 * is registered, so that the <i>Connect</i> phase of the processes can be
+	 * measured.
+	 * 
+	 * @param xmlConfiguration The {@code XMLConfiguration} object (of the
+	 *        {@code StorageService})
+	 * @param configurationKey The key of the configuration element which
+	 *        contains the {@code connection-pool} element (e.g.
+	 *        {@code upload})
+	 * @return A thread-safe <i>Apache</i> {@code DefaultHttpClient}
+	 */
+	public static DefaultHttpClient createHttpClient(XMLConfiguration xmlConfiguration, String configurationKey)
+	{
+		final ThreadSafeClientConnManager connectionManager = new ThreadSafeClientConnManager(SchemeRegistryFactory.createDefault());
+
+		connectionManager.setMaxTotal(xmlConfiguration.getInt(configurationKey + "/connection-pool/max-total-connections"));
+		connectionManager.setDefaultMaxPerRoute(xmlConfiguration.getInt(configurationKey + "/connection-pool/max-connections-per-route"));
+
+		final long idleConnectionTimeout = xmlConfiguration.getLong(configurationKey + "/connection-pool/idle-connection-timeout");
+		final long keepAliveTimeout = xmlConfiguration.getLong(configurationKey + "/connection-pool/keep-alive-timeout");
+
+		DefaultHttpClient httpClient = new DefaultHttpClient(connectionManager);
+
+		applyTimeouts(httpClient.getParams(), createProcessTimeouts(xmlConfiguration, configurationKey));
+
+		httpClient.addRequestInterceptor(ProcessTimings.CONNECT_INTERCEPTOR);
+
+		httpClient.setKeepAliveStrategy(new DefaultConnectionKeepAliveStrategy()
+		{
+			@Override
+			public long getKeepAliveDuration(HttpResponse httpResponse, HttpContext httpContext)
+			{
+				long keepAliveDuration = super.getKeepAliveDuration(httpResponse, httpContext);
+
+				if(keepAliveDuration > 0L)
+				{
+					return Math.min(keepAliveDuration, keepAliveTimeout);
+				}
+
+				return keepAliveTimeout;
+			}
+		});
+
+		long evictionInterval = Math.max(idleConnectionTimeout / 2L, 1000L);
+
+		ScheduledFuture<?> evictionFuture = EVICTION_EXECUTOR_SERVICE.scheduleWithFixedDelay(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				connectionManager.closeExpiredConnections();
+				connectionManager.closeIdleConnections(idleConnectionTimeout, TimeUnit.MILLISECONDS);
+			}
+		}, evictionInterval, evictionInterval, TimeUnit.MILLISECONDS);
+
+		EVICTION_FUTURES.put(connectionManager, evictionFuture);
+
+		return httpClient;
+	}
+
+	/**
+	 * Shuts down the given {@link DefaultHttpClient}, which has been created
+	 * by {@link #createHttpClient(XMLConfiguration, String)}. The periodic
+	 * eviction of its idle connections is cancelled and all connections of its
+	 * pool are closed.
+	 * 
+	 * @param httpClient The {@code DefaultHttpClient}
+	 */
+	public static void shutdownHttpClient(DefaultHttpClient httpClient)
+	{
+		ClientConnectionManager connectionManager = httpClient.getConnectionManager();
+
+		ScheduledFuture<?> evictionFuture = EVICTION_FUTURES.remove(connectionManager);
+
+		if(evictionFuture != null)
+		{
+			evictionFuture.cancel(false);
+		}
+
+		connectionManager.shutdown();
+	}
+
+	/**
+	 * Creates the default {@link ProcessTimeouts}, which are loaded from the
+	 * {@code timeouts} element below the given configuration key.
+	 * 
+	 * @param xmlConfiguration The {@code XMLConfiguration} object (of the
+	 *        {@code StorageService})
+	 * @param configurationKey The key of the configuration element which
+	 *        contains the {@code timeouts} element (e.g. {@code upload})
+	 * @return The default {@code ProcessTimeouts}
+	 */
+	public static ProcessTimeouts createProcessTimeouts(XMLConfiguration xmlConfiguration, String configurationKey)
+	{
+		int connectTimeout = xmlConfiguration.getInt(configurationKey + "/timeouts/connect-timeout");
+		int socketTimeout = xmlConfiguration.getInt(configurationKey + "/timeouts/socket-timeout");
+		long deadline = xmlConfiguration.getLong(configurationKey + "/timeouts/deadline");
+
+		return new ProcessTimeouts(connectTimeout, socketTimeout, deadline);
+	}
+
+	/**
+	 * Applies the <i>Connect Timeout</i> and the <i>Socket Timeout</i> of the
+	 * given {@link ProcessTimeouts} to the given {@link HttpRequest}. They
+	 * override the timeouts of the {@link DefaultHttpClient}.
+	 * 
+	 * @param httpRequest The {@code HttpRequest}
+	 * @param processTimeouts The {@code ProcessTimeouts}
+	 */
+	public static void applyTimeouts(HttpRequest httpRequest, ProcessTimeouts processTimeouts)
+	{
+		applyTimeouts(httpRequest.getParams(), processTimeouts);
+	}
+
+	/**
+	 * Applies the <i>Connect Timeout</i> and the <i>Socket Timeout</i> of the
+	 * given {@link ProcessTimeouts} to the given {@link HttpParams}.
+	 * 
+	 * @param httpParams The {@code HttpParams}
+	 * @param processTimeouts The {@code ProcessTimeouts}
+	 */
+	private static void applyTimeouts(HttpParams httpParams, ProcessTimeouts processTimeouts)
+	{
+		HttpConnectionParams.setConnectionTimeout(httpParams, processTimeouts.getConnectTimeout());
+		HttpConnectionParams.setSoTimeout(httpParams, processTimeouts.getSocketTimeout());
+	}
+}
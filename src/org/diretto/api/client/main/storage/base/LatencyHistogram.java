@@ -0,0 +1,157 @@
+package org.diretto.api.client.main.storage.base;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A {@code LatencyHistogram} records durations in {@code nanoseconds} in
+ * logarithmic buckets without locking. <br/><br/>
+ * 
+ * Every power of two is divided into four buckets, so that the relative
+ * error of a percentile is below 25 percent, independent of whether the
+ * durations are microseconds or minutes. Recording a duration increments a
+ * single bucket. The percentiles are estimated from the bucket counts when a
+ * {@link LatencySnapshot} is taken.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class LatencyHistogram
+{
+	private static final int SUB_BUCKET_BITS = 2;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKET_COUNT = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+	private final AtomicLong totalDuration = new AtomicLong(0L);
+	private final AtomicLong maxDuration = new AtomicLong(0L);
+
+	/**
+	 * Records the given duration.
+	 * 
+	 * @param duration The duration in {@code nanoseconds}
+	 */
+	public void record(long duration)
+	{
+		if(duration < 0L)
+		{
+			duration = 0L;
+		}
+
+		buckets.incrementAndGet(getBucketIndex(duration));
+		totalDuration.addAndGet(duration);
+
+		long currentMaxDuration = maxDuration.get();
+
+		while(duration > currentMaxDuration && !maxDuration.compareAndSet(currentMaxDuration, duration))
+		{
+			currentMaxDuration = maxDuration.get();
+		}
+	}
+
+	/**
+	 * Returns a {@link LatencySnapshot} of the recorded durations. The
+	 * snapshot is not atomic if durations are recorded concurrently.
+	 * 
+	 * @return The {@code LatencySnapshot}
+	 */
+	public LatencySnapshot snapshot()
+	{
+		long[] counts = new long[BUCKET_COUNT];
+		long count = 0L;
+
+		for(int i = 0; i < BUCKET_COUNT; i++)
+		{
+			counts[i] = buckets.get(i);
+			count += counts[i];
+		}
+
+		if(count == 0L)
+		{
+			return new LatencySnapshot(0L, 0.0d, 0.0d, 0.0d, 0.0d, 0.0d);
+		}
+
+		long max = maxDuration.get();
+
+		return new LatencySnapshot(count, toMillis(totalDuration.get() / count), toMillis(getPercentile(counts, count, max, 0.5d)), toMillis(getPercentile(counts, count, max, 0.9d)), toMillis(getPercentile(counts, count, max, 0.99d)), toMillis(max));
+	}
+
+	/**
+	 * Estimates the given percentile by the middle of the bucket which
+	 * contains it.
+	 * 
+	 * @param counts The counts of the buckets
+	 * @param count The total count
+	 * @param max The maximum duration
+	 * @param fraction The percentile as fraction (e.g. {@code 0.99})
+	 * @return The estimated duration in {@code nanoseconds}
+	 */
+	private static long getPercentile(long[] counts, long count, long max, double fraction)
+	{
+		long rank = (long) Math.ceil(count * fraction);
+		long accumulatedCount = 0L;
+
+		for(int i = 0; i < counts.length; i++)
+		{
+			accumulatedCount += counts[i];
+
+			if(accumulatedCount >= rank)
+			{
+				long lowerBound = getLowerBound(i);
+				long upperBound = (i + 1 < counts.length) ? getLowerBound(i + 1) : Long.MAX_VALUE;
+
+				return Math.min(lowerBound + (upperBound - lowerBound) / 2L, max);
+			}
+		}
+
+		return max;
+	}
+
+	/**
+	 * Returns the index of the bucket which contains the given duration.
+	 * 
+	 * @param duration The non-negative duration
+	 * @return The index of the bucket
+	 */
+	private static int getBucketIndex(long duration)
+	{
+		if(duration < SUB_BUCKET_COUNT)
+		{
+			return (int) duration;
+		}
+
+		int exponent = 63 - Long.numberOfLeadingZeros(duration);
+		int subBucket = (int) ((duration >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1));
+
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+	}
+
+	/**
+	 * Returns the smallest duration of the bucket with the given index.
+	 * 
+	 * @param bucketIndex The index of the bucket
+	 * @return The lower bound of the bucket
+	 */
+	private static long getLowerBound(int bucketIndex)
+	{
+		if(bucketIndex < SUB_BUCKET_COUNT)
+		{
+			return bucketIndex;
+		}
+
+		int exponent = bucketIndex / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+		int subBucket = bucketIndex % SUB_BUCKET_COUNT;
+
+		return ((long) (SUB_BUCKET_COUNT + subBucket)) << (exponent - SUB_BUCKET_BITS);
+	}
+
+	/**
+	 * Converts the given duration into {@code milliseconds}.
+	 * 
+	 * @param duration The duration in {@code nanoseconds}
+	 * @return The duration in {@code milliseconds}
+	 */
+	private static double toMillis(long duration)
+	{
+		return duration / 1000000.0d;
+	}
+}
@@ -0,0 +1,107 @@
+package org.diretto.api.client.main.storage.base;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * A {@code LatencySnapshot} contains the statistics of the durations which
+ * have been recorded by a {@link LatencyHistogram} up to a certain point in
+ * time. All durations are given in {@code milliseconds}.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class LatencySnapshot
+{
+	private final long count;
+	private final double mean;
+	private final double percentile50;
+	private final double percentile90;
+	private final double percentile99;
+	private final double max;
+
+	/**
+	 * Constructs a {@link LatencySnapshot}.
+	 * 
+	 * @param count The number of recorded durations
+	 * @param mean The mean duration
+	 * @param percentile50 The 50th percentile (median)
+	 * @param percentile90 The 90th percentile
+	 * @param percentile99 The 99th percentile
+	 * @param max The maximum duration
+	 */
+	@ConstructorProperties({"count", "mean", "percentile50", "percentile90", "percentile99", "max"})
+	public LatencySnapshot(long count, double mean, double percentile50, double percentile90, double percentile99, double max)
+	{
+		this.count = count;
+		this.mean = mean;
+		this.percentile50 = percentile50;
+		this.percentile90 = percentile90;
+		this.percentile99 = percentile99;
+		this.max = max;
+	}
+
+	/**
+	 * Returns the number of recorded durations.
+	 * 
+	 * @return The number of recorded durations
+	 */
+	public long getCount()
+	{
+		return count;
+	}
+
+	/**
+	 * Returns the mean duration.
+	 * 
+	 * @return The mean duration in {@code milliseconds}
+	 */
+	public double getMean()
+	{
+		return mean;
+	}
+
+	/**
+	 * Returns the 50th percentile (median) of the durations.
+	 * 
+	 * @return The 50th percentile in {@code milliseconds}
+	 */
+	public double getPercentile50()
+	{
+		return percentile50;
+	}
+
+	/**
+	 * Returns the 90th percentile of the durations.
+	 * 
+	 * @return The 90th percentile in {@code milliseconds}
+	 */
+	public double getPercentile90()
+	{
+		return percentile90;
+	}
+
+	/**
+	 * Returns the 99th percentile of the durations.
+	 * 
+	 * @return The 99th percentile in {@code milliseconds}
+	 */
+	public double getPercentile99()
+	{
+		return percentile99;
+	}
+
+	/**
+	 * Returns the maximum duration.
+	 * 
+	 * @return The maximum duration in {@code milliseconds}
+	 */
+	public double getMax()
+	{
+		return max;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "count=" + count + ", mean=" + mean + " ms, p50=" + percentile50 + " ms, p90=" + percentile90 + " ms, p99=" + percentile99 + " ms, max=" + max + " ms";
+	}
+}
@@ -0,0 +1,38 @@
+package org.diretto.api.client.main.storage.base;
+
+/**
+ * A {@code ProcessBatchCallback} is notified about every single process of a
+ * batch as soon as the process has been finished. In contrast to a
+ * {@link ProcessCallback} it receives the item of the batch to which the
+ * outcome belongs, so that a failed item can be reported or retried.
+ * <br/><br/>
+ * 
+ * <i>Annotation:</i> The methods are invoked by the threads which have
+ * executed the processes, possibly concurrently. Hence the implementations
+ * have to be thread-safe and should return quickly.
+ * 
+ * @author Tobias Schlecht
+ * 
+ * @param <I> The type of the items of the batch (e.g. the processes)
+ * @param <R> The type of the corresponding {@link ProcessReport}
+ */
+public interface ProcessBatchCallback<I, R extends ProcessReport>
+{
+	/**
+	 * Is invoked if the process of the given item has been finished
+	 * successfully.
+	 * 
+	 * @param item The item of the batch
+	 * @param processReport The created {@code ProcessReport}
+	 */
+	void completed(I item, R processReport);
+
+	/**
+	 * Is invoked if the process of the given item has not been finished
+	 * successfully.
+	 * 
+	 * @param item The item of the batch
+	 * @param cause The cause of the failure
+	 */
+	void failed(I item, Throwable cause);
+}
@@ -0,0 +1,144 @@
+package org.diretto.api.client.main.storage.base;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A {@code ProcessBatchCollector} collects the outcomes of a batch of
+ * submitted processes in the order of their completion. Optionally the
+ * outcomes are streamed to a {@link ProcessBatchCallback} together with their
+ * process as soon as they are available.
+ * 
+ * @author Tobias Schlecht
+ * 
+ * @param <P> The type of the corresponding processes
+ * @param <R> The type of the corresponding {@link ProcessReport}
+ */
+public final class ProcessBatchCollector<P extends StorageProcess<?>, R extends ProcessReport>
+{
+	private final ProcessBatchCallback<? super P, ? super R> processBatchCallback;
+	private final CountDownLatch countDownLatch;
+	private final long batchStartTime;
+
+	private final List<R> processReports = new ArrayList<R>();
+	private final List<P> failedProcesses = new ArrayList<P>();
+
+	/**
+	 * Constructs a {@link ProcessBatchCollector}.
+	 * 
+	 * @param batchSize The number of processes of the batch
+	 * @param processBatchCallback The {@code ProcessBatchCallback} to which
+	 *        the outcomes should be streamed or {@code null}
+	 */
+	public ProcessBatchCollector(int batchSize, ProcessBatchCallback<? super P, ? super R> processBatchCallback)
+	{
+		this.processBatchCallback = processBatchCallback;
+
+		countDownLatch = new CountDownLatch(batchSize);
+		batchStartTime = System.nanoTime();
+	}
+
+	/**
+	 * Creates the {@link ProcessCallback}, which has to be registered at the
+	 * {@link ProcessFuture} of the given process.
+	 * 
+	 * @param process A process of the batch
+	 * @return The {@code ProcessCallback} for the given process
+	 */
+	public ProcessCallback<R> createProcessCallback(final P process)
+	{
+		return new ProcessCallback<R>()
+		{
+			@Override
+			public void completed(R processReport)
+			{
+				try
+				{
+					synchronized(processReports)
+					{
+						processReports.add(processReport);
+					}
+
+					if(processBatchCallback != null)
+					{
+						processBatchCallback.completed(process, processReport);
+					}
+				}
+				finally
+				{
+					countDownLatch.countDown();
+				}
+			}
+
+			@Override
+			public void failed(Throwable cause)
+			{
+				try
+				{
+					synchronized(processReports)
+					{
+						failedProcesses.add(process);
+					}
+
+					if(processBatchCallback != null)
+					{
+						processBatchCallback.failed(process, cause);
+					}
+				}
+				finally
+				{
+					countDownLatch.countDown();
+				}
+			}
+		};
+	}
+
+	/**
+	 * Waits until all processes of the batch have been finished.
+	 * 
+	 * @throws InterruptedException If the current thread was interrupted while
+	 *         waiting
+	 */
+	public void await() throws InterruptedException
+	{
+		countDownLatch.await();
+	}
+
+	/**
+	 * Returns the start time of the batch in {@code nanoseconds}.
+	 * 
+	 * @return The start time of the batch in {@code nanoseconds}
+	 */
+	public long getBatchStartTime()
+	{
+		return batchStartTime;
+	}
+
+	/**
+	 * Returns a snapshot of the {@link ProcessReport} objects of the successful
+	 * processes in completion order.
+	 * 
+	 * @return The {@code ProcessReport} objects in completion order
+	 */
+	public List<R> getProcessReports()
+	{
+		synchronized(processReports)
+		{
+			return new ArrayList<R>(processReports);
+		}
+	}
+
+	/**
+	 * Returns a snapshot of the processes, which were not successful.
+	 * 
+	 * @return The failed processes
+	 */
+	public List<P> getFailedProcesses()
+	{
+		synchronized(processReports)
+		{
+			return new ArrayList<P>(failedProcesses);
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package org.diretto.api.client.main.storage.base;
+
+/**
+ * A {@code ProcessCallback} is notified as soon as the corresponding process
+ * has been finished. It can be registered at a {@link ProcessFuture}. <br/><br/>
+ * 
+ * <i>Annotation:</i> The methods are invoked by the thread which has executed
+ * the process. Hence the implementations should return quickly.
+ * 
+ * @author Tobias Schlecht
+ * 
+ * @param <R> The type of the corresponding {@link ProcessReport}
+ */
+public interface ProcessCallback<R extends ProcessReport>
+{
+	/**
+	 * Is invoked if the process has been finished successfully.
+	 * 
+	 * @param processReport The created {@code ProcessReport}
+	 */
+	void completed(R processReport);
+
+	/**
+	 * Is invoked if the process has not been finished successfully.
+	 * 
+	 * @param cause The cause of the failure
+	 */
+	void failed(Throwable cause);
+}
@@ -0,0 +1,141 @@
+package org.diretto.api.client.main.storage.base;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@code ProcessCallbackRegistry} manages the {@link ProcessCallback} objects
+ * of a {@link ProcessFuture} and notifies them exactly once about the outcome
+ * of the corresponding process.
+ * 
+ * @author Tobias Schlecht
+ * 
+ * @param <R> The type of the corresponding {@link ProcessReport}
+ */
+public final class ProcessCallbackRegistry<R extends ProcessReport>
+{
+	private final List<ProcessCallback<? super R>> processCallbacks = new ArrayList<ProcessCallback<? super R>>();
+	private final StorageLogger storageLogger;
+
+	private boolean finished = false;
+	private R processReport = null;
+	private Throwable cause = null;
+
+	/**
+	 * Constructs a {@link ProcessCallbackRegistry}.
+	 * 
+	 * @param storageLogger The {@code StorageLogger} to which failures of the
+	 *        {@code ProcessCallback} objects are logged
+	 */
+	public ProcessCallbackRegistry(StorageLogger storageLogger)
+	{
+		this.storageLogger = storageLogger;
+	}
+
+	/**
+	 * Registers the given {@link ProcessCallback}. If the outcome of the
+	 * process is already known, the {@code ProcessCallback} will be notified
+	 * immediately.
+	 * 
+	 * @param processCallback The {@code ProcessCallback} to be registered
+	 */
+	public void add(ProcessCallback<? super R> processCallback)
+	{
+		if(processCallback == null)
+		{
+			throw new NullPointerException();
+		}
+
+		synchronized(processCallbacks)
+		{
+			if(!finished)
+			{
+				processCallbacks.add(processCallback);
+
+				return;
+			}
+		}
+
+		fire(processCallback);
+	}
+
+	/**
+	 * Notifies all registered {@link ProcessCallback} objects, that the process
+	 * has been finished successfully.
+	 * 
+	 * @param processReport The created {@code ProcessReport}
+	 */
+	public void complete(R processReport)
+	{
+		finish(processReport, null);
+	}
+
+	/**
+	 * Notifies all registered {@link ProcessCallback} objects, that the process
+	 * has not been finished successfully.
+	 * 
+	 * @param cause The cause of the failure
+	 */
+	public void fail(Throwable cause)
+	{
+		finish(null, cause);
+	}
+
+	/**
+	 * Stores the outcome of the process and notifies all registered
+	 * {@link ProcessCallback} objects.
+	 * 
+	 * @param processReport The created {@code ProcessReport} or {@code null}
+	 * @param cause The cause of the failure or {@code null}
+	 */
+	private void finish(R processReport, Throwable cause)
+	{
+		List<ProcessCallback<? super R>> registeredProcessCallbacks;
+
+		synchronized(processCallbacks)
+		{
+			if(finished)
+			{
+				return;
+			}
+
+			this.processReport = processReport;
+			this.cause = cause;
+
+			finished = true;
+
+			registeredProcessCallbacks = new ArrayList<ProcessCallback<? super R>>(processCallbacks);
+			processCallbacks.clear();
+		}
+
+		for(ProcessCallback<? super R> processCallback : registeredProcessCallbacks)
+		{
+			fire(processCallback);
+		}
+	}
+
+	/**
+	 * Notifies the given {@link ProcessCallback} about the outcome of the
+	 * process.
+	 * 
+	 * @param processCallback The {@code ProcessCallback} to be notified
+	 */
+	private void fire(ProcessCallback<? super R> processCallback)
+	{
+		try
+		{
+			if(processReport != null)
+			{
+				processCallback.completed(processReport);
+			}
+			else
+			{
+				processCallback.failed(cause);
+			}
+		}
+		catch(RuntimeException e)
+		{
+			storageLogger.log(StorageLogLevel.ERROR, ProcessCallbackRegistry.class, "A process callback has thrown an exception.", e);
+		}
+	}
+}
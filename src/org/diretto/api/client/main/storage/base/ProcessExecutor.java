@@ -0,0 +1,186 @@
+package org.diretto.api.client.main.storage.base;
+
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@code ProcessExecutor} is a fixed-size {@link ThreadPoolExecutor}, whose
+ * waiting tasks are executed in the order of their {@link ProcessPriority}
+ * instead of their submission order. <br/><br/>
+ * 
+ * Every waiting task is ordered by a stable key, which is its submission
+ * time reduced by the level of its {@code ProcessPriority} multiplied by the
+ * <i>Aging Interval</i>. Hence a task with a higher priority overtakes the
+ * waiting tasks with a lower priority, but a task which has been waiting for
+ * a multiple of the <i>Aging Interval</i> cannot be overtaken anymore by
+ * tasks which are only that many levels higher. Tasks with equal keys are
+ * executed in their submission order. <br/><br/>
+ * 
+ * The threads are created according to the {@link ExecutionMode}. With
+ * virtual threads the pool size only limits the number of processes in
+ * flight, and idle threads are discarded after the <i>Keep Alive Time</i>.
+ * <br/><br/>
+ * 
+ * The time which every task has waited in the queue is recorded by the given
+ * {@link LatencyHistogram}.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class ProcessExecutor extends ThreadPoolExecutor
+{
+	private static final long KEEP_ALIVE_TIME = 60000L;
+
+	private final long agingInterval;
+	private final LatencyHistogram queueWaitHistogram;
+	private final AtomicLong sequenceNumber = new AtomicLong(0L);
+
+	/**
+	 * Constructs a {@link ProcessExecutor}.
+	 * 
+	 * @param poolSize The number of threads
+	 * @param agingInterval The <i>Aging Interval</i> in {@code milliseconds}
+	 * @param executionMode The {@code ExecutionMode} of the threads
+	 * @param queueWaitHistogram The {@code LatencyHistogram} of the queue
+	 *        wait
+	 */
+	public ProcessExecutor(int poolSize, long agingInterval, ExecutionMode executionMode, LatencyHistogram queueWaitHistogram)
+	{
+		super(poolSize, poolSize, KEEP_ALIVE_TIME, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<Runnable>(), executionMode.getThreadFactory());
+
+		this.agingInterval = TimeUnit.MILLISECONDS.toNanos(agingInterval);
+		this.queueWaitHistogram = queueWaitHistogram;
+
+		allowCoreThreadTimeOut(executionMode == ExecutionMode.VIRTUAL);
+	}
+
+	/**
+	 * Executes the given task with the given {@link ProcessPriority}.
+	 * 
+	 * @param runnable The task
+	 * @param processPriority The {@code ProcessPriority} of the task
+	 */
+	public void execute(Runnable runnable, ProcessPriority processPriority)
+	{
+		long submissionTime = System.nanoTime();
+		long priorityKey = submissionTime - processPriority.getLevel() * agingInterval;
+
+		super.execute(new PrioritizedRunnable(runnable, submissionTime, priorityKey, sequenceNumber.getAndIncrement()));
+	}
+
+	@Override
+	public void execute(Runnable runnable)
+	{
+		execute(runnable, ProcessPriority.NORMAL);
+	}
+
+	@Override
+	protected void beforeExecute(Thread thread, Runnable runnable)
+	{
+		super.beforeExecute(thread, runnable);
+
+		if(runnable instanceof PrioritizedRunnable)
+		{
+			queueWaitHistogram.record(System.nanoTime() - ((PrioritizedRunnable) runnable).submissionTime);
+		}
+	}
+
+	@Override
+	public boolean remove(Runnable runnable)
+	{
+		for(Runnable waitingRunnable : getQueue())
+		{
+			if(waitingRunnable instanceof PrioritizedRunnable && ((PrioritizedRunnable) waitingRunnable).runnable == runnable)
+			{
+				return super.remove(waitingRunnable);
+			}
+		}
+
+		return super.remove(runnable);
+	}
+
+	/**
+	 * Changes the {@link ProcessPriority} of the given waiting task. The task
+	 * is removed from the queue and inserted again with the priority key
+	 * which corresponds to its original submission time and the new
+	 * {@code ProcessPriority}, so that it keeps the waiting time it has
+	 * already accumulated.
+	 * 
+	 * @param runnable The waiting task
+	 * @param processPriority The new {@code ProcessPriority} of the task
+	 * @return {@code true} if the task has been waiting and is reordered;
+	 *         otherwise {@code false}
+	 */
+	public boolean reprioritize(Runnable runnable, ProcessPriority processPriority)
+	{
+		for(Runnable waitingRunnable : getQueue())
+		{
+			if(waitingRunnable instanceof PrioritizedRunnable && ((PrioritizedRunnable) waitingRunnable).runnable == runnable)
+			{
+				PrioritizedRunnable prioritizedRunnable = (PrioritizedRunnable) waitingRunnable;
+
+				if(!getQueue().remove(prioritizedRunnable))
+				{
+					return false;
+				}
+
+				long priorityKey = prioritizedRunnable.submissionTime - processPriority.getLevel() * agingInterval;
+
+				getQueue().offer(new PrioritizedRunnable(runnable, prioritizedRunnable.submissionTime, priorityKey, prioritizedRunnable.sequenceNumber));
+
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * A {@code PrioritizedRunnable} wraps a waiting task together with its
+	 * submission time and priority key.
+	 */
+	private static final class PrioritizedRunnable implements Runnable, Comparable<PrioritizedRunnable>
+	{
+		private final Runnable runnable;
+		private final long submissionTime;
+		private final long priorityKey;
+		private final long sequenceNumber;
+
+		/**
+		 * Constructs a {@link PrioritizedRunnable}.
+		 * 
+		 * @param runnable The task
+		 * @param submissionTime The submission time of the task in
+		 *        {@code nanoseconds}
+		 * @param priorityKey The priority key of the task
+		 * @param sequenceNumber The submission sequence number of the task
+		 */
+		PrioritizedRunnable(Runnable runnable, long submissionTime, long priorityKey, long sequenceNumber)
+		{
+			this.runnable = runnable;
+			this.submissionTime = submissionTime;
+			this.priorityKey = priorityKey;
+			this.sequenceNumber = sequenceNumber;
+		}
+
+		@Override
+		public void run()
+		{
+			runnable.run();
+		}
+
+		@Override
+		public int compareTo(PrioritizedRunnable prioritizedRunnable)
+		{
+			long difference = priorityKey - prioritizedRunnable.priorityKey;
+
+			if(difference != 0L)
+			{
+				return difference < 0L ? -1 : 1;
+			}
+
+			return sequenceNumber < prioritizedRunnable.sequenceNumber ? -1 : (sequenceNumber == prioritizedRunnable.sequenceNumber ? 0 : 1);
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package org.diretto.api.client.main.storage.base;
+
+import java.util.concurrent.Future;
+
+/**
+ * A {@code ProcessFuture} represents the result of a submitted process. In
+ * addition to the {@link Future} methods, it is possible to register
+ * {@link ProcessCallback} objects, which will be notified about the completion
+ * of the process. Thus it is not necessary to block a thread for every
+ * submitted process. <br/><br/>
+ * 
+ * A process can be cancelled as long as it has not been finished. A waiting
+ * process is removed from the queue of its manager, a running process is
+ * cancelled only if the interruption is permitted: Its current request is
+ * aborted and its connection is released. The registered
+ * {@code ProcessCallback} objects are notified by means of a
+ * {@link java.util.concurrent.CancellationException}. <br/><br/>
+ * 
+ * <i>Annotation:</i> In contrast to the synchronous execution methods, which
+ * return {@code null}, the {@code get} methods throw an
+ * {@link java.util.concurrent.ExecutionException} if the process was not
+ * successful. It wraps the failure cause, which is a
+ * {@link java.util.concurrent.TimeoutException} if the <i>Deadline</i> of the
+ * process has expired. If the process has been cancelled, they throw a
+ * {@code CancellationException}.
+ * 
+ * @author Tobias Schlecht
+ * 
+ * @param <R> The type of the corresponding {@link ProcessReport}
+ */
+public interface ProcessFuture<R extends ProcessReport> extends Future<R>
+{
+	/**
+	 * Registers the given {@link ProcessCallback}. If the process has already
+	 * been finished, the {@code ProcessCallback} will be notified immediately
+	 * by the invoking thread.
+	 * 
+	 * @param processCallback The {@code ProcessCallback} to be registered
+	 */
+	void addCallback(ProcessCallback<? super R> processCallback);
+}
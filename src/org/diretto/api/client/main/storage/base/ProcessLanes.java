@@ -0,0 +1,260 @@
+package org.diretto.api.client.main.storage.base;
+
+import java.util.Locale;
+
+import org.apache.commons.configuration.XMLConfiguration;
+
+/**
+ * {@code ProcessLanes} separate the processes of a manager by the size of
+ * their content into a <i>Small Lane</i> and a <i>Large Lane</i>, which are
+ * two {@link ProcessExecutor} objects with their own number of threads.
+ * <br/><br/>
+ * 
+ * A process whose content is larger than the <i>Size Threshold</i> is
+ * executed in the <i>Large Lane</i>. All other processes, including those
+ * whose size is unknown, are executed in the <i>Small Lane</i>. Hence a few
+ * large transfers cannot occupy all threads while many small transfers are
+ * waiting. If the <i>Size Threshold</i> is {@code 0}, there is only a single
+ * lane for all processes. <br/><br/>
+ * 
+ * If the {@link ExecutionMode} is {@link ExecutionMode#VIRTUAL}, the number
+ * of threads of the <i>Small Lane</i> is the configured <i>Max In
+ * Flight</i> value instead of the number of parallel processes of the
+ * manager, so that thousands of slow transfers can be open at once. If the
+ * running <i>Java Runtime Environment</i> does not support virtual threads,
+ * platform threads are used instead. <br/><br/>
+ * 
+ * Both lanes record the queue wait of their processes by means of a shared
+ * {@link LatencyHistogram}.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class ProcessLanes
+{
+	private final long sizeThreshold;
+	private final ExecutionMode executionMode;
+	private final LatencyHistogram queueWaitHistogram = new LatencyHistogram();
+	private final ProcessExecutor smallLaneExecutor;
+	private final ProcessExecutor largeLaneExecutor;
+
+	/**
+	 * Constructs {@link ProcessLanes}.
+	 * 
+	 * @param maxParallelSmallProcesses The number of threads of the <i>Small
+	 *        Lane</i>
+	 * @param maxParallelLargeProcesses The number of threads of the <i>Large
+	 *        Lane</i>
+	 * @param sizeThreshold The <i>Size Threshold</i> in {@code Bytes} or
+	 *        {@code 0} if there should be only a single lane
+	 * @param agingInterval The <i>Aging Interval</i> of both lanes in
+	 *        {@code milliseconds}
+	 * @param executionMode The {@code ExecutionMode} of both lanes
+	 */
+	public ProcessLanes(int maxParallelSmallProcesses, int maxParallelLargeProcesses, long sizeThreshold, long agingInterval, ExecutionMode executionMode)
+	{
+		if(sizeThreshold < 0L || (sizeThreshold > 0L && maxParallelLargeProcesses < 1))
+		{
+			throw new IllegalArgumentException("The process lanes are invalid.");
+		}
+
+		this.sizeThreshold = sizeThreshold;
+		this.executionMode = executionMode;
+
+		smallLaneExecutor = new ProcessExecutor(maxParallelSmallProcesses, agingInterval, executionMode, queueWaitHistogram);
+
+		if(sizeThreshold > 0L)
+		{
+			largeLaneExecutor = new ProcessExecutor(maxParallelLargeProcesses, agingInterval, executionMode, queueWaitHistogram);
+		}
+		else
+		{
+			largeLaneExecutor = null;
+		}
+	}
+
+	/**
+	 * Creates {@link ProcessLanes} from the {@code scheduling} element of the
+	 * given configuration key.
+	 * 
+	 * @param xmlConfiguration The {@code XMLConfiguration} object
+	 * @param configurationKey The configuration key (e.g. {@code upload})
+	 * @param maxParallelSmallProcesses The number of threads of the <i>Small
+	 *        Lane</i> with platform threads
+	 * @param storageLogger The {@code StorageLogger} of the manager
+	 * @return The corresponding {@code ProcessLanes}
+	 */
+	public static ProcessLanes createProcessLanes(XMLConfiguration xmlConfiguration, String configurationKey, int maxParallelSmallProcesses, StorageLogger storageLogger)
+	{
+		int maxParallelLargeProcesses = xmlConfiguration.getInt(configurationKey + "/scheduling/max-parallel-large");
+		long sizeThreshold = xmlConfiguration.getLong(configurationKey + "/scheduling/size-threshold");
+		long agingInterval = xmlConfiguration.getLong(configurationKey + "/scheduling/aging-interval");
+		ExecutionMode executionMode = ExecutionMode.valueOf(xmlConfiguration.getString(configurationKey + "/scheduling/execution-mode").trim().toUpperCase(Locale.ENGLISH));
+
+		if(!executionMode.isSupported())
+		{
+			storageLogger.log(StorageLogLevel.WARN, ProcessLanes.class, "The execution mode \"" + executionMode + "\" is not supported. The execution mode \"" + ExecutionMode.PLATFORM + "\" is used instead.");
+
+			executionMode = ExecutionMode.PLATFORM;
+		}
+
+		if(executionMode == ExecutionMode.VIRTUAL)
+		{
+			maxParallelSmallProcesses = xmlConfiguration.getInt(configurationKey + "/scheduling/max-in-flight");
+		}
+
+		return new ProcessLanes(maxParallelSmallProcesses, maxParallelLargeProcesses, sizeThreshold, agingInterval, executionMode);
+	}
+
+	/**
+	 * Returns the {@link ExecutionMode} of the lanes.
+	 * 
+	 * @return The {@code ExecutionMode}
+	 */
+	public ExecutionMode getExecutionMode()
+	{
+		return executionMode;
+	}
+
+	/**
+	 * Returns whether there is a <i>Large Lane</i> besides the <i>Small
+	 * Lane</i>.
+	 * 
+	 * @return {@code true} if there is a <i>Large Lane</i>; otherwise
+	 *         {@code false}
+	 */
+	public boolean hasLargeLane()
+	{
+		return largeLaneExecutor != null;
+	}
+
+	/**
+	 * Returns whether a process with the given content size belongs to the
+	 * <i>Large Lane</i>.
+	 * 
+	 * @param size The size of the content in {@code Bytes} or {@code -1} if
+	 *        it is unknown
+	 * @return {@code true} if the process belongs to the <i>Large Lane</i>;
+	 *         otherwise {@code false}
+	 */
+	public boolean isLarge(long size)
+	{
+		return largeLaneExecutor != null && size > sizeThreshold;
+	}
+
+	/**
+	 * Returns the total number of threads of both lanes.
+	 * 
+	 * @return The total number of threads
+	 */
+	public int getMaxParallelProcesses()
+	{
+		int maxParallelProcesses = smallLaneExecutor.getCorePoolSize();
+
+		if(largeLaneExecutor != null)
+		{
+			maxParallelProcesses += largeLaneExecutor.getCorePoolSize();
+		}
+
+		return maxParallelProcesses;
+	}
+
+	/**
+	 * Returns the number of processes which are waiting in both lanes.
+	 * 
+	 * @return The number of waiting processes
+	 */
+	public int getQueuedCount()
+	{
+		int queuedCount = smallLaneExecutor.getQueue().size();
+
+		if(largeLaneExecutor != null)
+		{
+			queuedCount += largeLaneExecutor.getQueue().size();
+		}
+
+		return queuedCount;
+	}
+
+	/**
+	 * Returns the {@link LatencyHistogram}, which records the time that the
+	 * processes of both lanes have waited for a thread.
+	 * 
+	 * @return The {@code LatencyHistogram} of the queue wait
+	 */
+	public LatencyHistogram getQueueWaitHistogram()
+	{
+		return queueWaitHistogram;
+	}
+
+	/**
+	 * Executes the given process in the lane which corresponds to the given
+	 * content size.
+	 * 
+	 * @param runnable The process
+	 * @param processPriority The {@code ProcessPriority} of the process
+	 * @param size The size of the content in {@code Bytes} or {@code -1} if
+	 *        it is unknown
+	 */
+	public void execute(Runnable runnable, ProcessPriority processPriority, long size)
+	{
+		if(isLarge(size))
+		{
+			largeLaneExecutor.execute(runnable, processPriority);
+		}
+		else
+		{
+			smallLaneExecutor.execute(runnable, processPriority);
+		}
+	}
+
+	/**
+	 * Removes the given waiting process from the queue of its lane.
+	 * 
+	 * @param runnable The waiting process
+	 * @return {@code true} if the process has been removed; otherwise
+	 *         {@code false}
+	 */
+	public boolean remove(Runnable runnable)
+	{
+		if(smallLaneExecutor.remove(runnable))
+		{
+			return true;
+		}
+
+		return largeLaneExecutor != null && largeLaneExecutor.remove(runnable);
+	}
+
+	/**
+	 * Changes the {@link ProcessPriority} of the given waiting process within
+	 * the queue of its lane.
+	 * 
+	 * @param runnable The waiting process
+	 * @param processPriority The new {@code ProcessPriority} of the process
+	 * @return {@code true} if the process has been waiting and is reordered;
+	 *         otherwise {@code false}
+	 */
+	public boolean reprioritize(Runnable runnable, ProcessPriority processPriority)
+	{
+		if(smallLaneExecutor.reprioritize(runnable, processPriority))
+		{
+			return true;
+		}
+
+		return largeLaneExecutor != null && largeLaneExecutor.reprioritize(runnable, processPriority);
+	}
+
+	/**
+	 * Shuts down both lanes. Running processes are finished, but waiting
+	 * processes are not started anymore and no further processes are
+	 * accepted.
+	 */
+	public void shutdown()
+	{
+		smallLaneExecutor.shutdown();
+
+		if(largeLaneExecutor != null)
+		{
+			largeLaneExecutor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package org.diretto.api.client.main.storage.base;
+
+/**
+ * A {@code ProcessPriority} represents the priority of a {@link StorageProcess}
+ * and provides a description of this {@code ProcessPriority}. <br/><br/>
+ * 
+ * Waiting processes with a higher {@code ProcessPriority} are executed first.
+ * In order to prevent the starvation of processes with a lower
+ * {@code ProcessPriority}, every waiting process ages: A process is preferred
+ * to a process with a priority which is one level higher, if it has been
+ * waiting one <i>Aging Interval</i> longer (see {@link ProcessExecutor}).
+ * 
+ * @author Tobias Schlecht
+ */
+public enum ProcessPriority
+{
+	LOW(0, "The process has a low priority (e.g. a background batch)."),
+
+	NORMAL(1, "The process has a normal priority."),
+
+	HIGH(2, "The process has a high priority (e.g. an interactive request).");
+
+	private final int level;
+	private final String description;
+
+	/**
+	 * Constructs a {@link ProcessPriority}.
+	 * 
+	 * @param level The level of the priority
+	 * @param description The description
+	 */
+	ProcessPriority(int level, String description)
+	{
+		this.level = level;
+		this.description = description;
+	}
+
+	/**
+	 * Returns the level of this {@link ProcessPriority}. A higher level
+	 * represents a higher priority.
+	 * 
+	 * @return The level
+	 */
+	public int getLevel()
+	{
+		return level;
+	}
+
+	/**
+	 * Returns the description for this {@link ProcessPriority}.
+	 * 
+	 * @return The description
+	 */
+	public String getDescription()
+	{
+		return description;
+	}
+}
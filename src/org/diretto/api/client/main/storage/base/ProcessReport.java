@@ -8,7 +8,11 @@ import org.diretto.api.client.main.core.entities.AttachmentID;
 /**
  * This interface represents a {@code ProcessReport}. All classes, which are
  * implementing this interface, are able to provide information about a finished
- * process.
+ * process. <br/><br/>
+ * 
+ * The durations of the phases are described by the {@link ProcessTimings}.
+ * They are provided in {@code nanoseconds}, so that short phases are not
+ * rounded to zero.
  * 
  * @author Tobias Schlecht
  */
@@ -41,4 +45,58 @@ public interface ProcessReport
 	 * @return The file {@code URL}
 	 */
 	URL getFileURL();
+
+	/**
+	 * Returns the time which the process has waited for a thread of the
+	 * manager.
+	 * 
+	 * @return The <i>Queue Wait</i> in {@code nanoseconds} or {@code -1} if
+	 *         it has not been recorded
+	 */
+	long getQueueWaitDuration();
+
+	/**
+	 * Returns the time which has been necessary to lease or establish the
+	 * connection of the request.
+	 * 
+	 * @return The <i>Connect</i> duration in {@code nanoseconds} or {@code -1}
+	 *         if it has not been recorded
+	 */
+	long getConnectDuration();
+
+	/**
+	 * Returns the time from the start of the request until the head of the
+	 * response has been received.
+	 * 
+	 * @return The <i>Time To First Byte</i> in {@code nanoseconds} or
+	 *         {@code -1} if it has not been recorded
+	 */
+	long getTimeToFirstByte();
+
+	/**
+	 * Returns the time which has been spent on transferring the content of
+	 * the file.
+	 * 
+	 * @return The <i>Transfer</i> duration in {@code nanoseconds} or
+	 *         {@code -1} if it has not been recorded
+	 */
+	long getTransferDuration();
+
+	/**
+	 * Returns the time which the server has needed to answer the completely
+	 * sent request.
+	 * 
+	 * @return The <i>Server Response</i> duration in {@code nanoseconds} or
+	 *         {@code -1} if it has not been recorded
+	 */
+	long getServerResponseDuration();
+
+	/**
+	 * Returns the time which has been necessary to publish the file, i.e. to
+	 * release the lock of the uploaded attachment.
+	 * 
+	 * @return The <i>Publish</i> duration in {@code nanoseconds} or {@code -1}
+	 *         if the process has no publish phase
+	 */
+	long getPublishDuration();
 }
@@ -0,0 +1,80 @@
+package org.diretto.api.client.main.storage.base;
+
+/**
+ * A {@code ProcessTimeouts} object contains the timeouts of a
+ * {@link StorageProcess}. The default {@code ProcessTimeouts} are loaded from
+ * the configuration of the {@code StorageService}, but they can be overridden
+ * for every single {@code StorageProcess}. <br/><br/>
+ * 
+ * <ul>
+ * <li>The <i>Connect Timeout</i> limits the establishment of a connection.</li>
+ * <li>The <i>Socket Timeout</i> limits the inactivity between two consecutive
+ * data packets.</li>
+ * <li>The <i>Deadline</i> limits the total duration of the process, starting
+ * with its execution. If the <i>Deadline</i> expires, the process is aborted
+ * and its thread is released.</li>
+ * </ul>
+ * 
+ * All timeouts are specified in {@code milliseconds}. A timeout of {@code 0}
+ * is interpreted as infinite.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class ProcessTimeouts
+{
+	private final int connectTimeout;
+	private final int socketTimeout;
+	private final long deadline;
+
+	/**
+	 * Constructs a {@link ProcessTimeouts} object.
+	 * 
+	 * @param connectTimeout The <i>Connect Timeout</i> in {@code milliseconds}
+	 *        or {@code 0}
+	 * @param socketTimeout The <i>Socket Timeout</i> in {@code milliseconds}
+	 *        or {@code 0}
+	 * @param deadline The <i>Deadline</i> in {@code milliseconds} or
+	 *        {@code 0}
+	 */
+	public ProcessTimeouts(int connectTimeout, int socketTimeout, long deadline)
+	{
+		if(connectTimeout < 0 || socketTimeout < 0 || deadline < 0L)
+		{
+			throw new IllegalArgumentException("The timeouts must not be negative.");
+		}
+
+		this.connectTimeout = connectTimeout;
+		this.socketTimeout = socketTimeout;
+		this.deadline = deadline;
+	}
+
+	/**
+	 * Returns the <i>Connect Timeout</i> in {@code milliseconds}.
+	 * 
+	 * @return The <i>Connect Timeout</i> or {@code 0} if it is infinite
+	 */
+	public int getConnectTimeout()
+	{
+		return connectTimeout;
+	}
+
+	/**
+	 * Returns the <i>Socket Timeout</i> in {@code milliseconds}.
+	 * 
+	 * @return The <i>Socket Timeout</i> or {@code 0} if it is infinite
+	 */
+	public int getSocketTimeout()
+	{
+		return socketTimeout;
+	}
+
+	/**
+	 * Returns the <i>Deadline</i> in {@code milliseconds}.
+	 * 
+	 * @return The <i>Deadline</i> or {@code 0} if it is infinite
+	 */
+	public long getDeadline()
+	{
+		return deadline;
+	}
+}
@@ -0,0 +1,332 @@
+package org.diretto.api.client.main.storage.base;
+
+import java.io.IOException;
+
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * {@code ProcessTimings} record the points in time at which a process passes
+ * from one phase to the next one, so that the reports can break the elapsed
+ * time down into the following phases:
+ * 
+ * <ul>
+ * <li><i>Queue Wait</i>: From the submission until a thread of the manager
+ * starts the process. If the process is submitted again, the waits are
+ * added up.</li>
+ * <li><i>Connect</i>: From the start of the request until a pooled or newly
+ * established connection is ready to send it.</li>
+ * <li><i>Time To First Byte</i>: From the start of the request until the
+ * head of the response has been received.</li>
+ * <li><i>Transfer</i>: The time which has been spent on sending the body of
+ * the request and on receiving the body of the response.</li>
+ * <li><i>Server Response</i>: From the completely sent request until the
+ * head of the response has been received.</li>
+ * <li><i>Publish</i>: The release of the lock of an uploaded attachment.</li>
+ * </ul>
+ * 
+ * The request phases refer to the last attempt of the request. Every point in
+ * time is kept in a {@code volatile long} field, so that the recording does
+ * not allocate anything and the points can be set by the I/O threads as well.
+ * <br/><br/>
+ * 
+ * The points at which the connection is ready cannot be observed by the
+ * processes themselves. Hence the {@code ProcessTimings} of a process are
+ * stored as attribute of its {@link HttpContext} and are marked by the
+ * {@link #CONNECT_INTERCEPTOR} or the {@code StorageTransport}.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class ProcessTimings
+{
+	/**
+	 * The name of the {@link HttpContext} attribute, which contains the
+	 * {@link ProcessTimings} of the process.
+	 */
+	public static final String HTTP_CONTEXT_ATTRIBUTE = "org.diretto.api.client.main.storage.process-timings";
+
+	/**
+	 * The {@link HttpRequestInterceptor}, which marks the point in time at
+	 * which the connection is ready to send the request. The interceptors are
+	 * invoked after the connection has been leased and established.
+	 */
+	public static final HttpRequestInterceptor CONNECT_INTERCEPTOR = new HttpRequestInterceptor()
+	{
+		@Override
+		public void process(HttpRequest httpRequest, HttpContext httpContext) throws HttpException, IOException
+		{
+			markConnected(httpContext);
+		}
+	};
+
+	private volatile long submissionTime = 0L;
+	private volatile long queueWaitDuration = -1L;
+	private volatile long requestStartTime = 0L;
+	private volatile long connectedTime = 0L;
+	private volatile long requestSentTime = 0L;
+	private volatile long responseTime = 0L;
+	private volatile long transferEndTime = 0L;
+	private volatile long publishStartTime = 0L;
+	private volatile long publishEndTime = 0L;
+
+	/**
+	 * Marks the point in time at which the connection of the request is ready
+	 * if the given {@link HttpContext} contains {@link ProcessTimings}.
+	 * 
+	 * @param httpContext The {@code HttpContext} of the request or
+	 *        {@code null}
+	 */
+	public static void markConnected(HttpContext httpContext)
+	{
+		if(httpContext == null)
+		{
+			return;
+		}
+
+		Object processTimings = httpContext.getAttribute(HTTP_CONTEXT_ATTRIBUTE);
+
+		if(processTimings instanceof ProcessTimings)
+		{
+			((ProcessTimings) processTimings).markConnected(System.nanoTime());
+		}
+	}
+
+	/**
+	 * Marks the submission of the process to its manager.
+	 */
+	public void markSubmitted()
+	{
+		submissionTime = System.nanoTime();
+	}
+
+	/**
+	 * Marks the start of the process by a thread of the manager, which ends
+	 * the <i>Queue Wait</i> since the previous submission.
+	 */
+	public void markStarted()
+	{
+		if(submissionTime == 0L)
+		{
+			return;
+		}
+
+		long queueWait = System.nanoTime() - submissionTime;
+
+		queueWaitDuration = Math.max(queueWaitDuration, 0L) + queueWait;
+		submissionTime = 0L;
+	}
+
+	/**
+	 * Marks the start of an attempt of the request. The points in time of the
+	 * previous attempt are discarded.
+	 */
+	public void markRequestStarted()
+	{
+		connectedTime = 0L;
+		requestSentTime = 0L;
+		responseTime = 0L;
+		transferEndTime = 0L;
+
+		requestStartTime = System.nanoTime();
+	}
+
+	/**
+	 * Marks the point in time at which the connection is ready to send the
+	 * request, unless it has already been marked for the current attempt.
+	 * 
+	 * @param time The point in time in {@code nanoseconds}
+	 */
+	public void markConnected(long time)
+	{
+		if(connectedTime == 0L)
+		{
+			connectedTime = time;
+		}
+	}
+
+	/**
+	 * Marks the point in time at which the request, including its body, has
+	 * been sent completely. A point in time before the start of the current
+	 * attempt is ignored.
+	 * 
+	 * @param time The point in time in {@code nanoseconds} or {@code 0} if it
+	 *        is unknown
+	 */
+	public void markRequestSent(long time)
+	{
+		requestSentTime = (time != 0L && time - requestStartTime >= 0L) ? time : 0L;
+	}
+
+	/**
+	 * Marks the receipt of the head of the response.
+	 */
+	public void markResponseReceived()
+	{
+		responseTime = System.nanoTime();
+	}
+
+	/**
+	 * Marks the end of the transfer, i.e. the receipt of the complete body of
+	 * the response.
+	 */
+	public void markTransferEnded()
+	{
+		transferEndTime = System.nanoTime();
+	}
+
+	/**
+	 * Marks the start of the publishing.
+	 */
+	public void markPublishStarted()
+	{
+		publishStartTime = System.nanoTime();
+	}
+
+	/**
+	 * Marks the end of the publishing.
+	 */
+	public void markPublishEnded()
+	{
+		publishEndTime = System.nanoTime();
+	}
+
+	/**
+	 * Returns the point in time at which the connection of the last attempt
+	 * was ready, which is the start of the upload of the request body.
+	 * 
+	 * @return The point in time in {@code nanoseconds}
+	 */
+	public long getConnectedTime()
+	{
+		return connectedTime != 0L ? connectedTime : requestStartTime;
+	}
+
+	/**
+	 * Returns the point in time at which the request of the last attempt had
+	 * been sent completely.
+	 * 
+	 * @return The point in time in {@code nanoseconds}
+	 */
+	public long getRequestSentTime()
+	{
+		return requestSentTime != 0L ? requestSentTime : getConnectedTime();
+	}
+
+	/**
+	 * Returns the point in time at which the head of the response of the last
+	 * attempt has been received, which is the start of the download of the
+	 * response body.
+	 * 
+	 * @return The point in time in {@code nanoseconds}
+	 */
+	public long getResponseTime()
+	{
+		return responseTime;
+	}
+
+	/**
+	 * Returns the point in time at which the transfer has been finished.
+	 * 
+	 * @return The point in time in {@code nanoseconds}
+	 */
+	public long getTransferEndTime()
+	{
+		return transferEndTime != 0L ? transferEndTime : responseTime;
+	}
+
+	/**
+	 * Returns the duration of the <i>Queue Wait</i>.
+	 * 
+	 * @return The duration in {@code nanoseconds} or {@code -1} if it has not
+	 *         been recorded
+	 */
+	public long getQueueWaitDuration()
+	{
+		return queueWaitDuration;
+	}
+
+	/**
+	 * Returns the duration of the <i>Connect</i> phase.
+	 * 
+	 * @return The duration in {@code nanoseconds} or {@code -1} if it has not
+	 *         been recorded
+	 */
+	public long getConnectDuration()
+	{
+		return duration(requestStartTime, connectedTime);
+	}
+
+	/**
+	 * Returns the <i>Time To First Byte</i>.
+	 * 
+	 * @return The duration in {@code nanoseconds} or {@code -1} if it has not
+	 *         been recorded
+	 */
+	public long getTimeToFirstByte()
+	{
+		return duration(requestStartTime, responseTime);
+	}
+
+	/**
+	 * Returns the duration of the <i>Transfer</i> phase.
+	 * 
+	 * @return The duration in {@code nanoseconds} or {@code -1} if it has not
+	 *         been recorded
+	 */
+	public long getTransferDuration()
+	{
+		if(requestStartTime == 0L || responseTime == 0L)
+		{
+			return -1L;
+		}
+
+		return (getRequestSentTime() - getConnectedTime()) + (getTransferEndTime() - responseTime);
+	}
+
+	/**
+	 * Returns the duration of the <i>Server Response</i> phase.
+	 * 
+	 * @return The duration in {@code nanoseconds} or {@code -1} if it has not
+	 *         been recorded
+	 */
+	public long getServerResponseDuration()
+	{
+		if(requestStartTime == 0L || responseTime == 0L)
+		{
+			return -1L;
+		}
+
+		return responseTime - getRequestSentTime();
+	}
+
+	/**
+	 * Returns the duration of the <i>Publish</i> phase.
+	 * 
+	 * @return The duration in {@code nanoseconds} or {@code -1} if it has not
+	 *         been recorded
+	 */
+	public long getPublishDuration()
+	{
+		return duration(publishStartTime, publishEndTime);
+	}
+
+	/**
+	 * Returns the duration between the given points in time.
+	 * 
+	 * @param fromTime The first point in time or {@code 0}
+	 * @param toTime The second point in time or {@code 0}
+	 * @return The duration in {@code nanoseconds} or {@code -1} if one of the
+	 *         points in time has not been recorded
+	 */
+	private static long duration(long fromTime, long toTime)
+	{
+		if(fromTime == 0L || toTime == 0L)
+		{
+			return -1L;
+		}
+
+		return Math.max(toTime - fromTime, 0L);
+	}
+}
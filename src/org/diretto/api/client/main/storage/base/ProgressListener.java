@@ -0,0 +1,27 @@
+package org.diretto.api.client.main.storage.base;
+
+/**
+ * A {@code ProgressListener} is notified about the progress of the data
+ * transmission of a {@link StorageProcess}, at which it has been registered.
+ * The notifications are throttled according to the {@link ProgressThrottle}
+ * of the corresponding manager, and a final notification is sent as soon as
+ * the process has been finished. <br/><br/>
+ * 
+ * <i>Annotation:</i> The method is invoked by the thread which transmits the
+ * content, which may be an I/O thread of the asynchronous engine. Hence the
+ * implementations must not block and should return quickly.
+ * 
+ * @author Tobias Schlecht
+ */
+public interface ProgressListener
+{
+	/**
+	 * Is invoked if the number of transmitted {@code Bytes} has changed.
+	 * 
+	 * @param storageProcess The corresponding {@code StorageProcess}
+	 * @param transferredBytes The number of transmitted {@code Bytes}
+	 * @param totalBytes The size of the content in {@code Bytes} or
+	 *        {@code -1} if it is unknown
+	 */
+	void progressChanged(StorageProcess<?> storageProcess, long transferredBytes, long totalBytes);
+}
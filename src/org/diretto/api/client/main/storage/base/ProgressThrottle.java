@@ -0,0 +1,80 @@
+package org.diretto.api.client.main.storage.base;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration.XMLConfiguration;
+
+/**
+ * A {@code ProgressThrottle} decides how often the {@link ProgressListener}
+ * objects of a process are notified. <br/><br/>
+ * 
+ * A notification is sent as soon as either the <i>Min Interval</i> has
+ * elapsed or the <i>Min Byte Delta</i> has been transmitted since the
+ * previous notification. A value of {@code 0} disables the corresponding
+ * criterion. If both criteria are disabled, every transmitted chunk is
+ * notified.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class ProgressThrottle
+{
+	private final long minInterval;
+	private final long minByteDelta;
+
+	/**
+	 * Constructs a {@link ProgressThrottle}.
+	 * 
+	 * @param minInterval The <i>Min Interval</i> in {@code milliseconds} or
+	 *        {@code 0}
+	 * @param minByteDelta The <i>Min Byte Delta</i> in {@code Bytes} or
+	 *        {@code 0}
+	 */
+	public ProgressThrottle(long minInterval, long minByteDelta)
+	{
+		if(minInterval < 0L || minByteDelta < 0L)
+		{
+			throw new IllegalArgumentException("The progress throttle is invalid.");
+		}
+
+		this.minInterval = TimeUnit.MILLISECONDS.toNanos(minInterval);
+		this.minByteDelta = minByteDelta;
+	}
+
+	/**
+	 * Creates a {@link ProgressThrottle}, which is loaded from the
+	 * {@code progress} element below the given configuration key.
+	 * 
+	 * @param xmlConfiguration The {@code XMLConfiguration} object (of the
+	 *        {@code StorageService})
+	 * @param configurationKey The key of the configuration element which
+	 *        contains the {@code progress} element (e.g. {@code upload})
+	 * @return The configured {@code ProgressThrottle}
+	 */
+	public static ProgressThrottle createProgressThrottle(XMLConfiguration xmlConfiguration, String configurationKey)
+	{
+		long minInterval = xmlConfiguration.getLong(configurationKey + "/progress/min-interval");
+		long minByteDelta = xmlConfiguration.getLong(configurationKey + "/progress/min-byte-delta");
+
+		return new ProgressThrottle(minInterval, minByteDelta);
+	}
+
+	/**
+	 * Returns whether a notification is due.
+	 * 
+	 * @param elapsedTime The time since the previous notification in
+	 *        {@code nanoseconds}
+	 * @param byteDelta The number of {@code Bytes} which have been
+	 *        transmitted since the previous notification
+	 * @return {@code true} if the {@code ProgressListener} objects should be
+	 *         notified; otherwise {@code false}
+	 */
+	public boolean isDue(long elapsedTime, long byteDelta)
+	{
+		if(minInterval == 0L && minByteDelta == 0L)
+		{
+			return true;
+		}
+
+		return (minInterval > 0L && elapsedTime >= minInterval) || (minByteDelta > 0L && Math.abs(byteDelta) >= minByteDelta);
+	}
+}
@@ -0,0 +1,233 @@
+package org.diretto.api.client.main.storage.base;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@code ProgressTracker} keeps the number of transmitted {@code Bytes} of
+ * a {@link StorageProcess} in atomic fields, so that the progress can be
+ * updated by several transmitting threads and polled by any number of
+ * threads without locking. <br/><br/>
+ * 
+ * Additionally the registered {@link ProgressListener} objects are notified
+ * according to the {@link ProgressThrottle}. Only the thread which succeeds
+ * in claiming a due notification sends it, so that the transmitting threads
+ * neither block each other nor send duplicate notifications. As long as no
+ * {@code ProgressListener} is registered, an update costs a single atomic
+ * addition.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class ProgressTracker
+{
+	private final StorageProcess<?> storageProcess;
+	private final ProgressThrottle progressThrottle;
+	private final StorageLogger storageLogger;
+
+	private final List<ProgressListener> progressListeners = new CopyOnWriteArrayList<ProgressListener>();
+	private final AtomicLong transferredBytes = new AtomicLong(0L);
+	private final AtomicLong lastNotificationTime = new AtomicLong(System.nanoTime());
+
+	private volatile long totalBytes = -1L;
+	private volatile long lastNotifiedBytes = 0L;
+
+	/**
+	 * Constructs a {@link ProgressTracker}.
+	 * 
+	 * @param storageProcess The corresponding {@code StorageProcess}
+	 * @param progressThrottle The {@code ProgressThrottle} of the
+	 *        notifications
+	 * @param storageLogger The {@code StorageLogger} to which failures of the
+	 *        {@code ProgressListener} objects are logged
+	 */
+	public ProgressTracker(StorageProcess<?> storageProcess, ProgressThrottle progressThrottle, StorageLogger storageLogger)
+	{
+		this.storageProcess = storageProcess;
+		this.progressThrottle = progressThrottle;
+		this.storageLogger = storageLogger;
+	}
+
+	/**
+	 * @see StorageProcess#addProgressListener(ProgressListener)
+	 */
+	public void addProgressListener(ProgressListener progressListener)
+	{
+		if(progressListener == null)
+		{
+			throw new NullPointerException();
+		}
+
+		progressListeners.add(progressListener);
+	}
+
+	/**
+	 * @see StorageProcess#removeProgressListener(ProgressListener)
+	 */
+	public void removeProgressListener(ProgressListener progressListener)
+	{
+		progressListeners.remove(progressListener);
+	}
+
+	/**
+	 * Returns the number of transmitted {@code Bytes}.
+	 * 
+	 * @return The number of transmitted {@code Bytes}
+	 */
+	public long getTransferredBytes()
+	{
+		return transferredBytes.get();
+	}
+
+	/**
+	 * Returns the size of the content.
+	 * 
+	 * @return The size of the content in {@code Bytes} or {@code -1} if it is
+	 *         unknown
+	 */
+	public long getTotalBytes()
+	{
+		return totalBytes;
+	}
+
+	/**
+	 * Sets the size of the content as soon as it is known.
+	 * 
+	 * @param totalBytes The size of the content in {@code Bytes} or
+	 *        {@code -1} if it is unknown
+	 */
+	public void setTotalBytes(long totalBytes)
+	{
+		this.totalBytes = totalBytes;
+	}
+
+	/**
+	 * Adds the given number of {@code Bytes} to the number of transmitted
+	 * {@code Bytes} and notifies the {@link ProgressListener} objects if a
+	 * notification is due.
+	 * 
+	 * @param count The number of additionally transmitted {@code Bytes}
+	 */
+	public void add(long count)
+	{
+		long currentTransferredBytes = transferredBytes.addAndGet(count);
+
+		notifyIfDue(currentTransferredBytes);
+	}
+
+	/**
+	 * Sets the number of transmitted {@code Bytes}, e.g. if the transmission
+	 * is restarted or resumed.
+	 * 
+	 * @param transferredBytes The number of transmitted {@code Bytes}
+	 */
+	public void set(long transferredBytes)
+	{
+		this.transferredBytes.set(transferredBytes);
+
+		notifyIfDue(transferredBytes);
+	}
+
+	/**
+	 * Returns the number of transmitted {@code Bytes} as percentage of the
+	 * size of the content, scaled to the given maximum percentage. If the size
+	 * of the content is unknown, the percentage is {@code 0}.
+	 * 
+	 * @param maxPercentage The percentage which corresponds to the complete
+	 *        content
+	 * @return The percentage between {@code 0} and {@code maxPercentage}
+	 */
+	public int getPercentage(int maxPercentage)
+	{
+		long currentTotalBytes = totalBytes;
+
+		if(currentTotalBytes <= 0L)
+		{
+			return 0;
+		}
+
+		double fraction = (double) transferredBytes.get() / (double) currentTotalBytes;
+
+		return (int) (Math.min(Math.max(fraction, 0.0d), 1.0d) * maxPercentage);
+	}
+
+	/**
+	 * Notifies the {@link ProgressListener} objects about the final number of
+	 * transmitted {@code Bytes}, independent of the {@link ProgressThrottle}.
+	 * This method has to be invoked as soon as the process has been finished.
+	 */
+	public void flush()
+	{
+		if(progressListeners.isEmpty())
+		{
+			return;
+		}
+
+		long currentTransferredBytes = transferredBytes.get();
+
+		if(currentTransferredBytes == lastNotifiedBytes)
+		{
+			return;
+		}
+
+		lastNotificationTime.set(System.nanoTime());
+		lastNotifiedBytes = currentTransferredBytes;
+
+		notifyProgressListeners(currentTransferredBytes);
+	}
+
+	/**
+	 * Notifies the {@link ProgressListener} objects if a notification is due
+	 * and no other thread has claimed it.
+	 * 
+	 * @param currentTransferredBytes The current number of transmitted
+	 *        {@code Bytes}
+	 */
+	private void notifyIfDue(long currentTransferredBytes)
+	{
+		if(progressListeners.isEmpty())
+		{
+			return;
+		}
+
+		long now = System.nanoTime();
+		long previousNotificationTime = lastNotificationTime.get();
+
+		if(!progressThrottle.isDue(now - previousNotificationTime, currentTransferredBytes - lastNotifiedBytes))
+		{
+			return;
+		}
+
+		if(!lastNotificationTime.compareAndSet(previousNotificationTime, now))
+		{
+			return;
+		}
+
+		lastNotifiedBytes = currentTransferredBytes;
+
+		notifyProgressListeners(currentTransferredBytes);
+	}
+
+	/**
+	 * Notifies all registered {@link ProgressListener} objects.
+	 * 
+	 * @param currentTransferredBytes The current number of transmitted
+	 *        {@code Bytes}
+	 */
+	private void notifyProgressListeners(long currentTransferredBytes)
+	{
+		long currentTotalBytes = totalBytes;
+
+		for(ProgressListener progressListener : progressListeners)
+		{
+			try
+			{
+				progressListener.progressChanged(storageProcess, currentTransferredBytes, currentTotalBytes);
+			}
+			catch(RuntimeException e)
+			{
+				storageLogger.log(StorageLogLevel.ERROR, ProgressTracker.class, "A progress listener has thrown an exception.", e);
+			}
+		}
+	}
+}
@@ -0,0 +1,210 @@
+package org.diretto.api.client.main.storage.base;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.commons.configuration.XMLConfiguration;
+
+/**
+ * A {@code RetryPolicy} decides whether a failed request of a process should
+ * be repeated and how long the process has to wait before the next attempt.
+ * <br/><br/>
+ * 
+ * The waiting time grows exponentially with the number of failed attempts,
+ * starting with the <i>Backoff Base</i> and limited by the <i>Backoff
+ * Cap</i>. A random fraction of the waiting time, which is limited by the
+ * <i>Jitter</i>, is subtracted, so that concurrent processes which failed at
+ * the same time do not repeat their requests simultaneously. <br/><br/>
+ * 
+ * A request is only repeated if its response has one of the retryable status
+ * codes or if it failed with an instance of one of the retryable exception
+ * classes.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class RetryPolicy
+{
+	private static final Random RANDOM = new Random();
+
+	private final int maxAttempts;
+	private final long backoffBase;
+	private final long backoffCap;
+	private final double jitter;
+	private final Set<Integer> retryableStatusCodes;
+	private final List<Class<?>> retryableExceptions;
+
+	/**
+	 * Constructs a {@link RetryPolicy}.
+	 * 
+	 * @param maxAttempts The maximum number of attempts (including the first
+	 *        one)
+	 * @param backoffBase The waiting time after the first failed attempt in
+	 *        {@code milliseconds}
+	 * @param backoffCap The maximum waiting time in {@code milliseconds}
+	 * @param jitter The maximum fraction of the waiting time which is
+	 *        randomly subtracted (between {@code 0.0} and {@code 1.0})
+	 * @param retryableStatusCodes The retryable status codes
+	 * @param retryableExceptions The retryable exception classes
+	 */
+	public RetryPolicy(int maxAttempts, long backoffBase, long backoffCap, double jitter, Set<Integer> retryableStatusCodes, List<Class<?>> retryableExceptions)
+	{
+		if(maxAttempts < 1 || backoffBase < 0L || backoffCap < backoffBase || jitter < 0.0d || jitter > 1.0d)
+		{
+			throw new IllegalArgumentException("The retry policy is invalid.");
+		}
+
+		this.maxAttempts = maxAttempts;
+		this.backoffBase = backoffBase;
+		this.backoffCap = backoffCap;
+		this.jitter = jitter;
+		this.retryableStatusCodes = Collections.unmodifiableSet(new HashSet<Integer>(retryableStatusCodes));
+		this.retryableExceptions = Collections.unmodifiableList(new ArrayList<Class<?>>(retryableExceptions));
+	}
+
+	/**
+	 * Creates a {@link RetryPolicy}, which is loaded from the {@code retry}
+	 * element below the given configuration key.
+	 * 
+	 * @param xmlConfiguration The {@code XMLConfiguration} object (of the
+	 *        {@code StorageService})
+	 * @param configurationKey The key of the configuration element which
+	 *        contains the {@code retry} element (e.g. {@code upload})
+	 * @return The configured {@code RetryPolicy}
+	 */
+	public static RetryPolicy createRetryPolicy(XMLConfiguration xmlConfiguration, String configurationKey)
+	{
+		Set<Integer> retryableStatusCodes = new HashSet<Integer>();
+
+		for(String statusCode : xmlConfiguration.getStringArray(configurationKey + "/retry/retryable-status-codes"))
+		{
+			if(statusCode.trim().length() > 0)
+			{
+				retryableStatusCodes.add(Integer.valueOf(statusCode.trim()));
+			}
+		}
+
+		List<Class<?>> retryableExceptions = new ArrayList<Class<?>>();
+
+		for(String exceptionClassName : xmlConfiguration.getStringArray(configurationKey + "/retry/retryable-exceptions"))
+		{
+			if(exceptionClassName.trim().length() > 0)
+			{
+				try
+				{
+					retryableExceptions.add(Class.forName(exceptionClassName.trim()));
+				}
+				catch(ClassNotFoundException e)
+				{
+					throw new IllegalArgumentException("The retryable exception class \"" + exceptionClassName.trim() + "\" does not exist.", e);
+				}
+			}
+		}
+
+		int maxAttempts = xmlConfiguration.getInt(configurationKey + "/retry/max-attempts");
+		long backoffBase = xmlConfiguration.getLong(configurationKey + "/retry/backoff-base");
+		long backoffCap = xmlConfiguration.getLong(configurationKey + "/retry/backoff-cap");
+		double jitter = xmlConfiguration.getDouble(configurationKey + "/retry/jitter");
+
+		return new RetryPolicy(maxAttempts, backoffBase, backoffCap, jitter, retryableStatusCodes, retryableExceptions);
+	}
+
+	/**
+	 * Returns the maximum number of attempts (including the first one).
+	 * 
+	 * @return The maximum number of attempts
+	 */
+	public int getMaxAttempts()
+	{
+		return maxAttempts;
+	}
+
+	/**
+	 * Returns whether a request, which has been answered with the given status
+	 * code, should be repeated after the given number of attempts.
+	 * 
+	 * @param statusCode The status code of the response
+	 * @param attempts The number of attempts so far
+	 * @return {@code true} if the request should be repeated; otherwise
+	 *         {@code false}
+	 */
+	public boolean isRetryable(int statusCode, int attempts)
+	{
+		return attempts < maxAttempts && retryableStatusCodes.contains(statusCode);
+	}
+
+	/**
+	 * Returns whether a request, which has failed with the given
+	 * {@link Throwable}, should be repeated after the given number of
+	 * attempts.
+	 * 
+	 * @param cause The cause of the failure
+	 * @param attempts The number of attempts so far
+	 * @return {@code true} if the request should be repeated; otherwise
+	 *         {@code false}
+	 */
+	public boolean isRetryable(Throwable cause, int attempts)
+	{
+		if(attempts >= maxAttempts)
+		{
+			return false;
+		}
+
+		for(Class<?> retryableException : retryableExceptions)
+		{
+			if(retryableException.isInstance(cause))
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns the waiting time after the given number of failed attempts in
+	 * {@code milliseconds}.
+	 * 
+	 * @param attempts The number of failed attempts
+	 * @return The waiting time in {@code milliseconds}
+	 */
+	public long getBackoffDelay(int attempts)
+	{
+		long backoffDelay = backoffBase;
+
+		for(int i = 1; i < attempts && backoffDelay < backoffCap; i++)
+		{
+			backoffDelay *= 2L;
+		}
+
+		backoffDelay = Math.min(backoffDelay, backoffCap);
+
+		return backoffDelay - Math.round(backoffDelay * jitter * RANDOM.nextDouble());
+	}
+
+	/**
+	 * Blocks the invoking thread for the waiting time after the given number
+	 * of failed attempts.
+	 * 
+	 * @param attempts The number of failed attempts
+	 * @throws InterruptedIOException If the thread has been interrupted while
+	 *         waiting
+	 */
+	public void backoff(int attempts) throws InterruptedIOException
+	{
+		try
+		{
+			Thread.sleep(getBackoffDelay(attempts));
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+
+			throw new InterruptedIOException("The backoff before the next attempt has been interrupted.");
+		}
+	}
+}
@@ -0,0 +1,179 @@
+package org.diretto.api.client.main.storage.base;
+
+/**
+ * A {@code StorageEvent} is an immutable log entry of the
+ * {@code StorageService}. Besides the message it carries structured fields
+ * (the {@code URL}, the status code, the number of {@code Bytes} and the
+ * duration), so that a {@link StorageEventListener} can evaluate the events
+ * without parsing the message.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class StorageEvent
+{
+	private final long timestamp;
+	private final StorageLogLevel level;
+	private final Class<?> source;
+	private final String message;
+	private final String url;
+	private final int statusCode;
+	private final long bytes;
+	private final long duration;
+	private final Throwable throwable;
+
+	/**
+	 * Constructs a {@link StorageEvent}.
+	 * 
+	 * @param timestamp The point in time of the event in {@code milliseconds}
+	 *        since the epoch
+	 * @param level The {@code StorageLogLevel}
+	 * @param source The class which has created the event
+	 * @param message The message
+	 * @param url The {@code URL} of the request or {@code null}
+	 * @param statusCode The status code of the response or {@code -1}
+	 * @param bytes The number of transmitted {@code Bytes} or {@code -1}
+	 * @param duration The duration in {@code nanoseconds} or {@code -1}
+	 * @param throwable The cause of the event or {@code null}
+	 */
+	public StorageEvent(long timestamp, StorageLogLevel level, Class<?> source, String message, String url, int statusCode, long bytes, long duration, Throwable throwable)
+	{
+		this.timestamp = timestamp;
+		this.level = level;
+		this.source = source;
+		this.message = message;
+		this.url = url;
+		this.statusCode = statusCode;
+		this.bytes = bytes;
+		this.duration = duration;
+		this.throwable = throwable;
+	}
+
+	/**
+	 * Returns the point in time of the event.
+	 * 
+	 * @return The timestamp in {@code milliseconds} since the epoch
+	 */
+	public long getTimestamp()
+	{
+		return timestamp;
+	}
+
+	/**
+	 * Returns the {@link StorageLogLevel} of the event.
+	 * 
+	 * @return The {@code StorageLogLevel}
+	 */
+	public StorageLogLevel getLevel()
+	{
+		return level;
+	}
+
+	/**
+	 * Returns the class which has created the event.
+	 * 
+	 * @return The source class
+	 */
+	public Class<?> getSource()
+	{
+		return source;
+	}
+
+	/**
+	 * Returns the message of the event.
+	 * 
+	 * @return The message
+	 */
+	public String getMessage()
+	{
+		return message;
+	}
+
+	/**
+	 * Returns the {@code URL} of the corresponding request.
+	 * 
+	 * @return The {@code URL} or {@code null} if the event does not concern a
+	 *         request
+	 */
+	public String getURL()
+	{
+		return url;
+	}
+
+	/**
+	 * Returns the status code of the corresponding response.
+	 * 
+	 * @return The status code or {@code -1} if the event does not concern a
+	 *         response
+	 */
+	public int getStatusCode()
+	{
+		return statusCode;
+	}
+
+	/**
+	 * Returns the number of transmitted {@code Bytes}.
+	 * 
+	 * @return The number of {@code Bytes} or {@code -1} if it is not
+	 *         applicable
+	 */
+	public long getBytes()
+	{
+		return bytes;
+	}
+
+	/**
+	 * Returns the duration of the corresponding process or request.
+	 * 
+	 * @return The duration in {@code nanoseconds} or {@code -1} if it is not
+	 *         applicable
+	 */
+	public long getDuration()
+	{
+		return duration;
+	}
+
+	/**
+	 * Returns the cause of the event.
+	 * 
+	 * @return The {@code Throwable} or {@code null}
+	 */
+	public Throwable getThrowable()
+	{
+		return throwable;
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder stringBuilder = new StringBuilder();
+
+		stringBuilder.append("[StorageService ").append(source.getSimpleName()).append("] ").append(message);
+
+		if(url != null)
+		{
+			stringBuilder.append(" url=").append(url);
+		}
+
+		if(statusCode >= 0)
+		{
+			stringBuilder.append(" status=").append(statusCode);
+		}
+
+		if(bytes >= 0L)
+		{
+			stringBuilder.append(" bytes=").append(bytes);
+		}
+
+		if(duration >= 0L)
+		{
+			stringBuilder.append(" duration=").append(duration / 1000000L).append("ms");
+		}
+
+		if(throwable != null)
+		{
+			stringBuilder.append(" cause=").append(throwable);
+		}
+
+		return stringBuilder.toString();
+	}
+}
@@ -0,0 +1,22 @@
+package org.diretto.api.client.main.storage.base;
+
+/**
+ * A {@code StorageEventListener} receives the {@link StorageEvent} objects
+ * which are published by a {@link StorageLogger}, e.g. to forward them to
+ * the logging framework of the application. <br/><br/>
+ * 
+ * <i>Annotation:</i> The method is invoked by the single dispatcher thread
+ * of the {@code StorageLogger}, never by a transmitting thread. Hence a slow
+ * implementation delays the subsequent events, but not the transmissions.
+ * 
+ * @author Tobias Schlecht
+ */
+public interface StorageEventListener
+{
+	/**
+	 * Is invoked for every published {@link StorageEvent}.
+	 * 
+	 * @param storageEvent The {@code StorageEvent}
+	 */
+	void eventPublished(StorageEvent storageEvent);
+}
@@ -0,0 +1,38 @@
+package org.diretto.api.client.main.storage.base;
+
+/**
+ * A {@code StorageLogLevel} represents the severity of a
+ * {@link StorageEvent}. The levels are ordered by decreasing severity, so
+ * that a {@link StorageLogger} with a certain level publishes all events of
+ * this level and of the more severe levels. <br/><br/>
+ * 
+ * <i>Annotation:</i> {@link #OFF} is only intended as level of a
+ * {@code StorageLogger} and disables all events.
+ * 
+ * @author Tobias Schlecht
+ */
+public enum StorageLogLevel
+{
+	OFF,
+
+	ERROR,
+
+	WARN,
+
+	INFO,
+
+	DEBUG;
+
+	/**
+	 * Returns whether an event of the given {@link StorageLogLevel} is
+	 * published if this {@code StorageLogLevel} is the level of the
+	 * {@code StorageLogger}.
+	 * 
+	 * @param eventLevel The {@code StorageLogLevel} of the event
+	 * @return {@code true} if the event is published; otherwise {@code false}
+	 */
+	public boolean includes(StorageLogLevel eventLevel)
+	{
+		return eventLevel != OFF && eventLevel.ordinal() <= ordinal();
+	}
+}
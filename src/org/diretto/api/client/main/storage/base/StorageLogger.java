@@ -0,0 +1,283 @@
+package org.diretto.api.client.main.storage.base;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.configuration.XMLConfiguration;
+
+/**
+ * The {@code StorageLogger} publishes the {@link StorageEvent} objects of
+ * the {@code StorageService} to the registered {@link StorageEventListener}
+ * objects. <br/><br/>
+ * 
+ * The events are gated by a {@link StorageLogLevel}, which can be adjusted
+ * at runtime. If the level of an event is disabled or no
+ * {@code StorageEventListener} is registered, the event is not even created,
+ * so that a disabled level costs a single volatile read. Enabled events are
+ * handed over to a bounded queue and dispatched by a single daemon thread.
+ * Hence the transmitting threads never wait for a console stream or another
+ * listener. If the queue is full, the event is dropped and counted instead
+ * of blocking the transmission. <br/><br/>
+ * 
+ * <i>Annotation:</i> Callers whose event arguments are expensive to compute
+ * should check {@link #isEnabled(StorageLogLevel)} first.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class StorageLogger
+{
+	private final BlockingQueue<StorageEvent> eventQueue;
+	private final List<StorageEventListener> storageEventListeners = new CopyOnWriteArrayList<StorageEventListener>();
+	private final AtomicLong droppedEvents = new AtomicLong(0L);
+	private final Object dispatcherLock = new Object();
+
+	private volatile StorageLogLevel level;
+	private volatile boolean dispatcherStarted = false;
+
+	/**
+	 * Constructs a {@link StorageLogger}.
+	 * 
+	 * @param level The {@code StorageLogLevel}
+	 * @param queueCapacity The maximum number of events which wait for the
+	 *        dispatcher thread
+	 */
+	public StorageLogger(StorageLogLevel level, int queueCapacity)
+	{
+		if(level == null)
+		{
+			throw new NullPointerException();
+		}
+
+		if(queueCapacity < 1)
+		{
+			throw new IllegalArgumentException("The queue capacity must be positive.");
+		}
+
+		this.level = level;
+
+		eventQueue = new ArrayBlockingQueue<StorageEvent>(queueCapacity);
+	}
+
+	/**
+	 * Creates a {@link StorageLogger}, which is loaded from the configuration
+	 * element with the given key. If the console output is enabled, a
+	 * {@link ConsoleEventListener} is registered.
+	 * 
+	 * @param xmlConfiguration The {@code XMLConfiguration} object (of the
+	 *        {@code StorageService})
+	 * @param configurationKey The key of the {@code logging} element
+	 * @return The configured {@code StorageLogger}
+	 */
+	public static StorageLogger createStorageLogger(XMLConfiguration xmlConfiguration, String configurationKey)
+	{
+		StorageLogLevel level = StorageLogLevel.valueOf(xmlConfiguration.getString(configurationKey + "/level").trim().toUpperCase(Locale.ENGLISH));
+		int queueCapacity = xmlConfiguration.getInt(configurationKey + "/queue-capacity");
+
+		StorageLogger storageLogger = new StorageLogger(level, queueCapacity);
+
+		if(xmlConfiguration.getBoolean(configurationKey + "/console"))
+		{
+			storageLogger.addStorageEventListener(new ConsoleEventListener());
+		}
+
+		return storageLogger;
+	}
+
+	/**
+	 * Returns the {@link StorageLogLevel}.
+	 * 
+	 * @return The {@code StorageLogLevel}
+	 */
+	public StorageLogLevel getLevel()
+	{
+		return level;
+	}
+
+	/**
+	 * Sets the {@link StorageLogLevel}. The new level applies to all
+	 * subsequent events.
+	 * 
+	 * @param level The {@code StorageLogLevel}
+	 */
+	public void setLevel(StorageLogLevel level)
+	{
+		if(level == null)
+		{
+			throw new NullPointerException();
+		}
+
+		this.level = level;
+	}
+
+	/**
+	 * Registers the given {@link StorageEventListener}.
+	 * 
+	 * @param storageEventListener The {@code StorageEventListener}
+	 */
+	public void addStorageEventListener(StorageEventListener storageEventListener)
+	{
+		if(storageEventListener == null)
+		{
+			throw new NullPointerException();
+		}
+
+		storageEventListeners.add(storageEventListener);
+	}
+
+	/**
+	 * Deregisters the given {@link StorageEventListener}.
+	 * 
+	 * @param storageEventListener The {@code StorageEventListener}
+	 */
+	public void removeStorageEventListener(StorageEventListener storageEventListener)
+	{
+		storageEventListeners.remove(storageEventListener);
+	}
+
+	/**
+	 * Returns the number of events which have been dropped because the queue
+	 * was full.
+	 * 
+	 * @return The number of dropped events
+	 */
+	public long getDroppedEvents()
+	{
+		return droppedEvents.get();
+	}
+
+	/**
+	 * Returns whether events of the given {@link StorageLogLevel} are
+	 * published.
+	 * 
+	 * @param eventLevel The {@code StorageLogLevel} of the event
+	 * @return {@code true} if the events are published; otherwise
+	 *         {@code false}
+	 */
+	public boolean isEnabled(StorageLogLevel eventLevel)
+	{
+		return level.includes(eventLevel) && !storageEventListeners.isEmpty();
+	}
+
+	/**
+	 * Publishes an event, which consists of a message only.
+	 * 
+	 * @param eventLevel The {@code StorageLogLevel} of the event
+	 * @param source The class which creates the event
+	 * @param message The message
+	 */
+	public void log(StorageLogLevel eventLevel, Class<?> source, String message)
+	{
+		log(eventLevel, source, message, null, -1, -1L, -1L, null);
+	}
+
+	/**
+	 * Publishes an event, which consists of a message and its cause.
+	 * 
+	 * @param eventLevel The {@code StorageLogLevel} of the event
+	 * @param source The class which creates the event
+	 * @param message The message
+	 * @param throwable The cause of the event or {@code null}
+	 */
+	public void log(StorageLogLevel eventLevel, Class<?> source, String message, Throwable throwable)
+	{
+		log(eventLevel, source, message, null, -1, -1L, -1L, throwable);
+	}
+
+	/**
+	 * Publishes an event with the given structured fields if its
+	 * {@link StorageLogLevel} is enabled.
+	 * 
+	 * @param eventLevel The {@code StorageLogLevel} of the event
+	 * @param source The class which creates the event
+	 * @param message The message
+	 * @param url The {@code URL} of the request or {@code null}
+	 * @param statusCode The status code of the response or {@code -1}
+	 * @param bytes The number of transmitted {@code Bytes} or {@code -1}
+	 * @param duration The duration in {@code nanoseconds} or {@code -1}
+	 * @param throwable The cause of the event or {@code null}
+	 */
+	public void log(StorageLogLevel eventLevel, Class<?> source, String message, String url, int statusCode, long bytes, long duration, Throwable throwable)
+	{
+		if(!isEnabled(eventLevel))
+		{
+			return;
+		}
+
+		if(!dispatcherStarted)
+		{
+			startDispatcher();
+		}
+
+		StorageEvent storageEvent = new StorageEvent(System.currentTimeMillis(), eventLevel, source, message, url, statusCode, bytes, duration, throwable);
+
+		if(!eventQueue.offer(storageEvent))
+		{
+			droppedEvents.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Starts the dispatcher thread unless it has been started before.
+	 */
+	private void startDispatcher()
+	{
+		synchronized(dispatcherLock)
+		{
+			if(dispatcherStarted)
+			{
+				return;
+			}
+
+			Thread dispatcherThread = new Thread(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					dispatch();
+				}
+			}, "StorageService-Logger");
+
+			dispatcherThread.setDaemon(true);
+			dispatcherThread.start();
+
+			dispatcherStarted = true;
+		}
+	}
+
+	/**
+	 * Hands the queued events over to the registered
+	 * {@link StorageEventListener} objects until the thread is interrupted.
+	 */
+	private void dispatch()
+	{
+		while(true)
+		{
+			StorageEvent storageEvent;
+
+			try
+			{
+				storageEvent = eventQueue.take();
+			}
+			catch(InterruptedException e)
+			{
+				return;
+			}
+
+			for(StorageEventListener storageEventListener : storageEventListeners)
+			{
+				try
+				{
+					storageEventListener.eventPublished(storageEvent);
+				}
+				catch(RuntimeException e)
+				{
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+}
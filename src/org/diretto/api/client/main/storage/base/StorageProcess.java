@@ -4,7 +4,8 @@ package org.diretto.api.client.main.storage.base;
  * This interface represents a {@code StorageProcess}. <br/><br/>
  * 
  * With a {@code StorageProcess} object it is among other things possible to
- * trace the corresponding process.
+ * trace the corresponding process. The progress can either be polled without
+ * locking or pushed to registered {@link ProgressListener} objects.
  * 
  * @author Tobias Schlecht
  * 
@@ -13,12 +14,47 @@ package org.diretto.api.client.main.storage.base;
 public interface StorageProcess<T extends Enum<?>>
 {
 	/**
-	 * Returns the progress of this process specified as percentage.
+	 * Returns the progress of this process specified as percentage. If the
+	 * size of the content is unknown, the progress of the transmission is
+	 * {@code 0} until the content has been transmitted completely. A process
+	 * which has ended, because it has been finished, cancelled, aborted or has
+	 * exceeded its <i>Deadline</i>, has a progress of {@code 100}.
 	 * 
 	 * @return The progress specified as percentage
 	 */
 	int getProgress();
 
+	/**
+	 * Returns the number of {@code Bytes} of the content which have already
+	 * been transmitted.
+	 * 
+	 * @return The number of transmitted {@code Bytes}
+	 */
+	long getTransferredBytes();
+
+	/**
+	 * Returns the size of the content of this process.
+	 * 
+	 * @return The size of the content in {@code Bytes} or {@code -1} if it is
+	 *         (still) unknown
+	 */
+	long getTotalBytes();
+
+	/**
+	 * Registers the given {@link ProgressListener}, which is notified about
+	 * the progress of the data transmission of this process.
+	 * 
+	 * @param progressListener The {@code ProgressListener} to be registered
+	 */
+	void addProgressListener(ProgressListener progressListener);
+
+	/**
+	 * Removes the given {@link ProgressListener}.
+	 * 
+	 * @param progressListener The {@code ProgressListener} to be removed
+	 */
+	void removeProgressListener(ProgressListener progressListener);
+
 	/**
 	 * Returns the elapsed time of this process in {@code milliseconds}.
 	 * 
@@ -32,4 +68,45 @@ public interface StorageProcess<T extends Enum<?>>
 	 * @return The current <i>State</i> of this process
 	 */
 	T getCurrentState();
+
+	/**
+	 * Returns the {@link ProcessTimeouts} of this process.
+	 * 
+	 * @return The {@code ProcessTimeouts}
+	 */
+	ProcessTimeouts getTimeouts();
+
+	/**
+	 * Sets the {@link ProcessTimeouts} of this process, which override the
+	 * configured default {@code ProcessTimeouts}. <br/><br/>
+	 * 
+	 * <i>Annotation:</i> This method has to be invoked before the process is
+	 * executed.
+	 * 
+	 * @param processTimeouts The {@code ProcessTimeouts}
+	 * @throws IllegalStateException If the process has already been started
+	 */
+	void setTimeouts(ProcessTimeouts processTimeouts);
+
+	/**
+	 * Returns the {@link ProcessPriority} of this process.
+	 * 
+	 * @return The {@code ProcessPriority}
+	 */
+	ProcessPriority getPriority();
+
+	/**
+	 * Sets the {@link ProcessPriority} of this process, which determines the
+	 * execution order of the waiting processes. The default
+	 * {@code ProcessPriority} is {@link ProcessPriority#NORMAL}. <br/><br/>
+	 * 
+	 * <i>Annotation:</i> If the process has already been submitted and is
+	 * still waiting, it is reordered within the queue of its manager
+	 * according to the new {@code ProcessPriority}, while the time it has
+	 * already been waiting is retained.
+	 * 
+	 * @param processPriority The {@code ProcessPriority}
+	 * @throws IllegalStateException If the process has already been started
+	 */
+	void setPriority(ProcessPriority processPriority);
 }
@@ -0,0 +1,93 @@
+package org.diretto.api.client.main.storage.base;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A {@code StripedCounter} is a lock-free counter, which is updated
+ * frequently by many threads but read rarely. <br/><br/>
+ * 
+ * The value is spread over several cells, and every thread updates the cell
+ * which corresponds to its identifier. The cells are padded to separate
+ * cache lines, so that threads which update the counter concurrently
+ * neither contend for the same cell nor invalidate each other's cache lines.
+ * The value of the counter is the sum of all cells, which is not an atomic
+ * snapshot if the counter is updated concurrently.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class StripedCounter
+{
+	private static final int CELL_PADDING = 16;
+	private static final int MAX_CELL_COUNT = 64;
+
+	private static final int CELL_COUNT = computeCellCount();
+
+	private final AtomicLongArray cells = new AtomicLongArray(CELL_COUNT * CELL_PADDING);
+
+	/**
+	 * Adds the given value to the {@link StripedCounter}.
+	 * 
+	 * @param delta The value to be added (may be negative)
+	 */
+	public void add(long delta)
+	{
+		long threadID = Thread.currentThread().getId();
+
+		int cellIndex = (int) ((threadID ^ (threadID >>> 16)) & (CELL_COUNT - 1));
+
+		cells.getAndAdd(cellIndex * CELL_PADDING, delta);
+	}
+
+	/**
+	 * Increments the {@link StripedCounter} by one.
+	 */
+	public void increment()
+	{
+		add(1L);
+	}
+
+	/**
+	 * Decrements the {@link StripedCounter} by one.
+	 */
+	public void decrement()
+	{
+		add(-1L);
+	}
+
+	/**
+	 * Returns the current value of the {@link StripedCounter}.
+	 * 
+	 * @return The sum of all cells
+	 */
+	public long sum()
+	{
+		long sum = 0L;
+
+		for(int i = 0; i < cells.length(); i += CELL_PADDING)
+		{
+			sum += cells.get(i);
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Computes the number of cells, which is the smallest power of two that
+	 * is at least twice the number of available processors.
+	 * 
+	 * @return The number of cells
+	 */
+	private static int computeCellCount()
+	{
+		int minCellCount = Math.min(Runtime.getRuntime().availableProcessors() * 2, MAX_CELL_COUNT);
+
+		int cellCount = 1;
+
+		while(cellCount < minCellCount)
+		{
+			cellCount <<= 1;
+		}
+
+		return cellCount;
+	}
+}
@@ -0,0 +1,204 @@
+package org.diretto.api.client.main.storage.base;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@code TransferMetrics} collect the live values of the processes of an
+ * upload or download manager, which are exposed by means of the
+ * {@link TransferMetricsMXBean} interface. <br/><br/>
+ * 
+ * The processes record their state changes, outcomes, retries and phase
+ * durations by means of {@link StripedCounter} and {@link LatencyHistogram}
+ * objects, so that the instrumentation neither locks nor contends on the
+ * hot path. The queue wait is recorded by the {@link ProcessLanes} and the
+ * transferred {@code Bytes} are counted by the {@link BandwidthLimiter} of
+ * the manager, through which every transmission passes. Derived values are
+ * computed when they are read.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class TransferMetrics implements TransferMetricsMXBean
+{
+	private static final long RATE_SAMPLE_INTERVAL = 1000000000L;
+
+	private final ProcessLanes processLanes;
+	private final BandwidthLimiter bandwidthLimiter;
+
+	private final StripedCounter activeTransfers = new StripedCounter();
+	private final StripedCounter succeededTransfers = new StripedCounter();
+	private final StripedCounter abortedTransfers = new StripedCounter();
+	private final StripedCounter cancelledTransfers = new StripedCounter();
+	private final StripedCounter timedOutTransfers = new StripedCounter();
+	private final StripedCounter retries = new StripedCounter();
+
+	private final LatencyHistogram transferLatencyHistogram = new LatencyHistogram();
+	private final LatencyHistogram publishLatencyHistogram = new LatencyHistogram();
+
+	private long rateSampleTime;
+	private long rateSampleBytes;
+	private long bytesPerSecond = 0L;
+
+	/**
+	 * Constructs {@link TransferMetrics}.
+	 * 
+	 * @param processLanes The {@code ProcessLanes} of the manager
+	 * @param bandwidthLimiter The {@code BandwidthLimiter} of the manager
+	 */
+	public TransferMetrics(ProcessLanes processLanes, BandwidthLimiter bandwidthLimiter)
+	{
+		this.processLanes = processLanes;
+		this.bandwidthLimiter = bandwidthLimiter;
+
+		rateSampleTime = System.nanoTime();
+		rateSampleBytes = bandwidthLimiter.getTransmittedBytes();
+	}
+
+	/**
+	 * Records that a process has started transferring.
+	 */
+	public void transferStarted()
+	{
+		activeTransfers.increment();
+	}
+
+	/**
+	 * Records that a process has stopped transferring.
+	 */
+	public void transferStopped()
+	{
+		activeTransfers.decrement();
+	}
+
+	/**
+	 * Records that a request is repeated.
+	 */
+	public void retried()
+	{
+		retries.increment();
+	}
+
+	/**
+	 * Records a successfully finished process.
+	 * 
+	 * @param transferTime The transfer time in {@code nanoseconds}
+	 * @param publishTime The publish time in {@code nanoseconds} or {@code -1}
+	 *        if the process has no publish phase
+	 */
+	public void succeeded(long transferTime, long publishTime)
+	{
+		succeededTransfers.increment();
+
+		transferLatencyHistogram.record(transferTime);
+
+		if(publishTime >= 0L)
+		{
+			publishLatencyHistogram.record(publishTime);
+		}
+	}
+
+	/**
+	 * Records a process which has failed with the given failure cause.
+	 * 
+	 * @param failureCause The failure cause of the process
+	 */
+	public void failed(Throwable failureCause)
+	{
+		if(failureCause instanceof CancellationException)
+		{
+			cancelledTransfers.increment();
+		}
+		else if(failureCause instanceof TimeoutException)
+		{
+			timedOutTransfers.increment();
+		}
+		else
+		{
+			abortedTransfers.increment();
+		}
+	}
+
+	@Override
+	public long getActiveTransfers()
+	{
+		return activeTransfers.sum();
+	}
+
+	@Override
+	public int getQueuedTransfers()
+	{
+		return processLanes.getQueuedCount();
+	}
+
+	@Override
+	public long getTransferredBytes()
+	{
+		return bandwidthLimiter.getTransmittedBytes();
+	}
+
+	@Override
+	public synchronized long getBytesPerSecond()
+	{
+		long now = System.nanoTime();
+
+		if(now - rateSampleTime >= RATE_SAMPLE_INTERVAL)
+		{
+			long transmittedBytes = bandwidthLimiter.getTransmittedBytes();
+
+			bytesPerSecond = (long) ((transmittedBytes - rateSampleBytes) * 1000000000.0d / (now - rateSampleTime));
+
+			rateSampleTime = now;
+			rateSampleBytes = transmittedBytes;
+		}
+
+		return bytesPerSecond;
+	}
+
+	@Override
+	public long getSucceededTransfers()
+	{
+		return succeededTransfers.sum();
+	}
+
+	@Override
+	public long getAbortedTransfers()
+	{
+		return abortedTransfers.sum();
+	}
+
+	@Override
+	public long getCancelledTransfers()
+	{
+		return cancelledTransfers.sum();
+	}
+
+	@Override
+	public long getTimedOutTransfers()
+	{
+		return timedOutTransfers.sum();
+	}
+
+	@Override
+	public long getRetries()
+	{
+		return retries.sum();
+	}
+
+	@Override
+	public LatencySnapshot getQueueWaitLatency()
+	{
+		return processLanes.getQueueWaitHistogram().snapshot();
+	}
+
+	@Override
+	public LatencySnapshot getTransferLatency()
+	{
+		return transferLatencyHistogram.snapshot();
+	}
+
+	@Override
+	public LatencySnapshot getPublishLatency()
+	{
+		return publishLatencyHistogram.snapshot();
+	}
+}
@@ -0,0 +1,102 @@
+package org.diretto.api.client.main.storage.base;
+
+/**
+ * The {@code TransferMetricsMXBean} is the management interface of the
+ * {@link TransferMetrics} of an upload or download manager. It is
+ * registered at the platform {@code MBeanServer} by the
+ * {@code StorageService}.
+ * 
+ * @author Tobias Schlecht
+ */
+public interface TransferMetricsMXBean
+{
+	/**
+	 * Returns the number of processes which are currently transferring.
+	 * 
+	 * @return The number of active transfers
+	 */
+	long getActiveTransfers();
+
+	/**
+	 * Returns the number of processes which are waiting for a thread of the
+	 * manager.
+	 * 
+	 * @return The number of queued transfers
+	 */
+	int getQueuedTransfers();
+
+	/**
+	 * Returns the total number of transferred {@code Bytes}.
+	 * 
+	 * @return The number of transferred {@code Bytes}
+	 */
+	long getTransferredBytes();
+
+	/**
+	 * Returns the data rate since the previous sample, which is taken at most
+	 * once per second.
+	 * 
+	 * @return The data rate in {@code Byte/s}
+	 */
+	long getBytesPerSecond();
+
+	/**
+	 * Returns the number of successfully finished processes.
+	 * 
+	 * @return The number of succeeded transfers
+	 */
+	long getSucceededTransfers();
+
+	/**
+	 * Returns the number of aborted processes.
+	 * 
+	 * @return The number of aborted transfers
+	 */
+	long getAbortedTransfers();
+
+	/**
+	 * Returns the number of cancelled processes.
+	 * 
+	 * @return The number of cancelled transfers
+	 */
+	long getCancelledTransfers();
+
+	/**
+	 * Returns the number of processes which have exceeded their
+	 * <i>Deadline</i>.
+	 * 
+	 * @return The number of timed out transfers
+	 */
+	long getTimedOutTransfers();
+
+	/**
+	 * Returns the number of repeated requests.
+	 * 
+	 * @return The number of retries
+	 */
+	long getRetries();
+
+	/**
+	 * Returns the statistics of the time which the processes have waited for
+	 * a thread of the manager.
+	 * 
+	 * @return The {@code LatencySnapshot} of the queue wait
+	 */
+	LatencySnapshot getQueueWaitLatency();
+
+	/**
+	 * Returns the statistics of the transfer time of the successfully
+	 * finished processes.
+	 * 
+	 * @return The {@code LatencySnapshot} of the transfer
+	 */
+	LatencySnapshot getTransferLatency();
+
+	/**
+	 * Returns the statistics of the publish time of the successfully finished
+	 * upload processes.
+	 * 
+	 * @return The {@code LatencySnapshot} of the publishing
+	 */
+	LatencySnapshot getPublishLatency();
+}
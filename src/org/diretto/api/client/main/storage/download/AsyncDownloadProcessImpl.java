@@ -0,0 +1,882 @@
+package org.diretto.api.client.main.storage.download;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.message.BasicHeader;
+import org.diretto.api.client.base.data.PlatformMediaType;
+import org.diretto.api.client.main.core.entities.AttachmentID;
+import org.diretto.api.client.main.storage.base.DeadlineScheduler;
+import org.diretto.api.client.main.storage.base.ProcessCallback;
+import org.diretto.api.client.main.storage.base.ProcessCallbackRegistry;
+import org.diretto.api.client.main.storage.base.ProcessFuture;
+import org.diretto.api.client.main.storage.base.ProcessPriority;
+import org.diretto.api.client.main.storage.base.ProcessTimeouts;
+import org.diretto.api.client.main.storage.base.ProcessTimings;
+import org.diretto.api.client.main.storage.base.ProgressListener;
+import org.diretto.api.client.main.storage.base.ProgressTracker;
+import org.diretto.api.client.main.storage.base.RetryPolicy;
+import org.diretto.api.client.main.storage.base.StorageLogLevel;
+import org.diretto.api.client.main.storage.base.StorageLogger;
+import org.diretto.api.client.main.storage.base.TransferMetrics;
+import org.diretto.api.client.main.storage.nio.AsyncHttpEngine;
+import org.diretto.api.client.main.storage.nio.AsyncHttpExchange;
+import org.diretto.api.client.main.storage.nio.AsyncHttpHandler;
+import org.diretto.api.client.main.storage.nio.AsyncHttpRequest;
+import org.diretto.api.client.main.storage.nio.AsyncHttpResponse;
+
+/**
+ * This class is an event-driven implementation class of the
+ * {@link DownloadProcess} interface, which is executed by the
+ * {@link AsyncHttpEngine} of the {@link DownloadManager}. <br/><br/>
+ * 
+ * In contrast to the {@link DownloadProcessImpl} it does not occupy a thread
+ * while it is running: The received content is written positionally to the
+ * {@link FileChannel} of the {@link DownloadTarget} by the I/O threads of the
+ * {@code AsyncHttpEngine}. Hence the registered {@link ProcessCallback}
+ * objects are notified by an I/O thread and must not block. <br/><br/>
+ * 
+ * <i>Annotation:</i> The resource is always downloaded by means of a single
+ * request. If the connection fails, the download is resumed from the last
+ * written {@code Byte} like the download of a {@code DownloadProcessImpl}.
+ * 
+ * @author Tobias Schlecht
+ */
+final class AsyncDownloadProcessImpl implements DownloadProcess, ProcessFuture<DownloadReport>
+{
+	private final DownloadManager downloadManager;
+	private final URL fileURL;
+	private final DownloadTarget downloadTarget;
+	private final AsyncHttpEngine asyncHttpEngine;
+	private final AttachmentID attachmentID;
+	private final RetryPolicy retryPolicy;
+	private final TransferMetrics transferMetrics;
+	private final StorageLogger storageLogger;
+
+	private final Object runnerLock = new Object();
+	private final CountDownLatch countDownLatch = new CountDownLatch(1);
+	private final ProcessCallbackRegistry<DownloadReport> processCallbackRegistry;
+	private final ProgressTracker progressTracker;
+	private final ProcessTimings processTimings = new ProcessTimings();
+
+	private boolean started = false;
+	private boolean finished = false;
+
+	private volatile AsyncHttpExchange asyncHttpExchange = null;
+	private volatile ScheduledFuture<?> deadlineFuture = null;
+	private volatile long fileSize = -1L;
+	private volatile long position = 0L;
+	private volatile String validator = null;
+	private volatile PlatformMediaType platformMediaType = null;
+	private volatile boolean receiving = false;
+
+	private volatile int downloadAttempts = 0;
+	private volatile int resumeAttempts = 0;
+
+	private volatile boolean done = false;
+	private volatile boolean cancelled = false;
+	private volatile boolean timedOut = false;
+	private volatile ProcessTimeouts processTimeouts;
+	private volatile ProcessPriority processPriority = ProcessPriority.NORMAL;
+	private volatile DownloadState downloadState = DownloadState.INIT;
+	private volatile long downloadProcessStartTime = 0L;
+	private volatile long downloadProcessEndTime = 0L;
+
+	private volatile DownloadReport downloadReport = null;
+	private volatile Throwable failureCause = null;
+
+	/**
+	 * Constructs an object of the {@link DownloadProcess} interface.
+	 * 
+	 * @param downloadManager The corresponding {@code DownloadManager}
+	 * @param fileURL The {@code URL} of the resource to be downloaded
+	 * @param downloadTarget The {@code DownloadTarget} to which the resource
+	 *        content should be written, which has to provide a
+	 *        {@code FileChannel}
+	 */
+	AsyncDownloadProcessImpl(DownloadManager downloadManager, URL fileURL, DownloadTarget downloadTarget)
+	{
+		this.downloadManager = downloadManager;
+		this.fileURL = fileURL;
+		this.downloadTarget = downloadTarget;
+
+		asyncHttpEngine = downloadManager.getAsyncHttpEngine();
+		retryPolicy = downloadManager.getRetryPolicy();
+		progressTracker = new ProgressTracker(this, downloadManager.getProgressThrottle(), downloadManager.getStorageLogger());
+		transferMetrics = downloadManager.getTransferMetrics();
+		storageLogger = downloadManager.getStorageLogger();
+		processCallbackRegistry = new ProcessCallbackRegistry<DownloadReport>(storageLogger);
+		processTimeouts = downloadManager.getDefaultProcessTimeouts();
+
+		attachmentID = downloadManager.createAttachmentID(fileURL);
+	}
+
+	@Override
+	public void addCallback(ProcessCallback<? super DownloadReport> processCallback)
+	{
+		processCallbackRegistry.add(processCallback);
+	}
+
+	/**
+	 * Cancels the {@link DownloadProcess}. A running {@code DownloadProcess}
+	 * is only cancelled if {@code mayInterruptIfRunning} is {@code true}: The
+	 * current request is aborted, which closes the connection.
+	 */
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning)
+	{
+		synchronized(runnerLock)
+		{
+			if(done || cancelled || timedOut || downloadState == DownloadState.FINISHED)
+			{
+				return false;
+			}
+
+			if(started && !mayInterruptIfRunning)
+			{
+				return false;
+			}
+
+			started = true;
+			cancelled = true;
+		}
+
+		abortExchange();
+
+		finish();
+
+		return true;
+	}
+
+	@Override
+	public DownloadReport get() throws InterruptedException, ExecutionException
+	{
+		countDownLatch.await();
+
+		if(cancelled)
+		{
+			throw new CancellationException("The download process has been cancelled.");
+		}
+
+		if(downloadReport == null)
+		{
+			throw new ExecutionException(failureCause);
+		}
+
+		return downloadReport;
+	}
+
+	@Override
+	public DownloadReport get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException
+	{
+		if(!countDownLatch.await(timeout, unit))
+		{
+			throw new TimeoutException("The download process has not been finished within the given time.");
+		}
+
+		if(cancelled)
+		{
+			throw new CancellationException("The download process has been cancelled.");
+		}
+
+		if(downloadReport == null)
+		{
+			throw new ExecutionException(failureCause);
+		}
+
+		return downloadReport;
+	}
+
+	@Override
+	public boolean isCancelled()
+	{
+		return cancelled;
+	}
+
+	@Override
+	public boolean isDone()
+	{
+		return done;
+	}
+
+	/**
+	 * Returns the {@link ProcessTimings} of this {@code DownloadProcess}.
+	 * 
+	 * @return The {@code ProcessTimings}
+	 */
+	ProcessTimings getProcessTimings()
+	{
+		return processTimings;
+	}
+
+	/**
+	 * Starts the {@link DownloadProcess}. The method returns after the
+	 * {@link DownloadTarget} has been opened, the download is driven by the
+	 * I/O threads of the {@link AsyncHttpEngine}.
+	 */
+	void start()
+	{
+		synchronized(runnerLock)
+		{
+			if(started)
+			{
+				return;
+			}
+
+			started = true;
+
+			downloadProcessStartTime = System.nanoTime();
+
+			processTimings.markStarted();
+
+			transferMetrics.transferStarted();
+		}
+
+		deadlineFuture = DeadlineScheduler.schedule(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				expire();
+			}
+		}, processTimeouts.getDeadline());
+
+		try
+		{
+			downloadTarget.open();
+		}
+		catch(IOException e)
+		{
+			failureCause = e;
+
+			finish();
+
+			return;
+		}
+
+		position = downloadTarget.getResumeOffset();
+		validator = downloadTarget.getValidator();
+
+		progressTracker.set(position);
+
+		downloadState = DownloadState.DOWNLOADING;
+
+		executeRequest();
+	}
+
+	/**
+	 * Executes the next attempt of the {@code GET} request of the resource.
+	 * As soon as the initial response has been received, every further
+	 * request resumes the download from the last written {@code Byte}.
+	 */
+	private void executeRequest()
+	{
+		final boolean resumed = receiving;
+
+		if(!resumed)
+		{
+			downloadAttempts++;
+
+			processTimings.markRequestStarted();
+		}
+
+		final long firstBytePosition = position;
+
+		AsyncHttpRequest asyncHttpRequest = new AsyncHttpRequest("GET", fileURL);
+
+		if(firstBytePosition > 0L)
+		{
+			asyncHttpRequest.addHeader("Range", "bytes=" + firstBytePosition + "-");
+
+			if(validator != null)
+			{
+				asyncHttpRequest.addHeader("If-Range", validator);
+			}
+		}
+
+		asyncHttpRequest.setTimeouts(processTimeouts);
+		asyncHttpRequest.setBandwidthLimiter(downloadManager.getBandwidthLimiter());
+
+		execute(asyncHttpRequest, new AsyncHttpHandler()
+		{
+			private int statusCode;
+			private String reasonPhrase;
+			private boolean validatorMismatch = false;
+
+			@Override
+			public void responseReceived(AsyncHttpResponse asyncHttpResponse) throws IOException
+			{
+				statusCode = asyncHttpResponse.getStatusCode();
+				reasonPhrase = asyncHttpResponse.getReasonPhrase();
+
+				if(!resumed)
+				{
+					processTimings.markResponseReceived();
+					processTimings.markConnected(asyncHttpResponse.getConnectedTime());
+					processTimings.markRequestSent(asyncHttpResponse.getRequestSentTime());
+				}
+
+				if(storageLogger.isEnabled(StorageLogLevel.DEBUG))
+				{
+					storageLogger.log(StorageLogLevel.DEBUG, AsyncDownloadProcessImpl.class, "The download request has been answered.", fileURL.toExternalForm(), statusCode, -1L, -1L, null);
+				}
+
+				if(statusCode == 206)
+				{
+					String contentRangeValue = asyncHttpResponse.getHeader("Content-Range");
+
+					ContentRange contentRange = ContentRange.parse((contentRangeValue != null) ? new BasicHeader("Content-Range", contentRangeValue) : null);
+
+					if(contentRange.getFirstBytePosition() != firstBytePosition || contentRange.getInstanceLength() < 0L)
+					{
+						validatorMismatch = firstBytePosition > 0L;
+
+						throw new ClientProtocolException("The partial response does not match the requested range.");
+					}
+
+					fileSize = contentRange.getInstanceLength();
+
+					progressTracker.setTotalBytes(fileSize);
+				}
+				else if(statusCode == 200 || statusCode == 202)
+				{
+					if(firstBytePosition > 0L)
+					{
+						if(!downloadTarget.isRestartable())
+						{
+							validatorMismatch = true;
+
+							throw new ClientProtocolException("The download of " + fileURL.toExternalForm() + " could not be resumed, because the resource has changed.");
+						}
+
+						downloadTarget.restart();
+
+						position = 0L;
+						validator = null;
+
+						progressTracker.set(0L);
+					}
+
+					fileSize = asyncHttpResponse.getContentLength();
+
+					progressTracker.setTotalBytes(fileSize);
+				}
+				else
+				{
+					storageLogger.log(StorageLogLevel.WARN, AsyncDownloadProcessImpl.class, "The download request has been answered with an unexpected status code.", fileURL.toExternalForm(), statusCode, -1L, -1L, null);
+
+					return;
+				}
+
+				if(!resumed || validator == null)
+				{
+					validator = DownloadProcessImpl.getValidator(asyncHttpResponse.getHeader("ETag"), asyncHttpResponse.getHeader("Last-Modified"));
+
+					downloadTarget.setValidator(validator);
+					downloadTarget.preallocate(fileSize);
+
+					platformMediaType = downloadManager.getCoreService().getPlatformMediaType(asyncHttpResponse.getHeader("Content-Type"));
+
+					receiving = true;
+				}
+			}
+
+			@Override
+			public void contentReceived(ByteBuffer content) throws IOException
+			{
+				if(!isSuccessful())
+				{
+					return;
+				}
+
+				FileChannel fileChannel = downloadTarget.getFileChannel();
+				long basePosition = downloadTarget.getBasePosition();
+
+				while(content.hasRemaining())
+				{
+					int count = fileChannel.write(content, basePosition + position);
+
+					position += count;
+
+					progressTracker.add(count);
+				}
+			}
+
+			@Override
+			public void completed()
+			{
+				if(!isSuccessful())
+				{
+					HttpResponseException failure = new HttpResponseException(statusCode, reasonPhrase);
+
+					if(receiving)
+					{
+						resume(failure);
+					}
+					else
+					{
+						retry(failure, retryPolicy.isRetryable(statusCode, downloadAttempts));
+					}
+
+					return;
+				}
+
+				if(fileSize >= 0L && position != fileSize)
+				{
+					failed(new ClientProtocolException("The response body of " + fileURL.toExternalForm() + " is incomplete."));
+
+					return;
+				}
+
+				downloaded();
+			}
+
+			@Override
+			public void failed(IOException exception)
+			{
+				if(validatorMismatch)
+				{
+					restart(exception);
+				}
+				else if(receiving)
+				{
+					resume(exception);
+				}
+				else
+				{
+					retry(exception, retryPolicy.isRetryable(exception, downloadAttempts));
+				}
+			}
+
+			/**
+			 * Returns whether the response contains the content of the
+			 * resource.
+			 * 
+			 * @return {@code true} if the response contains the content;
+			 *         otherwise {@code false}
+			 */
+			private boolean isSuccessful()
+			{
+				return statusCode == 200 || statusCode == 202 || statusCode == 206;
+			}
+		});
+	}
+
+	/**
+	 * Repeats the initial request after the backoff delay of the
+	 * {@link RetryPolicy} or finishes the {@link DownloadProcess} with the
+	 * given failure.
+	 * 
+	 * @param failure The failure of the last attempt
+	 * @param retryable {@code true} if the failure is retryable
+	 */
+	private void retry(IOException failure, boolean retryable)
+	{
+		if(!retryable || cancelled || timedOut)
+		{
+			failureCause = failure;
+
+			finish();
+
+			return;
+		}
+
+		transferMetrics.retried();
+
+		scheduleRequest(retryPolicy.getBackoffDelay(downloadAttempts));
+	}
+
+	/**
+	 * Resumes the download from the last written {@code Byte} after the
+	 * backoff delay of the {@link RetryPolicy} or finishes the
+	 * {@link DownloadProcess} with the given failure. <br/><br/>
+	 * 
+	 * <i>Annotation:</i> A resource without validator cannot be resumed.
+	 * 
+	 * @param failure The failure of the last attempt
+	 */
+	private void resume(IOException failure)
+	{
+		if(cancelled || timedOut || validator == null || resumeAttempts >= downloadManager.getMaxResumeAttempts())
+		{
+			failureCause = failure;
+
+			finish();
+
+			return;
+		}
+
+		resumeAttempts++;
+
+		transferMetrics.retried();
+
+		scheduleRequest(retryPolicy.getBackoffDelay(resumeAttempts));
+	}
+
+	/**
+	 * Restarts the download from the beginning after the resource has
+	 * changed since the content of the {@link DownloadTarget} has been
+	 * written, or finishes the {@link DownloadProcess} with the given failure
+	 * if the {@code DownloadTarget} cannot be restarted. A restart is not
+	 * counted as resume attempt and is not delayed.
+	 * 
+	 * @param failure The failure of the last attempt
+	 */
+	private void restart(IOException failure)
+	{
+		if(cancelled || timedOut || !downloadTarget.isRestartable())
+		{
+			failureCause = failure;
+
+			finish();
+
+			return;
+		}
+
+		try
+		{
+			downloadTarget.restart();
+		}
+		catch(IOException e)
+		{
+			failureCause = e;
+
+			finish();
+
+			return;
+		}
+
+		position = 0L;
+		validator = null;
+
+		progressTracker.set(0L);
+
+		storageLogger.log(StorageLogLevel.INFO, AsyncDownloadProcessImpl.class, "The resource has changed and the download is restarted.", fileURL.toExternalForm(), -1, -1L, -1L, null);
+
+		scheduleRequest(0L);
+	}
+
+	/**
+	 * Executes the next request after the given delay.
+	 * 
+	 * @param delay The delay in {@code milliseconds}
+	 */
+	private void scheduleRequest(long delay)
+	{
+		asyncHttpEngine.schedule(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				executeRequest();
+			}
+		}, delay);
+	}
+
+	/**
+	 * Finishes the {@link DownloadProcess} successfully after the content of
+	 * the resource has been written completely.
+	 */
+	private void downloaded()
+	{
+		processTimings.markTransferEnded();
+
+		downloadProcessEndTime = System.nanoTime();
+
+		synchronized(runnerLock)
+		{
+			if(cancelled || timedOut)
+			{
+				return;
+			}
+
+			if(fileSize < 0L)
+			{
+				fileSize = position;
+
+				progressTracker.setTotalBytes(fileSize);
+			}
+
+			downloadReport = new DownloadReport(fileSize, platformMediaType, fileURL, attachmentID, downloadProcessStartTime, downloadProcessEndTime, processTimings.getResponseTime(), processTimings.getTransferEndTime(), downloadAttempts, resumeAttempts, processTimings, false);
+
+			downloadState = DownloadState.FINISHED;
+		}
+
+		finish();
+	}
+
+	/**
+	 * Executes the given {@link AsyncHttpRequest}, which is registered as the
+	 * current request, so that it can be aborted by {@link #cancel(boolean)}.
+	 * 
+	 * @param asyncHttpRequest The {@code AsyncHttpRequest}
+	 * @param asyncHttpHandler The {@code AsyncHttpHandler}
+	 */
+	private void execute(AsyncHttpRequest asyncHttpRequest, AsyncHttpHandler asyncHttpHandler)
+	{
+		asyncHttpExchange = asyncHttpEngine.execute(asyncHttpRequest, asyncHttpHandler);
+
+		if(cancelled || timedOut)
+		{
+			abortExchange();
+		}
+	}
+
+	/**
+	 * Aborts the current request, which closes the connection.
+	 */
+	private void abortExchange()
+	{
+		AsyncHttpExchange currentAsyncHttpExchange = asyncHttpExchange;
+
+		if(currentAsyncHttpExchange != null)
+		{
+			currentAsyncHttpExchange.abort();
+		}
+	}
+
+	/**
+	 * Aborts the running {@link DownloadProcess}, because its <i>Deadline</i>
+	 * has expired.
+	 */
+	private void expire()
+	{
+		synchronized(runnerLock)
+		{
+			if(done || cancelled || timedOut || downloadState == DownloadState.FINISHED)
+			{
+				return;
+			}
+
+			timedOut = true;
+		}
+
+		abortExchange();
+
+		finish();
+	}
+
+	/**
+	 * Finishes the {@link DownloadProcess} exactly once, determines its final
+	 * {@link DownloadState}, closes the {@link DownloadTarget} and notifies
+	 * the waiting threads and the registered {@link ProcessCallback} objects.
+	 */
+	private void finish()
+	{
+		synchronized(runnerLock)
+		{
+			if(finished)
+			{
+				return;
+			}
+
+			finished = true;
+		}
+
+		if(deadlineFuture != null)
+		{
+			deadlineFuture.cancel(false);
+		}
+
+		if(downloadProcessEndTime == 0L)
+		{
+			downloadProcessEndTime = System.nanoTime();
+		}
+
+		if(cancelled)
+		{
+			failureCause = new CancellationException("The download process has been cancelled.");
+			downloadState = DownloadState.CANCELLED;
+		}
+		else if(timedOut)
+		{
+			failureCause = new TimeoutException("The download process has exceeded its deadline of " + processTimeouts.getDeadline() + " ms.");
+			downloadState = DownloadState.TIMED_OUT;
+		}
+		else if(downloadState != DownloadState.FINISHED)
+		{
+			downloadState = DownloadState.ABORTED;
+		}
+
+		downloadTarget.close(downloadState == DownloadState.FINISHED, position);
+
+		if(downloadProcessStartTime != 0L)
+		{
+			transferMetrics.transferStopped();
+		}
+
+		if(downloadReport != null)
+		{
+			transferMetrics.succeeded(downloadProcessEndTime - downloadProcessStartTime, -1L);
+		}
+		else
+		{
+			transferMetrics.failed(failureCause);
+		}
+
+		logOutcome();
+
+		progressTracker.flush();
+
+		done = true;
+
+		countDownLatch.countDown();
+
+		if(downloadReport != null)
+		{
+			processCallbackRegistry.complete(downloadReport);
+		}
+		else
+		{
+			processCallbackRegistry.fail(failureCause);
+		}
+	}
+
+	/**
+	 * Publishes the outcome of the process by means of the
+	 * {@link StorageLogger}.
+	 */
+	private void logOutcome()
+	{
+		StorageLogLevel level = (downloadReport != null) ? StorageLogLevel.INFO : StorageLogLevel.WARN;
+
+		if(!storageLogger.isEnabled(level))
+		{
+			return;
+		}
+
+		String message = (downloadReport != null) ? "The download process has been finished." : "The download process has failed.";
+		long duration = (downloadProcessStartTime != 0L && downloadProcessEndTime != 0L) ? downloadProcessEndTime - downloadProcessStartTime : -1L;
+
+		storageLogger.log(level, AsyncDownloadProcessImpl.class, message, fileURL.toExternalForm(), -1, progressTracker.getTransferredBytes(), duration, failureCause);
+	}
+
+	@Override
+	public int getProgress()
+	{
+		switch(getCurrentState())
+		{
+			case INIT:
+				return 0;
+
+			case DOWNLOADING:
+				return progressTracker.getPercentage(100);
+
+			case FINISHED:
+				return 100;
+
+			case CANCELLED:
+			case TIMED_OUT:
+			case ABORTED:
+				return 100;
+
+			default:
+				return 0;
+		}
+	}
+
+	@Override
+	public long getElapsedTime()
+	{
+		if(downloadProcessStartTime == 0L)
+		{
+			return 0L;
+		}
+		else if(downloadProcessEndTime != 0L)
+		{
+			return Math.round(((double) (downloadProcessEndTime - downloadProcessStartTime)) / 1000000.0d);
+		}
+
+		return Math.round(((double) (System.nanoTime() - downloadProcessStartTime)) / 1000000.0d);
+	}
+
+	@Override
+	public DownloadState getCurrentState()
+	{
+		return downloadState;
+	}
+
+	@Override
+	public long getTransferredBytes()
+	{
+		return progressTracker.getTransferredBytes();
+	}
+
+	@Override
+	public long getTotalBytes()
+	{
+		return progressTracker.getTotalBytes();
+	}
+
+	@Override
+	public void addProgressListener(ProgressListener progressListener)
+	{
+		progressTracker.addProgressListener(progressListener);
+	}
+
+	@Override
+	public void removeProgressListener(ProgressListener progressListener)
+	{
+		progressTracker.removeProgressListener(progressListener);
+	}
+
+	@Override
+	public ProcessTimeouts getTimeouts()
+	{
+		return processTimeouts;
+	}
+
+	@Override
+	public void setTimeouts(ProcessTimeouts processTimeouts)
+	{
+		if(processTimeouts == null)
+		{
+			throw new NullPointerException();
+		}
+
+		synchronized(runnerLock)
+		{
+			if(started)
+			{
+				throw new IllegalStateException("The timeouts cannot be changed after the download process has been started.");
+			}
+
+			this.processTimeouts = processTimeouts;
+		}
+	}
+
+	@Override
+	public ProcessPriority getPriority()
+	{
+		return processPriority;
+	}
+
+	@Override
+	public void setPriority(ProcessPriority processPriority)
+	{
+		if(processPriority == null)
+		{
+			throw new NullPointerException();
+		}
+
+		synchronized(runnerLock)
+		{
+			if(started)
+			{
+				throw new IllegalStateException("The priority cannot be changed after the download process has been started.");
+			}
+
+			this.processPriority = processPriority;
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package org.diretto.api.client.main.storage.download;
+
+import org.apache.http.Header;
+import org.apache.http.client.ClientProtocolException;
+
+/**
+ * A {@code ContentRange} represents the value of a {@code Content-Range}
+ * header of a partial response ({@code 206 Partial Content}). <br/><br/>
+ * 
+ * <i>Annotation:</i> It is an immutable class.
+ * 
+ * @author Tobias Schlecht
+ */
+final class ContentRange
+{
+	private static final String BYTES_UNIT = "bytes ";
+
+	private final long firstBytePosition;
+	private final long lastBytePosition;
+	private final long instanceLength;
+
+	/**
+	 * Constructs a {@link ContentRange}.
+	 * 
+	 * @param firstBytePosition The position of the first {@code Byte}
+	 * @param lastBytePosition The position of the last {@code Byte}
+	 * @param instanceLength The length of the complete resource or {@code -1}
+	 *        if it is unknown
+	 */
+	private ContentRange(long firstBytePosition, long lastBytePosition, long instanceLength)
+	{
+		this.firstBytePosition = firstBytePosition;
+		this.lastBytePosition = lastBytePosition;
+		this.instanceLength = instanceLength;
+	}
+
+	/**
+	 * Parses the given {@code Content-Range} {@link Header}.
+	 * 
+	 * @param contentRangeHeader The {@code Content-Range} {@code Header}
+	 * @return The corresponding {@code ContentRange}
+	 * @throws ClientProtocolException If the {@code Header} is missing or
+	 *         malformed
+	 */
+	static ContentRange parse(Header contentRangeHeader) throws ClientProtocolException
+	{
+		if(contentRangeHeader == null)
+		{
+			throw new ClientProtocolException("The partial response does not contain a Content-Range header.");
+		}
+
+		String value = contentRangeHeader.getValue().trim();
+
+		int dashIndex = value.indexOf('-');
+		int slashIndex = value.indexOf('/');
+
+		if(!value.startsWith(BYTES_UNIT) || dashIndex < 0 || slashIndex < dashIndex)
+		{
+			throw new ClientProtocolException("The Content-Range header \"" + value + "\" is malformed.");
+		}
+
+		try
+		{
+			long firstBytePosition = Long.parseLong(value.substring(BYTES_UNIT.length(), dashIndex).trim());
+			long lastBytePosition = Long.parseLong(value.substring(dashIndex + 1, slashIndex).trim());
+
+			String instanceLengthString = value.substring(slashIndex + 1).trim();
+			long instanceLength = "*".equals(instanceLengthString) ? -1L : Long.parseLong(instanceLengthString);
+
+			return new ContentRange(firstBytePosition, lastBytePosition, instanceLength);
+		}
+		catch(NumberFormatException e)
+		{
+			throw new ClientProtocolException("The Content-Range header \"" + value + "\" is malformed.", e);
+		}
+	}
+
+	/**
+	 * Parses the given {@code Content-Range} {@link Header} of a response with
+	 * the status code {@code 416} ({@code Range Not Satisfiable}), whose value
+	 * has the form {@code bytes *}{@code /}<i>instance-length</i>.
+	 * 
+	 * @param contentRangeHeader The {@code Content-Range} {@code Header} or
+	 *        {@code null}
+	 * @return The length of the complete resource or {@code -1} if the
+	 *         {@code Header} is missing or malformed
+	 */
+	static long parseUnsatisfiedInstanceLength(Header contentRangeHeader)
+	{
+		if(contentRangeHeader == null)
+		{
+			return -1L;
+		}
+
+		String value = contentRangeHeader.getValue().trim();
+
+		if(!value.startsWith(BYTES_UNIT))
+		{
+			return -1L;
+		}
+
+		value = value.substring(BYTES_UNIT.length()).trim();
+
+		if(!value.startsWith("*/"))
+		{
+			return -1L;
+		}
+
+		try
+		{
+			return Long.parseLong(value.substring(2).trim());
+		}
+		catch(NumberFormatException e)
+		{
+			return -1L;
+		}
+	}
+
+	/**
+	 * Returns the position of the first {@code Byte} of the range.
+	 * 
+	 * @return The position of the first {@code Byte}
+	 */
+	long getFirstBytePosition()
+	{
+		return firstBytePosition;
+	}
+
+	/**
+	 * Returns the position of the last {@code Byte} of the range.
+	 * 
+	 * @return The position of the last {@code Byte}
+	 */
+	long getLastBytePosition()
+	{
+		return lastBytePosition;
+	}
+
+	/**
+	 * Returns the length of the complete resource or {@code -1} if it is
+	 * unknown.
+	 * 
+	 * @return The length of the complete resource
+	 */
+	long getInstanceLength()
+	{
+		return instanceLength;
+	}
+}
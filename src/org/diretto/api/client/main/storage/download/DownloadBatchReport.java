@@ -0,0 +1,32 @@
+package org.diretto.api.client.main.storage.download;
+
+import java.util.List;
+
+import org.diretto.api.client.main.storage.base.AbstractBatchReport;
+
+/**
+ * This class represents a {@code DownloadBatchReport}, which provides
+ * aggregated information about a finished batch of download processes.
+ * <br/><br/>
+ * 
+ * <i>Annotation:</i> It is an immutable class.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class DownloadBatchReport extends AbstractBatchReport<DownloadProcess, DownloadReport>
+{
+	/**
+	 * Constructs a {@link DownloadBatchReport} using the given data.
+	 * 
+	 * @param downloadReports The {@code DownloadReport} objects of the
+	 *        successful download processes in completion order
+	 * @param failedDownloadProcesses The download processes which were not
+	 *        successful
+	 * @param batchStartTime The start time of the batch in {@code nanoseconds}
+	 * @param batchEndTime The end time of the batch in {@code nanoseconds}
+	 */
+	DownloadBatchReport(List<DownloadReport> downloadReports, List<DownloadProcess> failedDownloadProcesses, long batchStartTime, long batchEndTime)
+	{
+		super(downloadReports, failedDownloadProcesses, batchStartTime, batchEndTime);
+	}
+}
@@ -0,0 +1,534 @@
+package org.diretto.api.client.main.storage.download;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.configuration.XMLConfiguration;
+
+/**
+ * The {@code DownloadCache} keeps copies of downloaded resources in a local
+ * directory, so that a repeated download of an unchanged resource does not
+ * transmit its content again. <br/><br/>
+ * 
+ * Every resource is identified by its {@link URL}, which also determines its
+ * {@code AttachmentID}. The content of a resource is stored in a data file
+ * and its {@code ETag}, {@code Last-Modified} date and {@code Content-Type}
+ * are stored in a metadata file beside it. A download of a cached resource
+ * sends the stored validators as {@code If-None-Match} and
+ * {@code If-Modified-Since} headers. If the server answers with
+ * {@code 304 Not Modified}, the cached copy is used instead of a response
+ * body. <br/><br/>
+ * 
+ * The total size of the cached copies is limited. If the limit is exceeded,
+ * the least recently used copies are evicted. The last access of a copy is
+ * additionally recorded as modification time of its data file, so that the
+ * order of use survives a restart of the application.
+ * 
+ * @author Tobias Schlecht
+ */
+final class DownloadCache
+{
+	private static final String DATA_FILE_SUFFIX = ".data";
+	private static final String METADATA_FILE_SUFFIX = ".meta";
+	private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+	private static final String DEFAULT_DIRECTORY_NAME = "diretto-storage-cache";
+
+	private static final long MAX_TRANSFER_SIZE = 1024L * 1024L;
+
+	private final File directory;
+	private final long maxSize;
+
+	private final LinkedHashMap<String, DownloadCacheEntry> downloadCacheEntries = new LinkedHashMap<String, DownloadCacheEntry>(16, 0.75f, true);
+	private long size = 0L;
+
+	/**
+	 * Constructs a {@link DownloadCache} and loads the copies which are
+	 * already present in the given directory.
+	 * 
+	 * @param directory The directory of the cached copies
+	 * @param maxSize The maximum total size of the cached copies in
+	 *        {@code Bytes}
+	 */
+	DownloadCache(File directory, long maxSize)
+	{
+		if(maxSize < 1L)
+		{
+			throw new IllegalArgumentException("The maximum size of the cache must be positive.");
+		}
+
+		if(!directory.isDirectory() && !directory.mkdirs())
+		{
+			throw new IllegalArgumentException("The cache directory " + directory.getPath() + " cannot be created.");
+		}
+
+		this.directory = directory;
+		this.maxSize = maxSize;
+
+		load();
+	}
+
+	/**
+	 * Creates a {@link DownloadCache}, which is loaded from the configuration
+	 * element with the given key. If no directory is configured, a directory
+	 * within the temporary directory of the system is used.
+	 * 
+	 * @param xmlConfiguration The {@code XMLConfiguration} object (of the
+	 *        {@code StorageService})
+	 * @param configurationKey The key of the {@code cache} element
+	 * @return The configured {@code DownloadCache} or {@code null} if the
+	 *         cache is disabled
+	 */
+	static DownloadCache createDownloadCache(XMLConfiguration xmlConfiguration, String configurationKey)
+	{
+		if(!xmlConfiguration.getBoolean(configurationKey + "/enabled"))
+		{
+			return null;
+		}
+
+		String directoryPath = xmlConfiguration.getString(configurationKey + "/directory", "").trim();
+		long maxSize = xmlConfiguration.getLong(configurationKey + "/max-size");
+
+		File directory;
+
+		if(directoryPath.length() == 0)
+		{
+			directory = new File(System.getProperty("java.io.tmpdir"), DEFAULT_DIRECTORY_NAME);
+		}
+		else
+		{
+			directory = new File(directoryPath);
+		}
+
+		return new DownloadCache(directory, maxSize);
+	}
+
+	/**
+	 * Returns the maximum total size of the cached copies in {@code Bytes}.
+	 * 
+	 * @return The maximum size in {@code Bytes}
+	 */
+	long getMaxSize()
+	{
+		return maxSize;
+	}
+
+	/**
+	 * Returns the current total size of the cached copies in {@code Bytes}.
+	 * 
+	 * @return The current size in {@code Bytes}
+	 */
+	synchronized long getSize()
+	{
+		return size;
+	}
+
+	/**
+	 * Returns the {@link DownloadCacheEntry} of the resource with the given
+	 * {@link URL}.
+	 * 
+	 * @param fileURL The {@code URL} of the resource
+	 * @return The {@code DownloadCacheEntry} or {@code null} if the resource
+	 *         is not cached
+	 */
+	synchronized DownloadCacheEntry get(URL fileURL)
+	{
+		DownloadCacheEntry downloadCacheEntry = downloadCacheEntries.get(createKey(fileURL));
+
+		if(downloadCacheEntry == null || !downloadCacheEntry.getFileURL().toExternalForm().equals(fileURL.toExternalForm()))
+		{
+			return null;
+		}
+
+		return downloadCacheEntry;
+	}
+
+	/**
+	 * Opens the cached copy of the given {@link DownloadCacheEntry} for
+	 * reading and marks it as most recently used. The copy can still be read
+	 * if it is evicted or replaced in the meantime.
+	 * 
+	 * @param downloadCacheEntry The {@code DownloadCacheEntry}
+	 * @return The {@link FileChannel} of the cached copy or {@code null} if
+	 *         the copy is not available anymore
+	 */
+	synchronized FileChannel open(DownloadCacheEntry downloadCacheEntry)
+	{
+		if(downloadCacheEntries.get(downloadCacheEntry.getKey()) != downloadCacheEntry)
+		{
+			return null;
+		}
+
+		FileChannel fileChannel;
+
+		try
+		{
+			fileChannel = new RandomAccessFile(downloadCacheEntry.getDataFile(), "r").getChannel();
+		}
+		catch(FileNotFoundException e)
+		{
+			remove(downloadCacheEntry);
+
+			return null;
+		}
+
+		downloadCacheEntry.getDataFile().setLastModified(System.currentTimeMillis());
+
+		return fileChannel;
+	}
+
+	/**
+	 * Stores a copy of the resource with the given {@link URL}, which is read
+	 * from the given {@link FileChannel}. A resource without {@code ETag} and
+	 * {@code Last-Modified} date cannot be revalidated and a resource which
+	 * exceeds the maximum size cannot be cached at all. Hence such a resource
+	 * is not stored. A previously cached copy of the resource is replaced and
+	 * the least recently used copies are evicted if the maximum size is
+	 * exceeded. <br/><br/>
+	 * 
+	 * <i>Annotation:</i> The copy is written to temporary files first, so that
+	 * concurrent downloads of the same resource do not corrupt each other.
+	 * 
+	 * @param fileURL The {@code URL} of the resource
+	 * @param fileChannel The {@code FileChannel} which contains the resource
+	 * @param position The position of the first {@code Byte} of the resource
+	 *        within the {@code FileChannel}
+	 * @param size The size of the resource in {@code Bytes}
+	 * @param contentType The {@code Content-Type} of the resource
+	 * @param entityTag The {@code ETag} of the resource or {@code null}
+	 * @param lastModified The {@code Last-Modified} date of the resource or
+	 *        {@code null}
+	 * @throws IOException If an I/O error occurs
+	 */
+	void put(URL fileURL, FileChannel fileChannel, long position, long size, String contentType, String entityTag, String lastModified) throws IOException
+	{
+		if(size < 0L || size > maxSize || (entityTag == null && lastModified == null))
+		{
+			return;
+		}
+
+		String key = createKey(fileURL);
+
+		File temporaryDataFile = File.createTempFile(key, TEMPORARY_FILE_SUFFIX, directory);
+		File temporaryMetadataFile = File.createTempFile(key, TEMPORARY_FILE_SUFFIX, directory);
+
+		try
+		{
+			copy(fileChannel, position, size, temporaryDataFile);
+
+			Properties metadata = new Properties();
+
+			metadata.setProperty("url", fileURL.toExternalForm());
+			metadata.setProperty("size", String.valueOf(size));
+			metadata.setProperty("content-type", contentType);
+
+			if(entityTag != null)
+			{
+				metadata.setProperty("etag", entityTag);
+			}
+
+			if(lastModified != null)
+			{
+				metadata.setProperty("last-modified", lastModified);
+			}
+
+			OutputStream metadataOutputStream = new FileOutputStream(temporaryMetadataFile);
+
+			try
+			{
+				metadata.store(metadataOutputStream, null);
+			}
+			finally
+			{
+				metadataOutputStream.close();
+			}
+
+			synchronized(this)
+			{
+				DownloadCacheEntry previousDownloadCacheEntry = downloadCacheEntries.get(key);
+
+				if(previousDownloadCacheEntry != null)
+				{
+					remove(previousDownloadCacheEntry);
+				}
+
+				File dataFile = new File(directory, key + DATA_FILE_SUFFIX);
+				File metadataFile = new File(directory, key + METADATA_FILE_SUFFIX);
+
+				if(!temporaryDataFile.renameTo(dataFile) || !temporaryMetadataFile.renameTo(metadataFile))
+				{
+					dataFile.delete();
+					metadataFile.delete();
+
+					throw new IOException("The copy of " + fileURL.toExternalForm() + " could not be stored in the cache.");
+				}
+
+				downloadCacheEntries.put(key, new DownloadCacheEntry(key, fileURL, dataFile, size, contentType, entityTag, lastModified));
+				this.size += size;
+
+				evict();
+			}
+		}
+		finally
+		{
+			temporaryDataFile.delete();
+			temporaryMetadataFile.delete();
+		}
+	}
+
+	/**
+	 * Removes the copy of the resource with the given {@link URL}, e.g.
+	 * because the copy has turned out to be damaged.
+	 * 
+	 * @param fileURL The {@code URL} of the resource
+	 */
+	synchronized void remove(URL fileURL)
+	{
+		DownloadCacheEntry downloadCacheEntry = downloadCacheEntries.get(createKey(fileURL));
+
+		if(downloadCacheEntry != null)
+		{
+			remove(downloadCacheEntry);
+		}
+	}
+
+	/**
+	 * Removes the given {@link DownloadCacheEntry} and deletes its files.
+	 * <br/><br/>
+	 * 
+	 * <i>Annotation:</i> The caller has to hold the lock of this
+	 * {@code DownloadCache}.
+	 * 
+	 * @param downloadCacheEntry The {@code DownloadCacheEntry}
+	 */
+	private void remove(DownloadCacheEntry downloadCacheEntry)
+	{
+		if(downloadCacheEntries.remove(downloadCacheEntry.getKey()) == null)
+		{
+			return;
+		}
+
+		size -= downloadCacheEntry.getSize();
+
+		downloadCacheEntry.getDataFile().delete();
+		new File(directory, downloadCacheEntry.getKey() + METADATA_FILE_SUFFIX).delete();
+	}
+
+	/**
+	 * Evicts the least recently used copies until the maximum size is not
+	 * exceeded anymore. <br/><br/>
+	 * 
+	 * <i>Annotation:</i> The caller has to hold the lock of this
+	 * {@code DownloadCache}.
+	 */
+	private void evict()
+	{
+		while(size > maxSize && !downloadCacheEntries.isEmpty())
+		{
+			remove(downloadCacheEntries.values().iterator().next());
+		}
+	}
+
+	/**
+	 * Loads the copies which are present in the directory, ordered by their
+	 * last access. Incomplete copies and left temporary files are deleted.
+	 */
+	private void load()
+	{
+		File[] files = directory.listFiles();
+
+		if(files == null)
+		{
+			return;
+		}
+
+		List<DownloadCacheEntry> loadedDownloadCacheEntries = new ArrayList<DownloadCacheEntry>();
+
+		for(File file : files)
+		{
+			String fileName = file.getName();
+
+			if(fileName.endsWith(TEMPORARY_FILE_SUFFIX))
+			{
+				file.delete();
+			}
+			else if(fileName.endsWith(METADATA_FILE_SUFFIX))
+			{
+				String key = fileName.substring(0, fileName.length() - METADATA_FILE_SUFFIX.length());
+				File dataFile = new File(directory, key + DATA_FILE_SUFFIX);
+
+				DownloadCacheEntry downloadCacheEntry;
+
+				try
+				{
+					downloadCacheEntry = loadDownloadCacheEntry(key, file, dataFile);
+				}
+				catch(IOException e)
+				{
+					downloadCacheEntry = null;
+				}
+				catch(RuntimeException e)
+				{
+					downloadCacheEntry = null;
+				}
+
+				if(downloadCacheEntry == null)
+				{
+					file.delete();
+					dataFile.delete();
+				}
+				else
+				{
+					loadedDownloadCacheEntries.add(downloadCacheEntry);
+				}
+			}
+		}
+
+		Collections.sort(loadedDownloadCacheEntries, new Comparator<DownloadCacheEntry>()
+		{
+			@Override
+			public int compare(DownloadCacheEntry downloadCacheEntry1, DownloadCacheEntry downloadCacheEntry2)
+			{
+				long lastAccess1 = downloadCacheEntry1.getDataFile().lastModified();
+				long lastAccess2 = downloadCacheEntry2.getDataFile().lastModified();
+
+				return lastAccess1 < lastAccess2 ? -1 : (lastAccess1 == lastAccess2 ? 0 : 1);
+			}
+		});
+
+		synchronized(this)
+		{
+			for(DownloadCacheEntry downloadCacheEntry : loadedDownloadCacheEntries)
+			{
+				downloadCacheEntries.put(downloadCacheEntry.getKey(), downloadCacheEntry);
+				size += downloadCacheEntry.getSize();
+			}
+
+			evict();
+		}
+	}
+
+	/**
+	 * Loads the {@link DownloadCacheEntry} which is described by the given
+	 * metadata file.
+	 * 
+	 * @param key The key of the resource
+	 * @param metadataFile The metadata {@code File}
+	 * @param dataFile The data {@code File}
+	 * @return The {@code DownloadCacheEntry} or {@code null} if the copy is
+	 *         incomplete
+	 * @throws IOException If an I/O error occurs
+	 */
+	private static DownloadCacheEntry loadDownloadCacheEntry(String key, File metadataFile, File dataFile) throws IOException
+	{
+		Properties metadata = new Properties();
+
+		InputStream metadataInputStream = new FileInputStream(metadataFile);
+
+		try
+		{
+			metadata.load(metadataInputStream);
+		}
+		finally
+		{
+			metadataInputStream.close();
+		}
+
+		long size = Long.parseLong(metadata.getProperty("size"));
+		String contentType = metadata.getProperty("content-type");
+
+		if(contentType == null || !dataFile.isFile() || dataFile.length() != size)
+		{
+			return null;
+		}
+
+		return new DownloadCacheEntry(key, new URL(metadata.getProperty("url")), dataFile, size, contentType, metadata.getProperty("etag"), metadata.getProperty("last-modified"));
+	}
+
+	/**
+	 * Copies the given region of the {@link FileChannel} to the given
+	 * {@link File}.
+	 * 
+	 * @param fileChannel The source {@code FileChannel}
+	 * @param position The position of the first {@code Byte} of the region
+	 * @param size The size of the region in {@code Bytes}
+	 * @param file The target {@code File}
+	 * @throws IOException If an I/O error occurs or the region is incomplete
+	 */
+	private static void copy(FileChannel fileChannel, long position, long size, File file) throws IOException
+	{
+		FileChannel targetFileChannel = new FileOutputStream(file).getChannel();
+
+		try
+		{
+			long offset = 0L;
+
+			while(offset < size)
+			{
+				long count = fileChannel.transferTo(position + offset, Math.min(size - offset, MAX_TRANSFER_SIZE), targetFileChannel);
+
+				if(count <= 0L)
+				{
+					throw new IOException("The downloaded content is incomplete.");
+				}
+
+				offset += count;
+			}
+		}
+		finally
+		{
+			targetFileChannel.close();
+		}
+	}
+
+	/**
+	 * Creates the key of the resource with the given {@link URL}, which is
+	 * the hexadecimal {@code SHA-1} hash of the {@code URL}.
+	 * 
+	 * @param fileURL The {@code URL} of the resource
+	 * @return The key
+	 */
+	private static String createKey(URL fileURL)
+	{
+		byte[] hash;
+
+		try
+		{
+			hash = MessageDigest.getInstance("SHA-1").digest(fileURL.toExternalForm().getBytes("UTF-8"));
+		}
+		catch(NoSuchAlgorithmException e)
+		{
+			throw new IllegalStateException(e);
+		}
+		catch(UnsupportedEncodingException e)
+		{
+			throw new IllegalStateException(e);
+		}
+
+		StringBuilder stringBuilder = new StringBuilder(hash.length * 2);
+
+		for(byte b : hash)
+		{
+			stringBuilder.append(Character.forDigit((b >> 4) & 0x0F, 16));
+			stringBuilder.append(Character.forDigit(b & 0x0F, 16));
+		}
+
+		return stringBuilder.toString();
+	}
+}
@@ -0,0 +1,121 @@
+package org.diretto.api.client.main.storage.download;
+
+import java.io.File;
+import java.net.URL;
+
+/**
+ * A {@code DownloadCacheEntry} describes a resource which is stored in the
+ * {@link DownloadCache}. Besides the size and the media type of the resource
+ * it contains the {@code ETag} and the {@code Last-Modified} date of the
+ * cached copy, which are used for the conditional revalidation of the copy.
+ * <br/><br/>
+ * 
+ * <i>Annotation:</i> It is an immutable class.
+ * 
+ * @author Tobias Schlecht
+ */
+final class DownloadCacheEntry
+{
+	private final String key;
+	private final URL fileURL;
+	private final File dataFile;
+	private final long size;
+	private final String contentType;
+	private final String entityTag;
+	private final String lastModified;
+
+	/**
+	 * Constructs a {@link DownloadCacheEntry}.
+	 * 
+	 * @param key The key of the resource within the {@code DownloadCache}
+	 * @param fileURL The {@code URL} of the resource
+	 * @param dataFile The {@code File} which contains the cached copy
+	 * @param size The size of the resource in {@code Bytes}
+	 * @param contentType The {@code Content-Type} of the resource
+	 * @param entityTag The {@code ETag} of the resource or {@code null}
+	 * @param lastModified The {@code Last-Modified} date of the resource or
+	 *        {@code null}
+	 */
+	DownloadCacheEntry(String key, URL fileURL, File dataFile, long size, String contentType, String entityTag, String lastModified)
+	{
+		this.key = key;
+		this.fileURL = fileURL;
+		this.dataFile = dataFile;
+		this.size = size;
+		this.contentType = contentType;
+		this.entityTag = entityTag;
+		this.lastModified = lastModified;
+	}
+
+	/**
+	 * Returns the key of the resource within the {@link DownloadCache}.
+	 * 
+	 * @return The key
+	 */
+	String getKey()
+	{
+		return key;
+	}
+
+	/**
+	 * Returns the {@link URL} of the resource.
+	 * 
+	 * @return The {@code URL}
+	 */
+	URL getFileURL()
+	{
+		return fileURL;
+	}
+
+	/**
+	 * Returns the {@link File} which contains the cached copy.
+	 * 
+	 * @return The data {@code File}
+	 */
+	File getDataFile()
+	{
+		return dataFile;
+	}
+
+	/**
+	 * Returns the size of the resource in {@code Bytes}.
+	 * 
+	 * @return The size in {@code Bytes}
+	 */
+	long getSize()
+	{
+		return size;
+	}
+
+	/**
+	 * Returns the {@code Content-Type} of the resource.
+	 * 
+	 * @return The {@code Content-Type}
+	 */
+	String getContentType()
+	{
+		return contentType;
+	}
+
+	/**
+	 * Returns the {@code ETag} of the cached copy, which is sent as
+	 * {@code If-None-Match} header.
+	 * 
+	 * @return The {@code ETag} or {@code null}
+	 */
+	String getEntityTag()
+	{
+		return entityTag;
+	}
+
+	/**
+	 * Returns the {@code Last-Modified} date of the cached copy, which is sent
+	 * as {@code If-Modified-Since} header.
+	 * 
+	 * @return The {@code Last-Modified} date or {@code null}
+	 */
+	String getLastModified()
+	{
+		return lastModified;
+	}
+}
@@ -1,29 +1,55 @@
 package org.diretto.api.client.main.storage.download;
 
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
 import org.apache.http.HttpEntity;
 import org.diretto.api.client.base.data.PlatformMediaType;
+import org.diretto.api.client.main.storage.base.AbortSignal;
 import org.diretto.api.client.main.storage.base.AbstractProgressHttpEntity;
+import org.diretto.api.client.main.storage.base.BandwidthLimiter;
+import org.diretto.api.client.main.storage.base.ProgressTracker;
 
 /**
  * A {@code DownloadHttpEntity} extends the {@link AbstractProgressHttpEntity}
  * and is therefore able to provide progress information about the corresponding
- * data transmission.
+ * data transmission. <br/><br/>
+ * 
+ * Beyond that the content can be written positionally to a
+ * {@link FileChannel} by means of {@code FileChannel#transferFrom}, which
+ * avoids the intermediate stream layers of the {@code OutputStream} based
+ * transmission.
  * 
  * @author Tobias Schlecht
  */
 final class DownloadHttpEntity extends AbstractProgressHttpEntity
 {
+	private static final long TRANSFER_CHUNK_SIZE = 64L * 1024L;
+
 	private final PlatformMediaType platformMediaType;
 
+	private volatile boolean targetFailed = false;
+
 	/**
 	 * Constructs a {@link DownloadHttpEntity}.
 	 * 
 	 * @param httpEntity The corresponding {@code HttpEntity}
 	 * @param platformMediaType The {@code PlatformMediaType} of the resource
+	 * @param bandwidthLimiter The {@code BandwidthLimiter} of the downloads
+	 * @param progressTracker The {@code ProgressTracker} of the corresponding
+	 *        download process
+	 * @param abortSignal The {@code AbortSignal} of the corresponding
+	 *        download process
 	 */
-	DownloadHttpEntity(HttpEntity httpEntity, PlatformMediaType platformMediaType)
+	DownloadHttpEntity(HttpEntity httpEntity, PlatformMediaType platformMediaType, BandwidthLimiter bandwidthLimiter, ProgressTracker progressTracker, AbortSignal abortSignal)
 	{
-		super(httpEntity);
+		super(httpEntity, bandwidthLimiter, progressTracker, abortSignal);
 
 		this.platformMediaType = platformMediaType;
 	}
@@ -37,4 +63,119 @@ final class DownloadHttpEntity extends AbstractProgressHttpEntity
 	{
 		return platformMediaType;
 	}
+
+	/**
+	 * Returns whether the last transmission has failed, because the content
+	 * could not be written to the target (e.g. because the disk is full). In
+	 * contrast to a failed connection, such a failure cannot be remedied by
+	 * resuming the download.
+	 * 
+	 * @return {@code true} if the target could not be written; otherwise
+	 *         {@code false}
+	 */
+	boolean isTargetFailed()
+	{
+		return targetFailed;
+	}
+
+	@Override
+	public void writeTo(OutputStream outputStream) throws IOException
+	{
+		super.writeTo(new FilterOutputStream(outputStream)
+		{
+			@Override
+			public void write(int b) throws IOException
+			{
+				try
+				{
+					out.write(b);
+				}
+				catch(IOException e)
+				{
+					targetFailed = true;
+
+					throw e;
+				}
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException
+			{
+				try
+				{
+					out.write(b, off, len);
+				}
+				catch(IOException e)
+				{
+					targetFailed = true;
+
+					throw e;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Writes the content of this {@link DownloadHttpEntity} to the given
+	 * {@link FileChannel}, starting at the given position. The position of the
+	 * {@code FileChannel} is not modified. <br/><br/>
+	 * 
+	 * The content is transferred by means of
+	 * {@link FileChannel#transferFrom(ReadableByteChannel, long, long)} in
+	 * chunks of {@link #TRANSFER_CHUNK_SIZE} {@code Bytes}, so that the
+	 * {@code FileChannel} implementation copies it through its own small
+	 * direct buffer and no transfer buffer has to be held by this class.
+	 * 
+	 * @param fileChannel The {@code FileChannel} to which the content should
+	 *        be written
+	 * @param position The position of the first {@code Byte} within the
+	 *        {@code FileChannel}
+	 * @throws IOException If an I/O error occurs
+	 */
+	public void writeTo(FileChannel fileChannel, long position) throws IOException
+	{
+		final boolean[] sourceFailed = new boolean[1];
+
+		InputStream inputStream = getContent();
+
+		ReadableByteChannel sourceChannel = Channels.newChannel(new FilterInputStream(inputStream)
+		{
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException
+			{
+				try
+				{
+					return in.read(b, off, len);
+				}
+				catch(IOException e)
+				{
+					sourceFailed[0] = true;
+
+					throw e;
+				}
+			}
+		});
+
+		try
+		{
+			long count;
+
+			while((count = fileChannel.transferFrom(sourceChannel, position, TRANSFER_CHUNK_SIZE)) > 0L)
+			{
+				position += count;
+
+				addByteCount(count);
+			}
+		}
+		catch(IOException e)
+		{
+			targetFailed = !sourceFailed[0];
+
+			throw e;
+		}
+		finally
+		{
+			inputStream.close();
+		}
+	}
 }
@@ -1,18 +1,41 @@
 package org.diretto.api.client.main.storage.download;
 
+import java.io.File;
 import java.io.OutputStream;
 import java.net.URL;
-
+import java.nio.channels.FileChannel;
+import java.util.Collection;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.configuration.XMLConfiguration;
-import org.apache.http.impl.client.DefaultHttpClient;
 import org.diretto.api.client.base.annotations.InvocationLimited;
 import org.diretto.api.client.main.core.CoreService;
+import org.diretto.api.client.main.core.entities.AttachmentID;
+import org.diretto.api.client.main.core.entities.CoreServiceEntityIDFactory;
+import org.diretto.api.client.main.core.entities.DocumentID;
 import org.diretto.api.client.main.storage.StorageService;
 import org.diretto.api.client.main.storage.StorageServiceImpl;
+import org.diretto.api.client.main.storage.base.BandwidthLimiter;
+import org.diretto.api.client.main.storage.base.HttpClientFactory;
+import org.diretto.api.client.main.storage.base.ProcessBatchCallback;
+import org.diretto.api.client.main.storage.base.ProcessBatchCollector;
+import org.diretto.api.client.main.storage.base.ProcessFuture;
+import org.diretto.api.client.main.storage.base.ProcessLanes;
+import org.diretto.api.client.main.storage.base.ProcessPriority;
+import org.diretto.api.client.main.storage.base.ProcessTimeouts;
+import org.diretto.api.client.main.storage.base.ProgressThrottle;
+import org.diretto.api.client.main.storage.base.RetryPolicy;
+import org.diretto.api.client.main.storage.base.StorageLogLevel;
+import org.diretto.api.client.main.storage.base.StorageLogger;
+import org.diretto.api.client.main.storage.base.TransferMetrics;
+import org.diretto.api.client.main.storage.nio.AsyncHttpEngine;
+import org.diretto.api.client.main.storage.nio.AsyncHttpRequest;
+import org.diretto.api.client.main.storage.transport.StorageTransport;
+import org.diretto.api.client.main.storage.transport.StorageTransportFactory;
 import org.diretto.api.client.util.InvocationUtils;
 
 /**
@@ -25,15 +48,29 @@ public final class DownloadManager
 	private final CoreService coreService;
 	private final URL apiBaseURL;
 	private final URL serviceURL;
-	private final DefaultHttpClient httpClient;
+	private final StorageTransport storageTransport;
+	private final ProcessTimeouts defaultProcessTimeouts;
+	private final RetryPolicy retryPolicy;
+	private final ProgressThrottle progressThrottle;
+	private final BandwidthLimiter bandwidthLimiter;
+	private final StorageLogger storageLogger;
+
+	private final boolean segmentationEnabled;
+	private final long segmentSize;
+	private final int maxParallelSegments;
+	private final int maxResumeAttempts;
 
-	private final ExecutorService executorService;
+	private final ProcessLanes processLanes;
+	private final TransferMetrics transferMetrics;
+	private final ExecutorService segmentExecutorService;
+	private final AsyncHttpEngine asyncHttpEngine;
+	private final DownloadCache downloadCache;
 
 	/**
 	 * The constructor is {@code private} to have strict control what instances
 	 * exist at any time. Instead of the constructor the {@code public}
 	 * <i>static factory method</i>
-	 * {@link #getInstance(XMLConfiguration, CoreService, URL, URL, DefaultHttpClient)}
+	 * {@link #getInstance(XMLConfiguration, CoreService, URL, URL, BandwidthLimiter, StorageLogger)}
 	 * returns the instances of the class.
 	 * 
 	 * @param xmlConfiguration The {@code XMLConfiguration} object (of the
@@ -41,16 +78,58 @@ public final class DownloadManager
 	 * @param coreService The corresponding {@code CoreService}
 	 * @param apiBaseURL The base {@code URL} of the API
 	 * @param serviceURL The service {@code URL}
-	 * @param httpClient The <i>Apache</i> {@code DefaultHttpClient}
+	 * @param globalBandwidthLimiter The global {@code BandwidthLimiter} of
+	 *        the {@code StorageService}
+	 * @param storageLogger The {@code StorageLogger} of the
+	 *        {@code StorageService} or {@code null} if it should be loaded
+	 *        from the configuration
 	 */
-	private DownloadManager(XMLConfiguration xmlConfiguration, CoreService coreService, URL apiBaseURL, URL serviceURL, DefaultHttpClient httpClient)
+	private DownloadManager(XMLConfiguration xmlConfiguration, CoreService coreService, URL apiBaseURL, URL serviceURL, BandwidthLimiter globalBandwidthLimiter, StorageLogger storageLogger)
 	{
 		this.coreService = coreService;
 		this.apiBaseURL = apiBaseURL;
 		this.serviceURL = serviceURL;
-		this.httpClient = httpClient;
 
-		executorService = Executors.newFixedThreadPool(xmlConfiguration.getInt("download/max-parallel-downloads"));
+		storageTransport = StorageTransportFactory.createStorageTransport(xmlConfiguration, "download", false);
+		defaultProcessTimeouts = HttpClientFactory.createProcessTimeouts(xmlConfiguration, "download");
+		retryPolicy = RetryPolicy.createRetryPolicy(xmlConfiguration, "download");
+		progressThrottle = ProgressThrottle.createProgressThrottle(xmlConfiguration, "download");
+		bandwidthLimiter = BandwidthLimiter.createBandwidthLimiter(xmlConfiguration, "download/bandwidth", globalBandwidthLimiter);
+		this.storageLogger = (storageLogger != null) ? storageLogger : StorageLogger.createStorageLogger(xmlConfiguration, "logging");
+
+		segmentationEnabled = xmlConfiguration.getBoolean("download/segmentation/enabled");
+		segmentSize = xmlConfiguration.getLong("download/segmentation/segment-size");
+		maxParallelSegments = xmlConfiguration.getInt("download/segmentation/max-parallel-segments");
+
+		if(segmentSize <= 0L || maxParallelSegments <= 0)
+		{
+			throw new IllegalArgumentException("The segment size and the maximum number of parallel segments must be positive.");
+		}
+
+		maxResumeAttempts = xmlConfiguration.getInt("download/resume/max-attempts");
+
+		processLanes = ProcessLanes.createProcessLanes(xmlConfiguration, "download", xmlConfiguration.getInt("download/max-parallel-downloads"), this.storageLogger);
+		transferMetrics = new TransferMetrics(processLanes, bandwidthLimiter);
+
+		if(segmentationEnabled)
+		{
+			segmentExecutorService = Executors.newFixedThreadPool(processLanes.getMaxParallelProcesses() * maxParallelSegments, processLanes.getExecutionMode().getThreadFactory());
+		}
+		else
+		{
+			segmentExecutorService = null;
+		}
+
+		if(xmlConfiguration.getString("download/engine/type").equals("async") && !StorageTransportFactory.isLoopback(xmlConfiguration, "download"))
+		{
+			asyncHttpEngine = AsyncHttpEngine.createAsyncHttpEngine(xmlConfiguration, "download", this.storageLogger);
+		}
+		else
+		{
+			asyncHttpEngine = null;
+		}
+
+		downloadCache = DownloadCache.createDownloadCache(xmlConfiguration, "download/cache");
 	}
 
 	/**
@@ -61,16 +140,44 @@ public final class DownloadManager
 	 * @param coreService The corresponding {@code CoreService}
 	 * @param apiBaseURL The base {@code URL} of the API
 	 * @param serviceURL The service {@code URL}
-	 * @param httpClient The <i>Apache</i> {@code DefaultHttpClient}
+	 * @param globalBandwidthLimiter The global {@code BandwidthLimiter} of
+	 *        the {@code StorageService}
+	 * @param storageLogger The {@code StorageLogger} of the
+	 *        {@code StorageService} or {@code null} if it should be loaded
+	 *        from the configuration
 	 * @return A {@code DownloadManager} instance
 	 */
 	@InvocationLimited(legitimateInvocationClasses = {StorageServiceImpl.class})
-	public static synchronized DownloadManager getInstance(XMLConfiguration xmlConfiguration, CoreService coreService, URL apiBaseURL, URL serviceURL, DefaultHttpClient httpClient)
+	public static synchronized DownloadManager getInstance(XMLConfiguration xmlConfiguration, CoreService coreService, URL apiBaseURL, URL serviceURL, BandwidthLimiter globalBandwidthLimiter, StorageLogger storageLogger)
 	{
-		String warningMessage = "The method invocation \"" + DownloadManager.class.getCanonicalName() + ".getInstance(XMLConfiguration, CoreService, URL, URL, DefaultHttpClient)\" is not intended for this usage. Use the \"" + StorageService.class.getCanonicalName() + "\" for the download functionalities.";
-		InvocationUtils.checkMethodInvocation(warningMessage, "getInstance", XMLConfiguration.class, CoreService.class, URL.class, URL.class, DefaultHttpClient.class);
+		String warningMessage = "The method invocation \"" + DownloadManager.class.getCanonicalName() + ".getInstance(XMLConfiguration, CoreService, URL, URL, BandwidthLimiter, StorageLogger)\" is not intended for this usage. Use the \"" + StorageService.class.getCanonicalName() + "\" for the download functionalities.";
+		InvocationUtils.checkMethodInvocation(warningMessage, "getInstance", XMLConfiguration.class, CoreService.class, URL.class, URL.class, BandwidthLimiter.class, StorageLogger.class);
+
+		return new DownloadManager(xmlConfiguration, coreService, apiBaseURL, serviceURL, globalBandwidthLimiter, storageLogger);
+	}
+
+	/**
+	 * Shuts down the {@link DownloadManager}. Running {@code DownloadProcess}
+	 * objects are finished, but waiting ones are not started anymore.
+	 * Afterwards the connections of the {@link StorageTransport} are closed,
+	 * the eviction of its idle connections is cancelled and the threads of the
+	 * segments and of the asynchronous engine terminate.
+	 */
+	public void shutdown()
+	{
+		processLanes.shutdown();
+
+		if(segmentExecutorService != null)
+		{
+			segmentExecutorService.shutdown();
+		}
 
-		return new DownloadManager(xmlConfiguration, coreService, apiBaseURL, serviceURL, httpClient);
+		storageTransport.shutdown();
+
+		if(asyncHttpEngine != null)
+		{
+			asyncHttpEngine.shutdown();
+		}
 	}
 
 	/**
@@ -104,13 +211,177 @@ public final class DownloadManager
 	}
 
 	/**
-	 * Returns the <i>Apache</i> {@link DefaultHttpClient}.
+	 * Returns the {@link AttachmentID} of the resource with the given
+	 * {@link URL}.
+	 * 
+	 * @param fileURL The {@code URL} of the resource
+	 * @return The {@code AttachmentID} of the resource
+	 */
+	AttachmentID createAttachmentID(URL fileURL)
+	{
+		String documentIDString = apiBaseURL.toExternalForm() + "/document/";
+		String fileURLString = fileURL.toExternalForm();
+		fileURLString = fileURLString.substring(serviceURL.toExternalForm().length() + 1, fileURLString.length());
+		documentIDString = documentIDString + fileURLString.substring(0, fileURLString.indexOf("/"));
+		fileURLString = fileURLString.substring(fileURLString.indexOf("/") + 1, fileURLString.length());
+		String attachmentIDString = documentIDString + "/attachment/" + fileURLString.substring(0, fileURLString.indexOf("."));
+
+		DocumentID documentID = CoreServiceEntityIDFactory.getDocumentIDInstance(documentIDString);
+
+		return CoreServiceEntityIDFactory.getAttachmentIDInstance(attachmentIDString, documentID, documentID);
+	}
+
+	/**
+	 * Returns the {@link StorageTransport}, which is shared by all
+	 * {@code DownloadProcess} objects of this {@code DownloadManager}.
 	 * 
-	 * @return The <i>Apache</i> {@code DefaultHttpClient}
+	 * @return The {@code StorageTransport}
 	 */
-	DefaultHttpClient getHttpClient()
+	StorageTransport getStorageTransport()
 	{
-		return httpClient;
+		return storageTransport;
+	}
+
+	/**
+	 * Returns the configured default {@link ProcessTimeouts} of the
+	 * {@code DownloadProcess} objects of this {@code DownloadManager}.
+	 * 
+	 * @return The default {@code ProcessTimeouts}
+	 */
+	ProcessTimeouts getDefaultProcessTimeouts()
+	{
+		return defaultProcessTimeouts;
+	}
+
+	/**
+	 * Returns the {@link RetryPolicy} of the {@code DownloadProcess} objects of
+	 * this {@code DownloadManager}.
+	 * 
+	 * @return The {@code RetryPolicy}
+	 */
+	RetryPolicy getRetryPolicy()
+	{
+		return retryPolicy;
+	}
+
+	/**
+	 * Returns the {@link ProgressThrottle} of the {@code DownloadProcess} objects
+	 * of this {@code DownloadManager}.
+	 * 
+	 * @return The {@code ProgressThrottle}
+	 */
+	ProgressThrottle getProgressThrottle()
+	{
+		return progressThrottle;
+	}
+
+	/**
+	 * Returns the {@link AsyncHttpEngine}, which executes the asynchronous
+	 * {@code DownloadProcess} objects of this {@code DownloadManager}, or
+	 * {@code null} if the blocking engine is configured.
+	 * 
+	 * @return The {@code AsyncHttpEngine} or {@code null}
+	 */
+	AsyncHttpEngine getAsyncHttpEngine()
+	{
+		return asyncHttpEngine;
+	}
+
+	/**
+	 * Returns the {@link DownloadCache}, which keeps copies of the downloaded
+	 * resources, or {@code null} if the cache is disabled.
+	 * 
+	 * @return The {@code DownloadCache} or {@code null}
+	 */
+	DownloadCache getDownloadCache()
+	{
+		return downloadCache;
+	}
+
+	/**
+	 * @see StorageServiceImpl#getDownloadBandwidthLimiter()
+	 */
+	public BandwidthLimiter getBandwidthLimiter()
+	{
+		return bandwidthLimiter;
+	}
+
+	/**
+	 * Returns the {@link StorageLogger}, which publishes the events of the
+	 * processes of this {@code DownloadManager}.
+	 * 
+	 * @return The {@code StorageLogger}
+	 */
+	StorageLogger getStorageLogger()
+	{
+		return storageLogger;
+	}
+
+	/**
+	 * Returns the {@link TransferMetrics} of the {@code DownloadProcess}
+	 * objects of this {@code DownloadManager}, which are registered as
+	 * <i>MXBean</i> by the {@code StorageServiceImpl}.
+	 * 
+	 * @return The {@code TransferMetrics}
+	 */
+	public TransferMetrics getTransferMetrics()
+	{
+		return transferMetrics;
+	}
+
+	/**
+	 * Returns whether large resources should be downloaded in segments by
+	 * means of <i>HTTP Range Requests</i>.
+	 * 
+	 * @return {@code true} if the segmented download is enabled; otherwise
+	 *         {@code false}
+	 */
+	boolean isSegmentationEnabled()
+	{
+		return segmentationEnabled;
+	}
+
+	/**
+	 * Returns the size of a single segment in {@code Bytes}.
+	 * 
+	 * @return The size of a segment in {@code Bytes}
+	 */
+	long getSegmentSize()
+	{
+		return segmentSize;
+	}
+
+	/**
+	 * Returns the maximum number of segments of a single download process,
+	 * which are downloaded concurrently.
+	 * 
+	 * @return The maximum number of concurrent segments
+	 */
+	int getMaxParallelSegments()
+	{
+		return maxParallelSegments;
+	}
+
+	/**
+	 * Returns the maximum number of attempts to resume an interrupted download
+	 * (or segment) from the last received {@code Byte}.
+	 * 
+	 * @return The maximum number of resume attempts
+	 */
+	int getMaxResumeAttempts()
+	{
+		return maxResumeAttempts;
+	}
+
+	/**
+	 * Submits the given {@link DownloadSegment} for execution.
+	 * 
+	 * @param downloadSegment The {@code DownloadSegment} to be executed
+	 * @return The {@code Future} of the {@code DownloadSegment}
+	 */
+	Future<Void> submitDownloadSegment(DownloadSegment downloadSegment)
+	{
+		return segmentExecutorService.submit(downloadSegment);
 	}
 
 	/**
@@ -118,7 +389,148 @@ public final class DownloadManager
 	 */
 	public DownloadProcess createDownloadProcess(URL fileURL, OutputStream outputStream)
 	{
-		return new DownloadProcessImpl(this, fileURL, outputStream);
+		return createDownloadProcess(fileURL, DownloadTarget.forOutputStream(outputStream, storageLogger), false);
+	}
+
+	/**
+	 * @see StorageServiceImpl#createDownloadProcess(URL, File)
+	 */
+	public DownloadProcess createDownloadProcess(URL fileURL, File file)
+	{
+		return createDownloadProcess(fileURL, DownloadTarget.forFile(file, false, storageLogger), true);
+	}
+
+	/**
+	 * @see StorageServiceImpl#createDownloadProcess(URL, FileChannel)
+	 */
+	public DownloadProcess createDownloadProcess(URL fileURL, FileChannel fileChannel)
+	{
+		return createDownloadProcess(fileURL, DownloadTarget.forFileChannel(fileChannel, storageLogger), true);
+	}
+
+	/**
+	 * @see StorageServiceImpl#createResumedDownloadProcess(URL, File)
+	 */
+	public DownloadProcess createResumedDownloadProcess(URL fileURL, File file)
+	{
+		return createDownloadProcess(fileURL, DownloadTarget.forFile(file, true, storageLogger), true);
+	}
+
+	/**
+	 * Creates a {@link DownloadProcess} for the given {@link DownloadTarget}.
+	 * If the asynchronous engine is configured, the {@code DownloadTarget}
+	 * provides a {@link FileChannel} and the resource is available via plain
+	 * {@code HTTP}, an {@link AsyncDownloadProcessImpl} is created. Otherwise
+	 * a {@link DownloadProcessImpl} is created, which is also the only
+	 * implementation that makes use of the {@link DownloadCache}. Hence a
+	 * {@code DownloadProcessImpl} is created as well if the cache is enabled.
+	 * 
+	 * @param fileURL The {@code URL} of the resource to be downloaded
+	 * @param downloadTarget The {@code DownloadTarget}
+	 * @param positional {@code true} if the {@code DownloadTarget} provides a
+	 *        {@code FileChannel}
+	 * @return The created {@code DownloadProcess}
+	 */
+	private DownloadProcess createDownloadProcess(URL fileURL, DownloadTarget downloadTarget, boolean positional)
+	{
+		if(asyncHttpEngine != null && downloadCache == null && positional && AsyncHttpRequest.isSupported(fileURL))
+		{
+			return new AsyncDownloadProcessImpl(this, fileURL, downloadTarget);
+		}
+
+		return new DownloadProcessImpl(this, fileURL, downloadTarget);
+	}
+
+	/**
+	 * @see StorageServiceImpl#submitDownloadProcess(DownloadProcess)
+	 */
+	public ProcessFuture<DownloadReport> submitDownloadProcess(DownloadProcess downloadProcess)
+	{
+		if(downloadProcess instanceof AsyncDownloadProcessImpl)
+		{
+			AsyncDownloadProcessImpl asyncDownloadProcessImpl = (AsyncDownloadProcessImpl) downloadProcess;
+
+			asyncDownloadProcessImpl.getProcessTimings().markSubmitted();
+			asyncDownloadProcessImpl.start();
+
+			return asyncDownloadProcessImpl;
+		}
+
+		((DownloadProcessImpl) downloadProcess).getProcessTimings().markSubmitted();
+
+		processLanes.execute((DownloadProcessImpl) downloadProcess, downloadProcess.getPriority(), -1L);
+
+		return (DownloadProcessImpl) downloadProcess;
+	}
+
+	/**
+	 * Returns whether the {@code DownloadProcess} objects are distributed to
+	 * a <i>Small Lane</i> and a <i>Large Lane</i>, so that the size of a
+	 * resource has to be determined before it is requested.
+	 * 
+	 * @return {@code true} if there is a <i>Large Lane</i>; otherwise
+	 *         {@code false}
+	 */
+	boolean hasLargeLane()
+	{
+		return processLanes.hasLargeLane();
+	}
+
+	/**
+	 * Returns whether a resource of the given size has to be downloaded in
+	 * the <i>Large Lane</i>. Every {@code DownloadProcess} is initially
+	 * submitted to the <i>Small Lane</i>, because the size of the resource is
+	 * unknown until it has been determined by the {@code DownloadProcess}.
+	 * 
+	 * @param fileSize The size of the resource in {@code Bytes} or {@code -1}
+	 *        if it is unknown
+	 * @return {@code true} if the resource has to be downloaded in the
+	 *         <i>Large Lane</i>; otherwise {@code false}
+	 */
+	boolean isLargeDownload(long fileSize)
+	{
+		return processLanes.isLarge(fileSize);
+	}
+
+	/**
+	 * Submits the given {@link DownloadProcessImpl} again, so that it is
+	 * continued in the lane which corresponds to the size of the resource.
+	 * 
+	 * @param downloadProcess The {@code DownloadProcessImpl}
+	 * @param fileSize The size of the resource in {@code Bytes}
+	 */
+	void requeueDownloadProcess(DownloadProcessImpl downloadProcess, long fileSize)
+	{
+		downloadProcess.getProcessTimings().markSubmitted();
+
+		processLanes.execute(downloadProcess, downloadProcess.getPriority(), fileSize);
+	}
+
+	/**
+	 * Changes the {@link ProcessPriority} of the given waiting
+	 * {@link DownloadProcessImpl} within the queue of its lane.
+	 * 
+	 * @param downloadProcess The waiting {@code DownloadProcessImpl}
+	 * @param processPriority The new {@code ProcessPriority}
+	 * @return {@code true} if the {@code DownloadProcessImpl} has been reordered;
+	 *         otherwise {@code false}
+	 */
+	boolean reprioritizeDownloadProcess(DownloadProcessImpl downloadProcess, ProcessPriority processPriority)
+	{
+		return processLanes.reprioritize(downloadProcess, processPriority);
+	}
+
+	/**
+	 * Removes the given waiting {@link DownloadProcessImpl} from the queue of
+	 * its lane, so that its thread slot is not occupied.
+	 * 
+	 * @param downloadProcess The waiting {@code DownloadProcessImpl}
+	 * @return {@code true} if the {@code DownloadProcessImpl} has been removed;
+	 *         otherwise {@code false}
+	 */
+	boolean removeDownloadProcess(DownloadProcessImpl downloadProcess)
+	{
+		return processLanes.remove(downloadProcess);
 	}
 
 	/**
@@ -126,23 +538,56 @@ public final class DownloadManager
 	 */
 	public DownloadReport executeDownloadProcess(DownloadProcess downloadProcess)
 	{
-		executorService.execute((DownloadProcessImpl) downloadProcess);
-
 		DownloadReport downloadReport = null;
 
 		try
 		{
-			downloadReport = ((DownloadProcessImpl) downloadProcess).get();
+			downloadReport = submitDownloadProcess(downloadProcess).get();
 		}
 		catch(InterruptedException e)
 		{
-			e.printStackTrace();
+			storageLogger.log(StorageLogLevel.WARN, DownloadManager.class, "The waiting thread has been interrupted.", e);
+
+			Thread.currentThread().interrupt();
 		}
 		catch(ExecutionException e)
 		{
-			e.printStackTrace();
+			storageLogger.log(StorageLogLevel.DEBUG, DownloadManager.class, "The download process has failed.", e);
+		}
+		catch(CancellationException e)
+		{
+			storageLogger.log(StorageLogLevel.DEBUG, DownloadManager.class, "The download process has been cancelled.", e);
 		}
 
 		return downloadReport;
 	}
+
+	/**
+	 * @see StorageServiceImpl#executeDownloadProcesses(Collection,
+	 *      ProcessBatchCallback)
+	 */
+	public DownloadBatchReport executeDownloadProcesses(Collection<DownloadProcess> downloadProcesses, ProcessBatchCallback<? super DownloadProcess, ? super DownloadReport> processBatchCallback)
+	{
+		ProcessBatchCollector<DownloadProcess, DownloadReport> processBatchCollector = new ProcessBatchCollector<DownloadProcess, DownloadReport>(downloadProcesses.size(), processBatchCallback);
+
+		for(DownloadProcess downloadProcess : downloadProcesses)
+		{
+			submitDownloadProcess(downloadProcess).addCallback(processBatchCollector.createProcessCallback(downloadProcess));
+		}
+
+		try
+		{
+			processBatchCollector.await();
+		}
+		catch(InterruptedException e)
+		{
+			storageLogger.log(StorageLogLevel.WARN, DownloadManager.class, "The waiting thread has been interrupted.", e);
+
+			Thread.currentThread().interrupt();
+
+			return null;
+		}
+
+		return new DownloadBatchReport(processBatchCollector.getProcessReports(), processBatchCollector.getFailedProcesses(), processBatchCollector.getBatchStartTime(), System.nanoTime());
+	}
 }
@@ -1,22 +1,49 @@
 package org.diretto.api.client.main.storage.download;
 
 import java.io.IOException;
-import java.io.OutputStream;
+import java.io.InterruptedIOException;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonReadableChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.LinkedList;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.HttpResponseException;
 import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+import org.diretto.api.client.base.data.PlatformMediaType;
 import org.diretto.api.client.main.core.CoreService;
 import org.diretto.api.client.main.core.entities.AttachmentID;
-import org.diretto.api.client.main.core.entities.CoreServiceEntityIDFactory;
-import org.diretto.api.client.main.core.entities.DocumentID;
+import org.diretto.api.client.main.storage.base.AbortSignal;
+import org.diretto.api.client.main.storage.base.DeadlineScheduler;
+import org.diretto.api.client.main.storage.base.HttpClientFactory;
+import org.diretto.api.client.main.storage.base.ProcessCallback;
+import org.diretto.api.client.main.storage.base.ProcessCallbackRegistry;
+import org.diretto.api.client.main.storage.base.ProcessFuture;
+import org.diretto.api.client.main.storage.base.ProcessPriority;
+import org.diretto.api.client.main.storage.base.ProcessTimeouts;
+import org.diretto.api.client.main.storage.base.ProcessTimings;
+import org.diretto.api.client.main.storage.base.ProgressListener;
+import org.diretto.api.client.main.storage.base.ProgressTracker;
+import org.diretto.api.client.main.storage.base.RetryPolicy;
+import org.diretto.api.client.main.storage.base.StorageLogLevel;
+import org.diretto.api.client.main.storage.base.StorageLogger;
+import org.diretto.api.client.main.storage.base.TransferMetrics;
+import org.diretto.api.client.main.storage.transport.StorageTransport;
 
 /**
  * This class is the implementation class of the {@link DownloadProcess}
@@ -24,64 +51,177 @@ import org.diretto.api.client.main.core.entities.DocumentID;
  * 
  * @author Tobias Schlecht
  */
-final class DownloadProcessImpl implements DownloadProcess, Future<DownloadReport>, Runnable
+final class DownloadProcessImpl implements DownloadProcess, ProcessFuture<DownloadReport>, Runnable
 {
+	private static final long MAX_CACHE_TRANSFER_SIZE = 1024L * 1024L;
+
+	private final DownloadManager downloadManager;
 	private final URL fileURL;
-	private final OutputStream outputStream;
+	private final DownloadTarget downloadTarget;
 	private final CoreService coreService;
-	private final URL serviceURL;
-	private final DefaultHttpClient httpClient;
+	private final StorageTransport storageTransport;
 	private final AttachmentID attachmentID;
+	private final RetryPolicy retryPolicy;
+	private final TransferMetrics transferMetrics;
+	private final StorageLogger storageLogger;
+	private final DownloadCache downloadCache;
 
+	private final Object runnerLock = new Object();
 	private final CountDownLatch countDownLatch = new CountDownLatch(1);
+	private final ProcessCallbackRegistry<DownloadReport> processCallbackRegistry;
+	private final ProgressTracker progressTracker;
+	private final ProcessTimings processTimings = new ProcessTimings();
+	private final AbortSignal abortSignal = new AbortSignal();
+	private final HttpContext httpContext = new BasicHttpContext();
+	private final LinkedList<DownloadSegment> downloadSegments = new LinkedList<DownloadSegment>();
+
+	private Thread runnerThread = null;
+	private boolean started = false;
+	private boolean requeued = false;
 
+	private volatile ScheduledFuture<?> deadlineFuture = null;
+
+	private volatile HttpGet currentHttpGet = null;
+	private volatile HttpHead currentHttpHead = null;
 	private volatile DownloadHttpEntity downloadHttpEntity;
+	private volatile DownloadCacheEntry downloadCacheEntry = null;
+	private volatile long fileSize = -1L;
+	private long contiguousByteCount = 0L;
+	private boolean resourceChanged = false;
+
+	private volatile int downloadAttempts = 0;
+	private volatile int resumeAttempts = 0;
 
 	private volatile boolean done = false;
+	private volatile boolean cancelled = false;
+	private volatile boolean timedOut = false;
+	private volatile ProcessTimeouts processTimeouts;
+	private volatile ProcessPriority processPriority = ProcessPriority.NORMAL;
 	private volatile DownloadState downloadState = DownloadState.INIT;
 	private volatile long downloadProcessStartTime = 0L;
 	private volatile long downloadProcessEndTime = 0L;
 
 	private volatile DownloadReport downloadReport = null;
+	private volatile Throwable failureCause = null;
 
 	/**
 	 * Constructs an object of the {@link DownloadProcess} interface.
 	 * 
 	 * @param downloadManager The corresponding {@code DownloadManager}
 	 * @param fileURL The {@code URL} of the resource to be downloaded
-	 * @param outputStream outputStream The {@code OutputStream} to which the
-	 *        resource content should be written
+	 * @param downloadTarget The {@code DownloadTarget} to which the resource
+	 *        content should be written
 	 */
-	DownloadProcessImpl(DownloadManager downloadManager, URL fileURL, OutputStream outputStream)
+	DownloadProcessImpl(DownloadManager downloadManager, URL fileURL, DownloadTarget downloadTarget)
 	{
+		this.downloadManager = downloadManager;
 		this.fileURL = fileURL;
-		this.outputStream = outputStream;
+		this.downloadTarget = downloadTarget;
+
+		retryPolicy = downloadManager.getRetryPolicy();
+		progressTracker = new ProgressTracker(this, downloadManager.getProgressThrottle(), downloadManager.getStorageLogger());
+		transferMetrics = downloadManager.getTransferMetrics();
+		storageLogger = downloadManager.getStorageLogger();
+		processCallbackRegistry = new ProcessCallbackRegistry<DownloadReport>(storageLogger);
+		downloadCache = downloadManager.getDownloadCache();
 
 		coreService = downloadManager.getCoreService();
-		serviceURL = downloadManager.getServiceURL();
-		httpClient = downloadManager.getHttpClient();
+		storageTransport = downloadManager.getStorageTransport();
+		processTimeouts = downloadManager.getDefaultProcessTimeouts();
+
+		attachmentID = downloadManager.createAttachmentID(fileURL);
+
+		httpContext.setAttribute(ProcessTimings.HTTP_CONTEXT_ATTRIBUTE, processTimings);
+	}
 
-		String documentIDString = downloadManager.getAPIBaseURL().toExternalForm() + "/document/";
-		String fileURLString = fileURL.toExternalForm();
-		fileURLString = fileURLString.substring(serviceURL.toExternalForm().length() + 1, fileURLString.length());
-		documentIDString = documentIDString + fileURLString.substring(0, fileURLString.indexOf("/"));
-		fileURLString = fileURLString.substring(fileURLString.indexOf("/") + 1, fileURLString.length());
-		String attachmentIDString = documentIDString + "/attachment/" + fileURLString.substring(0, fileURLString.indexOf("."));
+	/**
+	 * Returns the {@link ProcessTimings} of this {@code DownloadProcess}.
+	 * 
+	 * @return The {@code ProcessTimings}
+	 */
+	ProcessTimings getProcessTimings()
+	{
+		return processTimings;
+	}
 
-		DocumentID documentID = CoreServiceEntityIDFactory.getDocumentIDInstance(documentIDString);
-		attachmentID = CoreServiceEntityIDFactory.getAttachmentIDInstance(attachmentIDString, documentID, documentID);
+	@Override
+	public void addCallback(ProcessCallback<? super DownloadReport> processCallback)
+	{
+		processCallbackRegistry.add(processCallback);
 	}
 
+	/**
+	 * Cancels the {@link DownloadProcess}. A waiting {@code DownloadProcess}
+	 * is removed from the queue of the {@link DownloadManager}. A running
+	 * {@code DownloadProcess} is only cancelled if
+	 * {@code mayInterruptIfRunning} is {@code true}: The current
+	 * {@code HttpGet} request and all running segments are aborted, which
+	 * releases the connections and lets the executing thread unwind. The
+	 * executing thread is not interrupted, because an interrupt would close
+	 * the {@link FileChannel} of the {@link DownloadTarget}. <br/><br/>
+	 * 
+	 * As required by {@link Future}, {@link #isDone()} returns {@code true}
+	 * and {@link #get()} throws a {@link CancellationException} as soon as
+	 * this method has returned {@code true}. The {@code DownloadTarget} is
+	 * closed and the registered {@link ProcessCallback} objects are notified
+	 * by the executing thread after it has unwound. <br/><br/>
+	 * 
+	 * A {@code DownloadProcess} which waits in the <i>Large Lane</i> of the
+	 * {@code DownloadManager} after it has been requeued counts as waiting.
+	 */
 	@Override
 	public boolean cancel(boolean mayInterruptIfRunning)
 	{
-		throw new UnsupportedOperationException();
+		synchronized(runnerLock)
+		{
+			if(done || cancelled || timedOut)
+			{
+				return false;
+			}
+
+			if(!started)
+			{
+				started = true;
+				cancelled = true;
+
+				downloadManager.removeDownloadProcess(this);
+			}
+			else if(mayInterruptIfRunning && runnerThread != null && downloadState != DownloadState.FINISHED)
+			{
+				cancelled = true;
+
+				abortRequests();
+
+				return true;
+			}
+			else
+			{
+				return false;
+			}
+		}
+
+		failWaiting(new CancellationException("The download process has been cancelled."), DownloadState.CANCELLED);
+
+		return true;
 	}
 
 	@Override
 	public DownloadReport get() throws InterruptedException, ExecutionException
 	{
-		countDownLatch.await();
+		if(!cancelled)
+		{
+			countDownLatch.await();
+		}
+
+		if(cancelled)
+		{
+			throw new CancellationException("The download process has been cancelled.");
+		}
+
+		if(downloadReport == null)
+		{
+			throw new ExecutionException(failureCause);
+		}
 
 		return downloadReport;
 	}
@@ -89,7 +229,20 @@ final class DownloadProcessImpl implements DownloadProcess, Future<DownloadRepor
 	@Override
 	public DownloadReport get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException
 	{
-		countDownLatch.await(timeout, unit);
+		if(!cancelled && !countDownLatch.await(timeout, unit))
+		{
+			throw new TimeoutException("The download process has not been finished within the given time.");
+		}
+
+		if(cancelled)
+		{
+			throw new CancellationException("The download process has been cancelled.");
+		}
+
+		if(downloadReport == null)
+		{
+			throw new ExecutionException(failureCause);
+		}
 
 		return downloadReport;
 	}
@@ -97,59 +250,122 @@ final class DownloadProcessImpl implements DownloadProcess, Future<DownloadRepor
 	@Override
 	public boolean isCancelled()
 	{
-		return false;
+		return cancelled;
 	}
 
 	@Override
 	public boolean isDone()
 	{
-		return done;
+		return done || cancelled;
 	}
 
 	@Override
 	public void run()
 	{
-		try
+		boolean continued;
+
+		synchronized(runnerLock)
 		{
-			downloadProcessStartTime = System.nanoTime();
+			if(started)
+			{
+				return;
+			}
 
-			HttpGet httpGet = new HttpGet(fileURL.toExternalForm());
+			started = true;
+			continued = requeued;
+			runnerThread = Thread.currentThread();
+		}
 
-			downloadState = DownloadState.DOWNLOADING;
+		transferMetrics.transferStarted();
 
-			HttpResponse httpResponse = httpClient.execute(httpGet);
+		boolean largeLaneRequired = false;
 
-			System.out.println("[StorageService DownloadProcessImpl] " + fileURL.toExternalForm());
+		try
+		{
+			processTimings.markStarted();
 
-			if(httpResponse.getStatusLine().getStatusCode() != 200 && httpResponse.getStatusLine().getStatusCode() != 202)
+			if(!continued)
 			{
-				System.err.println("[StorageService DownloadProcessImpl] " + httpResponse.getStatusLine().getStatusCode());
-				
-				return;
-			}
+				downloadProcessStartTime = System.nanoTime();
 
-			downloadHttpEntity = new DownloadHttpEntity(httpResponse.getEntity(), coreService.getPlatformMediaType(httpResponse.getEntity().getContentType().getValue()));
+				deadlineFuture = DeadlineScheduler.schedule(new Runnable()
+				{
+					@Override
+					public void run()
+					{
+						expire();
+					}
+				}, processTimeouts.getDeadline());
 
-			downloadHttpEntity.writeTo(outputStream);
+				downloadTarget.open();
 
-			downloadProcessEndTime = System.nanoTime();
+				if(downloadCache != null && downloadTarget.getResumeOffset() == 0L)
+				{
+					downloadCacheEntry = downloadCache.get(fileURL);
+				}
+			}
 
-			downloadReport = new DownloadReport(downloadHttpEntity, fileURL, attachmentID, downloadProcessStartTime, downloadProcessEndTime, downloadProcessStartTime, downloadProcessEndTime);
+			while(true)
+			{
+				try
+				{
+					largeLaneRequired = download(continued);
 
-			downloadState = DownloadState.FINISHED;
+					break;
+				}
+				catch(ClientProtocolException e)
+				{
+					if(!resourceChanged || !downloadTarget.isRestartable() || cancelled || timedOut)
+					{
+						throw e;
+					}
 
-			downloadHttpEntity.consumeContent();
+					resourceChanged = false;
+					continued = true;
+
+					downloadTarget.restart();
+
+					storageLogger.log(StorageLogLevel.INFO, DownloadProcessImpl.class, "The resource has changed and the download is restarted.", fileURL.toExternalForm(), -1, -1L, -1L, null);
+				}
+			}
 		}
 		catch(ClientProtocolException e)
 		{
+			failureCause = e;
+
 			return;
 		}
 		catch(IOException e)
 		{
+			failureCause = e;
+
 			return;
 		}
+		catch(RuntimeException e)
+		{
+			failureCause = e;
+
+			throw e;
+		}
 		finally
 		{
+			transferMetrics.transferStopped();
+
+			if(largeLaneRequired && requeue())
+			{
+				return;
+			}
+
+			if(deadlineFuture != null)
+			{
+				deadlineFuture.cancel(false);
+			}
+
+			synchronized(runnerLock)
+			{
+				runnerThread = null;
+			}
+
 			done = true;
 
 			if(downloadProcessEndTime == 0L)
@@ -157,61 +373,1197 @@ final class DownloadProcessImpl implements DownloadProcess, Future<DownloadRepor
 				downloadProcessEndTime = System.nanoTime();
 			}
 
-			if(downloadState != DownloadState.FINISHED)
+			if(cancelled)
+			{
+				failureCause = new CancellationException("The download process has been cancelled.");
+				downloadState = DownloadState.CANCELLED;
+			}
+			else if(timedOut)
+			{
+				failureCause = new TimeoutException("The download process has exceeded its deadline of " + processTimeouts.getDeadline() + " ms.");
+				downloadState = DownloadState.TIMED_OUT;
+			}
+			else if(downloadState != DownloadState.FINISHED)
 			{
 				downloadState = DownloadState.ABORTED;
 			}
 
+			downloadTarget.close(downloadState == DownloadState.FINISHED, contiguousByteCount);
+
+			if(downloadReport != null)
+			{
+				transferMetrics.succeeded(downloadProcessEndTime - downloadProcessStartTime, -1L);
+			}
+			else
+			{
+				transferMetrics.failed(failureCause);
+			}
+
+			logOutcome();
+
+			progressTracker.flush();
+
 			countDownLatch.countDown();
+
+			if(downloadReport != null)
+			{
+				processCallbackRegistry.complete(downloadReport);
+			}
+			else
+			{
+				processCallbackRegistry.fail(failureCause);
+			}
 		}
 	}
 
-	@Override
-	public synchronized int getProgress()
+	/**
+	 * Downloads the resource from the current resume offset of the
+	 * {@link DownloadTarget}. If the {@link DownloadManager} has a <i>Large
+	 * Lane</i> and the {@link DownloadProcess} has not been requeued yet, the
+	 * size of the resource is determined before it is requested. A large
+	 * resource is not requested at all, so that the {@code DownloadProcess}
+	 * can be continued in the <i>Large Lane</i>. Once the resource has been
+	 * requested, it is downloaded in the current lane. <br/><br/>
+	 * 
+	 * If the resource has changed since the content of the
+	 * {@code DownloadTarget} has been written, a {@link ClientProtocolException}
+	 * is thrown and {@code resourceChanged} is set, so that the download can
+	 * be restarted instead of resumed.
+	 * 
+	 * @param continued {@code true} if the {@code DownloadProcess} has been
+	 *        requeued or restarted
+	 * @return {@code true} if the {@code DownloadProcess} has to be requeued
+	 *         to the <i>Large Lane</i>; otherwise {@code false}
+	 * @throws IOException If the resource could not be downloaded
+	 */
+	private boolean download(boolean continued) throws IOException
 	{
-		switch(getCurrentState())
+		HttpEntity httpResponseEntity = null;
+
+		try
 		{
-			case INIT:
-				return 0;
+			if(!continued && downloadManager.hasLargeLane())
+			{
+				DownloadCacheEntry cachedEntry = downloadCacheEntry;
 
-			case DOWNLOADING:
+				long expectedSize = (cachedEntry != null) ? cachedEntry.getSize() : probeSize();
 
-				if(downloadHttpEntity == null)
+				if(downloadManager.isLargeDownload(expectedSize))
 				{
-					return 0;
+					fileSize = expectedSize;
+
+					return true;
 				}
+			}
 
-				return (int) ((double) (downloadHttpEntity.getByteCount() * 100L) / (double) downloadHttpEntity.getContentLength());
+			long firstBytePosition = downloadTarget.getResumeOffset();
 
-			case FINISHED:
-				return 100;
+			progressTracker.set(firstBytePosition);
+			contiguousByteCount = firstBytePosition;
 
-			case ABORTED:
-				return 100;
+			long requestedLastBytePosition = -1L;
 
-			default:
-				return 0;
+			if(isSegmented())
+			{
+				requestedLastBytePosition = firstBytePosition + downloadManager.getSegmentSize() - 1L;
+			}
+
+			downloadState = DownloadState.DOWNLOADING;
+
+			HttpResponse httpResponse = executeInitialRequest(firstBytePosition, requestedLastBytePosition, downloadTarget.getValidator());
+
+			if(httpResponse.getStatusLine().getStatusCode() == 304)
+			{
+				if(httpResponse.getEntity() != null)
+				{
+					httpResponse.getEntity().consumeContent();
+				}
+
+				if(copyFromCache())
+				{
+					finishDownload(coreService.getPlatformMediaType(downloadCacheEntry.getContentType()), true);
+
+					return false;
+				}
+
+				httpResponse = executeInitialRequest(firstBytePosition, requestedLastBytePosition, downloadTarget.getValidator());
+			}
+
+			if(httpResponse.getStatusLine().getStatusCode() == 416)
+			{
+				long instanceLength = ContentRange.parseUnsatisfiedInstanceLength(httpResponse.getFirstHeader("Content-Range"));
+
+				if(httpResponse.getEntity() != null)
+				{
+					httpResponse.getEntity().consumeContent();
+				}
+
+				if(instanceLength == firstBytePosition)
+				{
+					firstBytePosition--;
+				}
+				else
+				{
+					downloadTarget.restart();
+
+					firstBytePosition = 0L;
+				}
+
+				progressTracker.set(firstBytePosition);
+				contiguousByteCount = firstBytePosition;
+
+				if(isSegmented())
+				{
+					requestedLastBytePosition = firstBytePosition + downloadManager.getSegmentSize() - 1L;
+				}
+
+				httpResponse = executeInitialRequest(firstBytePosition, requestedLastBytePosition, downloadTarget.getValidator());
+
+				if(httpResponse.getStatusLine().getStatusCode() == 416)
+				{
+					if(httpResponse.getEntity() != null)
+					{
+						httpResponse.getEntity().consumeContent();
+					}
+
+					throw new HttpResponseException(416, "The download of " + fileURL.toExternalForm() + " could not be resumed.");
+				}
+			}
+
+			HttpGet httpGet = currentHttpGet;
+
+			httpResponseEntity = httpResponse.getEntity();
+
+			int statusCode = httpResponse.getStatusLine().getStatusCode();
+
+			long lastBytePosition;
+
+			if(statusCode == 206)
+			{
+				ContentRange contentRange = ContentRange.parse(httpResponse.getFirstHeader("Content-Range"));
+
+				if(contentRange.getFirstBytePosition() != firstBytePosition || contentRange.getInstanceLength() < 0L)
+				{
+					httpGet.abort();
+					httpResponseEntity = null;
+
+					resourceChanged = firstBytePosition > 0L;
+
+					throw new ClientProtocolException("The partial response does not match the requested range.");
+				}
+
+				fileSize = contentRange.getInstanceLength();
+				progressTracker.setTotalBytes(fileSize);
+				lastBytePosition = contentRange.getLastBytePosition();
+			}
+			else
+			{
+				if(firstBytePosition > 0L)
+				{
+					downloadTarget.restart();
+
+					firstBytePosition = 0L;
+
+					progressTracker.set(0L);
+					contiguousByteCount = 0L;
+				}
+
+				fileSize = httpResponseEntity.getContentLength();
+				progressTracker.setTotalBytes(fileSize);
+				lastBytePosition = fileSize - 1L;
+			}
+
+			String validator = getValidator(httpResponse);
+
+			downloadTarget.setValidator(validator);
+			downloadTarget.preallocate(fileSize);
+
+			PlatformMediaType platformMediaType = coreService.getPlatformMediaType(httpResponseEntity.getContentType().getValue());
+
+			downloadBody(httpGet, httpResponseEntity, platformMediaType, firstBytePosition, lastBytePosition, validator);
+
+			if(statusCode == 206 && lastBytePosition + 1L < fileSize)
+			{
+				downloadSegments(lastBytePosition + 1L, validator);
+			}
+
+			if(downloadCache != null)
+			{
+				storeInCache(httpResponse, httpResponseEntity.getContentType().getValue());
+			}
+
+			finishDownload(platformMediaType, false);
+
+			return false;
+		}
+		finally
+		{
+			if(httpResponseEntity != null)
+			{
+				try
+				{
+					httpResponseEntity.consumeContent();
+				}
+				catch(IOException e)
+				{
+					currentHttpGet.abort();
+				}
+			}
 		}
 	}
 
-	@Override
-	public synchronized long getElapsedTime()
+	/**
+	 * Creates the {@link DownloadReport} of the completely written resource
+	 * unless the {@link DownloadProcess} has been cancelled or has exceeded
+	 * its <i>Deadline</i> in the meantime.
+	 * 
+	 * @param platformMediaType The {@code PlatformMediaType} of the resource
+	 * @param cacheHit {@code true} if the content has been served from the
+	 *        {@code DownloadCache}
+	 */
+	private void finishDownload(PlatformMediaType platformMediaType, boolean cacheHit)
 	{
-		if(downloadProcessStartTime == 0L)
+		processTimings.markTransferEnded();
+
+		downloadProcessEndTime = System.nanoTime();
+
+		synchronized(runnerLock)
 		{
-			return 0L;
+			if(cancelled || timedOut)
+			{
+				return;
+			}
+
+			downloadReport = new DownloadReport(fileSize, platformMediaType, fileURL, attachmentID, downloadProcessStartTime, downloadProcessEndTime, processTimings.getResponseTime(), processTimings.getTransferEndTime(), downloadAttempts, resumeAttempts, processTimings, cacheHit);
+
+			downloadState = DownloadState.FINISHED;
 		}
-		else if(downloadProcessEndTime != 0L)
+	}
+
+	/**
+	 * Aborts the current {@link HttpGet} request and all running
+	 * {@link DownloadSegment} objects, which releases the connections, and
+	 * wakes up a waiting backoff and a transmission which waits for
+	 * bandwidth, so that the executing thread unwinds without being
+	 * interrupted. <br/><br/>
+	 * 
+	 * <i>Annotation:</i> The invoking thread has to hold the
+	 * {@code runnerLock}.
+	 */
+	private void abortRequests()
+	{
+		abortSignal.abort();
+
+		HttpGet httpGet = currentHttpGet;
+
+		if(httpGet != null)
 		{
-			return Math.round(((double) (downloadProcessEndTime - downloadProcessStartTime)) / 1000000.0d);
+			httpGet.abort();
 		}
 
-		return Math.round(((double) (System.nanoTime() - downloadProcessStartTime)) / 1000000.0d);
+		HttpHead httpHead = currentHttpHead;
+
+		if(httpHead != null)
+		{
+			httpHead.abort();
+		}
+
+		for(DownloadSegment downloadSegment : downloadSegments)
+		{
+			downloadSegment.abort();
+		}
+
+		runnerLock.notifyAll();
 	}
 
-	@Override
-	public synchronized DownloadState getCurrentState()
+	/**
+	 * Waits for the backoff delay of the {@link RetryPolicy} after the given
+	 * number of failed attempts. The waiting ends early as soon as the
+	 * {@link DownloadProcess} has been cancelled or has exceeded its
+	 * <i>Deadline</i>.
+	 * 
+	 * @param attempts The number of failed attempts
+	 * @throws InterruptedIOException If the thread has been interrupted while
+	 *         waiting
+	 */
+	private void backoff(int attempts) throws InterruptedIOException
 	{
-		return downloadState;
+		long wakeUpTime = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryPolicy.getBackoffDelay(attempts));
+
+		synchronized(runnerLock)
+		{
+			long waitTime;
+
+			while(!cancelled && !timedOut && (waitTime = wakeUpTime - System.nanoTime()) > 0L)
+			{
+				try
+				{
+					TimeUnit.NANOSECONDS.timedWait(runnerLock, waitTime);
+				}
+				catch(InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+
+					throw new InterruptedIOException("The backoff before the next attempt has been interrupted.");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Aborts the running {@link DownloadProcess}, because its <i>Deadline</i>
+	 * has expired. The current {@code HttpGet} request and all running
+	 * segments are aborted, which releases the connections. The executing
+	 * thread is not interrupted, so that the {@link FileChannel} of the
+	 * {@link DownloadTarget} stays open and can still be truncated.
+	 */
+	private void expire()
+	{
+		synchronized(runnerLock)
+		{
+			if(cancelled || timedOut || downloadState == DownloadState.FINISHED)
+			{
+				return;
+			}
+
+			if(runnerThread != null)
+			{
+				timedOut = true;
+
+				abortRequests();
+
+				return;
+			}
+
+			if(started || !requeued)
+			{
+				return;
+			}
+
+			started = true;
+			timedOut = true;
+
+			downloadManager.removeDownloadProcess(this);
+		}
+
+		failWaiting(new TimeoutException("The download process has exceeded its deadline of " + processTimeouts.getDeadline() + " ms."), DownloadState.TIMED_OUT);
+	}
+
+	/**
+	 * Moves the running {@link DownloadProcess} to the <i>Large Lane</i> of
+	 * the {@link DownloadManager}, because the size of the resource exceeds
+	 * the <i>Size Threshold</i>. The resource has not been requested yet, so
+	 * that the opened {@link DownloadTarget} and the <i>Deadline</i> are kept
+	 * for the next execution.
+	 * 
+	 * @return {@code true} if the {@code DownloadProcess} has been requeued;
+	 *         {@code false} if it has been cancelled or has exceeded its
+	 *         <i>Deadline</i> in the meantime
+	 */
+	private boolean requeue()
+	{
+		synchronized(runnerLock)
+		{
+			runnerThread = null;
+
+			if(cancelled || timedOut)
+			{
+				return false;
+			}
+
+			started = false;
+			requeued = true;
+		}
+
+		downloadManager.requeueDownloadProcess(this, fileSize);
+
+		return true;
+	}
+
+	/**
+	 * Finishes the waiting {@link DownloadProcess} with the given failure
+	 * cause. If the {@code DownloadProcess} has already been requeued, its
+	 * <i>Deadline</i> is cancelled and its {@link DownloadTarget} is closed.
+	 * 
+	 * @param failureCause The failure cause
+	 * @param downloadState The final {@code DownloadState}
+	 */
+	private void failWaiting(Throwable failureCause, DownloadState downloadState)
+	{
+		if(requeued)
+		{
+			if(deadlineFuture != null)
+			{
+				deadlineFuture.cancel(false);
+			}
+
+			downloadProcessEndTime = System.nanoTime();
+
+			downloadTarget.close(false, contiguousByteCount);
+		}
+
+		this.failureCause = failureCause;
+		this.downloadState = downloadState;
+		done = true;
+
+		transferMetrics.failed(failureCause);
+
+		logOutcome();
+
+		progressTracker.flush();
+
+		countDownLatch.countDown();
+
+		processCallbackRegistry.fail(failureCause);
+	}
+
+	/**
+	 * Returns whether the resource should be downloaded in segments. The
+	 * segments are only used for a {@link DownloadTarget} which provides a
+	 * {@link FileChannel}, because they are written directly to their
+	 * positions within the file.
+	 * 
+	 * @return {@code true} if the resource should be downloaded in segments;
+	 *         otherwise {@code false}
+	 */
+	private boolean isSegmented()
+	{
+		return downloadManager.isSegmentationEnabled() && downloadTarget.getFileChannel() != null;
+	}
+
+	/**
+	 * Executes the initial {@link HttpGet} request of the resource. If the
+	 * request fails or is answered with an unexpected status code, it is
+	 * repeated according to the {@link RetryPolicy}. If the resource is
+	 * cached, the request is conditional on the validators of the cached
+	 * copy.
+	 * 
+	 * @param firstBytePosition The position of the first requested
+	 *        {@code Byte}
+	 * @param lastBytePosition The position of the last requested {@code Byte}
+	 *        or {@code -1} if the range is open-ended
+	 * @param validator The validator for the {@code If-Range} header or
+	 *        {@code null}
+	 * @return The {@code HttpResponse} with the status code {@code 200},
+	 *         {@code 202}, {@code 206}, {@code 304} or {@code 416} (only for
+	 *         a resumed download)
+	 * @throws IOException If the request finally failed
+	 */
+	private HttpResponse executeInitialRequest(long firstBytePosition, long lastBytePosition, String validator) throws IOException
+	{
+		while(true)
+		{
+			downloadAttempts++;
+
+			HttpGet httpGet = createHttpGet(firstBytePosition, lastBytePosition, validator);
+
+			DownloadCacheEntry cachedEntry = downloadCacheEntry;
+
+			if(cachedEntry != null)
+			{
+				if(cachedEntry.getEntityTag() != null)
+				{
+					httpGet.setHeader("If-None-Match", cachedEntry.getEntityTag());
+				}
+
+				if(cachedEntry.getLastModified() != null)
+				{
+					httpGet.setHeader("If-Modified-Since", cachedEntry.getLastModified());
+				}
+			}
+
+			IOException failure;
+			boolean retryable;
+
+			processTimings.markRequestStarted();
+
+			try
+			{
+				HttpResponse httpResponse = execute(httpGet);
+
+				processTimings.markResponseReceived();
+
+				int statusCode = httpResponse.getStatusLine().getStatusCode();
+
+				if(storageLogger.isEnabled(StorageLogLevel.DEBUG))
+				{
+					storageLogger.log(StorageLogLevel.DEBUG, DownloadProcessImpl.class, "The download request has been answered.", fileURL.toExternalForm(), statusCode, -1L, -1L, null);
+				}
+
+				if(statusCode == 200 || statusCode == 202 || statusCode == 206 || (statusCode == 304 && cachedEntry != null) || (statusCode == 416 && firstBytePosition > 0L))
+				{
+					return httpResponse;
+				}
+
+				storageLogger.log(StorageLogLevel.WARN, DownloadProcessImpl.class, "The download request has been answered with an unexpected status code.", fileURL.toExternalForm(), statusCode, -1L, -1L, null);
+
+				if(httpResponse.getEntity() != null)
+				{
+					httpResponse.getEntity().consumeContent();
+				}
+
+				failure = new HttpResponseException(statusCode, httpResponse.getStatusLine().getReasonPhrase());
+				retryable = retryPolicy.isRetryable(statusCode, downloadAttempts);
+			}
+			catch(IOException e)
+			{
+				httpGet.abort();
+
+				failure = e;
+				retryable = retryPolicy.isRetryable(e, downloadAttempts);
+			}
+
+			if(!retryable || cancelled || timedOut)
+			{
+				throw failure;
+			}
+
+			transferMetrics.retried();
+
+			backoff(downloadAttempts);
+		}
+	}
+
+	/**
+	 * Determines the size of the resource by means of an {@link HttpHead}
+	 * request, which is sent over the same connection pool as the download
+	 * itself, so that a kept alive connection is reused. A failed request is
+	 * not repeated, because the size is only needed for the choice of the
+	 * lane.
+	 * 
+	 * @return The size of the resource in {@code Bytes} or {@code -1} if it
+	 *         could not be determined
+	 */
+	private long probeSize()
+	{
+		HttpHead httpHead = new HttpHead(fileURL.toExternalForm());
+
+		HttpClientFactory.applyTimeouts(httpHead, processTimeouts);
+
+		currentHttpHead = httpHead;
+
+		if(cancelled || timedOut)
+		{
+			httpHead.abort();
+		}
+
+		try
+		{
+			HttpResponse httpResponse = storageTransport.execute(httpHead, httpContext);
+
+			if(httpResponse.getEntity() != null)
+			{
+				httpResponse.getEntity().consumeContent();
+			}
+
+			Header contentLengthHeader = httpResponse.getFirstHeader("Content-Length");
+
+			if(httpResponse.getStatusLine().getStatusCode() != 200 || contentLengthHeader == null)
+			{
+				return -1L;
+			}
+
+			return Long.parseLong(contentLengthHeader.getValue().trim());
+		}
+		catch(NumberFormatException e)
+		{
+			return -1L;
+		}
+		catch(IOException e)
+		{
+			httpHead.abort();
+
+			if(storageLogger.isEnabled(StorageLogLevel.DEBUG))
+			{
+				storageLogger.log(StorageLogLevel.DEBUG, DownloadProcessImpl.class, "The size of the resource could not be determined.", fileURL.toExternalForm(), -1, -1L, -1L, e);
+			}
+
+			return -1L;
+		}
+		finally
+		{
+			currentHttpHead = null;
+		}
+	}
+
+	/**
+	 * Executes the given {@link HttpGet} request, which is registered as the
+	 * current request, so that it can be aborted by {@link #cancel(boolean)}.
+	 * 
+	 * @param httpGet The {@code HttpGet} request
+	 * @return The {@code HttpResponse}
+	 * @throws IOException If an I/O error occurs or the request has been
+	 *         aborted
+	 */
+	private HttpResponse execute(HttpGet httpGet) throws IOException
+	{
+		currentHttpGet = httpGet;
+
+		if(cancelled || timedOut)
+		{
+			httpGet.abort();
+		}
+
+		return storageTransport.execute(httpGet, httpContext);
+	}
+
+	/**
+	 * Creates an {@link HttpGet} request for the given range of the resource.
+	 * If the range starts at the beginning of the resource and is open-ended,
+	 * a plain request is created.
+	 * 
+	 * @param firstBytePosition The position of the first requested
+	 *        {@code Byte}
+	 * @param lastBytePosition The position of the last requested {@code Byte}
+	 *        or {@code -1} if the range is open-ended
+	 * @param validator The validator for the {@code If-Range} header or
+	 *        {@code null}
+	 * @return The created {@code HttpGet} request
+	 */
+	private HttpGet createHttpGet(long firstBytePosition, long lastBytePosition, String validator)
+	{
+		HttpGet httpGet = new HttpGet(fileURL.toExternalForm());
+
+		HttpClientFactory.applyTimeouts(httpGet, processTimeouts);
+
+		if(firstBytePosition > 0L || lastBytePosition >= 0L)
+		{
+			httpGet.setHeader("Range", "bytes=" + firstBytePosition + "-" + (lastBytePosition >= 0L ? String.valueOf(lastBytePosition) : ""));
+
+			if(firstBytePosition > 0L && validator != null)
+			{
+				httpGet.setHeader("If-Range", validator);
+			}
+		}
+
+		return httpGet;
+	}
+
+	/**
+	 * Writes the body of the given response to the {@link DownloadTarget}. If
+	 * the {@code DownloadTarget} provides a {@link FileChannel}, the body is
+	 * written positionally to the {@code FileChannel}. If the connection
+	 * fails, the download is resumed from the last written {@code Byte} by
+	 * means of a range request, which is validated by the given validator.
+	 * <br/><br/>
+	 * 
+	 * If the resource has changed in the meantime, the download is not
+	 * resumed, but {@code resourceChanged} is set, so that it can be
+	 * restarted. <br/><br/>
+	 * 
+	 * <i>Annotation:</i> A resource without validator cannot be resumed.
+	 * 
+	 * @param httpGet The {@code HttpGet} request of the given response
+	 * @param httpEntity The {@code HttpEntity} of the response
+	 * @param platformMediaType The {@code PlatformMediaType} of the resource
+	 * @param firstBytePosition The position of the first {@code Byte} of the
+	 *        response body
+	 * @param lastBytePosition The position of the last {@code Byte} of the
+	 *        response body or {@code -1} if it is unknown
+	 * @param validator The validator of the resource or {@code null}
+	 * @throws IOException If the body could not be downloaded completely
+	 */
+	private void downloadBody(HttpGet httpGet, HttpEntity httpEntity, PlatformMediaType platformMediaType, long firstBytePosition, long lastBytePosition, String validator) throws IOException
+	{
+		FileChannel fileChannel = downloadTarget.getFileChannel();
+		long basePosition = downloadTarget.getBasePosition();
+
+		long position = firstBytePosition;
+
+		while(true)
+		{
+			try
+			{
+				if(httpEntity == null)
+				{
+					httpGet = createHttpGet(position, lastBytePosition, validator);
+
+					HttpResponse httpResponse = execute(httpGet);
+
+					httpEntity = httpResponse.getEntity();
+
+					if(httpResponse.getStatusLine().getStatusCode() != 206 || ContentRange.parse(httpResponse.getFirstHeader("Content-Range")).getFirstBytePosition() != position)
+					{
+						resourceChanged = true;
+
+						throw new ClientProtocolException("The download of " + fileURL.toExternalForm() + " could not be resumed, because the resource has changed.");
+					}
+				}
+
+				downloadHttpEntity = new DownloadHttpEntity(httpEntity, platformMediaType, downloadManager.getBandwidthLimiter(), progressTracker, abortSignal);
+
+				if(fileChannel != null)
+				{
+					downloadHttpEntity.writeTo(fileChannel, basePosition + position);
+				}
+				else
+				{
+					downloadHttpEntity.writeTo(downloadTarget.getOutputStream());
+				}
+
+				if(lastBytePosition >= 0L && position + downloadHttpEntity.getByteCount() != lastBytePosition + 1L)
+				{
+					throw new ClientProtocolException("The response body of " + fileURL.toExternalForm() + " is incomplete.");
+				}
+
+				return;
+			}
+			catch(IOException e)
+			{
+				httpGet.abort();
+
+				httpEntity = null;
+
+				DownloadHttpEntity failedDownloadHttpEntity = downloadHttpEntity;
+
+				if(failedDownloadHttpEntity != null && failedDownloadHttpEntity.isTargetFailed())
+				{
+					throw e;
+				}
+
+				if(resourceChanged || cancelled || timedOut || validator == null || resumeAttempts >= downloadManager.getMaxResumeAttempts())
+				{
+					throw e;
+				}
+
+				resumeAttempts++;
+
+				transferMetrics.retried();
+
+				backoff(resumeAttempts);
+			}
+			finally
+			{
+				DownloadHttpEntity transferredDownloadHttpEntity = downloadHttpEntity;
+
+				if(transferredDownloadHttpEntity != null)
+				{
+					downloadHttpEntity = null;
+
+					position += transferredDownloadHttpEntity.getByteCount();
+				}
+
+				contiguousByteCount = position;
+			}
+		}
+	}
+
+	/**
+	 * Downloads the remaining segments of the resource, starting with the
+	 * given position. At most {@link DownloadManager#getMaxParallelSegments()}
+	 * segments are downloaded concurrently and every segment is written
+	 * directly to its position within the {@link FileChannel} of the
+	 * {@link DownloadTarget}.
+	 * 
+	 * @param firstBytePosition The position of the first {@code Byte} which
+	 *        has not been downloaded yet
+	 * @param validator The {@code ETag} or the {@code Last-Modified} date of
+	 *        the resource or {@code null}
+	 * @throws IOException If a segment could not be downloaded or written
+	 */
+	private void downloadSegments(long firstBytePosition, String validator) throws IOException
+	{
+		LinkedList<Future<Void>> segmentFutures = new LinkedList<Future<Void>>();
+
+		FileChannel fileChannel = downloadTarget.getFileChannel();
+		long basePosition = downloadTarget.getBasePosition();
+
+		long position = firstBytePosition;
+
+		try
+		{
+			while(position < fileSize || !segmentFutures.isEmpty())
+			{
+				while(segmentFutures.size() < downloadManager.getMaxParallelSegments() && position < fileSize)
+				{
+					long lastBytePosition = Math.min(position + downloadManager.getSegmentSize(), fileSize) - 1L;
+
+					DownloadSegment downloadSegment = new DownloadSegment(storageTransport, fileURL, position, lastBytePosition, fileSize, validator, fileChannel, basePosition + position, progressTracker, downloadManager.getMaxResumeAttempts(), processTimeouts, downloadManager.getBandwidthLimiter(), transferMetrics);
+
+					synchronized(runnerLock)
+					{
+						if(cancelled || timedOut)
+						{
+							downloadSegment.abort();
+						}
+
+						downloadSegments.add(downloadSegment);
+					}
+
+					segmentFutures.add(downloadManager.submitDownloadSegment(downloadSegment));
+
+					position = lastBytePosition + 1L;
+				}
+
+				segmentFutures.getFirst().get();
+
+				synchronized(runnerLock)
+				{
+					downloadSegments.removeFirst();
+				}
+
+				segmentFutures.removeFirst();
+
+				contiguousByteCount = Math.min(contiguousByteCount + downloadManager.getSegmentSize(), fileSize);
+			}
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+
+			throw new IOException("The segmented download has been interrupted.");
+		}
+		catch(ExecutionException e)
+		{
+			synchronized(runnerLock)
+			{
+				resourceChanged = !downloadSegments.isEmpty() && downloadSegments.getFirst().isResourceChanged();
+			}
+
+			if(e.getCause() instanceof IOException)
+			{
+				throw (IOException) e.getCause();
+			}
+
+			throw new IOException(e.getCause().getMessage(), e.getCause());
+		}
+		finally
+		{
+			LinkedList<DownloadSegment> abortedSegments;
+
+			synchronized(runnerLock)
+			{
+				for(DownloadSegment downloadSegment : downloadSegments)
+				{
+					downloadSegment.abort();
+				}
+
+				abortedSegments = new LinkedList<DownloadSegment>(downloadSegments);
+
+				downloadSegments.clear();
+			}
+
+			for(Future<Void> segmentFuture : segmentFutures)
+			{
+				segmentFuture.cancel(false);
+			}
+
+			awaitSegments(abortedSegments);
+		}
+	}
+
+	/**
+	 * Waits until the given aborted {@link DownloadSegment} objects, which
+	 * are already running, have returned, so that no segment writes to the
+	 * {@link FileChannel} after the {@link DownloadTarget} has been closed.
+	 * 
+	 * @param abortedSegments The aborted {@code DownloadSegment} objects
+	 */
+	private static void awaitSegments(LinkedList<DownloadSegment> abortedSegments)
+	{
+		try
+		{
+			for(DownloadSegment downloadSegment : abortedSegments)
+			{
+				downloadSegment.awaitTermination();
+			}
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Writes the cached copy of the resource to the {@link DownloadTarget},
+	 * after the server has confirmed that the copy is still valid. If the copy
+	 * is not available anymore, because it has been evicted in the meantime,
+	 * or if it turns out to be incomplete, the resource has to be requested
+	 * again without conditions. An incomplete copy is removed from the
+	 * {@link DownloadCache} and the already written content is discarded.
+	 * 
+	 * @return {@code true} if the cached copy has been written;
+	 *         {@code false} if it is not available anymore
+	 * @throws IOException If the cached copy could not be written or the
+	 *         content of an incomplete copy could not be discarded
+	 */
+	private boolean copyFromCache() throws IOException
+	{
+		FileChannel cacheFileChannel = downloadCache.open(downloadCacheEntry);
+
+		if(cacheFileChannel == null)
+		{
+			downloadCacheEntry = null;
+
+			return false;
+		}
+
+		try
+		{
+			fileSize = downloadCacheEntry.getSize();
+			progressTracker.setTotalBytes(fileSize);
+
+			downloadTarget.preallocate(fileSize);
+
+			FileChannel fileChannel = downloadTarget.getFileChannel();
+			WritableByteChannel targetChannel = (fileChannel != null) ? fileChannel : Channels.newChannel(downloadTarget.getOutputStream());
+
+			long position = 0L;
+
+			while(position < fileSize)
+			{
+				long count = cacheFileChannel.transferTo(position, Math.min(fileSize - position, MAX_CACHE_TRANSFER_SIZE), targetChannel);
+
+				if(count <= 0L)
+				{
+					downloadCache.remove(fileURL);
+					downloadCacheEntry = null;
+
+					if(fileChannel == null && position > 0L)
+					{
+						throw new IOException("The cached copy of " + fileURL.toExternalForm() + " is incomplete and the download target cannot be restarted.");
+					}
+
+					if(downloadTarget.isRestartable())
+					{
+						downloadTarget.restart();
+					}
+
+					progressTracker.set(0L);
+					contiguousByteCount = 0L;
+
+					storageLogger.log(StorageLogLevel.WARN, DownloadProcessImpl.class, "The cached copy is incomplete, the resource is requested again.", fileURL.toExternalForm(), 304, position, -1L, null);
+
+					return false;
+				}
+
+				position += count;
+
+				progressTracker.add(count);
+				contiguousByteCount = position;
+			}
+		}
+		finally
+		{
+			cacheFileChannel.close();
+		}
+
+		if(storageLogger.isEnabled(StorageLogLevel.DEBUG))
+		{
+			storageLogger.log(StorageLogLevel.DEBUG, DownloadProcessImpl.class, "The download has been served from the cache.", fileURL.toExternalForm(), 304, fileSize, -1L, null);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Stores a copy of the completely written resource in the
+	 * {@link DownloadCache}. Only a {@link DownloadTarget} which provides a
+	 * readable {@link FileChannel} can be read back for this purpose. A
+	 * failure of the cache does not affect the download.
+	 * 
+	 * @param httpResponse The {@code HttpResponse} of the initial request
+	 * @param contentType The {@code Content-Type} of the resource
+	 */
+	private void storeInCache(HttpResponse httpResponse, String contentType)
+	{
+		FileChannel fileChannel = downloadTarget.getFileChannel();
+
+		if(fileChannel == null || cancelled || timedOut)
+		{
+			return;
+		}
+
+		Header entityTagHeader = httpResponse.getFirstHeader("ETag");
+		Header lastModifiedHeader = httpResponse.getFirstHeader("Last-Modified");
+
+		try
+		{
+			downloadCache.put(fileURL, fileChannel, downloadTarget.getBasePosition(), fileSize, contentType, entityTagHeader != null ? entityTagHeader.getValue() : null, lastModifiedHeader != null ? lastModifiedHeader.getValue() : null);
+		}
+		catch(IOException e)
+		{
+			storageLogger.log(StorageLogLevel.WARN, DownloadProcessImpl.class, "The downloaded resource could not be stored in the cache.", fileURL.toExternalForm(), -1, fileSize, -1L, e);
+		}
+		catch(NonReadableChannelException e)
+		{
+			storageLogger.log(StorageLogLevel.DEBUG, DownloadProcessImpl.class, "The download target cannot be read back into the cache.", fileURL.toExternalForm(), -1, fileSize, -1L, null);
+		}
+	}
+
+	/**
+	 * Returns the validator of the resource, which can be used for an
+	 * {@code If-Range} header. The {@code ETag} is preferred to the
+	 * {@code Last-Modified} date.
+	 * 
+	 * @param httpResponse The {@code HttpResponse} of the resource
+	 * @return The validator or {@code null} if there is none
+	 */
+	private static String getValidator(HttpResponse httpResponse)
+	{
+		Header entityTagHeader = httpResponse.getFirstHeader("ETag");
+		Header lastModifiedHeader = httpResponse.getFirstHeader("Last-Modified");
+
+		return getValidator(entityTagHeader != null ? entityTagHeader.getValue() : null, lastModifiedHeader != null ? lastModifiedHeader.getValue() : null);
+	}
+
+	/**
+	 * Returns the validator of a resource with the given {@code ETag} and
+	 * {@code Last-Modified} date, which can be used for an {@code If-Range}
+	 * header. A weak {@code ETag} is not suitable for an {@code If-Range}
+	 * header.
+	 * 
+	 * @param entityTag The {@code ETag} or {@code null}
+	 * @param lastModified The {@code Last-Modified} date or {@code null}
+	 * @return The validator or {@code null} if there is none
+	 */
+	static String getValidator(String entityTag, String lastModified)
+	{
+		if(entityTag != null && !entityTag.startsWith("W/"))
+		{
+			return entityTag;
+		}
+
+		return lastModified;
+	}
+
+	/**
+	 * Publishes the outcome of the process by means of the
+	 * {@link StorageLogger}.
+	 */
+	private void logOutcome()
+	{
+		StorageLogLevel level = (downloadReport != null) ? StorageLogLevel.INFO : StorageLogLevel.WARN;
+
+		if(!storageLogger.isEnabled(level))
+		{
+			return;
+		}
+
+		String message = (downloadReport != null) ? "The download process has been finished." : "The download process has failed.";
+		long duration = (downloadProcessStartTime != 0L && downloadProcessEndTime != 0L) ? downloadProcessEndTime - downloadProcessStartTime : -1L;
+
+		storageLogger.log(level, DownloadProcessImpl.class, message, fileURL.toExternalForm(), -1, progressTracker.getTransferredBytes(), duration, failureCause);
+	}
+
+	@Override
+	public int getProgress()
+	{
+		switch(getCurrentState())
+		{
+			case INIT:
+				return 0;
+
+			case DOWNLOADING:
+				return progressTracker.getPercentage(100);
+
+			case FINISHED:
+				return 100;
+
+			case CANCELLED:
+			case TIMED_OUT:
+			case ABORTED:
+				return 100;
+
+			default:
+				return 0;
+		}
+	}
+
+	@Override
+	public long getElapsedTime()
+	{
+		if(downloadProcessStartTime == 0L)
+		{
+			return 0L;
+		}
+		else if(downloadProcessEndTime != 0L)
+		{
+			return Math.round(((double) (downloadProcessEndTime - downloadProcessStartTime)) / 1000000.0d);
+		}
+
+		return Math.round(((double) (System.nanoTime() - downloadProcessStartTime)) / 1000000.0d);
+	}
+
+	@Override
+	public DownloadState getCurrentState()
+	{
+		return downloadState;
+	}
+
+	@Override
+	public long getTransferredBytes()
+	{
+		return progressTracker.getTransferredBytes();
+	}
+
+	@Override
+	public long getTotalBytes()
+	{
+		return progressTracker.getTotalBytes();
+	}
+
+	@Override
+	public void addProgressListener(ProgressListener progressListener)
+	{
+		progressTracker.addProgressListener(progressListener);
+	}
+
+	@Override
+	public void removeProgressListener(ProgressListener progressListener)
+	{
+		progressTracker.removeProgressListener(progressListener);
+	}
+
+	@Override
+	public ProcessTimeouts getTimeouts()
+	{
+		return processTimeouts;
+	}
+
+	@Override
+	public void setTimeouts(ProcessTimeouts processTimeouts)
+	{
+		if(processTimeouts == null)
+		{
+			throw new NullPointerException();
+		}
+
+		synchronized(runnerLock)
+		{
+			if(started || requeued)
+			{
+				throw new IllegalStateException("The timeouts cannot be changed after the download process has been started.");
+			}
+
+			this.processTimeouts = processTimeouts;
+		}
+	}
+
+	@Override
+	public ProcessPriority getPriority()
+	{
+		return processPriority;
+	}
+
+	@Override
+	public void setPriority(ProcessPriority processPriority)
+	{
+		if(processPriority == null)
+		{
+			throw new NullPointerException();
+		}
+
+		synchronized(runnerLock)
+		{
+			if(started || requeued)
+			{
+				throw new IllegalStateException("The priority cannot be changed after the download process has been started.");
+			}
+
+			this.processPriority = processPriority;
+
+			downloadManager.reprioritizeDownloadProcess(this, processPriority);
+		}
 	}
 }
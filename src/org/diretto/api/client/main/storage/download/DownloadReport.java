@@ -2,8 +2,10 @@ package org.diretto.api.client.main.storage.download;
 
 import java.net.URL;
 
+import org.diretto.api.client.base.data.PlatformMediaType;
 import org.diretto.api.client.main.core.entities.AttachmentID;
 import org.diretto.api.client.main.storage.base.AbstractProcessReport;
+import org.diretto.api.client.main.storage.base.ProcessTimings;
 
 /**
  * This class represents a {@code DownloadReport}, which provides information
@@ -17,11 +19,15 @@ public final class DownloadReport extends AbstractProcessReport
 {
 	private final long downloadTime;
 	private final double downloadRate;
+	private final int downloadAttempts;
+	private final int resumeAttempts;
+	private final boolean cacheHit;
 
 	/**
 	 * Constructs a {@link DownloadReport} using the given data.
 	 * 
-	 * @param downloadHttpEntity The corresponding {@code DownloadHttpEntity}
+	 * @param fileSize The size of the file
+	 * @param platformMediaType The {@code PlatformMediaType} of the resource
 	 * @param fileURL The {@code URL} of the file
 	 * @param attachmentID The corresponding {@code AttachmentID}
 	 * @param downloadProcessStartTime The start time of the download procedure
@@ -32,18 +38,26 @@ public final class DownloadReport extends AbstractProcessReport
 	 *        {@code nanoseconds}
 	 * @param downloadingEndTime The end time of the actual file download in
 	 *        {@code nanoseconds}
+	 * @param downloadAttempts The number of attempts of the initial download
+	 *        request
+	 * @param resumeAttempts The number of resumptions of the response body
+	 * @param processTimings The {@code ProcessTimings} of the download process
+	 * @param cacheHit {@code true} if the content has been served from the
+	 *        {@code DownloadCache}
 	 */
-	DownloadReport(DownloadHttpEntity downloadHttpEntity, URL fileURL, AttachmentID attachmentID, long downloadProcessStartTime, long downloadProcessEndTime, long downloadingStartTime, long downloadingEndTime)
+	DownloadReport(long fileSize, PlatformMediaType platformMediaType, URL fileURL, AttachmentID attachmentID, long downloadProcessStartTime, long downloadProcessEndTime, long downloadingStartTime, long downloadingEndTime, int downloadAttempts, int resumeAttempts, ProcessTimings processTimings, boolean cacheHit)
 	{
-		super(downloadHttpEntity.getContentLength(), downloadHttpEntity.getPlatformMediaType(), attachmentID, fileURL);
-
-		long fileSize = downloadHttpEntity.getContentLength();
+		super(fileSize, platformMediaType, attachmentID, fileURL, processTimings);
 
 		downloadTime = Math.round(((double) (downloadProcessEndTime - downloadProcessStartTime)) / 1000000.0d);
 
-		long downloadingTime = Math.round(((double) (downloadingEndTime - downloadingStartTime)) / 1000000.0d);
+		long downloadingTime = Math.max(downloadingEndTime - downloadingStartTime, 1L);
+
+		downloadRate = ((double) fileSize) / (((double) downloadingTime) / 1000000000.0d);
 
-		downloadRate = ((double) fileSize) / (((double) downloadingTime) / 1000.0d);
+		this.downloadAttempts = downloadAttempts;
+		this.resumeAttempts = resumeAttempts;
+		this.cacheHit = cacheHit;
 	}
 
 	/**
@@ -59,7 +73,8 @@ public final class DownloadReport extends AbstractProcessReport
 
 	/**
 	 * Returns the average data rate of the actual file download process in
-	 * {@code Byte/s}.
+	 * {@code Byte/s}. It only covers the transmission of the response body,
+	 * but neither the connection setup nor the response time of the server.
 	 * 
 	 * @return The average download data rate in {@code Byte/s}
 	 */
@@ -67,4 +82,41 @@ public final class DownloadReport extends AbstractProcessReport
 	{
 		return downloadRate;
 	}
+
+	/**
+	 * Returns the number of attempts which were necessary to obtain the
+	 * initial response of the resource. A number greater than {@code 1} means
+	 * that the download request has been repeated.
+	 * 
+	 * @return The number of download attempts
+	 */
+	public int getDownloadAttempts()
+	{
+		return downloadAttempts;
+	}
+
+	/**
+	 * Returns the number of times the response body has been resumed after a
+	 * connection failure.
+	 * 
+	 * @return The number of resume attempts
+	 */
+	public int getResumeAttempts()
+	{
+		return resumeAttempts;
+	}
+
+	/**
+	 * Returns whether the content has been served from the local download
+	 * cache, because the server has confirmed by {@code 304 Not Modified}
+	 * that the cached copy is still valid. In this case the download rate
+	 * refers to the local copy.
+	 * 
+	 * @return {@code true} if the content has been served from the cache;
+	 *         otherwise {@code false}
+	 */
+	public boolean isCacheHit()
+	{
+		return cacheHit;
+	}
 }
@@ -0,0 +1,315 @@
+package org.diretto.api.client.main.storage.download;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.Callable;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.methods.HttpGet;
+import org.diretto.api.client.main.storage.base.AbortSignal;
+import org.diretto.api.client.main.storage.base.BandwidthLimiter;
+import org.diretto.api.client.main.storage.base.HttpClientFactory;
+import org.diretto.api.client.main.storage.base.ProcessTimeouts;
+import org.diretto.api.client.main.storage.base.ProgressTracker;
+import org.diretto.api.client.main.storage.base.TransferMetrics;
+import org.diretto.api.client.main.storage.transport.StorageTransport;
+
+/**
+ * A {@code DownloadSegment} downloads a single {@code Byte} range of a
+ * resource by means of an <i>HTTP Range Request</i>. <br/><br/>
+ * 
+ * The content of the range is written directly to its position within the
+ * {@link FileChannel} of the target file, so that no segment is buffered in
+ * memory. If the connection fails, the download of the range is resumed from
+ * the last received {@code Byte}. A failure of the {@code FileChannel} is not
+ * resumed, and neither is a range of a resource which has changed in the
+ * meantime.
+ * 
+ * @author Tobias Schlecht
+ */
+final class DownloadSegment implements Callable<Void>
+{
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final StorageTransport storageTransport;
+	private final URL fileURL;
+	private final long firstBytePosition;
+	private final long lastBytePosition;
+	private final long instanceLength;
+	private final String validator;
+	private final FileChannel fileChannel;
+	private final long filePosition;
+	private final ProgressTracker progressTracker;
+	private final int maxResumeAttempts;
+	private final ProcessTimeouts processTimeouts;
+	private final BandwidthLimiter bandwidthLimiter;
+	private final TransferMetrics transferMetrics;
+
+	private long position;
+	private boolean targetFailed = false;
+	private volatile boolean resourceChanged = false;
+
+	private volatile HttpGet currentHttpGet = null;
+	private final AbortSignal abortSignal = new AbortSignal();
+
+	private boolean started = false;
+	private boolean finished = false;
+
+	/**
+	 * Constructs a {@link DownloadSegment}.
+	 * 
+	 * @param storageTransport The {@code StorageTransport}
+	 * @param fileURL The {@code URL} of the resource to be downloaded
+	 * @param firstBytePosition The position of the first {@code Byte} of the
+	 *        range
+	 * @param lastBytePosition The position of the last {@code Byte} of the
+	 *        range
+	 * @param instanceLength The length of the complete resource
+	 * @param validator The {@code ETag} or the {@code Last-Modified} date of
+	 *        the resource or {@code null}
+	 * @param fileChannel The {@code FileChannel} to which the range should be
+	 *        written
+	 * @param filePosition The position within the {@code FileChannel} to which
+	 *        the first {@code Byte} of the range should be written
+	 * @param progressTracker The {@code ProgressTracker} of the downloaded
+	 *        {@code Bytes}
+	 * @param maxResumeAttempts The maximum number of attempts to resume the
+	 *        range after a connection failure
+	 * @param processTimeouts The {@code ProcessTimeouts} of the corresponding
+	 *        download process
+	 * @param bandwidthLimiter The {@code BandwidthLimiter} of the downloads
+	 * @param transferMetrics The {@code TransferMetrics} of the downloads
+	 */
+	DownloadSegment(StorageTransport storageTransport, URL fileURL, long firstBytePosition, long lastBytePosition, long instanceLength, String validator, FileChannel fileChannel, long filePosition, ProgressTracker progressTracker, int maxResumeAttempts, ProcessTimeouts processTimeouts, BandwidthLimiter bandwidthLimiter, TransferMetrics transferMetrics)
+	{
+		this.storageTransport = storageTransport;
+		this.fileURL = fileURL;
+		this.firstBytePosition = firstBytePosition;
+		this.lastBytePosition = lastBytePosition;
+		this.instanceLength = instanceLength;
+		this.validator = validator;
+		this.fileChannel = fileChannel;
+		this.filePosition = filePosition;
+		this.progressTracker = progressTracker;
+		this.maxResumeAttempts = maxResumeAttempts;
+		this.processTimeouts = processTimeouts;
+		this.bandwidthLimiter = bandwidthLimiter;
+		this.transferMetrics = transferMetrics;
+
+		position = firstBytePosition;
+	}
+
+	@Override
+	public Void call() throws IOException
+	{
+		synchronized(this)
+		{
+			if(abortSignal.isAborted())
+			{
+				throw new IOException("The segment " + firstBytePosition + "-" + lastBytePosition + " has been aborted.");
+			}
+
+			started = true;
+		}
+
+		try
+		{
+			download();
+
+			return null;
+		}
+		finally
+		{
+			synchronized(this)
+			{
+				finished = true;
+
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Aborts the {@link DownloadSegment}. The current {@code HttpGet} request
+	 * is aborted, which releases the connection, a transmission which waits
+	 * for bandwidth is woken up and the range will not be resumed anymore.
+	 */
+	void abort()
+	{
+		abortSignal.abort();
+
+		HttpGet httpGet = currentHttpGet;
+
+		if(httpGet != null)
+		{
+			httpGet.abort();
+		}
+	}
+
+	/**
+	 * Waits until the {@link DownloadSegment} has returned, if it has already
+	 * been started. A {@code DownloadSegment} which has been aborted before
+	 * it has been started will not be started anymore.
+	 * 
+	 * @throws InterruptedException If the thread has been interrupted while
+	 *         waiting
+	 */
+	synchronized void awaitTermination() throws InterruptedException
+	{
+		while(started && !finished)
+		{
+			wait();
+		}
+	}
+
+	/**
+	 * Returns whether the range could not be downloaded, because the
+	 * resource has changed since the download has been started.
+	 * 
+	 * @return {@code true} if the resource has changed; otherwise
+	 *         {@code false}
+	 */
+	boolean isResourceChanged()
+	{
+		return resourceChanged;
+	}
+
+	/**
+	 * Downloads the range and resumes it after connection failures.
+	 * 
+	 * @throws IOException If the range could not be downloaded or written
+	 */
+	private void download() throws IOException
+	{
+		int resumeAttempts = 0;
+
+		while(true)
+		{
+			HttpGet httpGet = new HttpGet(fileURL.toExternalForm());
+
+			HttpClientFactory.applyTimeouts(httpGet, processTimeouts);
+
+			httpGet.setHeader("Range", "bytes=" + position + "-" + lastBytePosition);
+
+			if(validator != null)
+			{
+				httpGet.setHeader("If-Range", validator);
+			}
+
+			currentHttpGet = httpGet;
+
+			if(abortSignal.isAborted())
+			{
+				httpGet.abort();
+			}
+
+			try
+			{
+				HttpResponse httpResponse = storageTransport.execute(httpGet, null);
+
+				HttpEntity httpResponseEntity = httpResponse.getEntity();
+
+				if(httpResponse.getStatusLine().getStatusCode() == 200)
+				{
+					resourceChanged = true;
+
+					throw new ClientProtocolException("The segment " + position + "-" + lastBytePosition + " could not be downloaded, because the resource has changed.");
+				}
+
+				if(httpResponse.getStatusLine().getStatusCode() != 206)
+				{
+					httpResponseEntity.consumeContent();
+
+					throw new HttpResponseException(httpResponse.getStatusLine().getStatusCode(), "The segment " + position + "-" + lastBytePosition + " could not be downloaded as partial content.");
+				}
+
+				ContentRange contentRange = ContentRange.parse(httpResponse.getFirstHeader("Content-Range"));
+
+				if(contentRange.getFirstBytePosition() != position || contentRange.getLastBytePosition() != lastBytePosition || contentRange.getInstanceLength() != instanceLength)
+				{
+					resourceChanged = true;
+
+					throw new ClientProtocolException("The segment " + position + "-" + lastBytePosition + " does not match the requested range.");
+				}
+
+				InputStream inputStream = httpResponseEntity.getContent();
+
+				try
+				{
+					transfer(inputStream);
+				}
+				finally
+				{
+					inputStream.close();
+				}
+
+				return;
+			}
+			catch(IOException e)
+			{
+				httpGet.abort();
+
+				if(abortSignal.isAborted() || targetFailed || resourceChanged || validator == null || resumeAttempts >= maxResumeAttempts)
+				{
+					throw e;
+				}
+
+				resumeAttempts++;
+
+				transferMetrics.retried();
+			}
+		}
+	}
+
+	/**
+	 * Transfers the remaining content of the range directly to its position
+	 * within the {@link FileChannel}.
+	 * 
+	 * @param inputStream The {@code InputStream} of the partial response
+	 * @throws IOException If an I/O error occurs or the range is incomplete
+	 */
+	private void transfer(InputStream inputStream) throws IOException
+	{
+		byte[] buffer = new byte[(int) Math.min(BUFFER_SIZE, lastBytePosition - firstBytePosition + 1L)];
+
+		while(position <= lastBytePosition)
+		{
+			int count = inputStream.read(buffer, 0, (int) Math.min(buffer.length, lastBytePosition - position + 1L));
+
+			if(count < 0)
+			{
+				throw new ClientProtocolException("The segment " + firstBytePosition + "-" + lastBytePosition + " is incomplete.");
+			}
+
+			ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, count);
+
+			long writePosition = filePosition + (position - firstBytePosition);
+
+			try
+			{
+				while(byteBuffer.hasRemaining())
+				{
+					writePosition += fileChannel.write(byteBuffer, writePosition);
+				}
+			}
+			catch(IOException e)
+			{
+				targetFailed = true;
+
+				throw e;
+			}
+
+			position += count;
+
+			progressTracker.add(count);
+
+			bandwidthLimiter.acquire(count, abortSignal);
+		}
+	}
+}
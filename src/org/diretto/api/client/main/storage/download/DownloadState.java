@@ -14,6 +14,10 @@ public enum DownloadState
 
 	FINISHED("The download process has been finished."),
 
+	CANCELLED("The download process has been cancelled."),
+
+	TIMED_OUT("The download process has exceeded its deadline."),
+
 	ABORTED("The download process has been aborted.");
 
 	private final String description;
@@ -0,0 +1,409 @@
+package org.diretto.api.client.main.storage.download;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+
+import org.diretto.api.client.main.storage.base.StorageLogLevel;
+import org.diretto.api.client.main.storage.base.StorageLogger;
+
+/**
+ * A {@code DownloadTarget} represents the destination of a download process.
+ * It is either an arbitrary {@link OutputStream}, a {@link FileChannel} or a
+ * {@link File}. <br/><br/>
+ * 
+ * The content of a {@code FileChannel} or {@code File} target can be written
+ * positionally. A {@code File} target is additionally preallocated to the
+ * size of the resource and the download can be restarted. Moreover the
+ * validator ({@code ETag} or {@code Last-Modified} date) of the resource is
+ * stored beside the file as long as the download has not been finished, so
+ * that a partially downloaded file can be resumed by a later download
+ * process.
+ * 
+ * @author Tobias Schlecht
+ */
+final class DownloadTarget
+{
+	private static final String VALIDATOR_FILE_SUFFIX = ".resume";
+
+	private final File file;
+	private final boolean resume;
+	private final StorageLogger storageLogger;
+
+	private OutputStream outputStream;
+	private FileChannel fileChannel;
+	private long basePosition = 0L;
+	private long resumeOffset = 0L;
+	private String validator = null;
+
+	/**
+	 * Constructs a {@link DownloadTarget}.
+	 * 
+	 * @param outputStream The {@code OutputStream} or {@code null}
+	 * @param fileChannel The {@code FileChannel} or {@code null}
+	 * @param file The {@code File} or {@code null}
+	 * @param resume {@code true} if an existing partially downloaded file
+	 *        should be resumed
+	 * @param storageLogger The {@code StorageLogger} to which failures of
+	 *        closing the {@code DownloadTarget} are logged
+	 */
+	private DownloadTarget(OutputStream outputStream, FileChannel fileChannel, File file, boolean resume, StorageLogger storageLogger)
+	{
+		this.outputStream = outputStream;
+		this.fileChannel = fileChannel;
+		this.file = file;
+		this.resume = resume;
+		this.storageLogger = storageLogger;
+	}
+
+	/**
+	 * Creates a {@link DownloadTarget} for the given {@link OutputStream}. The
+	 * resource content is always written to the {@code OutputStream} in order,
+	 * even if it is a {@link FileOutputStream}, because a stream which has
+	 * been opened in append mode ignores positional writes.
+	 * 
+	 * @param outputStream The {@code OutputStream} to which the resource
+	 *        content should be written
+	 * @param storageLogger The {@code StorageLogger} to which failures of
+	 *        closing the {@code DownloadTarget} are logged
+	 * @return The corresponding {@code DownloadTarget}
+	 */
+	static DownloadTarget forOutputStream(OutputStream outputStream, StorageLogger storageLogger)
+	{
+		return new DownloadTarget(outputStream, null, null, false, storageLogger);
+	}
+
+	/**
+	 * Creates a {@link DownloadTarget} for the given {@link FileChannel}. The
+	 * resource content is written starting with the current position of the
+	 * {@code FileChannel}, which is not closed afterwards. The
+	 * {@code FileChannel} must not have been opened in append mode, because
+	 * the content is written positionally.
+	 * 
+	 * @param fileChannel The {@code FileChannel} to which the resource content
+	 *        should be written
+	 * @param storageLogger The {@code StorageLogger} to which failures of
+	 *        closing the {@code DownloadTarget} are logged
+	 * @return The corresponding {@code DownloadTarget}
+	 */
+	static DownloadTarget forFileChannel(FileChannel fileChannel, StorageLogger storageLogger)
+	{
+		return new DownloadTarget(null, fileChannel, null, false, storageLogger);
+	}
+
+	/**
+	 * Creates a {@link DownloadTarget} for the given {@link File}.
+	 * 
+	 * @param file The {@code File} to which the resource content should be
+	 *        written
+	 * @param resume {@code true} if an existing partially downloaded file
+	 *        should be resumed; {@code false} if it should be overwritten
+	 * @param storageLogger The {@code StorageLogger} to which failures of
+	 *        closing the {@code DownloadTarget} are logged
+	 * @return The corresponding {@code DownloadTarget}
+	 */
+	static DownloadTarget forFile(File file, boolean resume, StorageLogger storageLogger)
+	{
+		return new DownloadTarget(null, null, file, resume, storageLogger);
+	}
+
+	/**
+	 * Opens the {@link DownloadTarget}. If a partially downloaded file should
+	 * be resumed and its validator is available, the resume offset is set to
+	 * the length of the file. Otherwise the file is truncated.
+	 * 
+	 * @throws IOException If an I/O error occurs
+	 */
+	void open() throws IOException
+	{
+		if(file == null)
+		{
+			if(fileChannel != null)
+			{
+				outputStream = Channels.newOutputStream(fileChannel);
+				basePosition = fileChannel.position();
+			}
+
+			return;
+		}
+
+		File validatorFile = getValidatorFile();
+
+		if(resume && file.exists() && validatorFile.exists())
+		{
+			validator = readValidator(validatorFile);
+		}
+
+		fileChannel = new RandomAccessFile(file, "rw").getChannel();
+
+		if(validator != null)
+		{
+			resumeOffset = fileChannel.size();
+		}
+		else
+		{
+			fileChannel.truncate(0L);
+		}
+
+		fileChannel.position(resumeOffset);
+
+		outputStream = Channels.newOutputStream(fileChannel);
+	}
+
+	/**
+	 * Returns the {@link OutputStream} to which the content has to be written
+	 * sequentially.
+	 * 
+	 * @return The {@code OutputStream}
+	 */
+	OutputStream getOutputStream()
+	{
+		return outputStream;
+	}
+
+	/**
+	 * Returns the {@link FileChannel} of the target file, which can be used for
+	 * positional writes, or {@code null} if there is no such file.
+	 * 
+	 * @return The {@code FileChannel} or {@code null}
+	 */
+	FileChannel getFileChannel()
+	{
+		return fileChannel;
+	}
+
+	/**
+	 * Returns the position within the {@link FileChannel} which corresponds to
+	 * the first {@code Byte} of the resource.
+	 * 
+	 * @return The base position
+	 */
+	long getBasePosition()
+	{
+		return basePosition;
+	}
+
+	/**
+	 * Returns the number of {@code Bytes} of the resource which are already
+	 * present from an earlier download process.
+	 * 
+	 * @return The resume offset
+	 */
+	long getResumeOffset()
+	{
+		return resumeOffset;
+	}
+
+	/**
+	 * Returns the validator of the partially downloaded resource or
+	 * {@code null} if it is unknown.
+	 * 
+	 * @return The validator or {@code null}
+	 */
+	String getValidator()
+	{
+		return validator;
+	}
+
+	/**
+	 * Stores the validator of the resource. For a {@link File} target the
+	 * validator is additionally written beside the file, so that a later
+	 * download process is able to resume the file.
+	 * 
+	 * @param validator The validator or {@code null}
+	 * @throws IOException If an I/O error occurs
+	 */
+	void setValidator(String validator) throws IOException
+	{
+		this.validator = validator;
+
+		if(file == null)
+		{
+			return;
+		}
+
+		File validatorFile = getValidatorFile();
+
+		if(validator == null)
+		{
+			validatorFile.delete();
+
+			return;
+		}
+
+		OutputStream validatorOutputStream = new FileOutputStream(validatorFile);
+
+		try
+		{
+			validatorOutputStream.write(validator.getBytes("UTF-8"));
+		}
+		finally
+		{
+			validatorOutputStream.close();
+		}
+	}
+
+	/**
+	 * Preallocates the target file for a resource of the given size, so that
+	 * the file system is able to reserve contiguous space in advance instead
+	 * of extending the file with every write. Only {@link File} targets are
+	 * preallocated, because their length is reset if the download fails.
+	 * 
+	 * @param size The size of the resource in {@code Bytes}
+	 * @throws IOException If an I/O error occurs
+	 */
+	void preallocate(long size) throws IOException
+	{
+		if(file == null || size <= 0L || fileChannel.size() >= basePosition + size)
+		{
+			return;
+		}
+
+		fileChannel.write(ByteBuffer.wrap(new byte[1]), basePosition + size - 1L);
+	}
+
+	/**
+	 * Returns whether already written content can be discarded, so that the
+	 * download can be restarted from the beginning.
+	 * 
+	 * @return {@code true} if the download can be restarted; otherwise
+	 *         {@code false}
+	 */
+	boolean isRestartable()
+	{
+		return file != null;
+	}
+
+	/**
+	 * Discards the already written content, so that the download can be
+	 * restarted from the beginning.
+	 * 
+	 * @throws IOException If an I/O error occurs
+	 */
+	void restart() throws IOException
+	{
+		if(!isRestartable())
+		{
+			throw new IOException("The download target cannot be restarted.");
+		}
+
+		fileChannel.truncate(basePosition);
+		fileChannel.position(basePosition);
+
+		resumeOffset = 0L;
+	}
+
+	/**
+	 * Closes the {@link DownloadTarget}. If the download has been finished,
+	 * the stored validator is removed. Otherwise a {@link File} target is
+	 * truncated behind the contiguously written content, so that the length of
+	 * the file is a valid resume offset even if segments or a preallocated
+	 * area are missing. <br/><br/>
+	 * 
+	 * A given {@link OutputStream} or {@link FileChannel} is not closed, but
+	 * its position is moved behind the contiguously written content, because
+	 * the content has been written positionally.
+	 * 
+	 * @param finished {@code true} if the download has been finished
+	 * @param contiguousLength The number of {@code Bytes} of the resource which
+	 *        have been written without gaps
+	 */
+	void close(boolean finished, long contiguousLength)
+	{
+		if(fileChannel == null)
+		{
+			return;
+		}
+
+		try
+		{
+			if(file == null)
+			{
+				fileChannel.position(basePosition + contiguousLength);
+			}
+			else if(finished)
+			{
+				getValidatorFile().delete();
+			}
+			else if(fileChannel.size() > basePosition + contiguousLength)
+			{
+				fileChannel.truncate(basePosition + contiguousLength);
+			}
+		}
+		catch(IOException e)
+		{
+			storageLogger.log(StorageLogLevel.WARN, DownloadTarget.class, "The download target could not be finalized.", e);
+		}
+
+		if(file == null)
+		{
+			return;
+		}
+
+		try
+		{
+			fileChannel.close();
+		}
+		catch(IOException e)
+		{
+			storageLogger.log(StorageLogLevel.WARN, DownloadTarget.class, "The download target could not be closed.", e);
+		}
+	}
+
+	/**
+	 * Returns the {@link File} which contains the validator of the partially
+	 * downloaded file.
+	 * 
+	 * @return The validator {@code File}
+	 */
+	private File getValidatorFile()
+	{
+		return new File(file.getPath() + VALIDATOR_FILE_SUFFIX);
+	}
+
+	/**
+	 * Reads the validator from the given {@link File}.
+	 * 
+	 * @param validatorFile The validator {@code File}
+	 * @return The validator or {@code null} if the {@code File} is empty
+	 * @throws IOException If an I/O error occurs
+	 */
+	private static String readValidator(File validatorFile) throws IOException
+	{
+		InputStream validatorInputStream = new FileInputStream(validatorFile);
+
+		try
+		{
+			byte[] content = new byte[(int) validatorFile.length()];
+
+			int offset = 0;
+
+			while(offset < content.length)
+			{
+				int count = validatorInputStream.read(content, offset, content.length - offset);
+
+				if(count < 0)
+				{
+					break;
+				}
+
+				offset += count;
+			}
+
+			String validator = new String(content, 0, offset, "UTF-8").trim();
+
+			return validator.length() == 0 ? null : validator;
+		}
+		finally
+		{
+			validatorInputStream.close();
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package org.diretto.api.client.main.storage.nio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * This interface represents the body of an {@link AsyncHttpRequest}. The
+ * body is read by an I/O thread of the {@link AsyncHttpEngine} whenever the
+ * connection is able to accept more data, so that the implementation must
+ * not block for a considerable time.
+ * 
+ * @author Tobias Schlecht
+ */
+public interface AsyncHttpBody
+{
+	/**
+	 * Returns the length of the body.
+	 * 
+	 * @return The length of the body in {@code Bytes}
+	 */
+	long getContentLength();
+
+	/**
+	 * Reads the next part of the body into the given {@link ByteBuffer}.
+	 * 
+	 * @param byteBuffer The {@code ByteBuffer}
+	 * @return The number of read {@code Bytes} or {@code -1} if the end of the
+	 *         body has been reached
+	 * @throws IOException If an I/O error occurs
+	 */
+	int read(ByteBuffer byteBuffer) throws IOException;
+
+	/**
+	 * Releases the resources of the body. This method is invoked as soon as
+	 * the corresponding request has been finished or has failed.
+	 */
+	void close();
+}
@@ -0,0 +1,982 @@
+package org.diretto.api.client.main.storage.nio;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.UnresolvedAddressException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.http.ConnectionClosedException;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.diretto.api.client.main.storage.base.BandwidthLimiter;
+import org.diretto.api.client.main.storage.base.StorageLogLevel;
+
+/**
+ * An {@code AsyncHttpConnection} is a non-blocking {@code HTTP/1.1}
+ * connection of an {@link IOReactor}. It sends the request of its current
+ * {@link AsyncHttpExchange}, parses the response and passes the response body
+ * to the {@link AsyncHttpHandler}. Response bodies with a
+ * {@code Content-Length}, with the {@code chunked} transfer coding and
+ * delimited by the end of the connection are supported. If the server
+ * answers before the request body has been sent completely, the rest of the
+ * body is abandoned and the early response is received. <br/><br/>
+ * 
+ * If the {@link BandwidthLimiter} of the request is exhausted, the
+ * connection is suspended instead of blocking the I/O thread. <br/><br/>
+ * 
+ * <i>Annotation:</i> All methods must only be invoked by the I/O thread of the
+ * {@code IOReactor}.
+ * 
+ * @author Tobias Schlecht
+ */
+final class AsyncHttpConnection
+{
+	private static final int BUFFER_SIZE = 32 * 1024;
+	private static final int MAX_HEAD_SIZE = 64 * 1024;
+	private static final int MAX_LINE_LENGTH = 8 * 1024;
+
+	private final IOReactor ioReactor;
+	private final String routeKey;
+	private final SocketChannel socketChannel;
+	private final SelectionKey selectionKey;
+	private final ByteBuffer outputBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private final StringBuilder lineBuilder = new StringBuilder();
+
+	private ByteBuffer inputBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+	private ByteBuffer headBuffer;
+
+	private ConnectionState connectionState;
+	private AsyncHttpExchange asyncHttpExchange = null;
+
+	private long connectStartTime = 0L;
+	private long connectedTime = 0L;
+	private long requestSentTime = 0L;
+	private long lastActivityTime = 0L;
+	private long idleStartTime = 0L;
+
+	private boolean suspended = false;
+	private int suspendedInterestOps = 0;
+	private long resumeTime = 0L;
+
+	private long remainingBodyLength;
+	private boolean bodyExhausted;
+	private boolean bodyAbandoned;
+
+	private BodyFraming bodyFraming;
+	private ChunkState chunkState;
+	private long remainingContentLength;
+	private boolean keepAlive;
+	private String line;
+
+	/**
+	 * The {@code ConnectionState} of an {@link AsyncHttpConnection}.
+	 */
+	private enum ConnectionState
+	{
+		CONNECTING, SENDING, RECEIVING_HEAD, RECEIVING_BODY, IDLE, CLOSED
+	}
+
+	/**
+	 * The {@code BodyFraming} determines the end of a response body.
+	 */
+	private enum BodyFraming
+	{
+		NONE, CONTENT_LENGTH, CHUNKED, CONNECTION_CLOSE
+	}
+
+	/**
+	 * The {@code ChunkState} of a response body with the {@code chunked}
+	 * transfer coding.
+	 */
+	private enum ChunkState
+	{
+		SIZE, DATA, DATA_END, TRAILER
+	}
+
+	/**
+	 * Constructs an {@link AsyncHttpConnection}.
+	 * 
+	 * @param ioReactor The corresponding {@code IOReactor}
+	 * @param selector The {@code Selector} of the {@code IOReactor}
+	 * @param routeKey The route key of the connection
+	 * @param socketChannel The non-blocking {@code SocketChannel}
+	 * @param connected {@code true} if the {@code SocketChannel} has already
+	 *        been connected
+	 * @throws IOException If the {@code SocketChannel} could not be
+	 *         registered
+	 */
+	private AsyncHttpConnection(IOReactor ioReactor, Selector selector, String routeKey, SocketChannel socketChannel, boolean connected) throws IOException
+	{
+		this.ioReactor = ioReactor;
+		this.routeKey = routeKey;
+		this.socketChannel = socketChannel;
+
+		connectionState = connected ? ConnectionState.SENDING : ConnectionState.CONNECTING;
+		connectStartTime = System.nanoTime();
+
+		selectionKey = socketChannel.register(selector, 0, this);
+	}
+
+	/**
+	 * Opens a new connection to the route of the given
+	 * {@link AsyncHttpRequest}.
+	 * 
+	 * @param ioReactor The corresponding {@code IOReactor}
+	 * @param selector The {@code Selector} of the {@code IOReactor}
+	 * @param asyncHttpRequest The {@code AsyncHttpRequest}
+	 * @return The new {@code AsyncHttpConnection}
+	 * @throws IOException If the connection could not be opened
+	 */
+	static AsyncHttpConnection open(IOReactor ioReactor, Selector selector, AsyncHttpRequest asyncHttpRequest) throws IOException
+	{
+		SocketChannel socketChannel = SocketChannel.open();
+
+		try
+		{
+			socketChannel.configureBlocking(false);
+			socketChannel.socket().setTcpNoDelay(true);
+
+			boolean connected = socketChannel.connect(new InetSocketAddress(asyncHttpRequest.getHost(), asyncHttpRequest.getPort()));
+
+			return new AsyncHttpConnection(ioReactor, selector, asyncHttpRequest.getRouteKey(), socketChannel, connected);
+		}
+		catch(UnresolvedAddressException e)
+		{
+			socketChannel.close();
+
+			throw new UnknownHostException(asyncHttpRequest.getHost());
+		}
+		catch(IOException e)
+		{
+			socketChannel.close();
+
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the route key of the connection.
+	 * 
+	 * @return The route key
+	 */
+	String getRouteKey()
+	{
+		return routeKey;
+	}
+
+	/**
+	 * Starts the given {@link AsyncHttpExchange} on this connection.
+	 * 
+	 * @param asyncHttpExchange The {@code AsyncHttpExchange}
+	 */
+	void start(AsyncHttpExchange asyncHttpExchange)
+	{
+		AsyncHttpRequest asyncHttpRequest = asyncHttpExchange.getRequest();
+
+		this.asyncHttpExchange = asyncHttpExchange;
+		asyncHttpExchange.setConnection(this);
+
+		headBuffer = ByteBuffer.wrap(asyncHttpRequest.encodeHead());
+		outputBuffer.clear();
+		outputBuffer.flip();
+
+		AsyncHttpBody asyncHttpBody = asyncHttpRequest.getBody();
+
+		remainingBodyLength = asyncHttpBody != null ? asyncHttpBody.getContentLength() : 0L;
+		bodyExhausted = asyncHttpBody == null;
+		bodyAbandoned = false;
+
+		lineBuilder.setLength(0);
+		lastActivityTime = System.nanoTime();
+		connectedTime = lastActivityTime;
+		requestSentTime = 0L;
+
+		if(connectionState == ConnectionState.CONNECTING)
+		{
+			selectionKey.interestOps(SelectionKey.OP_CONNECT);
+		}
+		else
+		{
+			connectionState = ConnectionState.SENDING;
+
+			selectionKey.interestOps(SelectionKey.OP_WRITE | SelectionKey.OP_READ);
+		}
+	}
+
+	/**
+	 * Aborts the given {@link AsyncHttpExchange}, if it is the current one.
+	 * 
+	 * @param asyncHttpExchange The {@code AsyncHttpExchange}
+	 */
+	void abort(AsyncHttpExchange asyncHttpExchange)
+	{
+		if(this.asyncHttpExchange == asyncHttpExchange)
+		{
+			fail(new InterruptedIOException("The request has been aborted."));
+		}
+	}
+
+	/**
+	 * Fails the current {@link AsyncHttpExchange} and closes the connection,
+	 * because the {@link AsyncHttpEngine} is shut down.
+	 */
+	void shutdown()
+	{
+		fail(new IOException("The asynchronous engine has been shut down."));
+	}
+
+	/**
+	 * Handles the ready operations of the {@link SelectionKey}.
+	 * 
+	 * @param readyOps The ready operations
+	 */
+	void handleEvent(int readyOps)
+	{
+		try
+		{
+			if(connectionState == ConnectionState.IDLE)
+			{
+				close();
+
+				return;
+			}
+
+			if(connectionState == ConnectionState.CONNECTING && (readyOps & SelectionKey.OP_CONNECT) != 0)
+			{
+				if(!socketChannel.finishConnect())
+				{
+					return;
+				}
+
+				connectionState = ConnectionState.SENDING;
+				lastActivityTime = System.nanoTime();
+				connectedTime = lastActivityTime;
+
+				selectionKey.interestOps(SelectionKey.OP_WRITE | SelectionKey.OP_READ);
+			}
+
+			if(connectionState == ConnectionState.SENDING && (readyOps & SelectionKey.OP_READ) != 0)
+			{
+				abandonBody();
+			}
+
+			if(connectionState == ConnectionState.SENDING && (readyOps & SelectionKey.OP_WRITE) != 0)
+			{
+				send();
+			}
+			else if((connectionState == ConnectionState.RECEIVING_HEAD || connectionState == ConnectionState.RECEIVING_BODY) && (readyOps & SelectionKey.OP_READ) != 0)
+			{
+				receive();
+			}
+		}
+		catch(IOException e)
+		{
+			fail(e);
+		}
+		catch(RuntimeException e)
+		{
+			fail(new IOException(e.getMessage(), e));
+		}
+	}
+
+	/**
+	 * Checks the timeouts of the connection.
+	 * 
+	 * @param now The current time in {@code nanoseconds}
+	 */
+	void checkTimeout(long now)
+	{
+		if(connectionState == ConnectionState.IDLE)
+		{
+			if(now - idleStartTime >= ioReactor.getKeepAliveTimeout())
+			{
+				close();
+			}
+
+			return;
+		}
+
+		if(asyncHttpExchange == null || suspended)
+		{
+			return;
+		}
+
+		AsyncHttpRequest asyncHttpRequest = asyncHttpExchange.getRequest();
+
+		if(connectionState == ConnectionState.CONNECTING)
+		{
+			if(asyncHttpRequest.getConnectTimeout() > 0L && now - connectStartTime >= asyncHttpRequest.getConnectTimeout() * 1000000L)
+			{
+				fail(new ConnectTimeoutException("Connect to " + routeKey + " timed out."));
+			}
+		}
+		else if(asyncHttpRequest.getSocketTimeout() > 0L && now - lastActivityTime >= asyncHttpRequest.getSocketTimeout() * 1000000L)
+		{
+			fail(new SocketTimeoutException("The connection to " + routeKey + " timed out."));
+		}
+	}
+
+	/**
+	 * Sends the head and the body of the request as far as the
+	 * {@code SocketChannel} accepts them.
+	 * 
+	 * @throws IOException If an I/O error occurs
+	 */
+	private void send() throws IOException
+	{
+		while(true)
+		{
+			if(headBuffer.hasRemaining())
+			{
+				if(socketChannel.write(headBuffer) > 0)
+				{
+					lastActivityTime = System.nanoTime();
+				}
+
+				if(headBuffer.hasRemaining())
+				{
+					return;
+				}
+			}
+			else if(outputBuffer.hasRemaining())
+			{
+				int count = socketChannel.write(outputBuffer);
+
+				if(count > 0)
+				{
+					lastActivityTime = System.nanoTime();
+
+					if(throttle(count))
+					{
+						return;
+					}
+				}
+
+				if(outputBuffer.hasRemaining())
+				{
+					return;
+				}
+			}
+			else if(bodyExhausted)
+			{
+				connectionState = ConnectionState.RECEIVING_HEAD;
+				requestSentTime = System.nanoTime();
+
+				selectionKey.interestOps(SelectionKey.OP_READ);
+
+				return;
+			}
+			else
+			{
+				outputBuffer.clear();
+
+				int count = asyncHttpExchange.getRequest().getBody().read(outputBuffer);
+
+				outputBuffer.flip();
+
+				if(count < 0 || remainingBodyLength == 0L)
+				{
+					if(remainingBodyLength != 0L || outputBuffer.hasRemaining())
+					{
+						throw new ClientProtocolException("The request body does not match its content length.");
+					}
+
+					bodyExhausted = true;
+				}
+				else
+				{
+					remainingBodyLength -= count;
+
+					if(remainingBodyLength < 0L)
+					{
+						throw new ClientProtocolException("The request body does not match its content length.");
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Stops sending the body of the request, because the server has already
+	 * started to answer it (e.g. with {@code 413 Request Entity Too Large} or
+	 * {@code 401 Unauthorized}). The response is received instead, and the
+	 * connection is closed afterwards, because the request has not been sent
+	 * completely.
+	 */
+	private void abandonBody()
+	{
+		connectionState = ConnectionState.RECEIVING_HEAD;
+		requestSentTime = System.nanoTime();
+		bodyAbandoned = true;
+		suspended = false;
+
+		selectionKey.interestOps(SelectionKey.OP_READ);
+	}
+
+	/**
+	 * Receives and processes the available data of the response.
+	 * 
+	 * @throws IOException If an I/O error occurs
+	 */
+	private void receive() throws IOException
+	{
+		if(connectionState == ConnectionState.RECEIVING_HEAD && !inputBuffer.hasRemaining())
+		{
+			if(inputBuffer.capacity() >= MAX_HEAD_SIZE)
+			{
+				throw new ClientProtocolException("The head of the response is too large.");
+			}
+
+			ByteBuffer largerInputBuffer = ByteBuffer.allocate(inputBuffer.capacity() * 2);
+
+			inputBuffer.flip();
+			largerInputBuffer.put(inputBuffer);
+
+			inputBuffer = largerInputBuffer;
+		}
+
+		int count = socketChannel.read(inputBuffer);
+
+		if(count < 0)
+		{
+			receiveEndOfStream();
+
+			return;
+		}
+
+		if(count == 0)
+		{
+			return;
+		}
+
+		lastActivityTime = System.nanoTime();
+
+		inputBuffer.flip();
+
+		try
+		{
+			while(asyncHttpExchange != null && inputBuffer.hasRemaining())
+			{
+				if(connectionState == ConnectionState.RECEIVING_HEAD)
+				{
+					if(!receiveHead())
+					{
+						return;
+					}
+				}
+				else if(!receiveBody())
+				{
+					return;
+				}
+			}
+		}
+		finally
+		{
+			if(connectionState != ConnectionState.CLOSED)
+			{
+				inputBuffer.compact();
+			}
+		}
+	}
+
+	/**
+	 * Handles the end of the stream of the connection.
+	 * 
+	 * @throws IOException If the response is incomplete
+	 */
+	private void receiveEndOfStream() throws IOException
+	{
+		if(connectionState == ConnectionState.RECEIVING_BODY && bodyFraming == BodyFraming.CONNECTION_CLOSE)
+		{
+			keepAlive = false;
+
+			completeExchange();
+		}
+		else if(connectionState == ConnectionState.RECEIVING_HEAD && inputBuffer.position() == 0)
+		{
+			throw new NoHttpResponseException("The target server " + routeKey + " failed to respond.");
+		}
+		else
+		{
+			throw new ConnectionClosedException("Premature end of the response from " + routeKey + ".");
+		}
+	}
+
+	/**
+	 * Parses the head of the response, if it has been received completely.
+	 * 
+	 * @return {@code true} if the head has been parsed; otherwise
+	 *         {@code false}
+	 * @throws IOException If the head is malformed or has been rejected by the
+	 *         {@code AsyncHttpHandler}
+	 */
+	private boolean receiveHead() throws IOException
+	{
+		int headStart = inputBuffer.position();
+		int headEnd = -1;
+
+		for(int i = headStart; i + 3 < inputBuffer.limit(); i++)
+		{
+			if(inputBuffer.get(i) == '\r' && inputBuffer.get(i + 1) == '\n' && inputBuffer.get(i + 2) == '\r' && inputBuffer.get(i + 3) == '\n')
+			{
+				headEnd = i;
+
+				break;
+			}
+		}
+
+		if(headEnd < 0)
+		{
+			return false;
+		}
+
+		String head = decode(inputBuffer, headStart, headEnd - headStart);
+
+		inputBuffer.position(headEnd + 4);
+
+		String[] lines = head.split("\r\n");
+		String[] statusLine = lines[0].split(" ", 3);
+
+		if(statusLine.length < 2 || !statusLine[0].startsWith("HTTP/"))
+		{
+			throw new ClientProtocolException("The status line \"" + lines[0] + "\" is malformed.");
+		}
+
+		int statusCode;
+
+		try
+		{
+			statusCode = Integer.parseInt(statusLine[1]);
+		}
+		catch(NumberFormatException e)
+		{
+			throw new ClientProtocolException("The status line \"" + lines[0] + "\" is malformed.");
+		}
+
+		if(statusCode >= 100 && statusCode < 200)
+		{
+			return true;
+		}
+
+		List<String[]> headers = new ArrayList<String[]>();
+
+		for(int i = 1; i < lines.length; i++)
+		{
+			int separatorIndex = lines[i].indexOf(':');
+
+			if(separatorIndex > 0)
+			{
+				headers.add(new String[] {lines[i].substring(0, separatorIndex).trim(), lines[i].substring(separatorIndex + 1).trim()});
+			}
+		}
+
+		AsyncHttpResponse asyncHttpResponse = new AsyncHttpResponse(statusCode, statusLine.length > 2 ? statusLine[2] : "", headers, connectedTime, requestSentTime);
+
+		String connectionHeader = asyncHttpResponse.getHeader("Connection");
+		String transferEncodingHeader = asyncHttpResponse.getHeader("Transfer-Encoding");
+
+		if(statusLine[0].equals("HTTP/1.0"))
+		{
+			keepAlive = "keep-alive".equalsIgnoreCase(connectionHeader);
+		}
+		else
+		{
+			keepAlive = !"close".equalsIgnoreCase(connectionHeader);
+		}
+
+		if(asyncHttpExchange.getRequest().getMethod().equals("HEAD") || statusCode == 204 || statusCode == 304)
+		{
+			bodyFraming = BodyFraming.NONE;
+		}
+		else if(transferEncodingHeader != null && transferEncodingHeader.toLowerCase(Locale.ENGLISH).contains("chunked"))
+		{
+			bodyFraming = BodyFraming.CHUNKED;
+			chunkState = ChunkState.SIZE;
+		}
+		else if(asyncHttpResponse.getContentLength() >= 0L)
+		{
+			bodyFraming = BodyFraming.CONTENT_LENGTH;
+			remainingContentLength = asyncHttpResponse.getContentLength();
+		}
+		else
+		{
+			bodyFraming = BodyFraming.CONNECTION_CLOSE;
+			keepAlive = false;
+		}
+
+		connectionState = ConnectionState.RECEIVING_BODY;
+
+		asyncHttpExchange.getHandler().responseReceived(asyncHttpResponse);
+
+		if(bodyFraming == BodyFraming.NONE || (bodyFraming == BodyFraming.CONTENT_LENGTH && remainingContentLength == 0L))
+		{
+			completeExchange();
+		}
+
+		return true;
+	}
+
+	/**
+	 * Processes the received part of the response body.
+	 * 
+	 * @return {@code true} if the processing can be continued; {@code false}
+	 *         if more data has to be received
+	 * @throws IOException If the body is malformed or has been rejected by the
+	 *         {@code AsyncHttpHandler}
+	 */
+	private boolean receiveBody() throws IOException
+	{
+		switch(bodyFraming)
+		{
+			case CONTENT_LENGTH:
+
+				int count = (int) Math.min(remainingContentLength, inputBuffer.remaining());
+
+				remainingContentLength -= count;
+
+				deliverContent(count);
+
+				if(remainingContentLength == 0L)
+				{
+					completeExchange();
+				}
+
+				return true;
+
+			case CONNECTION_CLOSE:
+
+				deliverContent(inputBuffer.remaining());
+
+				return true;
+
+			case CHUNKED:
+
+				return receiveChunk();
+
+			default:
+				throw new ClientProtocolException("The response does not have a body.");
+		}
+	}
+
+	/**
+	 * Processes the received part of a response body with the {@code chunked}
+	 * transfer coding.
+	 * 
+	 * @return {@code true} if the processing can be continued; {@code false}
+	 *         if more data has to be received
+	 * @throws IOException If the body is malformed or has been rejected by the
+	 *         {@code AsyncHttpHandler}
+	 */
+	private boolean receiveChunk() throws IOException
+	{
+		switch(chunkState)
+		{
+			case SIZE:
+
+				if(!receiveLine())
+				{
+					return false;
+				}
+
+				int extensionIndex = line.indexOf(';');
+
+				try
+				{
+					remainingContentLength = Long.parseLong((extensionIndex >= 0 ? line.substring(0, extensionIndex) : line).trim(), 16);
+				}
+				catch(NumberFormatException e)
+				{
+					throw new ClientProtocolException("The chunk size \"" + line + "\" is malformed.");
+				}
+
+				chunkState = remainingContentLength == 0L ? ChunkState.TRAILER : ChunkState.DATA;
+
+				return true;
+
+			case DATA:
+
+				int count = (int) Math.min(remainingContentLength, inputBuffer.remaining());
+
+				remainingContentLength -= count;
+
+				if(remainingContentLength == 0L)
+				{
+					chunkState = ChunkState.DATA_END;
+				}
+
+				deliverContent(count);
+
+				return true;
+
+			case DATA_END:
+
+				if(!receiveLine())
+				{
+					return false;
+				}
+
+				if(line.length() != 0)
+				{
+					throw new ClientProtocolException("The chunk is not terminated correctly.");
+				}
+
+				chunkState = ChunkState.SIZE;
+
+				return true;
+
+			default:
+
+				if(!receiveLine())
+				{
+					return false;
+				}
+
+				if(line.length() == 0)
+				{
+					completeExchange();
+				}
+
+				return true;
+		}
+	}
+
+	/**
+	 * Receives the next line of a response body with the {@code chunked}
+	 * transfer coding.
+	 * 
+	 * @return {@code true} if the line has been received completely;
+	 *         otherwise {@code false}
+	 * @throws IOException If the line is too long
+	 */
+	private boolean receiveLine() throws IOException
+	{
+		while(inputBuffer.hasRemaining())
+		{
+			char character = (char) (inputBuffer.get() & 0xFF);
+
+			if(character == '\n')
+			{
+				int length = lineBuilder.length();
+
+				if(length > 0 && lineBuilder.charAt(length - 1) == '\r')
+				{
+					lineBuilder.setLength(length - 1);
+				}
+
+				line = lineBuilder.toString();
+				lineBuilder.setLength(0);
+
+				return true;
+			}
+
+			if(lineBuilder.length() >= MAX_LINE_LENGTH)
+			{
+				throw new ClientProtocolException("The line of the response body is too long.");
+			}
+
+			lineBuilder.append(character);
+		}
+
+		return false;
+	}
+
+	/**
+	 * Passes the given number of {@code Bytes} of the input buffer to the
+	 * {@link AsyncHttpHandler}.
+	 * 
+	 * @param count The number of {@code Bytes}
+	 * @throws IOException If the content has been rejected by the
+	 *         {@code AsyncHttpHandler}
+	 */
+	private void deliverContent(int count) throws IOException
+	{
+		ByteBuffer content = inputBuffer.slice();
+		content.limit(count);
+
+		inputBuffer.position(inputBuffer.position() + count);
+
+		asyncHttpExchange.getHandler().contentReceived(content);
+
+		throttle(count);
+	}
+
+	/**
+	 * Reserves the given number of transmitted {@code Bytes} at the
+	 * {@link BandwidthLimiter} of the request and suspends the connection if
+	 * the reservation is not covered yet.
+	 * 
+	 * @param count The number of transmitted {@code Bytes}
+	 * @return {@code true} if the connection has been suspended; otherwise
+	 *         {@code false}
+	 */
+	private boolean throttle(int count)
+	{
+		BandwidthLimiter bandwidthLimiter = asyncHttpExchange.getRequest().getBandwidthLimiter();
+
+		if(bandwidthLimiter == null)
+		{
+			return false;
+		}
+
+		long waitTime = bandwidthLimiter.reserve(count);
+
+		if(waitTime <= 0L)
+		{
+			return suspended;
+		}
+
+		final AsyncHttpExchange suspendedAsyncHttpExchange = asyncHttpExchange;
+
+		long now = System.nanoTime();
+
+		if(!suspended)
+		{
+			suspended = true;
+			suspendedInterestOps = selectionKey.interestOps();
+			resumeTime = now;
+
+			selectionKey.interestOps(0);
+		}
+
+		resumeTime = Math.max(resumeTime, now + waitTime);
+
+		ioReactor.schedule(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				resume(suspendedAsyncHttpExchange);
+			}
+		}, resumeTime);
+
+		return true;
+	}
+
+	/**
+	 * Resumes the connection, which has been suspended for the given
+	 * {@link AsyncHttpExchange}, as soon as the latest reservation is covered.
+	 * 
+	 * @param suspendedAsyncHttpExchange The suspended {@code AsyncHttpExchange}
+	 */
+	private void resume(AsyncHttpExchange suspendedAsyncHttpExchange)
+	{
+		if(!suspended || asyncHttpExchange != suspendedAsyncHttpExchange || connectionState == ConnectionState.CLOSED || System.nanoTime() - resumeTime < 0L)
+		{
+			return;
+		}
+
+		suspended = false;
+		lastActivityTime = System.nanoTime();
+
+		selectionKey.interestOps(suspendedInterestOps);
+	}
+
+	/**
+	 * Finishes the current {@link AsyncHttpExchange} successfully. The
+	 * connection is kept alive if the server permits it, the request has been
+	 * sent completely and no surplus data has been received.
+	 */
+	private void completeExchange()
+	{
+		AsyncHttpExchange completedAsyncHttpExchange = asyncHttpExchange;
+
+		asyncHttpExchange = null;
+		completedAsyncHttpExchange.setConnection(null);
+
+		suspended = false;
+
+		if(keepAlive && !bodyAbandoned && !inputBuffer.hasRemaining())
+		{
+			connectionState = ConnectionState.IDLE;
+			idleStartTime = System.nanoTime();
+
+			selectionKey.interestOps(SelectionKey.OP_READ);
+
+			ioReactor.releaseConnection(this);
+		}
+		else
+		{
+			close();
+		}
+
+		completedAsyncHttpExchange.complete();
+	}
+
+	/**
+	 * Fails the current {@link AsyncHttpExchange} with the given cause and
+	 * closes the connection.
+	 * 
+	 * @param exception The cause of the failure
+	 */
+	private void fail(IOException exception)
+	{
+		AsyncHttpExchange failedAsyncHttpExchange = asyncHttpExchange;
+
+		asyncHttpExchange = null;
+
+		close();
+
+		if(failedAsyncHttpExchange != null)
+		{
+			failedAsyncHttpExchange.setConnection(null);
+			failedAsyncHttpExchange.fail(exception);
+		}
+	}
+
+	/**
+	 * Closes the connection.
+	 */
+	private void close()
+	{
+		if(connectionState == ConnectionState.CLOSED)
+		{
+			return;
+		}
+
+		connectionState = ConnectionState.CLOSED;
+
+		selectionKey.cancel();
+
+		try
+		{
+			socketChannel.close();
+		}
+		catch(IOException e)
+		{
+			ioReactor.getStorageLogger().log(StorageLogLevel.WARN, AsyncHttpConnection.class, "The connection could not be closed.", e);
+		}
+
+		ioReactor.removeConnection(this);
+	}
+
+	/**
+	 * Decodes the given part of the {@link ByteBuffer} as {@code ISO-8859-1}.
+	 * 
+	 * @param byteBuffer The {@code ByteBuffer}
+	 * @param offset The absolute offset of the part
+	 * @param length The length of the part
+	 * @return The decoded {@code String}
+	 */
+	private static String decode(ByteBuffer byteBuffer, int offset, int length)
+	{
+		try
+		{
+			return new String(byteBuffer.array(), byteBuffer.arrayOffset() + offset, length, "ISO-8859-1");
+		}
+		catch(UnsupportedEncodingException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+}
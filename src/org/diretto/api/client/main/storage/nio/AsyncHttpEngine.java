@@ -0,0 +1,246 @@
+package org.diretto.api.client.main.storage.nio;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.configuration.XMLConfiguration;
+import org.diretto.api.client.main.storage.base.StorageLogger;
+
+/**
+ * The {@code AsyncHttpEngine} is an event-driven {@code HTTP/1.1} client. A
+ * small number of I/O threads multiplexes all connections by means of
+ * non-blocking {@code SocketChannel} objects, so that a waiting or slow
+ * transfer does not occupy a thread. <br/><br/>
+ * 
+ * Every {@link AsyncHttpRequest} is executed asynchronously and its
+ * {@link AsyncHttpHandler} is notified by an I/O thread. At most the
+ * configured maximum number of exchanges is executed concurrently, all other
+ * exchanges wait in the order of their submission. Idle connections are kept
+ * alive and reused for the same route until the <i>Keep Alive Timeout</i>
+ * has expired.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class AsyncHttpEngine
+{
+	private final IOReactor[] ioReactors;
+	private final int maxConnections;
+
+	private final AtomicInteger nextIOReactorIndex = new AtomicInteger(0);
+	private final AtomicInteger activeExchangeCount = new AtomicInteger(0);
+	private final Queue<AsyncHttpExchange> pendingExchanges = new ConcurrentLinkedQueue<AsyncHttpExchange>();
+
+	private volatile boolean shutdown = false;
+
+	/**
+	 * Constructs an {@link AsyncHttpEngine}.
+	 * 
+	 * @param ioThreadCount The number of I/O threads
+	 * @param maxConnections The maximum number of concurrently executed
+	 *        exchanges
+	 * @param keepAliveTimeout The time in {@code milliseconds} for which an
+	 *        idle connection is kept alive
+	 * @param name The name of the I/O threads
+	 * @param storageLogger The {@code StorageLogger} to which failures of the
+	 *        I/O threads are logged
+	 * @throws IOException If a {@code Selector} could not be opened
+	 */
+	public AsyncHttpEngine(int ioThreadCount, int maxConnections, long keepAliveTimeout, String name, StorageLogger storageLogger) throws IOException
+	{
+		if(ioThreadCount < 1 || maxConnections < 1)
+		{
+			throw new IllegalArgumentException("The number of I/O threads and the maximum number of connections must be positive.");
+		}
+
+		this.maxConnections = maxConnections;
+
+		ioReactors = new IOReactor[ioThreadCount];
+
+		for(int i = 0; i < ioThreadCount; i++)
+		{
+			ioReactors[i] = new IOReactor(keepAliveTimeout, storageLogger);
+
+			Thread thread = new Thread(ioReactors[i], name + "-" + (i + 1));
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	/**
+	 * Creates an {@link AsyncHttpEngine}, which is loaded from the
+	 * {@code engine} and {@code connection-pool} elements of the given
+	 * configuration key.
+	 * 
+	 * @param xmlConfiguration The {@code XMLConfiguration} object (of the
+	 *        {@code StorageService})
+	 * @param configurationKey The configuration key (e.g. {@code upload})
+	 * @param storageLogger The {@code StorageLogger} to which failures of the
+	 *        I/O threads are logged
+	 * @return The configured {@code AsyncHttpEngine}
+	 */
+	public static AsyncHttpEngine createAsyncHttpEngine(XMLConfiguration xmlConfiguration, String configurationKey, StorageLogger storageLogger)
+	{
+		int ioThreadCount = xmlConfiguration.getInt(configurationKey + "/engine/io-threads");
+		int maxConnections = xmlConfiguration.getInt(configurationKey + "/connection-pool/max-total-connections");
+		long keepAliveTimeout = xmlConfiguration.getLong(configurationKey + "/connection-pool/keep-alive-timeout");
+
+		try
+		{
+			return new AsyncHttpEngine(ioThreadCount, maxConnections, keepAliveTimeout, "StorageService-IOReactor-" + configurationKey, storageLogger);
+		}
+		catch(IOException e)
+		{
+			throw new IllegalStateException("The I/O threads of the asynchronous engine could not be started.", e);
+		}
+	}
+
+	/**
+	 * Executes the given {@link AsyncHttpRequest} asynchronously. The given
+	 * {@link AsyncHttpHandler} is notified about the response.
+	 * 
+	 * @param asyncHttpRequest The {@code AsyncHttpRequest}
+	 * @param asyncHttpHandler The {@code AsyncHttpHandler}
+	 * @return The {@code AsyncHttpExchange}, which can be used to abort the
+	 *         execution
+	 */
+	public AsyncHttpExchange execute(AsyncHttpRequest asyncHttpRequest, AsyncHttpHandler asyncHttpHandler)
+	{
+		AsyncHttpExchange asyncHttpExchange = new AsyncHttpExchange(this, asyncHttpRequest, asyncHttpHandler);
+
+		pendingExchanges.offer(asyncHttpExchange);
+
+		dispatchPendingExchanges();
+
+		return asyncHttpExchange;
+	}
+
+	/**
+	 * Executes the given task by an I/O thread after the given delay. The task
+	 * must not block.
+	 * 
+	 * @param task The task
+	 * @param delay The delay in {@code milliseconds}
+	 */
+	public void schedule(Runnable task, long delay)
+	{
+		nextIOReactor().schedule(task, System.nanoTime() + delay * 1000000L);
+	}
+
+	/**
+	 * Shuts down the {@link AsyncHttpEngine}. The waiting and running
+	 * exchanges are failed, all connections are closed and the I/O threads
+	 * terminate.
+	 */
+	public void shutdown()
+	{
+		shutdown = true;
+
+		rejectPendingExchanges();
+
+		for(IOReactor ioReactor : ioReactors)
+		{
+			ioReactor.shutdown();
+		}
+	}
+
+	/**
+	 * Returns the next {@link IOReactor} in a round-robin manner.
+	 * 
+	 * @return The next {@code IOReactor}
+	 */
+	IOReactor nextIOReactor()
+	{
+		return ioReactors[(nextIOReactorIndex.getAndIncrement() & Integer.MAX_VALUE) % ioReactors.length];
+	}
+
+	/**
+	 * Removes the given {@link AsyncHttpExchange} from the queue of the waiting
+	 * exchanges.
+	 * 
+	 * @param asyncHttpExchange The {@code AsyncHttpExchange}
+	 * @return {@code true} if the {@code AsyncHttpExchange} was waiting;
+	 *         otherwise {@code false}
+	 */
+	boolean removePendingExchange(AsyncHttpExchange asyncHttpExchange)
+	{
+		return pendingExchanges.remove(asyncHttpExchange);
+	}
+
+	/**
+	 * Releases the slot of a finished {@link AsyncHttpExchange} and starts the
+	 * next waiting {@code AsyncHttpExchange}.
+	 */
+	void releaseExchange()
+	{
+		activeExchangeCount.decrementAndGet();
+
+		dispatchPendingExchanges();
+	}
+
+	/**
+	 * Starts waiting {@link AsyncHttpExchange} objects as long as the maximum
+	 * number of concurrently executed exchanges has not been reached.
+	 */
+	private void dispatchPendingExchanges()
+	{
+		if(shutdown)
+		{
+			rejectPendingExchanges();
+
+			return;
+		}
+
+		while(!pendingExchanges.isEmpty())
+		{
+			int currentActiveExchangeCount = activeExchangeCount.get();
+
+			if(currentActiveExchangeCount >= maxConnections)
+			{
+				return;
+			}
+
+			if(!activeExchangeCount.compareAndSet(currentActiveExchangeCount, currentActiveExchangeCount + 1))
+			{
+				continue;
+			}
+
+			final AsyncHttpExchange asyncHttpExchange = pendingExchanges.poll();
+
+			if(asyncHttpExchange == null)
+			{
+				activeExchangeCount.decrementAndGet();
+
+				continue;
+			}
+
+			final IOReactor ioReactor = nextIOReactor();
+
+			asyncHttpExchange.setIOReactor(ioReactor);
+
+			ioReactor.execute(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					ioReactor.startExchange(asyncHttpExchange);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Fails all waiting {@link AsyncHttpExchange} objects, because the
+	 * {@link AsyncHttpEngine} has been shut down.
+	 */
+	private void rejectPendingExchanges()
+	{
+		AsyncHttpExchange asyncHttpExchange;
+
+		while((asyncHttpExchange = pendingExchanges.poll()) != null)
+		{
+			asyncHttpExchange.reject(new IOException("The asynchronous engine has been shut down."));
+		}
+	}
+}
@@ -0,0 +1,242 @@
+package org.diretto.api.client.main.storage.nio;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+/**
+ * An {@code AsyncHttpExchange} represents the execution of an
+ * {@link AsyncHttpRequest} by the {@link AsyncHttpEngine}. It can be used to
+ * abort the execution.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class AsyncHttpExchange
+{
+	private final AsyncHttpEngine asyncHttpEngine;
+	private final AsyncHttpRequest asyncHttpRequest;
+	private final AsyncHttpHandler asyncHttpHandler;
+
+	private volatile IOReactor ioReactor = null;
+	private volatile boolean aborted = false;
+	private AsyncHttpConnection asyncHttpConnection = null;
+	private boolean finished = false;
+
+	/**
+	 * Constructs an {@link AsyncHttpExchange}.
+	 * 
+	 * @param asyncHttpEngine The corresponding {@code AsyncHttpEngine}
+	 * @param asyncHttpRequest The {@code AsyncHttpRequest}
+	 * @param asyncHttpHandler The {@code AsyncHttpHandler}
+	 */
+	AsyncHttpExchange(AsyncHttpEngine asyncHttpEngine, AsyncHttpRequest asyncHttpRequest, AsyncHttpHandler asyncHttpHandler)
+	{
+		this.asyncHttpEngine = asyncHttpEngine;
+		this.asyncHttpRequest = asyncHttpRequest;
+		this.asyncHttpHandler = asyncHttpHandler;
+	}
+
+	/**
+	 * Aborts the {@link AsyncHttpExchange}. The connection is closed and the
+	 * {@link AsyncHttpHandler} is notified about the failure, unless the
+	 * {@code AsyncHttpExchange} has already been finished.
+	 */
+	public void abort()
+	{
+		aborted = true;
+
+		if(asyncHttpEngine.removePendingExchange(this))
+		{
+			asyncHttpEngine.nextIOReactor().execute(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					discard();
+				}
+			});
+
+			return;
+		}
+
+		final IOReactor currentIOReactor = ioReactor;
+
+		if(currentIOReactor != null)
+		{
+			currentIOReactor.execute(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					currentIOReactor.abortExchange(AsyncHttpExchange.this);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Returns whether the {@link AsyncHttpExchange} has been aborted.
+	 * 
+	 * @return {@code true} if the {@code AsyncHttpExchange} has been aborted;
+	 *         otherwise {@code false}
+	 */
+	boolean isAborted()
+	{
+		return aborted;
+	}
+
+	/**
+	 * Returns the {@link AsyncHttpRequest}.
+	 * 
+	 * @return The {@code AsyncHttpRequest}
+	 */
+	AsyncHttpRequest getRequest()
+	{
+		return asyncHttpRequest;
+	}
+
+	/**
+	 * Returns the {@link AsyncHttpHandler}.
+	 * 
+	 * @return The {@code AsyncHttpHandler}
+	 */
+	AsyncHttpHandler getHandler()
+	{
+		return asyncHttpHandler;
+	}
+
+	/**
+	 * Assigns the {@link AsyncHttpExchange} to the given {@link IOReactor}.
+	 * 
+	 * @param ioReactor The {@code IOReactor}
+	 */
+	void setIOReactor(IOReactor ioReactor)
+	{
+		this.ioReactor = ioReactor;
+	}
+
+	/**
+	 * Returns the connection which executes the {@link AsyncHttpExchange}.
+	 * 
+	 * @return The connection or {@code null} if the {@code AsyncHttpExchange}
+	 *         is not being executed
+	 */
+	AsyncHttpConnection getConnection()
+	{
+		return asyncHttpConnection;
+	}
+
+	/**
+	 * Sets the connection which executes the {@link AsyncHttpExchange}.
+	 * 
+	 * @param asyncHttpConnection The connection or {@code null}
+	 */
+	void setConnection(AsyncHttpConnection asyncHttpConnection)
+	{
+		this.asyncHttpConnection = asyncHttpConnection;
+	}
+
+	/**
+	 * Finishes the {@link AsyncHttpExchange} successfully. <br/><br/>
+	 * 
+	 * <i>Annotation:</i> This method is invoked by the I/O thread.
+	 */
+	void complete()
+	{
+		if(finish())
+		{
+			asyncHttpHandler.completed();
+		}
+	}
+
+	/**
+	 * Finishes the {@link AsyncHttpExchange} with the given failure. If it has
+	 * been aborted, an {@link InterruptedIOException} is passed to the
+	 * {@link AsyncHttpHandler} instead. <br/><br/>
+	 * 
+	 * <i>Annotation:</i> This method is invoked by the I/O thread.
+	 * 
+	 * @param exception The cause of the failure
+	 */
+	void fail(IOException exception)
+	{
+		if(finish())
+		{
+			asyncHttpHandler.failed(aborted ? new InterruptedIOException("The request has been aborted.") : exception);
+		}
+	}
+
+	/**
+	 * Finishes the waiting {@link AsyncHttpExchange} with the given failure,
+	 * because the {@link AsyncHttpEngine} has been shut down before the
+	 * {@code AsyncHttpExchange} has been started. It does not occupy a slot of
+	 * the {@code AsyncHttpEngine}.
+	 * 
+	 * @param exception The cause of the failure
+	 */
+	void reject(IOException exception)
+	{
+		if(finished)
+		{
+			return;
+		}
+
+		finished = true;
+
+		if(asyncHttpRequest.getBody() != null)
+		{
+			asyncHttpRequest.getBody().close();
+		}
+
+		asyncHttpHandler.failed(exception);
+	}
+
+	/**
+	 * Finishes the aborted {@link AsyncHttpExchange}, which has been removed
+	 * from the queue of the {@link AsyncHttpEngine} before it has been started.
+	 * <br/><br/>
+	 * 
+	 * <i>Annotation:</i> This method is invoked by the I/O thread.
+	 */
+	private void discard()
+	{
+		if(finished)
+		{
+			return;
+		}
+
+		finished = true;
+
+		if(asyncHttpRequest.getBody() != null)
+		{
+			asyncHttpRequest.getBody().close();
+		}
+
+		asyncHttpHandler.failed(new InterruptedIOException("The request has been aborted."));
+	}
+
+	/**
+	 * Marks the {@link AsyncHttpExchange} as finished, releases the body of
+	 * the request and the slot of the {@link AsyncHttpEngine}.
+	 * 
+	 * @return {@code true} if the {@code AsyncHttpExchange} has not been
+	 *         finished before; otherwise {@code false}
+	 */
+	private boolean finish()
+	{
+		if(finished)
+		{
+			return false;
+		}
+
+		finished = true;
+
+		if(asyncHttpRequest.getBody() != null)
+		{
+			asyncHttpRequest.getBody().close();
+		}
+
+		asyncHttpEngine.releaseExchange();
+
+		return true;
+	}
+}
@@ -0,0 +1,50 @@
+package org.diretto.api.client.main.storage.nio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * This interface represents an {@code AsyncHttpHandler}, which is notified
+ * about the progress of an {@link AsyncHttpExchange}. <br/><br/>
+ * 
+ * <i>Annotation:</i> All methods are invoked by an I/O thread of the
+ * {@link AsyncHttpEngine} and therefore must not block. Exactly one of the
+ * methods {@link #completed()} and {@link #failed(IOException)} is invoked
+ * for every {@code AsyncHttpExchange}.
+ * 
+ * @author Tobias Schlecht
+ */
+public interface AsyncHttpHandler
+{
+	/**
+	 * Is invoked as soon as the head of the response has been received.
+	 * 
+	 * @param asyncHttpResponse The {@code AsyncHttpResponse}
+	 * @throws IOException If the response cannot be processed, which fails the
+	 *         {@code AsyncHttpExchange}
+	 */
+	void responseReceived(AsyncHttpResponse asyncHttpResponse) throws IOException;
+
+	/**
+	 * Is invoked for every received part of the response body. The given
+	 * {@link ByteBuffer} is only valid until this method returns.
+	 * 
+	 * @param content The {@code ByteBuffer} which contains the received part
+	 * @throws IOException If the content cannot be processed, which fails the
+	 *         {@code AsyncHttpExchange}
+	 */
+	void contentReceived(ByteBuffer content) throws IOException;
+
+	/**
+	 * Is invoked as soon as the response has been received completely.
+	 */
+	void completed();
+
+	/**
+	 * Is invoked if the {@link AsyncHttpExchange} has failed or has been
+	 * aborted.
+	 * 
+	 * @param exception The cause of the failure
+	 */
+	void failed(IOException exception);
+}
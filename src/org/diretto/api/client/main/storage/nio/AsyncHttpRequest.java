@@ -0,0 +1,235 @@
+package org.diretto.api.client.main.storage.nio;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.diretto.api.client.main.storage.base.BandwidthLimiter;
+import org.diretto.api.client.main.storage.base.ProcessTimeouts;
+
+/**
+ * An {@code AsyncHttpRequest} represents an {@code HTTP/1.1} request, which
+ * can be executed by the {@link AsyncHttpEngine}. <br/><br/>
+ * 
+ * <i>Annotation:</i> Only the {@code http} scheme is supported.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class AsyncHttpRequest
+{
+	private final String method;
+	private final URL url;
+	private final String host;
+	private final int port;
+	private final List<String[]> headers = new ArrayList<String[]>();
+
+	private AsyncHttpBody asyncHttpBody = null;
+	private long connectTimeout = 0L;
+	private long socketTimeout = 0L;
+	private BandwidthLimiter bandwidthLimiter = null;
+
+	/**
+	 * Constructs an {@link AsyncHttpRequest}.
+	 * 
+	 * @param method The request method (e.g. {@code GET})
+	 * @param url The {@code URL} of the requested resource
+	 * @throws IllegalArgumentException If the scheme of the {@code URL} is not
+	 *         supported
+	 */
+	public AsyncHttpRequest(String method, URL url)
+	{
+		if(!isSupported(url))
+		{
+			throw new IllegalArgumentException("The scheme of the URL " + url.toExternalForm() + " is not supported.");
+		}
+
+		this.method = method;
+		this.url = url;
+
+		host = url.getHost();
+		port = url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+	}
+
+	/**
+	 * Returns whether the given {@link URL} can be requested by means of an
+	 * {@link AsyncHttpRequest}.
+	 * 
+	 * @param url The {@code URL}
+	 * @return {@code true} if the {@code URL} is supported; otherwise
+	 *         {@code false}
+	 */
+	public static boolean isSupported(URL url)
+	{
+		return "http".equalsIgnoreCase(url.getProtocol());
+	}
+
+	/**
+	 * Adds a header to the request.
+	 * 
+	 * @param name The name of the header
+	 * @param value The value of the header
+	 */
+	public void addHeader(String name, String value)
+	{
+		headers.add(new String[] {name, value});
+	}
+
+	/**
+	 * Sets the body of the request.
+	 * 
+	 * @param asyncHttpBody The {@code AsyncHttpBody} or {@code null} if the
+	 *        request has no body
+	 */
+	public void setBody(AsyncHttpBody asyncHttpBody)
+	{
+		this.asyncHttpBody = asyncHttpBody;
+	}
+
+	/**
+	 * Applies the <i>Connect Timeout</i> and the <i>Socket Timeout</i> of the
+	 * given {@link ProcessTimeouts} to the request.
+	 * 
+	 * @param processTimeouts The {@code ProcessTimeouts}
+	 */
+	public void setTimeouts(ProcessTimeouts processTimeouts)
+	{
+		connectTimeout = processTimeouts.getConnectTimeout();
+		socketTimeout = processTimeouts.getSocketTimeout();
+	}
+
+	/**
+	 * Sets the {@link BandwidthLimiter}, which limits the data rate of the
+	 * request body and the response body.
+	 * 
+	 * @param bandwidthLimiter The {@code BandwidthLimiter} or {@code null}
+	 */
+	public void setBandwidthLimiter(BandwidthLimiter bandwidthLimiter)
+	{
+		this.bandwidthLimiter = bandwidthLimiter;
+	}
+
+	/**
+	 * Returns the request method.
+	 * 
+	 * @return The request method
+	 */
+	String getMethod()
+	{
+		return method;
+	}
+
+	/**
+	 * Returns the host name of the requested resource.
+	 * 
+	 * @return The host name
+	 */
+	String getHost()
+	{
+		return host;
+	}
+
+	/**
+	 * Returns the port of the requested resource.
+	 * 
+	 * @return The port
+	 */
+	int getPort()
+	{
+		return port;
+	}
+
+	/**
+	 * Returns the key of the route to the requested resource, which
+	 * identifies the reusable connections.
+	 * 
+	 * @return The route key
+	 */
+	String getRouteKey()
+	{
+		return host + ":" + port;
+	}
+
+	/**
+	 * Returns the {@link AsyncHttpBody} of the request.
+	 * 
+	 * @return The {@code AsyncHttpBody} or {@code null}
+	 */
+	AsyncHttpBody getBody()
+	{
+		return asyncHttpBody;
+	}
+
+	/**
+	 * Returns the <i>Connect Timeout</i> in {@code milliseconds}.
+	 * 
+	 * @return The <i>Connect Timeout</i> or {@code 0} if it is infinite
+	 */
+	long getConnectTimeout()
+	{
+		return connectTimeout;
+	}
+
+	/**
+	 * Returns the <i>Socket Timeout</i> in {@code milliseconds}.
+	 * 
+	 * @return The <i>Socket Timeout</i> or {@code 0} if it is infinite
+	 */
+	long getSocketTimeout()
+	{
+		return socketTimeout;
+	}
+
+	/**
+	 * Returns the {@link BandwidthLimiter} of the request.
+	 * 
+	 * @return The {@code BandwidthLimiter} or {@code null}
+	 */
+	BandwidthLimiter getBandwidthLimiter()
+	{
+		return bandwidthLimiter;
+	}
+
+	/**
+	 * Encodes the request line and the headers of the request.
+	 * 
+	 * @return The encoded head of the request
+	 */
+	byte[] encodeHead()
+	{
+		String requestTarget = url.getFile();
+
+		StringBuilder stringBuilder = new StringBuilder(256);
+
+		stringBuilder.append(method).append(' ').append(requestTarget.length() == 0 ? "/" : requestTarget).append(" HTTP/1.1\r\n");
+		stringBuilder.append("Host: ").append(host);
+
+		if(port != url.getDefaultPort())
+		{
+			stringBuilder.append(':').append(port);
+		}
+
+		stringBuilder.append("\r\n");
+
+		if(asyncHttpBody != null)
+		{
+			stringBuilder.append("Content-Length: ").append(asyncHttpBody.getContentLength()).append("\r\n");
+		}
+
+		for(String[] header : headers)
+		{
+			stringBuilder.append(header[0]).append(": ").append(header[1]).append("\r\n");
+		}
+
+		stringBuilder.append("\r\n");
+
+		try
+		{
+			return stringBuilder.toString().getBytes("ISO-8859-1");
+		}
+		catch(UnsupportedEncodingException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package org.diretto.api.client.main.storage.nio;
+
+import java.util.List;
+
+/**
+ * An {@code AsyncHttpResponse} represents the head of a response, which has
+ * been received by the {@link AsyncHttpEngine}. Additionally it provides the
+ * points in time at which the connection was ready and the request had been
+ * sent completely, so that the phases of the exchange can be measured.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class AsyncHttpResponse
+{
+	private final int statusCode;
+	private final String reasonPhrase;
+	private final List<String[]> headers;
+	private final long connectedTime;
+	private final long requestSentTime;
+
+	/**
+	 * Constructs an {@link AsyncHttpResponse}.
+	 * 
+	 * @param statusCode The status code
+	 * @param reasonPhrase The reason phrase
+	 * @param headers The headers as name-value pairs
+	 * @param connectedTime The point in time at which the connection was
+	 *        ready to send the request in {@code nanoseconds}
+	 * @param requestSentTime The point in time at which the request had been
+	 *        sent completely in {@code nanoseconds}
+	 */
+	AsyncHttpResponse(int statusCode, String reasonPhrase, List<String[]> headers, long connectedTime, long requestSentTime)
+	{
+		this.statusCode = statusCode;
+		this.reasonPhrase = reasonPhrase;
+		this.headers = headers;
+		this.connectedTime = connectedTime;
+		this.requestSentTime = requestSentTime;
+	}
+
+	/**
+	 * Returns the status code.
+	 * 
+	 * @return The status code
+	 */
+	public int getStatusCode()
+	{
+		return statusCode;
+	}
+
+	/**
+	 * Returns the point in time at which the connection was ready to send the
+	 * request. For a pooled connection this is the point in time at which the
+	 * exchange has been started on it.
+	 * 
+	 * @return The point in time in {@code nanoseconds}
+	 */
+	public long getConnectedTime()
+	{
+		return connectedTime;
+	}
+
+	/**
+	 * Returns the point in time at which the request, including its body, had
+	 * been sent completely.
+	 * 
+	 * @return The point in time in {@code nanoseconds}
+	 */
+	public long getRequestSentTime()
+	{
+		return requestSentTime;
+	}
+
+	/**
+	 * Returns the reason phrase.
+	 * 
+	 * @return The reason phrase
+	 */
+	public String getReasonPhrase()
+	{
+		return reasonPhrase;
+	}
+
+	/**
+	 * Returns the value of the first header with the given name. The name is
+	 * compared case-insensitively.
+	 * 
+	 * @param name The name of the header
+	 * @return The value of the header or {@code null} if there is no such
+	 *         header
+	 */
+	public String getHeader(String name)
+	{
+		for(String[] header : headers)
+		{
+			if(header[0].equalsIgnoreCase(name))
+			{
+				return header[1];
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns the value of the {@code Content-Length} header.
+	 * 
+	 * @return The length of the response body in {@code Bytes} or {@code -1}
+	 *         if it is unknown
+	 */
+	public long getContentLength()
+	{
+		String contentLength = getHeader("Content-Length");
+
+		if(contentLength == null)
+		{
+			return -1L;
+		}
+
+		try
+		{
+			return Long.parseLong(contentLength.trim());
+		}
+		catch(NumberFormatException e)
+		{
+			return -1L;
+		}
+	}
+}
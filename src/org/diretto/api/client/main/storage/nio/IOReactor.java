@@ -0,0 +1,365 @@
+package org.diretto.api.client.main.storage.nio;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.diretto.api.client.main.storage.base.StorageLogLevel;
+import org.diretto.api.client.main.storage.base.StorageLogger;
+
+/**
+ * An {@code IOReactor} is the event loop of an I/O thread of the
+ * {@link AsyncHttpEngine}. It multiplexes its connections by means of a
+ * {@link Selector}, executes submitted and scheduled tasks and supervises the
+ * timeouts of its connections. <br/><br/>
+ * 
+ * <i>Annotation:</i> Except for {@link #execute(Runnable)} and
+ * {@link #schedule(Runnable, long)}, all methods must only be invoked by the
+ * I/O thread of the {@code IOReactor}.
+ * 
+ * @author Tobias Schlecht
+ */
+final class IOReactor implements Runnable
+{
+	private static final long TIMEOUT_CHECK_INTERVAL = 250000000L;
+
+	private final Selector selector;
+	private final long keepAliveTimeout;
+	private final StorageLogger storageLogger;
+
+	private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+	private final PriorityQueue<ScheduledTask> scheduledTasks = new PriorityQueue<ScheduledTask>();
+	private final Set<AsyncHttpConnection> connections = new HashSet<AsyncHttpConnection>();
+	private final Map<String, LinkedList<AsyncHttpConnection>> idleConnections = new HashMap<String, LinkedList<AsyncHttpConnection>>();
+
+	private volatile Thread ioThread = null;
+	private volatile boolean running = true;
+	private long scheduledTaskCount = 0L;
+
+	/**
+	 * Constructs an {@link IOReactor}.
+	 * 
+	 * @param keepAliveTimeout The time in {@code milliseconds} for which an
+	 *        idle connection is kept alive
+	 * @param storageLogger The {@code StorageLogger} to which failures of the
+	 *        I/O thread are logged
+	 * @throws IOException If the {@code Selector} could not be opened
+	 */
+	IOReactor(long keepAliveTimeout, StorageLogger storageLogger) throws IOException
+	{
+		this.keepAliveTimeout = keepAliveTimeout * 1000000L;
+		this.storageLogger = storageLogger;
+
+		selector = Selector.open();
+	}
+
+	/**
+	 * Executes the given task by the I/O thread as soon as possible.
+	 * 
+	 * @param task The task
+	 */
+	void execute(Runnable task)
+	{
+		tasks.offer(task);
+
+		if(Thread.currentThread() != ioThread)
+		{
+			selector.wakeup();
+		}
+	}
+
+	/**
+	 * Executes the given task by the I/O thread at the given time.
+	 * 
+	 * @param task The task
+	 * @param time The execution time in {@code nanoseconds} (see
+	 *        {@link System#nanoTime()})
+	 */
+	void schedule(final Runnable task, final long time)
+	{
+		execute(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				scheduledTasks.add(new ScheduledTask(task, time, scheduledTaskCount++));
+			}
+		});
+	}
+
+	/**
+	 * Starts the given {@link AsyncHttpExchange} on an idle connection of its
+	 * route or on a new connection.
+	 * 
+	 * @param asyncHttpExchange The {@code AsyncHttpExchange}
+	 */
+	void startExchange(AsyncHttpExchange asyncHttpExchange)
+	{
+		if(asyncHttpExchange.isAborted())
+		{
+			asyncHttpExchange.fail(new InterruptedIOException("The request has been aborted."));
+
+			return;
+		}
+
+		AsyncHttpConnection asyncHttpConnection = null;
+
+		LinkedList<AsyncHttpConnection> routeIdleConnections = idleConnections.get(asyncHttpExchange.getRequest().getRouteKey());
+
+		if(routeIdleConnections != null)
+		{
+			asyncHttpConnection = routeIdleConnections.pollLast();
+		}
+
+		if(asyncHttpConnection == null)
+		{
+			try
+			{
+				asyncHttpConnection = AsyncHttpConnection.open(this, selector, asyncHttpExchange.getRequest());
+			}
+			catch(IOException e)
+			{
+				asyncHttpExchange.fail(e);
+
+				return;
+			}
+
+			connections.add(asyncHttpConnection);
+		}
+
+		asyncHttpConnection.start(asyncHttpExchange);
+	}
+
+	/**
+	 * Aborts the given {@link AsyncHttpExchange}, if it is being executed by
+	 * a connection of this {@link IOReactor}.
+	 * 
+	 * @param asyncHttpExchange The {@code AsyncHttpExchange}
+	 */
+	void abortExchange(AsyncHttpExchange asyncHttpExchange)
+	{
+		AsyncHttpConnection asyncHttpConnection = asyncHttpExchange.getConnection();
+
+		if(asyncHttpConnection != null)
+		{
+			asyncHttpConnection.abort(asyncHttpExchange);
+		}
+	}
+
+	/**
+	 * Keeps the given connection alive for a subsequent exchange of its route.
+	 * 
+	 * @param asyncHttpConnection The idle connection
+	 */
+	void releaseConnection(AsyncHttpConnection asyncHttpConnection)
+	{
+		LinkedList<AsyncHttpConnection> routeIdleConnections = idleConnections.get(asyncHttpConnection.getRouteKey());
+
+		if(routeIdleConnections == null)
+		{
+			routeIdleConnections = new LinkedList<AsyncHttpConnection>();
+
+			idleConnections.put(asyncHttpConnection.getRouteKey(), routeIdleConnections);
+		}
+
+		routeIdleConnections.add(asyncHttpConnection);
+	}
+
+	/**
+	 * Forgets the given closed connection.
+	 * 
+	 * @param asyncHttpConnection The closed connection
+	 */
+	void removeConnection(AsyncHttpConnection asyncHttpConnection)
+	{
+		connections.remove(asyncHttpConnection);
+
+		LinkedList<AsyncHttpConnection> routeIdleConnections = idleConnections.get(asyncHttpConnection.getRouteKey());
+
+		if(routeIdleConnections != null)
+		{
+			routeIdleConnections.remove(asyncHttpConnection);
+
+			if(routeIdleConnections.isEmpty())
+			{
+				idleConnections.remove(asyncHttpConnection.getRouteKey());
+			}
+		}
+	}
+
+	/**
+	 * Shuts down the {@link IOReactor}. The exchanges of its connections are
+	 * failed, the connections are closed and the I/O thread terminates.
+	 */
+	void shutdown()
+	{
+		execute(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				running = false;
+
+				for(AsyncHttpConnection asyncHttpConnection : new ArrayList<AsyncHttpConnection>(connections))
+				{
+					asyncHttpConnection.shutdown();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Returns the time in {@code nanoseconds} for which an idle connection is
+	 * kept alive.
+	 * 
+	 * @return The <i>Keep Alive Timeout</i>
+	 */
+	long getKeepAliveTimeout()
+	{
+		return keepAliveTimeout;
+	}
+
+	/**
+	 * Returns the {@link StorageLogger} to which failures of the I/O thread
+	 * are logged.
+	 * 
+	 * @return The {@code StorageLogger}
+	 */
+	StorageLogger getStorageLogger()
+	{
+		return storageLogger;
+	}
+
+	@Override
+	public void run()
+	{
+		ioThread = Thread.currentThread();
+
+		long nextTimeoutCheckTime = System.nanoTime() + TIMEOUT_CHECK_INTERVAL;
+
+		while(running)
+		{
+			try
+			{
+				Runnable task;
+
+				while((task = tasks.poll()) != null)
+				{
+					task.run();
+				}
+
+				long now = System.nanoTime();
+
+				while(!scheduledTasks.isEmpty() && scheduledTasks.peek().time - now <= 0L)
+				{
+					scheduledTasks.poll().task.run();
+				}
+
+				if(now - nextTimeoutCheckTime >= 0L)
+				{
+					for(AsyncHttpConnection asyncHttpConnection : new ArrayList<AsyncHttpConnection>(connections))
+					{
+						asyncHttpConnection.checkTimeout(now);
+					}
+
+					nextTimeoutCheckTime = now + TIMEOUT_CHECK_INTERVAL;
+				}
+
+				if(!tasks.isEmpty())
+				{
+					selector.selectNow();
+				}
+				else
+				{
+					long waitTime = nextTimeoutCheckTime - now;
+
+					if(!scheduledTasks.isEmpty())
+					{
+						waitTime = Math.min(waitTime, scheduledTasks.peek().time - now);
+					}
+
+					selector.select(Math.max(1L, (waitTime + 999999L) / 1000000L));
+				}
+
+				Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+
+				while(iterator.hasNext())
+				{
+					SelectionKey selectionKey = iterator.next();
+					iterator.remove();
+
+					if(selectionKey.isValid())
+					{
+						((AsyncHttpConnection) selectionKey.attachment()).handleEvent(selectionKey.readyOps());
+					}
+				}
+			}
+			catch(IOException e)
+			{
+				storageLogger.log(StorageLogLevel.ERROR, IOReactor.class, "The selection of the I/O thread has failed.", e);
+			}
+			catch(RuntimeException e)
+			{
+				storageLogger.log(StorageLogLevel.ERROR, IOReactor.class, "An event of the I/O thread could not be handled.", e);
+			}
+		}
+
+		try
+		{
+			selector.close();
+		}
+		catch(IOException e)
+		{
+			storageLogger.log(StorageLogLevel.WARN, IOReactor.class, "The selector of the I/O thread could not be closed.", e);
+		}
+	}
+
+	/**
+	 * A {@code ScheduledTask} is a task, which has to be executed by the I/O
+	 * thread at a certain time.
+	 */
+	private static final class ScheduledTask implements Comparable<ScheduledTask>
+	{
+		private final Runnable task;
+		private final long time;
+		private final long sequenceNumber;
+
+		/**
+		 * Constructs a {@link ScheduledTask}.
+		 * 
+		 * @param task The task
+		 * @param time The execution time in {@code nanoseconds}
+		 * @param sequenceNumber The sequence number of the task
+		 */
+		ScheduledTask(Runnable task, long time, long sequenceNumber)
+		{
+			this.task = task;
+			this.time = time;
+			this.sequenceNumber = sequenceNumber;
+		}
+
+		@Override
+		public int compareTo(ScheduledTask scheduledTask)
+		{
+			long difference = time - scheduledTask.time;
+
+			if(difference != 0L)
+			{
+				return difference < 0L ? -1 : 1;
+			}
+
+			return sequenceNumber < scheduledTask.sequenceNumber ? -1 : (sequenceNumber == scheduledTask.sequenceNumber ? 0 : 1);
+		}
+	}
+}
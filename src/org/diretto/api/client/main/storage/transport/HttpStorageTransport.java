@@ -0,0 +1,54 @@
+package org.diretto.api.client.main.storage.transport;
+
+import java.io.IOException;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.protocol.HttpContext;
+import org.diretto.api.client.main.storage.base.HttpClientFactory;
+
+/**
+ * An {@code HttpStorageTransport} is a {@link StorageTransport}, which
+ * executes the requests against the remote storage server by means of a
+ * pooled <i>Apache</i> {@link DefaultHttpClient}.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class HttpStorageTransport implements StorageTransport
+{
+	private final DefaultHttpClient httpClient;
+
+	/**
+	 * Constructs an {@link HttpStorageTransport}.
+	 * 
+	 * @param httpClient The <i>Apache</i> {@code DefaultHttpClient}, which has
+	 *        been created by the {@link HttpClientFactory}
+	 */
+	public HttpStorageTransport(DefaultHttpClient httpClient)
+	{
+		this.httpClient = httpClient;
+	}
+
+	/**
+	 * Returns the <i>Apache</i> {@link DefaultHttpClient}.
+	 * 
+	 * @return The <i>Apache</i> {@code DefaultHttpClient}
+	 */
+	public DefaultHttpClient getHttpClient()
+	{
+		return httpClient;
+	}
+
+	@Override
+	public HttpResponse execute(HttpUriRequest httpRequest, HttpContext httpContext) throws IOException
+	{
+		return httpClient.execute(httpRequest, httpContext);
+	}
+
+	@Override
+	public void shutdown()
+	{
+		HttpClientFactory.shutdownHttpClient(httpClient);
+	}
+}
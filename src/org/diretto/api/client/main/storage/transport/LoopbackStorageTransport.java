@@ -0,0 +1,595 @@
+package org.diretto.api.client.main.storage.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.AbortableHttpRequest;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ConnectionReleaseTrigger;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.impl.EnglishReasonPhraseCatalog;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.HttpContext;
+import org.diretto.api.client.main.storage.base.AbortSignal;
+import org.diretto.api.client.main.storage.base.BandwidthLimiter;
+import org.diretto.api.client.main.storage.base.ProcessTimings;
+
+/**
+ * A {@code LoopbackStorageTransport} is a {@link StorageTransport}, which
+ * simulates the storage server in memory. It makes it possible to measure the
+ * overhead of the scheduling, the progress tracking and the reporting of the
+ * processes independently of the network. <br/><br/>
+ * 
+ * The simulated storage server supports the following requests:
+ * 
+ * <ul>
+ * <li>{@code PUT} stores the request body and returns a success token.</li>
+ * <li>{@code GET} returns a stored resource, also partially by means of a
+ * {@code Range} header, which is validated by an {@code If-Range} header.</li>
+ * <li>{@code HEAD} returns the headers of a stored resource without body.</li>
+ * <li>{@code DELETE} of a lock (e.g. {@code .../lock?token=...}) releases the
+ * lock.</li>
+ * </ul>
+ * 
+ * Every response is delayed by the configured <i>Latency</i> and the request
+ * and response bodies are transferred with at most the configured
+ * <i>Bandwidth</i>. The stored resources are shared by all
+ * {@code LoopbackStorageTransport} objects, so that an uploaded resource can
+ * be downloaded afterwards.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class LoopbackStorageTransport implements StorageTransport
+{
+	private static final int TRANSFER_BUFFER_SIZE = 8192;
+
+	private static final ConcurrentMap<String, LoopbackResource> RESOURCES = new ConcurrentHashMap<String, LoopbackResource>();
+
+	private final long latency;
+	private final BandwidthLimiter bandwidthLimiter;
+
+	private volatile boolean shutdown = false;
+
+	/**
+	 * Constructs a {@link LoopbackStorageTransport}.
+	 * 
+	 * @param latency The <i>Latency</i> of every response in
+	 *        {@code milliseconds} ({@code 0} means no latency)
+	 * @param maxRate The <i>Bandwidth</i> of the simulated connection in
+	 *        {@code Bytes} per second ({@code 0} means unlimited)
+	 */
+	public LoopbackStorageTransport(long latency, long maxRate)
+	{
+		this.latency = latency;
+
+		bandwidthLimiter = new BandwidthLimiter(maxRate, TRANSFER_BUFFER_SIZE, null);
+	}
+
+	/**
+	 * Stores the given content as resource with the given {@link URI}, so that
+	 * it can be downloaded.
+	 * 
+	 * @param uri The {@code URI} of the resource
+	 * @param content The content of the resource
+	 * @param contentType The content type of the resource
+	 */
+	public static void putResource(URI uri, byte[] content, String contentType)
+	{
+		RESOURCES.put(getResourceKey(uri), new LoopbackResource(content, contentType));
+	}
+
+	/**
+	 * Returns the content of the resource with the given {@link URI}.
+	 * 
+	 * @param uri The {@code URI} of the resource
+	 * @return The content of the resource or {@code null} if there is no such
+	 *         resource
+	 */
+	public static byte[] getResource(URI uri)
+	{
+		LoopbackResource loopbackResource = RESOURCES.get(getResourceKey(uri));
+
+		return loopbackResource == null ? null : loopbackResource.content;
+	}
+
+	/**
+	 * Removes all stored resources.
+	 */
+	public static void removeResources()
+	{
+		RESOURCES.clear();
+	}
+
+	@Override
+	public HttpResponse execute(HttpUriRequest httpRequest, HttpContext httpContext) throws IOException
+	{
+		if(shutdown)
+		{
+			throw new IOException("The storage transport has been shut down.");
+		}
+
+		ProcessTimings.markConnected(httpContext);
+
+		LoopbackConnection loopbackConnection = new LoopbackConnection();
+
+		if(httpRequest instanceof AbortableHttpRequest)
+		{
+			((AbortableHttpRequest) httpRequest).setReleaseTrigger(loopbackConnection);
+		}
+
+		String method = httpRequest.getMethod();
+
+		HttpResponse httpResponse;
+
+		if(method.equals("PUT"))
+		{
+			httpResponse = executePut(httpRequest, loopbackConnection);
+		}
+		else if(method.equals("GET"))
+		{
+			httpResponse = executeGet(httpRequest, loopbackConnection);
+		}
+		else if(method.equals("HEAD"))
+		{
+			httpResponse = executeHead(httpRequest);
+		}
+		else if(method.equals("DELETE"))
+		{
+			httpResponse = executeDelete(httpRequest);
+		}
+		else
+		{
+			httpResponse = createHttpResponse(405);
+		}
+
+		delay(loopbackConnection);
+
+		return httpResponse;
+	}
+
+	/**
+	 * Shuts down the {@link LoopbackStorageTransport}. Since it neither holds
+	 * connections nor threads, only subsequent requests are rejected. The
+	 * stored resources are kept.
+	 */
+	@Override
+	public void shutdown()
+	{
+		shutdown = true;
+	}
+
+	/**
+	 * Stores the body of the given {@code PUT} request and creates a response
+	 * which contains a success token.
+	 * 
+	 * @param httpRequest The {@code PUT} request
+	 * @param loopbackConnection The {@code LoopbackConnection} of the request
+	 * @return The response
+	 * @throws IOException If the body could not be read or the request has
+	 *         been aborted
+	 */
+	private HttpResponse executePut(HttpUriRequest httpRequest, LoopbackConnection loopbackConnection) throws IOException
+	{
+		HttpEntity httpEntity = ((HttpEntityEnclosingRequest) httpRequest).getEntity();
+
+		if(httpEntity == null)
+		{
+			return createHttpResponse(400);
+		}
+
+		long contentLength = httpEntity.getContentLength();
+
+		ByteArrayOutputStream content = new ByteArrayOutputStream(contentLength > 0L && contentLength <= Integer.MAX_VALUE ? (int) contentLength : TRANSFER_BUFFER_SIZE);
+
+		httpEntity.writeTo(new LoopbackOutputStream(content, loopbackConnection));
+
+		if(contentLength >= 0L && content.size() != contentLength)
+		{
+			return createHttpResponse(400);
+		}
+
+		Header contentTypeHeader = httpEntity.getContentType();
+
+		RESOURCES.put(getResourceKey(httpRequest.getURI()), new LoopbackResource(content.toByteArray(), contentTypeHeader != null ? contentTypeHeader.getValue() : "application/octet-stream"));
+
+		HttpResponse httpResponse = createHttpResponse(201);
+
+		httpResponse.setEntity(createHttpEntity(toBytes("{\"successToken\":\"" + UUID.randomUUID().toString() + "\"}"), 0, -1, "application/json", loopbackConnection));
+
+		return httpResponse;
+	}
+
+	/**
+	 * Creates the response to the given {@code GET} request, which contains
+	 * the requested resource or the requested range of the resource.
+	 * 
+	 * @param httpRequest The {@code GET} request
+	 * @param loopbackConnection The {@code LoopbackConnection} of the request
+	 * @return The response
+	 */
+	private HttpResponse executeGet(HttpUriRequest httpRequest, LoopbackConnection loopbackConnection)
+	{
+		LoopbackResource loopbackResource = RESOURCES.get(getResourceKey(httpRequest.getURI()));
+
+		if(loopbackResource == null)
+		{
+			return createHttpResponse(404);
+		}
+
+		int length = loopbackResource.content.length;
+
+		int firstBytePosition = 0;
+		int lastBytePosition = length - 1;
+
+		Header rangeHeader = httpRequest.getFirstHeader("Range");
+		Header ifRangeHeader = httpRequest.getFirstHeader("If-Range");
+
+		boolean partial = rangeHeader != null && rangeHeader.getValue().startsWith("bytes=") && (ifRangeHeader == null || ifRangeHeader.getValue().equals(loopbackResource.entityTag));
+
+		if(partial)
+		{
+			String range = rangeHeader.getValue().substring("bytes=".length()).trim();
+			int dashIndex = range.indexOf('-');
+
+			try
+			{
+				firstBytePosition = Integer.parseInt(range.substring(0, dashIndex).trim());
+
+				if(dashIndex < range.length() - 1)
+				{
+					lastBytePosition = Math.min(Integer.parseInt(range.substring(dashIndex + 1).trim()), length - 1);
+				}
+			}
+			catch(RuntimeException e)
+			{
+				return createHttpResponse(400);
+			}
+
+			if(firstBytePosition >= length || firstBytePosition > lastBytePosition)
+			{
+				HttpResponse httpResponse = createHttpResponse(416);
+				httpResponse.setHeader("Content-Range", "bytes */" + length);
+
+				return httpResponse;
+			}
+		}
+
+		HttpResponse httpResponse = createHttpResponse(partial ? 206 : 200);
+
+		if(partial)
+		{
+			httpResponse.setHeader("Content-Range", "bytes " + firstBytePosition + "-" + lastBytePosition + "/" + length);
+		}
+
+		httpResponse.setHeader("ETag", loopbackResource.entityTag);
+		httpResponse.setHeader("Accept-Ranges", "bytes");
+		httpResponse.setEntity(createHttpEntity(loopbackResource.content, firstBytePosition, lastBytePosition - firstBytePosition + 1, loopbackResource.contentType, loopbackConnection));
+
+		return httpResponse;
+	}
+
+	/**
+	 * Creates the response to the given {@code HEAD} request, which contains
+	 * the headers of the complete stored resource, but no body.
+	 * 
+	 * @param httpRequest The {@code HEAD} request
+	 * @return The response
+	 */
+	private HttpResponse executeHead(HttpUriRequest httpRequest)
+	{
+		LoopbackResource loopbackResource = RESOURCES.get(getResourceKey(httpRequest.getURI()));
+
+		if(loopbackResource == null)
+		{
+			return createHttpResponse(404);
+		}
+
+		HttpResponse httpResponse = createHttpResponse(200);
+
+		httpResponse.setHeader("Content-Length", String.valueOf(loopbackResource.content.length));
+
+		if(loopbackResource.contentType != null)
+		{
+			httpResponse.setHeader("Content-Type", loopbackResource.contentType);
+		}
+
+		httpResponse.setHeader("ETag", loopbackResource.entityTag);
+		httpResponse.setHeader("Accept-Ranges", "bytes");
+
+		return httpResponse;
+	}
+
+	/**
+	 * Creates the response to the given {@code DELETE} request, which
+	 * releases the lock of an uploaded resource.
+	 * 
+	 * @param httpRequest The {@code DELETE} request
+	 * @return The response
+	 */
+	private HttpResponse executeDelete(HttpUriRequest httpRequest)
+	{
+		URI uri = httpRequest.getURI();
+
+		if(!uri.getPath().endsWith("/lock"))
+		{
+			return createHttpResponse(405);
+		}
+
+		if(uri.getQuery() == null || !uri.getQuery().startsWith("token="))
+		{
+			return createHttpResponse(400);
+		}
+
+		return createHttpResponse(204);
+	}
+
+	/**
+	 * Delays the response by the configured <i>Latency</i>.
+	 * 
+	 * @param loopbackConnection The {@code LoopbackConnection} of the request
+	 * @throws InterruptedIOException If the thread has been interrupted or the
+	 *         request has been aborted
+	 */
+	private void delay(LoopbackConnection loopbackConnection) throws InterruptedIOException
+	{
+		if(latency > 0L)
+		{
+			try
+			{
+				Thread.sleep(latency);
+			}
+			catch(InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+
+				throw new InterruptedIOException("The request has been interrupted.");
+			}
+		}
+
+		loopbackConnection.checkAborted();
+	}
+
+	/**
+	 * Creates a response with the given status code.
+	 * 
+	 * @param statusCode The status code
+	 * @return The response
+	 */
+	private static HttpResponse createHttpResponse(int statusCode)
+	{
+		return new BasicHttpResponse(HttpVersion.HTTP_1_1, statusCode, EnglishReasonPhraseCatalog.INSTANCE.getReason(statusCode, null));
+	}
+
+	/**
+	 * Creates a response body which contains the given region of the given
+	 * content and which is transferred with at most the configured
+	 * <i>Bandwidth</i>.
+	 * 
+	 * @param content The content
+	 * @param offset The offset of the region
+	 * @param length The length of the region or {@code -1} for the remaining
+	 *        content
+	 * @param contentType The content type
+	 * @param loopbackConnection The {@code LoopbackConnection} of the request
+	 * @return The response body
+	 */
+	private HttpEntity createHttpEntity(byte[] content, int offset, int length, String contentType, LoopbackConnection loopbackConnection)
+	{
+		if(length < 0)
+		{
+			length = content.length - offset;
+		}
+
+		InputStreamEntity inputStreamEntity = new InputStreamEntity(new LoopbackInputStream(new ByteArrayInputStream(content, offset, length), loopbackConnection), length);
+		inputStreamEntity.setContentType(contentType);
+
+		return inputStreamEntity;
+	}
+
+	/**
+	 * Returns the key of the resource with the given {@link URI}, which
+	 * ignores the query and the fragment.
+	 * 
+	 * @param uri The {@code URI} of the resource
+	 * @return The key of the resource
+	 */
+	private static String getResourceKey(URI uri)
+	{
+		return uri.getScheme() + "://" + uri.getAuthority() + uri.getPath();
+	}
+
+	/**
+	 * Returns the {@code UTF-8} encoded {@code Bytes} of the given
+	 * {@code String}.
+	 * 
+	 * @param string The {@code String}
+	 * @return The encoded {@code Bytes}
+	 */
+	private static byte[] toBytes(String string)
+	{
+		try
+		{
+			return string.getBytes("UTF-8");
+		}
+		catch(UnsupportedEncodingException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * A {@code LoopbackResource} is a resource of the simulated storage
+	 * server.
+	 */
+	private static final class LoopbackResource
+	{
+		private final byte[] content;
+		private final String contentType;
+		private final String entityTag;
+
+		/**
+		 * Constructs a {@link LoopbackResource}.
+		 * 
+		 * @param content The content
+		 * @param contentType The content type
+		 */
+		private LoopbackResource(byte[] content, String contentType)
+		{
+			this.content = content;
+			this.contentType = contentType;
+
+			entityTag = "\"" + Integer.toHexString(Arrays.hashCode(content)) + "-" + Integer.toHexString(content.length) + "\"";
+		}
+	}
+
+	/**
+	 * A {@code LoopbackConnection} represents the simulated connection of a
+	 * single request. It is registered at the request, so that the transfer
+	 * of the request and response bodies is stopped as soon as the request is
+	 * aborted, even while it waits for bandwidth.
+	 */
+	private static final class LoopbackConnection implements ConnectionReleaseTrigger
+	{
+		private final AbortSignal abortSignal = new AbortSignal();
+
+		@Override
+		public void abortConnection()
+		{
+			abortSignal.abort();
+		}
+
+		@Override
+		public void releaseConnection()
+		{
+		}
+
+		/**
+		 * Checks whether the request has been aborted.
+		 * 
+		 * @throws InterruptedIOException If the request has been aborted
+		 */
+		private void checkAborted() throws InterruptedIOException
+		{
+			if(abortSignal.isAborted())
+			{
+				throw new InterruptedIOException("The request has been aborted.");
+			}
+		}
+	}
+
+	/**
+	 * A {@code LoopbackInputStream} transfers a response body with at most
+	 * the configured <i>Bandwidth</i>.
+	 */
+	private final class LoopbackInputStream extends InputStream
+	{
+		private final InputStream inputStream;
+		private final LoopbackConnection loopbackConnection;
+
+		/**
+		 * Constructs a {@link LoopbackInputStream}.
+		 * 
+		 * @param inputStream The {@code InputStream} of the response body
+		 * @param loopbackConnection The {@code LoopbackConnection} of the
+		 *        request
+		 */
+		private LoopbackInputStream(InputStream inputStream, LoopbackConnection loopbackConnection)
+		{
+			this.inputStream = inputStream;
+			this.loopbackConnection = loopbackConnection;
+		}
+
+		@Override
+		public int read() throws IOException
+		{
+			byte[] buffer = new byte[1];
+
+			return read(buffer, 0, 1) < 0 ? -1 : buffer[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException
+		{
+			loopbackConnection.checkAborted();
+
+			int count = inputStream.read(buffer, offset, Math.min(length, TRANSFER_BUFFER_SIZE));
+
+			if(count > 0)
+			{
+				bandwidthLimiter.acquire(count, loopbackConnection.abortSignal);
+
+				loopbackConnection.checkAborted();
+			}
+
+			return count;
+		}
+
+		@Override
+		public int available() throws IOException
+		{
+			return inputStream.available();
+		}
+	}
+
+	/**
+	 * A {@code LoopbackOutputStream} transfers a request body with at most
+	 * the configured <i>Bandwidth</i>.
+	 */
+	private final class LoopbackOutputStream extends OutputStream
+	{
+		private final OutputStream outputStream;
+		private final LoopbackConnection loopbackConnection;
+
+		/**
+		 * Constructs a {@link LoopbackOutputStream}.
+		 * 
+		 * @param outputStream The {@code OutputStream} of the stored content
+		 * @param loopbackConnection The {@code LoopbackConnection} of the
+		 *        request
+		 */
+		private LoopbackOutputStream(OutputStream outputStream, LoopbackConnection loopbackConnection)
+		{
+			this.outputStream = outputStream;
+			this.loopbackConnection = loopbackConnection;
+		}
+
+		@Override
+		public void write(int b) throws IOException
+		{
+			write(new byte[] {(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] buffer, int offset, int length) throws IOException
+		{
+			while(length > 0)
+			{
+				loopbackConnection.checkAborted();
+
+				int count = Math.min(length, TRANSFER_BUFFER_SIZE);
+
+				bandwidthLimiter.acquire(count, loopbackConnection.abortSignal);
+
+				outputStream.write(buffer, offset, count);
+
+				offset += count;
+				length -= count;
+			}
+		}
+	}
+}
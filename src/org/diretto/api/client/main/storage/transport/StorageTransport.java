@@ -0,0 +1,41 @@
+package org.diretto.api.client.main.storage.transport;
+
+import java.io.IOException;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * A {@code StorageTransport} executes the requests of the upload and download
+ * processes. It decouples the processes from the concrete transport, so that
+ * the processes can be executed either against a remote storage server or
+ * against a simulated storage server in memory. <br/><br/>
+ * 
+ * A {@code StorageTransport} has to be thread-safe, because it is shared by
+ * all processes of a manager. The execution of a request has to be aborted as
+ * soon as the request is aborted by means of {@link HttpUriRequest#abort()}.
+ * 
+ * @author Tobias Schlecht
+ */
+public interface StorageTransport
+{
+	/**
+	 * Executes the given request and returns the response. The content of the
+	 * response has to be consumed or the request has to be aborted afterwards.
+	 * 
+	 * @param httpRequest The request
+	 * @param httpContext The {@code HttpContext} of the request or
+	 *        {@code null}
+	 * @return The response
+	 * @throws IOException If an I/O error occurs or the request has been
+	 *         aborted
+	 */
+	HttpResponse execute(HttpUriRequest httpRequest, HttpContext httpContext) throws IOException;
+
+	/**
+	 * Shuts down the {@code StorageTransport} and releases its connections and
+	 * threads. Afterwards no further requests can be executed.
+	 */
+	void shutdown();
+}
@@ -0,0 +1,75 @@
+package org.diretto.api.client.main.storage.transport;
+
+import org.apache.commons.configuration.XMLConfiguration;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.diretto.api.client.main.storage.base.BasicAccessAuthenticationInterceptor;
+import org.diretto.api.client.main.storage.base.HttpClientFactory;
+
+/**
+ * The {@code StorageTransportFactory} creates the {@link StorageTransport}
+ * objects which are shared by all processes of a manager. The type of the
+ * {@code StorageTransport} is loaded from the configuration: Either
+ * {@code http} for an {@link HttpStorageTransport} or {@code loopback} for a
+ * {@link LoopbackStorageTransport}.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class StorageTransportFactory
+{
+	/**
+	 * The constructor is {@code private} to prevent the instantiation of this
+	 * class.
+	 */
+	private StorageTransportFactory()
+	{
+	}
+
+	/**
+	 * Creates the {@link StorageTransport}, which is loaded from the
+	 * {@code transport} element below the given configuration key.
+	 * 
+	 * @param xmlConfiguration The {@code XMLConfiguration} object (of the
+	 *        {@code StorageService})
+	 * @param configurationKey The key of the configuration element which
+	 *        contains the {@code transport} element (e.g. {@code upload})
+	 * @param preemptiveAuthentication {@code true} if the requests should be
+	 *        authenticated preemptively by means of the credentials of their
+	 *        {@code HttpContext}
+	 * @return The configured {@code StorageTransport}
+	 */
+	public static StorageTransport createStorageTransport(XMLConfiguration xmlConfiguration, String configurationKey, boolean preemptiveAuthentication)
+	{
+		if(isLoopback(xmlConfiguration, configurationKey))
+		{
+			long latency = xmlConfiguration.getLong(configurationKey + "/transport/loopback/latency");
+			long maxRate = xmlConfiguration.getLong(configurationKey + "/transport/loopback/max-rate");
+
+			return new LoopbackStorageTransport(latency, maxRate);
+		}
+
+		DefaultHttpClient httpClient = HttpClientFactory.createHttpClient(xmlConfiguration, configurationKey);
+
+		if(preemptiveAuthentication)
+		{
+			httpClient.addRequestInterceptor(new BasicAccessAuthenticationInterceptor(), 0);
+		}
+
+		return new HttpStorageTransport(httpClient);
+	}
+
+	/**
+	 * Returns whether the {@code transport} element below the given
+	 * configuration key selects the {@link LoopbackStorageTransport}.
+	 * 
+	 * @param xmlConfiguration The {@code XMLConfiguration} object (of the
+	 *        {@code StorageService})
+	 * @param configurationKey The key of the configuration element which
+	 *        contains the {@code transport} element (e.g. {@code upload})
+	 * @return {@code true} if the {@code LoopbackStorageTransport} is
+	 *         configured; otherwise {@code false}
+	 */
+	public static boolean isLoopback(XMLConfiguration xmlConfiguration, String configurationKey)
+	{
+		return xmlConfiguration.getString(configurationKey + "/transport/type").equals("loopback");
+	}
+}
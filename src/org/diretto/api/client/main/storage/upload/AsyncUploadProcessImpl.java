@@ -0,0 +1,790 @@
+package org.diretto.api.client.main.storage.upload;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.HttpResponseException;
+import org.diretto.api.client.base.data.UploadInfo;
+import org.diretto.api.client.main.storage.base.DeadlineScheduler;
+import org.diretto.api.client.main.storage.base.ProcessCallback;
+import org.diretto.api.client.main.storage.base.ProcessCallbackRegistry;
+import org.diretto.api.client.main.storage.base.ProcessFuture;
+import org.diretto.api.client.main.storage.base.ProcessPriority;
+import org.diretto.api.client.main.storage.base.ProcessTimeouts;
+import org.diretto.api.client.main.storage.base.ProcessTimings;
+import org.diretto.api.client.main.storage.base.ProgressListener;
+import org.diretto.api.client.main.storage.base.ProgressTracker;
+import org.diretto.api.client.main.storage.base.RetryPolicy;
+import org.diretto.api.client.main.storage.base.StorageLogLevel;
+import org.diretto.api.client.main.storage.base.StorageLogger;
+import org.diretto.api.client.main.storage.base.TransferMetrics;
+import org.diretto.api.client.main.storage.nio.AsyncHttpEngine;
+import org.diretto.api.client.main.storage.nio.AsyncHttpExchange;
+import org.diretto.api.client.main.storage.nio.AsyncHttpHandler;
+import org.diretto.api.client.main.storage.nio.AsyncHttpRequest;
+import org.diretto.api.client.main.storage.nio.AsyncHttpResponse;
+import org.diretto.api.client.session.UserSession;
+
+/**
+ * This class is an event-driven implementation class of the
+ * {@link UploadProcess} interface, which is executed by the
+ * {@link AsyncHttpEngine} of the {@link UploadManager}. <br/><br/>
+ * 
+ * In contrast to the {@link UploadProcessImpl} it does not occupy a thread
+ * while it is running: The upload request, the backoff between the attempts
+ * and the lock release request are driven by the I/O threads of the
+ * {@code AsyncHttpEngine}. Hence the registered {@link ProcessCallback}
+ * objects are notified by an I/O thread and must not block.
+ * 
+ * @author Tobias Schlecht
+ */
+final class AsyncUploadProcessImpl implements UploadProcess, ProcessFuture<UploadReport>
+{
+	private static final int MAX_RESPONSE_BODY_SIZE = 64 * 1024;
+
+	private final UploadInfo uploadInfo;
+	private final File file;
+	private final URL uploadURL;
+	private final URL lockURL;
+	private final String authorization;
+	private final AsyncHttpEngine asyncHttpEngine;
+	private final RetryPolicy retryPolicy;
+	private final TransferMetrics transferMetrics;
+	private final StorageLogger storageLogger;
+	private final UploadManager uploadManager;
+
+	private final Object runnerLock = new Object();
+	private final CountDownLatch countDownLatch = new CountDownLatch(1);
+	private final ProcessCallbackRegistry<UploadReport> processCallbackRegistry;
+	private final ProgressTracker progressTracker;
+	private final ProcessTimings processTimings = new ProcessTimings();
+
+	private boolean started = false;
+	private boolean finished = false;
+
+	private volatile AsyncHttpExchange asyncHttpExchange = null;
+	private volatile ScheduledFuture<?> deadlineFuture = null;
+	private volatile int uploadAttempts = 0;
+	private volatile int lockReleaseAttempts = 0;
+
+	private volatile boolean done = false;
+	private volatile boolean cancelled = false;
+	private volatile boolean timedOut = false;
+	private volatile ProcessTimeouts processTimeouts;
+	private volatile ProcessPriority processPriority = ProcessPriority.NORMAL;
+	private volatile UploadState uploadState = UploadState.INIT;
+	private volatile long uploadProcessStartTime = 0L;
+	private volatile long uploadProcessEndTime = 0L;
+	private volatile long uploadingEndTime = 0L;
+
+	private volatile UploadReport uploadReport = null;
+	private volatile Throwable failureCause = null;
+
+	/**
+	 * Constructs an object of the {@link UploadProcess} interface.
+	 * 
+	 * @param uploadManager The corresponding {@code UploadManager}
+	 * @param userSession The corresponding {@code UserSession}
+	 * @param uploadInfo The {@code UploadInfo} object
+	 * @param file The {@code File} to be uploaded
+	 */
+	AsyncUploadProcessImpl(UploadManager uploadManager, UserSession userSession, UploadInfo uploadInfo, File file)
+	{
+		this.uploadManager = uploadManager;
+		this.uploadInfo = uploadInfo;
+		this.file = file;
+
+		uploadURL = uploadInfo.getTarget();
+		lockURL = uploadInfo.getAttachmentID().getUniqueResourceURL();
+		authorization = uploadManager.createAuthorization(userSession);
+
+		asyncHttpEngine = uploadManager.getAsyncHttpEngine();
+		retryPolicy = uploadManager.getRetryPolicy();
+		progressTracker = new ProgressTracker(this, uploadManager.getProgressThrottle(), uploadManager.getStorageLogger());
+		progressTracker.setTotalBytes(file.length());
+		transferMetrics = uploadManager.getTransferMetrics();
+		storageLogger = uploadManager.getStorageLogger();
+		processCallbackRegistry = new ProcessCallbackRegistry<UploadReport>(storageLogger);
+
+		processTimeouts = uploadManager.getDefaultProcessTimeouts();
+	}
+
+	@Override
+	public void addCallback(ProcessCallback<? super UploadReport> processCallback)
+	{
+		processCallbackRegistry.add(processCallback);
+	}
+
+	/**
+	 * Cancels the {@link UploadProcess}. A running {@code UploadProcess} is
+	 * only cancelled if {@code mayInterruptIfRunning} is {@code true}: The
+	 * current request is aborted, which closes the connection. <br/><br/>
+	 * 
+	 * <i>Annotation:</i> As soon as the resource has been uploaded and the
+	 * attachment is being published, the {@code UploadProcess} cannot be
+	 * cancelled anymore.
+	 */
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning)
+	{
+		synchronized(runnerLock)
+		{
+			if(done || cancelled || timedOut)
+			{
+				return false;
+			}
+
+			if(started && (!mayInterruptIfRunning || uploadState == UploadState.PUBLISHING))
+			{
+				return false;
+			}
+
+			started = true;
+			cancelled = true;
+		}
+
+		abortExchange();
+
+		finish();
+
+		return true;
+	}
+
+	@Override
+	public UploadReport get() throws InterruptedException, ExecutionException
+	{
+		countDownLatch.await();
+
+		if(cancelled)
+		{
+			throw new CancellationException("The upload process has been cancelled.");
+		}
+
+		if(uploadReport == null)
+		{
+			throw new ExecutionException(failureCause);
+		}
+
+		return uploadReport;
+	}
+
+	@Override
+	public UploadReport get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException
+	{
+		if(!countDownLatch.await(timeout, unit))
+		{
+			throw new TimeoutException("The upload process has not been finished within the given time.");
+		}
+
+		if(cancelled)
+		{
+			throw new CancellationException("The upload process has been cancelled.");
+		}
+
+		if(uploadReport == null)
+		{
+			throw new ExecutionException(failureCause);
+		}
+
+		return uploadReport;
+	}
+
+	@Override
+	public boolean isCancelled()
+	{
+		return cancelled;
+	}
+
+	@Override
+	public boolean isDone()
+	{
+		return done;
+	}
+
+	/**
+	 * Returns the {@link ProcessTimings} of this {@code UploadProcess}.
+	 * 
+	 * @return The {@code ProcessTimings}
+	 */
+	ProcessTimings getProcessTimings()
+	{
+		return processTimings;
+	}
+
+	/**
+	 * Starts the {@link UploadProcess}. The method returns immediately, the
+	 * upload is driven by the I/O threads of the {@link AsyncHttpEngine}.
+	 */
+	void start()
+	{
+		synchronized(runnerLock)
+		{
+			if(started)
+			{
+				return;
+			}
+
+			started = true;
+
+			uploadProcessStartTime = System.nanoTime();
+
+			processTimings.markStarted();
+			transferMetrics.transferStarted();
+		}
+
+		deadlineFuture = DeadlineScheduler.schedule(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				expire();
+			}
+		}, processTimeouts.getDeadline());
+
+		uploadState = UploadState.UPLOADING;
+
+		executeUploadRequest();
+	}
+
+	/**
+	 * Executes the next attempt of the {@code PUT} request of the resource.
+	 */
+	private void executeUploadRequest()
+	{
+		uploadAttempts++;
+
+		progressTracker.set(0L);
+		processTimings.markRequestStarted();
+
+		AsyncHttpRequest asyncHttpRequest = new AsyncHttpRequest("PUT", uploadURL);
+
+		asyncHttpRequest.addHeader("Authorization", authorization);
+		asyncHttpRequest.addHeader("Content-Type", uploadInfo.getPlatformMediaType().getID());
+		asyncHttpRequest.setBody(new FileChannelBody(file, progressTracker, storageLogger));
+		asyncHttpRequest.setTimeouts(processTimeouts);
+		asyncHttpRequest.setBandwidthLimiter(uploadManager.getBandwidthLimiter());
+
+		execute(asyncHttpRequest, new AsyncHttpHandler()
+		{
+			private final ByteArrayOutputStream responseBody = new ByteArrayOutputStream();
+
+			private int statusCode;
+			private String reasonPhrase;
+
+			@Override
+			public void responseReceived(AsyncHttpResponse asyncHttpResponse)
+			{
+				processTimings.markResponseReceived();
+				processTimings.markConnected(asyncHttpResponse.getConnectedTime());
+				processTimings.markRequestSent(asyncHttpResponse.getRequestSentTime());
+
+				statusCode = asyncHttpResponse.getStatusCode();
+				reasonPhrase = asyncHttpResponse.getReasonPhrase();
+			}
+
+			@Override
+			public void contentReceived(ByteBuffer content) throws IOException
+			{
+				if(statusCode != 201 && statusCode != 202)
+				{
+					return;
+				}
+
+				if(responseBody.size() + content.remaining() > MAX_RESPONSE_BODY_SIZE)
+				{
+					throw new ClientProtocolException("The upload response is too large.");
+				}
+
+				byte[] buffer = new byte[content.remaining()];
+				content.get(buffer);
+
+				responseBody.write(buffer, 0, buffer.length);
+			}
+
+			@Override
+			public void completed()
+			{
+				if(storageLogger.isEnabled(StorageLogLevel.DEBUG))
+				{
+					storageLogger.log(StorageLogLevel.DEBUG, AsyncUploadProcessImpl.class, "The upload request has been answered.", uploadURL.toExternalForm(), statusCode, progressTracker.getTransferredBytes(), -1L, null);
+				}
+
+				if(statusCode == 201 || statusCode == 202)
+				{
+					uploaded(responseBody.toByteArray());
+
+					return;
+				}
+
+				storageLogger.log(StorageLogLevel.WARN, AsyncUploadProcessImpl.class, "The upload request has been answered with an unexpected status code.", uploadURL.toExternalForm(), statusCode, -1L, -1L, null);
+
+				retryUploadRequest(new HttpResponseException(statusCode, reasonPhrase), retryPolicy.isRetryable(statusCode, uploadAttempts));
+			}
+
+			@Override
+			public void failed(IOException exception)
+			{
+				retryUploadRequest(exception, retryPolicy.isRetryable(exception, uploadAttempts));
+			}
+		});
+	}
+
+	/**
+	 * Repeats the upload request after the backoff delay of the
+	 * {@link RetryPolicy} or finishes the {@link UploadProcess} with the
+	 * given failure.
+	 * 
+	 * @param failure The failure of the last attempt
+	 * @param retryable {@code true} if the failure is retryable
+	 */
+	private void retryUploadRequest(IOException failure, boolean retryable)
+	{
+		if(!retryable || cancelled || timedOut)
+		{
+			failureCause = failure;
+
+			finish();
+
+			return;
+		}
+
+		transferMetrics.retried();
+
+		asyncHttpEngine.schedule(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				executeUploadRequest();
+			}
+		}, retryPolicy.getBackoffDelay(uploadAttempts));
+	}
+
+	/**
+	 * Publishes the uploaded attachment by means of the success token of the
+	 * given response body.
+	 * 
+	 * @param responseBody The response body of the upload request
+	 */
+	private void uploaded(byte[] responseBody)
+	{
+		uploadingEndTime = System.nanoTime();
+
+		synchronized(runnerLock)
+		{
+			if(cancelled || timedOut)
+			{
+				return;
+			}
+
+			uploadState = UploadState.PUBLISHING;
+		}
+
+		processTimings.markPublishStarted();
+
+		try
+		{
+			String successToken = UploadProcessImpl.parseSuccessToken(new ByteArrayInputStream(responseBody));
+
+			executeLockReleaseRequest(new URL(lockURL.toExternalForm() + "/lock?token=" + successToken));
+		}
+		catch(IOException e)
+		{
+			failureCause = e;
+
+			finish();
+		}
+	}
+
+	/**
+	 * Executes the next attempt of the {@code DELETE} request, which releases
+	 * the lock of the uploaded attachment.
+	 * 
+	 * @param lockReleaseURL The {@code URL} of the lock including the success
+	 *        token
+	 */
+	private void executeLockReleaseRequest(final URL lockReleaseURL)
+	{
+		lockReleaseAttempts++;
+
+		AsyncHttpRequest asyncHttpRequest = new AsyncHttpRequest("DELETE", lockReleaseURL);
+
+		asyncHttpRequest.addHeader("Authorization", authorization);
+		asyncHttpRequest.setTimeouts(processTimeouts);
+
+		execute(asyncHttpRequest, new AsyncHttpHandler()
+		{
+			private int statusCode;
+
+			@Override
+			public void responseReceived(AsyncHttpResponse asyncHttpResponse)
+			{
+				statusCode = asyncHttpResponse.getStatusCode();
+			}
+
+			@Override
+			public void contentReceived(ByteBuffer content)
+			{
+			}
+
+			@Override
+			public void completed()
+			{
+				if(storageLogger.isEnabled(StorageLogLevel.DEBUG))
+				{
+					storageLogger.log(StorageLogLevel.DEBUG, AsyncUploadProcessImpl.class, "The lock release request has been answered.", lockReleaseURL.toExternalForm(), statusCode, -1L, -1L, null);
+				}
+
+				if(statusCode == 204 || statusCode == 200 || statusCode == 202)
+				{
+					published();
+
+					return;
+				}
+
+				storageLogger.log(StorageLogLevel.WARN, AsyncUploadProcessImpl.class, "The lock release request has been answered with an unexpected status code.", lockReleaseURL.toExternalForm(), statusCode, -1L, -1L, null);
+
+				retryLockReleaseRequest(lockReleaseURL, new HttpResponseException(statusCode, "The lock of the attachment could not be released."), retryPolicy.isRetryable(statusCode, lockReleaseAttempts));
+			}
+
+			@Override
+			public void failed(IOException exception)
+			{
+				retryLockReleaseRequest(lockReleaseURL, exception, retryPolicy.isRetryable(exception, lockReleaseAttempts));
+			}
+		});
+	}
+
+	/**
+	 * Repeats the lock release request after the backoff delay of the
+	 * {@link RetryPolicy} or finishes the {@link UploadProcess} with the
+	 * given failure.
+	 * 
+	 * @param lockReleaseURL The {@code URL} of the lock including the success
+	 *        token
+	 * @param failure The failure of the last attempt
+	 * @param retryable {@code true} if the failure is retryable
+	 */
+	private void retryLockReleaseRequest(final URL lockReleaseURL, IOException failure, boolean retryable)
+	{
+		if(!retryable)
+		{
+			failureCause = failure;
+
+			finish();
+
+			return;
+		}
+
+		transferMetrics.retried();
+
+		asyncHttpEngine.schedule(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				executeLockReleaseRequest(lockReleaseURL);
+			}
+		}, retryPolicy.getBackoffDelay(lockReleaseAttempts));
+	}
+
+	/**
+	 * Finishes the {@link UploadProcess} successfully after the attachment has
+	 * been published.
+	 */
+	private void published()
+	{
+		uploadProcessEndTime = System.nanoTime();
+
+		processTimings.markPublishEnded();
+
+		uploadReport = new UploadReport(uploadInfo, uploadProcessStartTime, uploadProcessEndTime, processTimings.getConnectedTime(), processTimings.getRequestSentTime(), uploadAttempts, lockReleaseAttempts, processTimings);
+
+		uploadState = UploadState.FINISHED;
+
+		finish();
+	}
+
+	/**
+	 * Executes the given {@link AsyncHttpRequest}, which is registered as the
+	 * current request, so that it can be aborted by {@link #cancel(boolean)}.
+	 * 
+	 * @param asyncHttpRequest The {@code AsyncHttpRequest}
+	 * @param asyncHttpHandler The {@code AsyncHttpHandler}
+	 */
+	private void execute(AsyncHttpRequest asyncHttpRequest, AsyncHttpHandler asyncHttpHandler)
+	{
+		asyncHttpExchange = asyncHttpEngine.execute(asyncHttpRequest, asyncHttpHandler);
+
+		if(cancelled || timedOut)
+		{
+			abortExchange();
+		}
+	}
+
+	/**
+	 * Aborts the current request, which closes the connection.
+	 */
+	private void abortExchange()
+	{
+		AsyncHttpExchange currentAsyncHttpExchange = asyncHttpExchange;
+
+		if(currentAsyncHttpExchange != null)
+		{
+			currentAsyncHttpExchange.abort();
+		}
+	}
+
+	/**
+	 * Aborts the running {@link UploadProcess}, because its <i>Deadline</i>
+	 * has expired. An attachment which is already being published is not
+	 * affected.
+	 */
+	private void expire()
+	{
+		synchronized(runnerLock)
+		{
+			if(done || cancelled || timedOut || uploadState == UploadState.PUBLISHING)
+			{
+				return;
+			}
+
+			timedOut = true;
+		}
+
+		abortExchange();
+
+		finish();
+	}
+
+	/**
+	 * Finishes the {@link UploadProcess} exactly once, determines its final
+	 * {@link UploadState} and notifies the waiting threads and the registered
+	 * {@link ProcessCallback} objects.
+	 */
+	private void finish()
+	{
+		synchronized(runnerLock)
+		{
+			if(finished)
+			{
+				return;
+			}
+
+			finished = true;
+		}
+
+		if(deadlineFuture != null)
+		{
+			deadlineFuture.cancel(false);
+		}
+
+		if(uploadingEndTime == 0L)
+		{
+			uploadingEndTime = System.nanoTime();
+		}
+
+		if(uploadProcessEndTime == 0L)
+		{
+			uploadProcessEndTime = System.nanoTime();
+		}
+
+		if(cancelled)
+		{
+			failureCause = new CancellationException("The upload process has been cancelled.");
+			uploadState = UploadState.CANCELLED;
+		}
+		else if(timedOut)
+		{
+			failureCause = new TimeoutException("The upload process has exceeded its deadline of " + processTimeouts.getDeadline() + " ms.");
+			uploadState = UploadState.TIMED_OUT;
+		}
+		else if(uploadState != UploadState.FINISHED)
+		{
+			uploadState = UploadState.ABORTED;
+		}
+
+		if(uploadProcessStartTime != 0L)
+		{
+			transferMetrics.transferStopped();
+		}
+
+		if(uploadReport != null)
+		{
+			transferMetrics.succeeded(uploadingEndTime - uploadProcessStartTime, uploadProcessEndTime - uploadingEndTime);
+		}
+		else
+		{
+			transferMetrics.failed(failureCause);
+		}
+
+		logOutcome();
+
+		progressTracker.flush();
+
+		done = true;
+
+		countDownLatch.countDown();
+
+		if(uploadReport != null)
+		{
+			processCallbackRegistry.complete(uploadReport);
+		}
+		else
+		{
+			processCallbackRegistry.fail(failureCause);
+		}
+	}
+
+	/**
+	 * Publishes the outcome of the process by means of the
+	 * {@link StorageLogger}.
+	 */
+	private void logOutcome()
+	{
+		StorageLogLevel level = (uploadReport != null) ? StorageLogLevel.INFO : StorageLogLevel.WARN;
+
+		if(!storageLogger.isEnabled(level))
+		{
+			return;
+		}
+
+		String message = (uploadReport != null) ? "The upload process has been finished." : "The upload process has failed.";
+		long duration = (uploadProcessStartTime != 0L && uploadProcessEndTime != 0L) ? uploadProcessEndTime - uploadProcessStartTime : -1L;
+
+		storageLogger.log(level, AsyncUploadProcessImpl.class, message, uploadURL.toExternalForm(), -1, progressTracker.getTransferredBytes(), duration, failureCause);
+	}
+
+	@Override
+	public int getProgress()
+	{
+		switch(getCurrentState())
+		{
+			case INIT:
+				return 0;
+
+			case UPLOADING:
+				return progressTracker.getPercentage(95);
+
+			case PUBLISHING:
+				return 95;
+
+			case FINISHED:
+				return 100;
+
+			case CANCELLED:
+			case TIMED_OUT:
+			case ABORTED:
+				return 100;
+
+			default:
+				return 0;
+		}
+	}
+
+	@Override
+	public long getElapsedTime()
+	{
+		if(uploadProcessStartTime == 0L)
+		{
+			return 0L;
+		}
+		else if(uploadProcessEndTime != 0L)
+		{
+			return Math.round(((double) (uploadProcessEndTime - uploadProcessStartTime)) / 1000000.0d);
+		}
+
+		return Math.round(((double) (System.nanoTime() - uploadProcessStartTime)) / 1000000.0d);
+	}
+
+	@Override
+	public UploadState getCurrentState()
+	{
+		return uploadState;
+	}
+
+	@Override
+	public long getTransferredBytes()
+	{
+		return progressTracker.getTransferredBytes();
+	}
+
+	@Override
+	public long getTotalBytes()
+	{
+		return progressTracker.getTotalBytes();
+	}
+
+	@Override
+	public void addProgressListener(ProgressListener progressListener)
+	{
+		progressTracker.addProgressListener(progressListener);
+	}
+
+	@Override
+	public void removeProgressListener(ProgressListener progressListener)
+	{
+		progressTracker.removeProgressListener(progressListener);
+	}
+
+	@Override
+	public ProcessTimeouts getTimeouts()
+	{
+		return processTimeouts;
+	}
+
+	@Override
+	public void setTimeouts(ProcessTimeouts processTimeouts)
+	{
+		if(processTimeouts == null)
+		{
+			throw new NullPointerException();
+		}
+
+		synchronized(runnerLock)
+		{
+			if(started)
+			{
+				throw new IllegalStateException("The timeouts cannot be changed after the upload process has been started.");
+			}
+
+			this.processTimeouts = processTimeouts;
+		}
+	}
+
+	@Override
+	public ProcessPriority getPriority()
+	{
+		return processPriority;
+	}
+
+	@Override
+	public void setPriority(ProcessPriority processPriority)
+	{
+		if(processPriority == null)
+		{
+			throw new NullPointerException();
+		}
+
+		synchronized(runnerLock)
+		{
+			if(started)
+			{
+				throw new IllegalStateException("The priority cannot be changed after the upload process has been started.");
+			}
+
+			this.processPriority = processPriority;
+		}
+	}
+}
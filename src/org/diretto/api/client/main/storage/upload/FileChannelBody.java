@@ -0,0 +1,89 @@
+package org.diretto.api.client.main.storage.upload;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.diretto.api.client.main.storage.base.ProgressTracker;
+import org.diretto.api.client.main.storage.base.StorageLogLevel;
+import org.diretto.api.client.main.storage.base.StorageLogger;
+import org.diretto.api.client.main.storage.nio.AsyncHttpBody;
+
+/**
+ * A {@code FileChannelBody} is an {@link AsyncHttpBody}, whose content is read
+ * from a {@link File} by means of a {@link FileChannel}. The number of read
+ * {@code Bytes} is added to the {@link ProgressTracker} of the upload.
+ * 
+ * @author Tobias Schlecht
+ */
+final class FileChannelBody implements AsyncHttpBody
+{
+	private final File file;
+	private final long contentLength;
+	private final ProgressTracker progressTracker;
+	private final StorageLogger storageLogger;
+
+	private FileInputStream fileInputStream = null;
+
+	/**
+	 * Constructs a {@link FileChannelBody}.
+	 * 
+	 * @param file The {@code File} which contains the content
+	 * @param progressTracker The {@code ProgressTracker} of the read
+	 *        {@code Bytes}
+	 * @param storageLogger The {@code StorageLogger} to which failures of
+	 *        closing the {@code File} are logged
+	 */
+	FileChannelBody(File file, ProgressTracker progressTracker, StorageLogger storageLogger)
+	{
+		this.file = file;
+		this.progressTracker = progressTracker;
+		this.storageLogger = storageLogger;
+
+		contentLength = file.length();
+	}
+
+	@Override
+	public long getContentLength()
+	{
+		return contentLength;
+	}
+
+	@Override
+	public int read(ByteBuffer byteBuffer) throws IOException
+	{
+		if(fileInputStream == null)
+		{
+			fileInputStream = new FileInputStream(file);
+		}
+
+		int count = fileInputStream.getChannel().read(byteBuffer);
+
+		if(count > 0)
+		{
+			progressTracker.add(count);
+		}
+
+		return count;
+	}
+
+	@Override
+	public void close()
+	{
+		if(fileInputStream == null)
+		{
+			return;
+		}
+
+		try
+		{
+			fileInputStream.close();
+		}
+		catch(IOException e)
+		{
+			storageLogger.log(StorageLogLevel.WARN, FileChannelBody.class, "The uploaded file could not be closed.", e);
+		}
+	}
+}
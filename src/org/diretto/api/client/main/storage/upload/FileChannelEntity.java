@@ -0,0 +1,110 @@
+package org.diretto.api.client.main.storage.upload;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.AbstractHttpEntity;
+
+/**
+ * A {@code FileChannelEntity} is a repeatable {@link HttpEntity}, whose
+ * content is read from a {@link File} by means of a {@link FileChannel}.
+ * <br/><br/>
+ * 
+ * The content is handed over chunk by chunk to
+ * {@link FileChannel#transferTo(long, long, WritableByteChannel)}, so that
+ * the {@code FileChannel} implementation copies it through its own small
+ * direct buffer. Neither a transfer buffer nor a memory mapping has to be
+ * held by this class, which would otherwise remain until the next garbage
+ * collection.
+ * 
+ * @author Tobias Schlecht
+ */
+final class FileChannelEntity extends AbstractHttpEntity
+{
+	private static final long TRANSFER_CHUNK_SIZE = 64L * 1024L;
+
+	private final File file;
+
+	/**
+	 * Constructs a {@link FileChannelEntity}.
+	 * 
+	 * @param file The {@code File} which contains the content
+	 * @param contentType The content type of the {@code File}
+	 */
+	FileChannelEntity(File file, String contentType)
+	{
+		this.file = file;
+
+		setContentType(contentType);
+	}
+
+	@Override
+	public boolean isRepeatable()
+	{
+		return true;
+	}
+
+	@Override
+	public long getContentLength()
+	{
+		return file.length();
+	}
+
+	@Override
+	public InputStream getContent() throws IOException
+	{
+		return new FileInputStream(file);
+	}
+
+	@Override
+	public void writeTo(OutputStream outputStream) throws IOException
+	{
+		if(outputStream == null)
+		{
+			throw new IllegalArgumentException("The output stream must not be null.");
+		}
+
+		WritableByteChannel targetChannel = Channels.newChannel(outputStream);
+
+		FileInputStream fileInputStream = new FileInputStream(file);
+
+		try
+		{
+			FileChannel fileChannel = fileInputStream.getChannel();
+
+			long size = fileChannel.size();
+			long position = 0L;
+
+			while(position < size)
+			{
+				long count = fileChannel.transferTo(position, Math.min(TRANSFER_CHUNK_SIZE, size - position), targetChannel);
+
+				if(count <= 0L)
+				{
+					throw new IOException("The file " + file.getPath() + " has been truncated during the upload.");
+				}
+
+				position += count;
+			}
+
+			outputStream.flush();
+		}
+		finally
+		{
+			fileInputStream.close();
+		}
+	}
+
+	@Override
+	public boolean isStreaming()
+	{
+		return false;
+	}
+}
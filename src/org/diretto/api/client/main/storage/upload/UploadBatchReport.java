@@ -0,0 +1,32 @@
+package org.diretto.api.client.main.storage.upload;
+
+import java.util.List;
+
+import org.diretto.api.client.main.storage.base.AbstractBatchReport;
+
+/**
+ * This class represents an {@code UploadBatchReport}, which provides
+ * aggregated information about a finished batch of upload processes.
+ * <br/><br/>
+ * 
+ * <i>Annotation:</i> It is an immutable class.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class UploadBatchReport extends AbstractBatchReport<UploadProcess, UploadReport>
+{
+	/**
+	 * Constructs an {@link UploadBatchReport} using the given data.
+	 * 
+	 * @param uploadReports The {@code UploadReport} objects of the successful
+	 *        upload processes in completion order
+	 * @param failedUploadProcesses The upload processes which were not
+	 *        successful
+	 * @param batchStartTime The start time of the batch in {@code nanoseconds}
+	 * @param batchEndTime The end time of the batch in {@code nanoseconds}
+	 */
+	UploadBatchReport(List<UploadReport> uploadReports, List<UploadProcess> failedUploadProcesses, long batchStartTime, long batchEndTime)
+	{
+		super(uploadReports, failedUploadProcesses, batchStartTime, batchEndTime);
+	}
+}
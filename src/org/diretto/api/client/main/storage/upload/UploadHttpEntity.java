@@ -1,7 +1,10 @@
 package org.diretto.api.client.main.storage.upload;
 
 import org.apache.http.HttpEntity;
+import org.diretto.api.client.main.storage.base.AbortSignal;
 import org.diretto.api.client.main.storage.base.AbstractProgressHttpEntity;
+import org.diretto.api.client.main.storage.base.BandwidthLimiter;
+import org.diretto.api.client.main.storage.base.ProgressTracker;
 
 /**
  * An {@code UploadHttpEntity} extends the {@link AbstractProgressHttpEntity}
@@ -16,9 +19,14 @@ final class UploadHttpEntity extends AbstractProgressHttpEntity
 	 * Constructs an {@link UploadHttpEntity}.
 	 * 
 	 * @param httpEntity The corresponding {@code HttpEntity}
+	 * @param bandwidthLimiter The {@code BandwidthLimiter} of the uploads
+	 * @param progressTracker The {@code ProgressTracker} of the corresponding
+	 *        upload process or {@code null}
+	 * @param abortSignal The {@code AbortSignal} of the corresponding upload
+	 *        process or {@code null}
 	 */
-	UploadHttpEntity(HttpEntity httpEntity)
+	UploadHttpEntity(HttpEntity httpEntity, BandwidthLimiter bandwidthLimiter, ProgressTracker progressTracker, AbortSignal abortSignal)
 	{
-		super(httpEntity);
+		super(httpEntity, bandwidthLimiter, progressTracker, abortSignal);
 	}
 }
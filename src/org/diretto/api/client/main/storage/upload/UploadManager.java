@@ -3,24 +3,44 @@ package org.diretto.api.client.main.storage.upload;
 import java.io.File;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.Collection;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.apache.commons.configuration.XMLConfiguration;
 import org.apache.http.auth.AuthScope;
-import org.apache.http.entity.FileEntity;
+import org.apache.http.auth.Credentials;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.protocol.ClientContext;
 import org.apache.http.entity.InputStreamEntity;
-import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.auth.BasicScheme;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
 import org.diretto.api.client.base.annotations.InvocationLimited;
 import org.diretto.api.client.base.data.UploadInfo;
 import org.diretto.api.client.main.storage.StorageService;
 import org.diretto.api.client.main.storage.StorageServiceImpl;
-import org.diretto.api.client.main.storage.base.BasicAccessAuthenticationInterceptor;
+import org.diretto.api.client.main.storage.base.BandwidthLimiter;
+import org.diretto.api.client.main.storage.base.HttpClientFactory;
+import org.diretto.api.client.main.storage.base.ProcessBatchCallback;
+import org.diretto.api.client.main.storage.base.ProcessBatchCollector;
+import org.diretto.api.client.main.storage.base.ProcessFuture;
+import org.diretto.api.client.main.storage.base.ProcessLanes;
+import org.diretto.api.client.main.storage.base.ProcessPriority;
+import org.diretto.api.client.main.storage.base.ProcessTimeouts;
+import org.diretto.api.client.main.storage.base.ProgressThrottle;
+import org.diretto.api.client.main.storage.base.RetryPolicy;
+import org.diretto.api.client.main.storage.base.StorageLogLevel;
+import org.diretto.api.client.main.storage.base.StorageLogger;
+import org.diretto.api.client.main.storage.base.TransferMetrics;
+import org.diretto.api.client.main.storage.nio.AsyncHttpEngine;
+import org.diretto.api.client.main.storage.nio.AsyncHttpRequest;
+import org.diretto.api.client.main.storage.transport.StorageTransport;
+import org.diretto.api.client.main.storage.transport.StorageTransportFactory;
 import org.diretto.api.client.session.UserSession;
 import org.diretto.api.client.user.UserFactory;
 import org.diretto.api.client.util.InvocationUtils;
-import org.restlet.Client;
 
 /**
  * The {@code UploadManager} is responsible for the basic upload aspects.
@@ -30,28 +50,55 @@ import org.restlet.Client;
 public final class UploadManager
 {
 	private final URL serviceURL;
-	private final Client restletClient;
+	private final StorageTransport storageTransport;
+	private final ProcessTimeouts defaultProcessTimeouts;
+	private final RetryPolicy retryPolicy;
+	private final ProgressThrottle progressThrottle;
+	private final BandwidthLimiter bandwidthLimiter;
+	private final StorageLogger storageLogger;
 
-	private final ExecutorService executorService;
+	private final ProcessLanes processLanes;
+	private final TransferMetrics transferMetrics;
+	private final AsyncHttpEngine asyncHttpEngine;
 
 	/**
 	 * The constructor is {@code private} to have strict control what instances
 	 * exist at any time. Instead of the constructor the {@code public}
 	 * <i>static factory method</i>
-	 * {@link #getInstance(XMLConfiguration, URL, Client)} returns the instances
-	 * of the class.
+	 * {@link #getInstance(XMLConfiguration, URL, BandwidthLimiter, StorageLogger)}
+	 * returns the instances of the class.
 	 * 
 	 * @param xmlConfiguration The {@code XMLConfiguration} object (of the
 	 *        {@code StorageService})
 	 * @param serviceURL The service {@code URL}
-	 * @param restletClient The <i>Restlet</i> {@code Client}
+	 * @param globalBandwidthLimiter The global {@code BandwidthLimiter} of
+	 *        the {@code StorageService}
+	 * @param storageLogger The {@code StorageLogger} of the
+	 *        {@code StorageService} or {@code null} if it should be loaded
+	 *        from the configuration
 	 */
-	private UploadManager(XMLConfiguration xmlConfiguration, URL serviceURL, Client restletClient)
+	private UploadManager(XMLConfiguration xmlConfiguration, URL serviceURL, BandwidthLimiter globalBandwidthLimiter, StorageLogger storageLogger)
 	{
 		this.serviceURL = serviceURL;
-		this.restletClient = restletClient;
 
-		executorService = Executors.newFixedThreadPool(xmlConfiguration.getInt("upload/max-parallel-uploads"));
+		storageTransport = StorageTransportFactory.createStorageTransport(xmlConfiguration, "upload", true);
+		defaultProcessTimeouts = HttpClientFactory.createProcessTimeouts(xmlConfiguration, "upload");
+		retryPolicy = RetryPolicy.createRetryPolicy(xmlConfiguration, "upload");
+		progressThrottle = ProgressThrottle.createProgressThrottle(xmlConfiguration, "upload");
+		bandwidthLimiter = BandwidthLimiter.createBandwidthLimiter(xmlConfiguration, "upload/bandwidth", globalBandwidthLimiter);
+		this.storageLogger = (storageLogger != null) ? storageLogger : StorageLogger.createStorageLogger(xmlConfiguration, "logging");
+
+		processLanes = ProcessLanes.createProcessLanes(xmlConfiguration, "upload", xmlConfiguration.getInt("upload/max-parallel-uploads"), this.storageLogger);
+		transferMetrics = new TransferMetrics(processLanes, bandwidthLimiter);
+
+		if(xmlConfiguration.getString("upload/engine/type").equals("async") && !StorageTransportFactory.isLoopback(xmlConfiguration, "upload"))
+		{
+			asyncHttpEngine = AsyncHttpEngine.createAsyncHttpEngine(xmlConfiguration, "upload", this.storageLogger);
+		}
+		else
+		{
+			asyncHttpEngine = null;
+		}
 	}
 
 	/**
@@ -60,16 +107,39 @@ public final class UploadManager
 	 * @param xmlConfiguration The {@code XMLConfiguration} object (of the
 	 *        {@code StorageService})
 	 * @param serviceURL The service {@code URL}
-	 * @param restletClient The <i>Restlet</i> {@code Client}
+	 * @param globalBandwidthLimiter The global {@code BandwidthLimiter} of
+	 *        the {@code StorageService}
+	 * @param storageLogger The {@code StorageLogger} of the
+	 *        {@code StorageService} or {@code null} if it should be loaded
+	 *        from the configuration
 	 * @return A {@code UploadManager} instance
 	 */
 	@InvocationLimited(legitimateInvocationClasses = {StorageServiceImpl.class})
-	public static synchronized UploadManager getInstance(XMLConfiguration xmlConfiguration, URL serviceURL, Client restletClient)
+	public static synchronized UploadManager getInstance(XMLConfiguration xmlConfiguration, URL serviceURL, BandwidthLimiter globalBandwidthLimiter, StorageLogger storageLogger)
 	{
-		String warningMessage = "The method invocation \"" + UploadManager.class.getCanonicalName() + ".getInstance(XMLConfiguration, URL, Client)\" is not intended for this usage. Use the \"" + StorageService.class.getCanonicalName() + "\" for the upload functionalities.";
-		InvocationUtils.checkMethodInvocation(warningMessage, "getInstance", XMLConfiguration.class, URL.class, Client.class);
+		String warningMessage = "The method invocation \"" + UploadManager.class.getCanonicalName() + ".getInstance(XMLConfiguration, URL, BandwidthLimiter, StorageLogger)\" is not intended for this usage. Use the \"" + StorageService.class.getCanonicalName() + "\" for the upload functionalities.";
+		InvocationUtils.checkMethodInvocation(warningMessage, "getInstance", XMLConfiguration.class, URL.class, BandwidthLimiter.class, StorageLogger.class);
+
+		return new UploadManager(xmlConfiguration, serviceURL, globalBandwidthLimiter, storageLogger);
+	}
 
-		return new UploadManager(xmlConfiguration, serviceURL, restletClient);
+	/**
+	 * Shuts down the {@link UploadManager}. Running {@code UploadProcess}
+	 * objects are finished, but waiting ones are not started anymore.
+	 * Afterwards the connections of the {@link StorageTransport} are closed,
+	 * the eviction of its idle connections is cancelled and the threads of the
+	 * asynchronous engine terminate.
+	 */
+	public void shutdown()
+	{
+		processLanes.shutdown();
+
+		storageTransport.shutdown();
+
+		if(asyncHttpEngine != null)
+		{
+			asyncHttpEngine.shutdown();
+		}
 	}
 
 	/**
@@ -83,41 +153,141 @@ public final class UploadManager
 	}
 
 	/**
-	 * Returns an <i>Apache</i> {@link DefaultHttpClient} for the given
-	 * {@link UserSession}.
+	 * Returns the {@link StorageTransport}, which is shared by all
+	 * {@code UploadProcess} objects of this {@code UploadManager}.
 	 * 
-	 * @return An <i>Apache</i> {@code DefaultHttpClient} for the given
-	 *         {@code UserSession}.
+	 * @return The {@code StorageTransport}
 	 */
-	DefaultHttpClient getHttpClient(UserSession userSession)
+	StorageTransport getStorageTransport()
 	{
-		DefaultHttpClient httpClient = new DefaultHttpClient();
+		return storageTransport;
+	}
 
-		UserFactory.setCredentials(userSession.getUser(), new AuthScope(serviceURL.getHost(), serviceURL.getPort()), httpClient.getCredentialsProvider());
+	/**
+	 * Returns the configured default {@link ProcessTimeouts} of the
+	 * {@code UploadProcess} objects of this {@code UploadManager}.
+	 * 
+	 * @return The default {@code ProcessTimeouts}
+	 */
+	ProcessTimeouts getDefaultProcessTimeouts()
+	{
+		return defaultProcessTimeouts;
+	}
 
-		httpClient.addRequestInterceptor(new BasicAccessAuthenticationInterceptor(), 0);
+	/**
+	 * Returns the {@link RetryPolicy} of the {@code UploadProcess} objects of
+	 * this {@code UploadManager}.
+	 * 
+	 * @return The {@code RetryPolicy}
+	 */
+	RetryPolicy getRetryPolicy()
+	{
+		return retryPolicy;
+	}
 
-		return httpClient;
+	/**
+	 * Returns the {@link ProgressThrottle} of the {@code UploadProcess} objects
+	 * of this {@code UploadManager}.
+	 * 
+	 * @return The {@code ProgressThrottle}
+	 */
+	ProgressThrottle getProgressThrottle()
+	{
+		return progressThrottle;
+	}
+
+	/**
+	 * Returns the {@link AsyncHttpEngine}, which executes the asynchronous
+	 * {@code UploadProcess} objects of this {@code UploadManager}, or
+	 * {@code null} if the blocking engine is configured.
+	 * 
+	 * @return The {@code AsyncHttpEngine} or {@code null}
+	 */
+	AsyncHttpEngine getAsyncHttpEngine()
+	{
+		return asyncHttpEngine;
+	}
+
+	/**
+	 * @see StorageServiceImpl#getUploadBandwidthLimiter()
+	 */
+	public BandwidthLimiter getBandwidthLimiter()
+	{
+		return bandwidthLimiter;
+	}
+
+	/**
+	 * Returns the {@link StorageLogger}, which publishes the events of the
+	 * processes of this {@code UploadManager}.
+	 * 
+	 * @return The {@code StorageLogger}
+	 */
+	StorageLogger getStorageLogger()
+	{
+		return storageLogger;
+	}
+
+	/**
+	 * Returns the {@link TransferMetrics} of the {@code UploadProcess}
+	 * objects of this {@code UploadManager}, which are registered as
+	 * <i>MXBean</i> by the {@code StorageServiceImpl}.
+	 * 
+	 * @return The {@code TransferMetrics}
+	 */
+	public TransferMetrics getTransferMetrics()
+	{
+		return transferMetrics;
 	}
 
 	/**
-	 * Returns the <i>Restlet</i> {@link Client}.
+	 * Returns a new {@link HttpContext} for the given {@link UserSession}. The
+	 * {@code HttpContext} provides the credentials of the corresponding user
+	 * for the storage service and for the host of the given lock {@link URL},
+	 * so that the pooled connections of the shared {@link StorageTransport}
+	 * can be reused independently of the user and the lock of the uploaded
+	 * attachment can be released with the same {@code HttpContext}.
 	 * 
-	 * @return The <i>Restlet</i> {@code Client}
+	 * @param userSession The corresponding {@code UserSession}
+	 * @param lockURL The {@code URL} of the resource whose lock has to be
+	 *        released after the upload
+	 * @return A new {@code HttpContext} for the given {@code UserSession}
 	 */
-	Client getRestletClient()
+	HttpContext createHttpContext(UserSession userSession, URL lockURL)
 	{
-		return restletClient;
+		CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+
+		UserFactory.setCredentials(userSession.getUser(), new AuthScope(serviceURL.getHost(), serviceURL.getPort()), credentialsProvider);
+
+		if(!lockURL.getHost().equalsIgnoreCase(serviceURL.getHost()) || lockURL.getPort() != serviceURL.getPort())
+		{
+			UserFactory.setCredentials(userSession.getUser(), new AuthScope(lockURL.getHost(), lockURL.getPort()), credentialsProvider);
+		}
+
+		HttpContext httpContext = new BasicHttpContext();
+		httpContext.setAttribute(ClientContext.CREDS_PROVIDER, credentialsProvider);
+
+		return httpContext;
 	}
 
 	/**
-	 * Finishes the given {@code UploadProcess} ({@link UploadProcessImpl}).
+	 * Returns the value of the {@code Authorization} header for the given
+	 * {@link UserSession}, which is sent preemptively by the asynchronous
+	 * {@code UploadProcess} objects.
 	 * 
-	 * @param uploadProcess The {@code UploadProcess} to be finished
+	 * @param userSession The corresponding {@code UserSession}
+	 * @return The value of the {@code Authorization} header
 	 */
-	void finish(UploadProcessImpl uploadProcess)
+	String createAuthorization(UserSession userSession)
 	{
-		uploadProcess.getHttpClient().getConnectionManager().shutdown();
+		CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+
+		AuthScope authScope = new AuthScope(serviceURL.getHost(), serviceURL.getPort());
+
+		UserFactory.setCredentials(userSession.getUser(), authScope, credentialsProvider);
+
+		Credentials credentials = credentialsProvider.getCredentials(authScope);
+
+		return BasicScheme.authenticate(credentials, "US-ASCII", false).getValue();
 	}
 
 	/**
@@ -126,10 +296,15 @@ public final class UploadManager
 	 */
 	public UploadProcess createUploadProcess(UserSession userSession, UploadInfo uploadInfo, File file)
 	{
-		FileEntity fileEntity = new FileEntity(file, uploadInfo.getPlatformMediaType().getID());
-		fileEntity.setChunked(false);
+		if(asyncHttpEngine != null && AsyncHttpRequest.isSupported(uploadInfo.getTarget()) && AsyncHttpRequest.isSupported(uploadInfo.getAttachmentID().getUniqueResourceURL()))
+		{
+			return new AsyncUploadProcessImpl(this, userSession, uploadInfo, file);
+		}
 
-		return new UploadProcessImpl(this, userSession, uploadInfo, new UploadHttpEntity(fileEntity));
+		FileChannelEntity fileChannelEntity = new FileChannelEntity(file, uploadInfo.getPlatformMediaType().getID());
+		fileChannelEntity.setChunked(false);
+
+		return new UploadProcessImpl(this, userSession, uploadInfo, fileChannelEntity);
 	}
 
 	/**
@@ -142,7 +317,59 @@ public final class UploadManager
 		inputStreamEntity.setContentType(uploadInfo.getPlatformMediaType().getID());
 		inputStreamEntity.setChunked(false);
 
-		return new UploadProcessImpl(this, userSession, uploadInfo, new UploadHttpEntity(inputStreamEntity));
+		return new UploadProcessImpl(this, userSession, uploadInfo, inputStreamEntity);
+	}
+
+	/**
+	 * @see StorageServiceImpl#submitUploadProcess(UploadProcess)
+	 */
+	public ProcessFuture<UploadReport> submitUploadProcess(UploadProcess uploadProcess)
+	{
+		if(uploadProcess instanceof AsyncUploadProcessImpl)
+		{
+			AsyncUploadProcessImpl asyncUploadProcessImpl = (AsyncUploadProcessImpl) uploadProcess;
+
+			asyncUploadProcessImpl.getProcessTimings().markSubmitted();
+			asyncUploadProcessImpl.start();
+
+			return asyncUploadProcessImpl;
+		}
+
+		UploadProcessImpl uploadProcessImpl = (UploadProcessImpl) uploadProcess;
+
+		uploadProcessImpl.getProcessTimings().markSubmitted();
+
+		processLanes.execute(uploadProcessImpl, uploadProcess.getPriority(), uploadProcessImpl.getContentLength());
+
+		return uploadProcessImpl;
+
+	}
+
+	/**
+	 * Changes the {@link ProcessPriority} of the given waiting
+	 * {@link UploadProcessImpl} within the queue of its lane.
+	 * 
+	 * @param uploadProcess The waiting {@code UploadProcessImpl}
+	 * @param processPriority The new {@code ProcessPriority}
+	 * @return {@code true} if the {@code UploadProcessImpl} has been reordered;
+	 *         otherwise {@code false}
+	 */
+	boolean reprioritizeUploadProcess(UploadProcessImpl uploadProcess, ProcessPriority processPriority)
+	{
+		return processLanes.reprioritize(uploadProcess, processPriority);
+	}
+
+	/**
+	 * Removes the given waiting {@link UploadProcessImpl} from the queue of its
+	 * lane, so that its thread slot is not occupied.
+	 * 
+	 * @param uploadProcess The waiting {@code UploadProcessImpl}
+	 * @return {@code true} if the {@code UploadProcessImpl} has been removed;
+	 *         otherwise {@code false}
+	 */
+	boolean removeUploadProcess(UploadProcessImpl uploadProcess)
+	{
+		return processLanes.remove(uploadProcess);
 	}
 
 	/**
@@ -150,23 +377,56 @@ public final class UploadManager
 	 */
 	public UploadReport executeUploadProcess(UploadProcess uploadProcess)
 	{
-		executorService.execute((UploadProcessImpl) uploadProcess);
-
 		UploadReport uploadReport = null;
 
 		try
 		{
-			uploadReport = ((UploadProcessImpl) uploadProcess).get();
+			uploadReport = submitUploadProcess(uploadProcess).get();
 		}
 		catch(InterruptedException e)
 		{
-			e.printStackTrace();
+			storageLogger.log(StorageLogLevel.WARN, UploadManager.class, "The waiting thread has been interrupted.", e);
+
+			Thread.currentThread().interrupt();
 		}
 		catch(ExecutionException e)
 		{
-			e.printStackTrace();
+			storageLogger.log(StorageLogLevel.DEBUG, UploadManager.class, "The upload process has failed.", e);
+		}
+		catch(CancellationException e)
+		{
+			storageLogger.log(StorageLogLevel.DEBUG, UploadManager.class, "The upload process has been cancelled.", e);
 		}
 
 		return uploadReport;
 	}
+
+	/**
+	 * @see StorageServiceImpl#executeUploadProcesses(Collection,
+	 *      ProcessBatchCallback)
+	 */
+	public UploadBatchReport executeUploadProcesses(Collection<UploadProcess> uploadProcesses, ProcessBatchCallback<? super UploadProcess, ? super UploadReport> processBatchCallback)
+	{
+		ProcessBatchCollector<UploadProcess, UploadReport> processBatchCollector = new ProcessBatchCollector<UploadProcess, UploadReport>(uploadProcesses.size(), processBatchCallback);
+
+		for(UploadProcess uploadProcess : uploadProcesses)
+		{
+			submitUploadProcess(uploadProcess).addCallback(processBatchCollector.createProcessCallback(uploadProcess));
+		}
+
+		try
+		{
+			processBatchCollector.await();
+		}
+		catch(InterruptedException e)
+		{
+			storageLogger.log(StorageLogLevel.WARN, UploadManager.class, "The waiting thread has been interrupted.", e);
+
+			Thread.currentThread().interrupt();
+
+			return null;
+		}
+
+		return new UploadBatchReport(processBatchCollector.getProcessReports(), processBatchCollector.getFailedProcesses(), processBatchCollector.getBatchStartTime(), System.nanoTime());
+	}
 }
@@ -1,27 +1,43 @@
 package org.diretto.api.client.main.storage.upload;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpPut;
-import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.protocol.HttpContext;
 import org.codehaus.jackson.JsonFactory;
 import org.codehaus.jackson.JsonParser;
 import org.codehaus.jackson.JsonToken;
 import org.diretto.api.client.base.data.UploadInfo;
+import org.diretto.api.client.main.storage.base.AbortSignal;
+import org.diretto.api.client.main.storage.base.DeadlineScheduler;
+import org.diretto.api.client.main.storage.base.HttpClientFactory;
+import org.diretto.api.client.main.storage.base.ProcessCallback;
+import org.diretto.api.client.main.storage.base.ProcessCallbackRegistry;
+import org.diretto.api.client.main.storage.base.ProcessFuture;
+import org.diretto.api.client.main.storage.base.ProcessPriority;
+import org.diretto.api.client.main.storage.base.ProcessTimeouts;
+import org.diretto.api.client.main.storage.base.ProcessTimings;
+import org.diretto.api.client.main.storage.base.ProgressListener;
+import org.diretto.api.client.main.storage.base.ProgressTracker;
+import org.diretto.api.client.main.storage.base.RetryPolicy;
+import org.diretto.api.client.main.storage.base.StorageLogLevel;
+import org.diretto.api.client.main.storage.base.StorageLogger;
+import org.diretto.api.client.main.storage.base.TransferMetrics;
+import org.diretto.api.client.main.storage.transport.StorageTransport;
 import org.diretto.api.client.session.UserSession;
-import org.diretto.api.client.user.UserFactory;
-import org.restlet.Client;
-import org.restlet.resource.ClientResource;
 
 /**
  * This class is the implementation class of the {@link UploadProcess}
@@ -29,25 +45,46 @@ import org.restlet.resource.ClientResource;
  * 
  * @author Tobias Schlecht
  */
-final class UploadProcessImpl implements UploadProcess, Future<UploadReport>, Runnable
+final class UploadProcessImpl implements UploadProcess, ProcessFuture<UploadReport>, Runnable
 {
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
 	private final UploadManager uploadManager;
-	private final UserSession userSession;
 	private final UploadInfo uploadInfo;
 	private final UploadHttpEntity uploadHttpEntity;
 	private final String uploadURL;
-	private final DefaultHttpClient httpClient;
-	private final Client restletClient;
+	private final StorageTransport storageTransport;
+	private final HttpContext httpContext;
+	private final RetryPolicy retryPolicy;
+	private final TransferMetrics transferMetrics;
+	private final StorageLogger storageLogger;
 
+	private final Object runnerLock = new Object();
 	private final CountDownLatch countDownLatch = new CountDownLatch(1);
+	private final ProcessCallbackRegistry<UploadReport> processCallbackRegistry;
+	private final ProgressTracker progressTracker;
+	private final ProcessTimings processTimings = new ProcessTimings();
+	private final AbortSignal abortSignal = new AbortSignal();
+
+	private Thread runnerThread = null;
+	private boolean started = false;
+
+	private volatile HttpPut httpPut = null;
+	private volatile int uploadAttempts = 0;
+	private volatile int lockReleaseAttempts = 0;
 
 	private volatile boolean done = false;
+	private volatile boolean cancelled = false;
+	private volatile boolean timedOut = false;
+	private volatile ProcessTimeouts processTimeouts;
+	private volatile ProcessPriority processPriority = ProcessPriority.NORMAL;
 	private volatile UploadState uploadState = UploadState.INIT;
 	private volatile long uploadProcessStartTime = 0L;
 	private volatile long uploadProcessEndTime = 0L;
 	private volatile long uploadingEndTime = 0L;
 
 	private volatile UploadReport uploadReport = null;
+	private volatile Throwable failureCause = null;
 
 	/**
 	 * Constructs an object of the {@link UploadProcess} interface.
@@ -55,41 +92,122 @@ final class UploadProcessImpl implements UploadProcess, Future<UploadReport>, Ru
 	 * @param uploadManager The corresponding {@code UploadManager}
 	 * @param userSession The corresponding {@code UserSession}
 	 * @param uploadInfo The {@code UploadInfo} object
-	 * @param uploadHttpEntity The {@code UploadHttpEntity}
+	 * @param httpEntity The {@code HttpEntity} of the content to be uploaded
 	 */
-	UploadProcessImpl(UploadManager uploadManager, UserSession userSession, UploadInfo uploadInfo, UploadHttpEntity uploadHttpEntity)
+	UploadProcessImpl(UploadManager uploadManager, UserSession userSession, UploadInfo uploadInfo, HttpEntity httpEntity)
 	{
 		this.uploadManager = uploadManager;
-		this.userSession = userSession;
 		this.uploadInfo = uploadInfo;
-		this.uploadHttpEntity = uploadHttpEntity;
+
+		progressTracker = new ProgressTracker(this, uploadManager.getProgressThrottle(), uploadManager.getStorageLogger());
+		progressTracker.setTotalBytes(httpEntity.getContentLength());
+
+		uploadHttpEntity = new UploadHttpEntity(httpEntity, uploadManager.getBandwidthLimiter(), progressTracker, abortSignal);
 
 		uploadURL = uploadInfo.getTarget().toExternalForm();
 
-		httpClient = uploadManager.getHttpClient(userSession);
-		restletClient = uploadManager.getRestletClient();
+		storageTransport = uploadManager.getStorageTransport();
+		httpContext = uploadManager.createHttpContext(userSession, uploadInfo.getAttachmentID().getUniqueResourceURL());
+		httpContext.setAttribute(ProcessTimings.HTTP_CONTEXT_ATTRIBUTE, processTimings);
+
+		retryPolicy = uploadManager.getRetryPolicy();
+		transferMetrics = uploadManager.getTransferMetrics();
+		storageLogger = uploadManager.getStorageLogger();
+		processCallbackRegistry = new ProcessCallbackRegistry<UploadReport>(storageLogger);
+
+		processTimeouts = uploadManager.getDefaultProcessTimeouts();
 	}
 
-	/**
-	 * Returns the <i>Apache</i> {@link DefaultHttpClient}.
-	 * 
-	 * @return The <i>Apache</i> {@code DefaultHttpClient}
-	 */
-	DefaultHttpClient getHttpClient()
+	@Override
+	public void addCallback(ProcessCallback<? super UploadReport> processCallback)
 	{
-		return httpClient;
+		processCallbackRegistry.add(processCallback);
 	}
 
+	/**
+	 * Cancels the {@link UploadProcess}. A waiting {@code UploadProcess} is
+	 * removed from the queue of the {@link UploadManager}. A running
+	 * {@code UploadProcess} is only cancelled if {@code mayInterruptIfRunning}
+	 * is {@code true}: The {@code HttpPut} request is aborted, which releases
+	 * the connection and lets the executing thread unwind. The executing
+	 * thread is not interrupted, because an interrupt would close the
+	 * {@code FileChannel} from which the resource is read. <br/><br/>
+	 * 
+	 * As required by {@link java.util.concurrent.Future}, {@link #isDone()}
+	 * returns {@code true} and {@link #get()} throws a
+	 * {@link CancellationException} as soon as this method has returned
+	 * {@code true}. The registered {@link ProcessCallback} objects are
+	 * notified by the executing thread after it has unwound. <br/><br/>
+	 * 
+	 * <i>Annotation:</i> As soon as the resource has been uploaded and the
+	 * attachment is being published, the {@code UploadProcess} cannot be
+	 * cancelled anymore.
+	 */
 	@Override
 	public boolean cancel(boolean mayInterruptIfRunning)
 	{
-		throw new UnsupportedOperationException();
+		synchronized(runnerLock)
+		{
+			if(done || cancelled || timedOut)
+			{
+				return false;
+			}
+
+			if(!started)
+			{
+				started = true;
+				cancelled = true;
+
+				uploadManager.removeUploadProcess(this);
+			}
+			else if(mayInterruptIfRunning && runnerThread != null && uploadState != UploadState.PUBLISHING)
+			{
+				cancelled = true;
+
+				abortHttpPut();
+
+				runnerLock.notifyAll();
+
+				return true;
+			}
+			else
+			{
+				return false;
+			}
+		}
+
+		failureCause = new CancellationException("The upload process has been cancelled.");
+		uploadState = UploadState.CANCELLED;
+		done = true;
+
+		transferMetrics.failed(failureCause);
+
+		logOutcome();
+
+		countDownLatch.countDown();
+
+		processCallbackRegistry.fail(failureCause);
+
+		return true;
 	}
 
 	@Override
 	public UploadReport get() throws InterruptedException, ExecutionException
 	{
-		countDownLatch.await();
+		if(!cancelled)
+		{
+			countDownLatch.await();
+		}
+
+		if(cancelled)
+		{
+			throw new CancellationException("The upload process has been cancelled.");
+		}
+
+		if(uploadReport == null)
+		{
+			throw new ExecutionException(failureCause);
+		}
 
 		return uploadReport;
 	}
@@ -97,7 +215,20 @@ final class UploadProcessImpl implements UploadProcess, Future<UploadReport>, Ru
 	@Override
 	public UploadReport get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException
 	{
-		countDownLatch.await(timeout, unit);
+		if(!cancelled && !countDownLatch.await(timeout, unit))
+		{
+			throw new TimeoutException("The upload process has not been finished within the given time.");
+		}
+
+		if(cancelled)
+		{
+			throw new CancellationException("The upload process has been cancelled.");
+		}
+
+		if(uploadReport == null)
+		{
+			throw new ExecutionException(failureCause);
+		}
 
 		return uploadReport;
 	}
@@ -105,141 +236,472 @@ final class UploadProcessImpl implements UploadProcess, Future<UploadReport>, Ru
 	@Override
 	public boolean isCancelled()
 	{
-		return false;
+		return cancelled;
 	}
 
 	@Override
 	public boolean isDone()
 	{
-		return done;
+		return done || cancelled;
 	}
 
 	@Override
 	public void run()
 	{
-		try
+		synchronized(runnerLock)
 		{
+			if(started)
+			{
+				return;
+			}
+
+			started = true;
+			runnerThread = Thread.currentThread();
+		}
+
+		transferMetrics.transferStarted();
 
+		HttpEntity httpResponseEntity = null;
+		ScheduledFuture<?> deadlineFuture = null;
+
+		try
+		{
 			uploadProcessStartTime = System.nanoTime();
 
-			HttpPut httpPut = new HttpPut(uploadURL);
+			processTimings.markStarted();
 
-			httpPut.setEntity(uploadHttpEntity);
+			deadlineFuture = DeadlineScheduler.schedule(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					expire();
+				}
+			}, processTimeouts.getDeadline());
 
 			uploadState = UploadState.UPLOADING;
 
-			HttpResponse httpResponse = httpClient.execute(httpPut);
+			HttpResponse httpResponse = executeHttpPut();
 
 			uploadingEndTime = System.nanoTime();
 
-			System.out.println("[StorageService UploadProcessImpl] " + uploadURL);
+			httpResponseEntity = httpResponse.getEntity();
 
-			if(httpResponse.getStatusLine().getStatusCode() != 201 && httpResponse.getStatusLine().getStatusCode() != 202)
+			synchronized(runnerLock)
 			{
-				System.err.println("[StorageService UploadProcessImpl] " + httpResponse.getStatusLine().getStatusCode());
+				if(cancelled || timedOut)
+				{
+					return;
+				}
 
-				return;
+				uploadState = UploadState.PUBLISHING;
 			}
 
-			uploadState = UploadState.PUBLISHING;
+			String successToken = parseSuccessToken(httpResponseEntity.getContent());
 
-			HttpEntity httpResponseEntity = httpResponse.getEntity();
+			processTimings.markPublishStarted();
 
-			String successToken = "";
+			releaseLock(successToken);
 
-			JsonFactory jsonFactory = new JsonFactory();
-			ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+			processTimings.markPublishEnded();
 
-			httpResponseEntity.writeTo(byteArrayOutputStream);
-			byteArrayOutputStream.flush();
+			uploadProcessEndTime = System.nanoTime();
 
-			JsonParser jsonParser = jsonFactory.createJsonParser(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()));
+			uploadReport = new UploadReport(uploadInfo, uploadProcessStartTime, uploadProcessEndTime, processTimings.getConnectedTime(), processTimings.getRequestSentTime(), uploadAttempts, lockReleaseAttempts, processTimings);
 
-			jsonParser.nextToken();
+			uploadState = UploadState.FINISHED;
 
-			while(jsonParser.nextToken() != JsonToken.END_OBJECT)
+			uploadHttpEntity.consumeContent();
+			httpResponseEntity.consumeContent();
+		}
+		catch(ClientProtocolException e)
+		{
+			failureCause = e;
+
+			return;
+		}
+		catch(IOException e)
+		{
+			failureCause = e;
+
+			return;
+		}
+		catch(RuntimeException e)
+		{
+			failureCause = e;
+
+			throw e;
+		}
+		finally
+		{
+			if(deadlineFuture != null)
 			{
-				String fieldName = jsonParser.getCurrentName();
+				deadlineFuture.cancel(false);
+			}
 
-				jsonParser.nextToken();
+			synchronized(runnerLock)
+			{
+				runnerThread = null;
+			}
 
-				if("successToken".equals(fieldName))
+			if(uploadingEndTime == 0L)
+			{
+				uploadingEndTime = System.nanoTime();
+			}
+
+			if(uploadProcessEndTime == 0L)
+			{
+				uploadProcessEndTime = System.nanoTime();
+			}
+
+			if(cancelled)
+			{
+				failureCause = new CancellationException("The upload process has been cancelled.");
+				uploadState = UploadState.CANCELLED;
+			}
+			else if(timedOut)
+			{
+				failureCause = new TimeoutException("The upload process has exceeded its deadline of " + processTimeouts.getDeadline() + " ms.");
+				uploadState = UploadState.TIMED_OUT;
+			}
+			else if(uploadState != UploadState.FINISHED)
+			{
+				uploadState = UploadState.ABORTED;
+			}
+
+			if(httpResponseEntity != null)
+			{
+				try
 				{
-					successToken = jsonParser.getText();
+					httpResponseEntity.consumeContent();
 				}
-				else
+				catch(IOException e)
 				{
-					return;
+					abortHttpPut();
 				}
 			}
 
-			jsonParser.close();
+			transferMetrics.transferStopped();
 
-			if(successToken.equals(""))
+			if(uploadReport != null)
 			{
-				return;
+				transferMetrics.succeeded(uploadingEndTime - uploadProcessStartTime, uploadProcessEndTime - uploadingEndTime);
+			}
+			else
+			{
+				transferMetrics.failed(failureCause);
 			}
 
-			ClientResource clientResource = new ClientResource(uploadInfo.getAttachmentID().getUniqueResourceURL().toExternalForm() + "/lock?token=" + successToken);
+			logOutcome();
 
-			clientResource.setNext(restletClient);
-			UserFactory.authenticateClientResource(userSession.getUser(), clientResource);
+			progressTracker.flush();
 
-			clientResource.delete();
+			done = true;
 
-			System.out.println("[StorageService UploadProcessImpl] " + uploadInfo.getAttachmentID().getUniqueResourceURL().toExternalForm() + "/lock?token=" + successToken);
+			countDownLatch.countDown();
 
-			if(clientResource.getStatus().getCode() != 204 && clientResource.getStatus().getCode() != 200 && clientResource.getStatus().getCode() != 202)
+			if(uploadReport != null)
 			{
-				System.err.println("[StorageService UploadProcessImpl] " + clientResource.getStatus().getCode());
+				processCallbackRegistry.complete(uploadReport);
+			}
+			else
+			{
+				processCallbackRegistry.fail(failureCause);
+			}
+		}
+	}
 
-				return;
+	/**
+	 * Executes the {@code HttpPut} request of the resource. If the request
+	 * fails or is answered with an unexpected status code, it is repeated
+	 * according to the {@link RetryPolicy}, provided that the
+	 * {@link UploadHttpEntity} is repeatable.
+	 * 
+	 * @return The {@code HttpResponse} with the status code {@code 201} or
+	 *         {@code 202}
+	 * @throws IOException If the request finally failed
+	 */
+	private HttpResponse executeHttpPut() throws IOException
+	{
+		while(true)
+		{
+			uploadAttempts++;
+
+			progressTracker.set(0L);
+			processTimings.markRequestStarted();
+
+			HttpPut currentHttpPut = new HttpPut(uploadURL);
+
+			HttpClientFactory.applyTimeouts(currentHttpPut, processTimeouts);
+			currentHttpPut.setEntity(uploadHttpEntity);
+
+			httpPut = currentHttpPut;
+
+			if(cancelled || timedOut)
+			{
+				currentHttpPut.abort();
 			}
 
-			uploadProcessEndTime = System.nanoTime();
+			IOException failure;
+			boolean retryable;
+
+			try
+			{
+				HttpResponse httpResponse = storageTransport.execute(currentHttpPut, httpContext);
 
-			uploadReport = new UploadReport(uploadInfo, uploadProcessStartTime, uploadProcessEndTime, uploadProcessStartTime, uploadingEndTime);
+				processTimings.markResponseReceived();
+				processTimings.markRequestSent(uploadHttpEntity.getWriteEndTime());
 
-			uploadState = UploadState.FINISHED;
+				int statusCode = httpResponse.getStatusLine().getStatusCode();
 
-			uploadHttpEntity.consumeContent();
-			httpResponseEntity.consumeContent();
+				storageLogger.log(StorageLogLevel.DEBUG, UploadProcessImpl.class, "The upload request has been answered.", uploadURL, statusCode, progressTracker.getTransferredBytes(), -1L, null);
+
+				if(statusCode == 201 || statusCode == 202)
+				{
+					return httpResponse;
+				}
+
+				storageLogger.log(StorageLogLevel.WARN, UploadProcessImpl.class, "The upload request has been answered with an unexpected status code.", uploadURL, statusCode, -1L, -1L, null);
+
+				if(httpResponse.getEntity() != null)
+				{
+					httpResponse.getEntity().consumeContent();
+				}
+
+				failure = new HttpResponseException(statusCode, httpResponse.getStatusLine().getReasonPhrase());
+				retryable = retryPolicy.isRetryable(statusCode, uploadAttempts);
+			}
+			catch(IOException e)
+			{
+				currentHttpPut.abort();
+
+				failure = e;
+				retryable = retryPolicy.isRetryable(e, uploadAttempts);
+			}
+
+			if(!retryable || cancelled || timedOut || !uploadHttpEntity.isRepeatable())
+			{
+				throw failure;
+			}
+
+			transferMetrics.retried();
+
+			backoff(uploadAttempts);
 		}
-		catch(ClientProtocolException e)
+	}
+
+	/**
+	 * Releases the lock of the uploaded attachment by means of the given
+	 * success token. If the request fails or is answered with an unexpected
+	 * status code, it is repeated according to the {@link RetryPolicy}.
+	 * 
+	 * @param successToken The success token of the upload response
+	 * @throws IOException If the lock could not be released
+	 */
+	private void releaseLock(String successToken) throws IOException
+	{
+		String lockURL = uploadInfo.getAttachmentID().getUniqueResourceURL().toExternalForm() + "/lock?token=" + successToken;
+
+		while(true)
 		{
-			return;
+			lockReleaseAttempts++;
+
+			HttpDelete httpDelete = new HttpDelete(lockURL);
+
+			HttpClientFactory.applyTimeouts(httpDelete, processTimeouts);
+
+			IOException failure;
+			boolean retryable;
+
+			try
+			{
+				HttpResponse httpResponse = storageTransport.execute(httpDelete, httpContext);
+
+				int statusCode = httpResponse.getStatusLine().getStatusCode();
+
+				storageLogger.log(StorageLogLevel.DEBUG, UploadProcessImpl.class, "The lock release request has been answered.", lockURL, statusCode, -1L, -1L, null);
+
+				if(httpResponse.getEntity() != null)
+				{
+					httpResponse.getEntity().consumeContent();
+				}
+
+				if(statusCode == 204 || statusCode == 200 || statusCode == 202)
+				{
+					return;
+				}
+
+				storageLogger.log(StorageLogLevel.WARN, UploadProcessImpl.class, "The lock release request has been answered with an unexpected status code.", lockURL, statusCode, -1L, -1L, null);
+
+				failure = new HttpResponseException(statusCode, "The lock of the attachment could not be released.");
+				retryable = retryPolicy.isRetryable(statusCode, lockReleaseAttempts);
+			}
+			catch(IOException e)
+			{
+				httpDelete.abort();
+
+				failure = e;
+				retryable = retryPolicy.isRetryable(e, lockReleaseAttempts);
+			}
+
+			if(!retryable)
+			{
+				throw failure;
+			}
+
+			transferMetrics.retried();
+
+			backoff(lockReleaseAttempts);
 		}
-		catch(IOException e)
+	}
+
+	/**
+	 * Aborts the current {@code HttpPut} request, which releases the
+	 * connection, and wakes up a transmission which waits for bandwidth.
+	 */
+	private void abortHttpPut()
+	{
+		abortSignal.abort();
+
+		HttpPut currentHttpPut = httpPut;
+
+		if(currentHttpPut != null)
 		{
-			return;
+			currentHttpPut.abort();
 		}
-		finally
+	}
+
+	/**
+	 * Waits for the backoff delay of the {@link RetryPolicy} after the given
+	 * number of failed attempts. The waiting ends early as soon as the
+	 * {@link UploadProcess} has been cancelled or has exceeded its
+	 * <i>Deadline</i>.
+	 * 
+	 * @param attempts The number of failed attempts
+	 * @throws InterruptedIOException If the thread has been interrupted while
+	 *         waiting
+	 */
+	private void backoff(int attempts) throws InterruptedIOException
+	{
+		long wakeUpTime = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryPolicy.getBackoffDelay(attempts));
+
+		synchronized(runnerLock)
 		{
-			if(uploadingEndTime == 0L)
+			long waitTime;
+
+			while(!cancelled && !timedOut && (waitTime = wakeUpTime - System.nanoTime()) > 0L)
 			{
-				uploadingEndTime = System.nanoTime();
+				try
+				{
+					TimeUnit.NANOSECONDS.timedWait(runnerLock, waitTime);
+				}
+				catch(InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+
+					throw new InterruptedIOException("The backoff before the next attempt has been interrupted.");
+				}
 			}
+		}
+	}
 
-			if(uploadProcessEndTime == 0L)
+	/**
+	 * Aborts the running {@link UploadProcess}, because its <i>Deadline</i>
+	 * has expired. The {@code HttpPut} request is aborted, which releases the
+	 * connection, and a waiting backoff is woken up. The executing thread is
+	 * not interrupted. An attachment which is already being published is not
+	 * affected.
+	 */
+	private void expire()
+	{
+		synchronized(runnerLock)
+		{
+			if(runnerThread == null || cancelled || uploadState == UploadState.PUBLISHING)
 			{
-				uploadProcessEndTime = System.nanoTime();
+				return;
 			}
 
-			if(uploadState != UploadState.FINISHED)
+			timedOut = true;
+
+			abortHttpPut();
+
+			runnerLock.notifyAll();
+		}
+	}
+
+	/**
+	 * Parses the success token from the given JSON response body of an upload
+	 * request. The body is parsed directly from the {@link InputStream} by
+	 * means of the shared {@link JsonFactory}, without copying it into an
+	 * intermediate {@code Byte} array. The {@code InputStream} is closed
+	 * afterwards.
+	 * 
+	 * @param inputStream The {@code InputStream} of the response body
+	 * @return The success token
+	 * @throws ClientProtocolException If the response body contains an
+	 *         unexpected field or no success token
+	 * @throws IOException If an I/O error occurs
+	 */
+	static String parseSuccessToken(InputStream inputStream) throws IOException
+	{
+		String successToken = "";
+
+		JsonParser jsonParser = JSON_FACTORY.createJsonParser(inputStream);
+
+		try
+		{
+			jsonParser.nextToken();
+
+			while(jsonParser.nextToken() != JsonToken.END_OBJECT)
 			{
-				uploadState = UploadState.ABORTED;
+				String fieldName = jsonParser.getCurrentName();
+
+				jsonParser.nextToken();
+
+				if("successToken".equals(fieldName))
+				{
+					successToken = jsonParser.getText();
+				}
+				else
+				{
+					throw new ClientProtocolException("The upload response contains the unexpected field \"" + fieldName + "\".");
+				}
 			}
+		}
+		finally
+		{
+			jsonParser.close();
+		}
 
-			uploadManager.finish(this);
+		if(successToken.equals(""))
+		{
+			throw new ClientProtocolException("The upload response does not contain a success token.");
+		}
 
-			done = true;
+		return successToken;
+	}
 
-			countDownLatch.countDown();
+	/**
+	 * Publishes the outcome of the process by means of the
+	 * {@link StorageLogger}.
+	 */
+	private void logOutcome()
+	{
+		StorageLogLevel level = (uploadReport != null) ? StorageLogLevel.INFO : StorageLogLevel.WARN;
+
+		if(!storageLogger.isEnabled(level))
+		{
+			return;
 		}
+
+		String message = (uploadReport != null) ? "The upload process has been finished." : "The upload process has failed.";
+		long duration = (uploadProcessStartTime != 0L && uploadProcessEndTime != 0L) ? uploadProcessEndTime - uploadProcessStartTime : -1L;
+
+		storageLogger.log(level, UploadProcessImpl.class, message, uploadURL, -1, progressTracker.getTransferredBytes(), duration, failureCause);
 	}
 
 	@Override
-	public synchronized int getProgress()
+	public int getProgress()
 	{
 		switch(getCurrentState())
 		{
@@ -247,7 +709,7 @@ final class UploadProcessImpl implements UploadProcess, Future<UploadReport>, Ru
 				return 0;
 
 			case UPLOADING:
-				return (int) ((double) (uploadHttpEntity.getByteCount() * 95L) / (double) uploadHttpEntity.getContentLength());
+				return progressTracker.getPercentage(95);
 
 			case PUBLISHING:
 				return 95;
@@ -255,6 +717,8 @@ final class UploadProcessImpl implements UploadProcess, Future<UploadReport>, Ru
 			case FINISHED:
 				return 100;
 
+			case CANCELLED:
+			case TIMED_OUT:
 			case ABORTED:
 				return 100;
 
@@ -264,7 +728,7 @@ final class UploadProcessImpl implements UploadProcess, Future<UploadReport>, Ru
 	}
 
 	@Override
-	public synchronized long getElapsedTime()
+	public long getElapsedTime()
 	{
 		if(uploadProcessStartTime == 0L)
 		{
@@ -279,8 +743,105 @@ final class UploadProcessImpl implements UploadProcess, Future<UploadReport>, Ru
 	}
 
 	@Override
-	public synchronized UploadState getCurrentState()
+	public UploadState getCurrentState()
 	{
 		return uploadState;
 	}
+
+	@Override
+	public long getTransferredBytes()
+	{
+		return progressTracker.getTransferredBytes();
+	}
+
+	@Override
+	public long getTotalBytes()
+	{
+		return progressTracker.getTotalBytes();
+	}
+
+	@Override
+	public void addProgressListener(ProgressListener progressListener)
+	{
+		progressTracker.addProgressListener(progressListener);
+	}
+
+	@Override
+	public void removeProgressListener(ProgressListener progressListener)
+	{
+		progressTracker.removeProgressListener(progressListener);
+	}
+
+	/**
+	 * Returns the {@link ProcessTimings} of this {@code UploadProcess}.
+	 * 
+	 * @return The {@code ProcessTimings}
+	 */
+	ProcessTimings getProcessTimings()
+	{
+		return processTimings;
+	}
+
+	/**
+	 * Returns the size of the content to be uploaded.
+	 * 
+	 * @return The size of the content in {@code Bytes} or {@code -1} if it
+	 *         is unknown
+	 */
+	long getContentLength()
+	{
+		return uploadHttpEntity.getContentLength();
+	}
+
+	@Override
+	public ProcessTimeouts getTimeouts()
+	{
+		return processTimeouts;
+	}
+
+	@Override
+	public void setTimeouts(ProcessTimeouts processTimeouts)
+	{
+		if(processTimeouts == null)
+		{
+			throw new NullPointerException();
+		}
+
+		synchronized(runnerLock)
+		{
+			if(started)
+			{
+				throw new IllegalStateException("The timeouts cannot be changed after the upload process has been started.");
+			}
+
+			this.processTimeouts = processTimeouts;
+		}
+	}
+
+	@Override
+	public ProcessPriority getPriority()
+	{
+		return processPriority;
+	}
+
+	@Override
+	public void setPriority(ProcessPriority processPriority)
+	{
+		if(processPriority == null)
+		{
+			throw new NullPointerException();
+		}
+
+		synchronized(runnerLock)
+		{
+			if(started)
+			{
+				throw new IllegalStateException("The priority cannot be changed after the upload process has been started.");
+			}
+
+			this.processPriority = processPriority;
+
+			uploadManager.reprioritizeUploadProcess(this, processPriority);
+		}
+	}
 }
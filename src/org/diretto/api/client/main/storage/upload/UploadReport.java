@@ -2,6 +2,7 @@ package org.diretto.api.client.main.storage.upload;
 
 import org.diretto.api.client.base.data.UploadInfo;
 import org.diretto.api.client.main.storage.base.AbstractProcessReport;
+import org.diretto.api.client.main.storage.base.ProcessTimings;
 
 /**
  * This class represents an {@code UploadReport}, which provides information
@@ -15,6 +16,8 @@ public final class UploadReport extends AbstractProcessReport
 {
 	private final long uploadTime;
 	private final double uploadRate;
+	private final int uploadAttempts;
+	private final int lockReleaseAttempts;
 
 	/**
 	 * Constructs an {@link UploadReport} using the given data.
@@ -28,18 +31,25 @@ public final class UploadReport extends AbstractProcessReport
 	 *        {@code nanoseconds}
 	 * @param uploadingEndTime The end time of the actual file upload in
 	 *        {@code nanoseconds}
+	 * @param uploadAttempts The number of attempts of the upload request
+	 * @param lockReleaseAttempts The number of attempts of the lock release
+	 *        request
+	 * @param processTimings The {@code ProcessTimings} of the upload process
 	 */
-	UploadReport(UploadInfo uploadInfo, long uploadProcessStartTime, long uploadProcessEndTime, long uploadingStartTime, long uploadingEndTime)
+	UploadReport(UploadInfo uploadInfo, long uploadProcessStartTime, long uploadProcessEndTime, long uploadingStartTime, long uploadingEndTime, int uploadAttempts, int lockReleaseAttempts, ProcessTimings processTimings)
 	{
-		super(uploadInfo.getFileSize(), uploadInfo.getPlatformMediaType(), uploadInfo.getAttachmentID(), uploadInfo.getFileURL());
+		super(uploadInfo.getFileSize(), uploadInfo.getPlatformMediaType(), uploadInfo.getAttachmentID(), uploadInfo.getFileURL(), processTimings);
 
 		long fileSize = uploadInfo.getFileSize();
 
 		uploadTime = Math.round(((double) (uploadProcessEndTime - uploadProcessStartTime)) / 1000000.0d);
 
-		long uploadingTime = Math.round(((double) (uploadingEndTime - uploadingStartTime)) / 1000000.0d);
+		long uploadingTime = Math.max(uploadingEndTime - uploadingStartTime, 1L);
 
-		uploadRate = ((double) fileSize) / (((double) uploadingTime) / 1000.0d);
+		uploadRate = ((double) fileSize) / (((double) uploadingTime) / 1000000000.0d);
+
+		this.uploadAttempts = uploadAttempts;
+		this.lockReleaseAttempts = lockReleaseAttempts;
 	}
 
 	/**
@@ -55,7 +65,8 @@ public final class UploadReport extends AbstractProcessReport
 
 	/**
 	 * Returns the average data rate of the actual file upload process in
-	 * {@code Byte/s}.
+	 * {@code Byte/s}. It only covers the transmission of the request body, but
+	 * neither the connection setup nor the response time of the server.
 	 * 
 	 * @return The average upload data rate in {@code Byte/s}
 	 */
@@ -63,4 +74,28 @@ public final class UploadReport extends AbstractProcessReport
 	{
 		return uploadRate;
 	}
+
+	/**
+	 * Returns the number of attempts which were necessary to upload the file.
+	 * A number greater than {@code 1} means that the upload request has been
+	 * repeated.
+	 * 
+	 * @return The number of upload attempts
+	 */
+	public int getUploadAttempts()
+	{
+		return uploadAttempts;
+	}
+
+	/**
+	 * Returns the number of attempts which were necessary to release the lock
+	 * of the attachment. A number greater than {@code 1} means that the lock
+	 * release request has been repeated.
+	 * 
+	 * @return The number of lock release attempts
+	 */
+	public int getLockReleaseAttempts()
+	{
+		return lockReleaseAttempts;
+	}
 }
@@ -16,6 +16,10 @@ public enum UploadState
 
 	FINISHED("The upload process has been finished."),
 
+	CANCELLED("The upload process has been cancelled."),
+
+	TIMED_OUT("The upload process has exceeded its deadline."),
+
 	ABORTED("The upload process has been aborted.");
 
 	private final String description;
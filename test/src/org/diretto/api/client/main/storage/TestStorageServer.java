@@ -0,0 +1,410 @@
+package org.diretto.api.client.main.storage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * The {@code TestStorageServer} is an embedded storage server for the tests,
+ * which listens on the loopback interface and serves the registered
+ * resources. {@code GET} requests are answered completely or partially by
+ * means of a {@code Range} header, which is validated by an {@code If-Range}
+ * header against the {@code ETag} of the resource. {@code HEAD} requests are
+ * answered with the headers of the complete resource and the header
+ * {@code Connection: close}, because the underlying {@link HttpServer} closes
+ * the connection after a {@code HEAD} response. <br/><br/>
+ * 
+ * The response bodies are either framed by a {@code Content-Length} header
+ * or sent with the chunked transfer coding.
+ * 
+ * @author Tobias Schlecht
+ */
+public final class TestStorageServer
+{
+	private static final String CONTEXT_PATH = "/storage";
+
+	private final HttpServer httpServer;
+	private final ExecutorService executorService;
+	private final Map<String, byte[]> resources = new ConcurrentHashMap<String, byte[]>();
+	private final Map<String, String> entityTags = new ConcurrentHashMap<String, String>();
+	private final AtomicInteger getRequestCount = new AtomicInteger(0);
+	private final AtomicInteger headRequestCount = new AtomicInteger(0);
+
+	private volatile boolean chunked = false;
+	private volatile boolean contentRangeOmitted = false;
+	private volatile boolean headRejected = false;
+	private volatile Interruption interruption = null;
+
+	/**
+	 * Starts a {@link TestStorageServer} on an ephemeral port of the loopback
+	 * interface.
+	 * 
+	 * @throws IOException If the server could not be started
+	 */
+	public TestStorageServer() throws IOException
+	{
+		httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 64);
+		executorService = Executors.newCachedThreadPool();
+
+		httpServer.createContext(CONTEXT_PATH, new HttpHandler()
+		{
+			@Override
+			public void handle(HttpExchange httpExchange) throws IOException
+			{
+				try
+				{
+					String method = httpExchange.getRequestMethod();
+
+					if(method.equals("GET"))
+					{
+						getRequestCount.incrementAndGet();
+
+						handleGet(httpExchange, true);
+					}
+					else if(method.equals("HEAD"))
+					{
+						headRequestCount.incrementAndGet();
+
+						if(headRejected)
+						{
+							httpExchange.sendResponseHeaders(405, -1L);
+						}
+						else
+						{
+							handleGet(httpExchange, false);
+						}
+					}
+					else
+					{
+						httpExchange.sendResponseHeaders(405, -1L);
+					}
+				}
+				finally
+				{
+					httpExchange.close();
+				}
+			}
+		});
+
+		httpServer.setExecutor(executorService);
+		httpServer.start();
+	}
+
+	/**
+	 * Returns the service {@link URL} of the {@link TestStorageServer}.
+	 * 
+	 * @return The service {@code URL}
+	 */
+	public URL getServiceURL()
+	{
+		return createURL(CONTEXT_PATH);
+	}
+
+	/**
+	 * Registers a resource with the given path and content.
+	 * 
+	 * @param path The path of the resource below the service {@code URL} (e.g.
+	 *        {@code document/attachment.bin})
+	 * @param content The content of the resource
+	 * @param entityTag The {@code ETag} of the resource
+	 * @return The {@code URL} of the resource
+	 */
+	public URL putResource(String path, byte[] content, String entityTag)
+	{
+		resources.put(CONTEXT_PATH + "/" + path, content);
+		entityTags.put(CONTEXT_PATH + "/" + path, entityTag);
+
+		return createURL(CONTEXT_PATH + "/" + path);
+	}
+
+	/**
+	 * Sets whether the response bodies are sent with the chunked transfer
+	 * coding instead of a {@code Content-Length} header.
+	 * 
+	 * @param chunked {@code true} if the chunked transfer coding should be
+	 *        used
+	 */
+	public void setChunked(boolean chunked)
+	{
+		this.chunked = chunked;
+	}
+
+	/**
+	 * Sets whether the {@code Content-Range} header is omitted from partial
+	 * responses, as done by a faulty server.
+	 * 
+	 * @param contentRangeOmitted {@code true} if the {@code Content-Range}
+	 *        header should be omitted
+	 */
+	public void setContentRangeOmitted(boolean contentRangeOmitted)
+	{
+		this.contentRangeOmitted = contentRangeOmitted;
+	}
+
+	/**
+	 * Sets whether {@code HEAD} requests are rejected with the status code
+	 * {@code 405}, so that the size of a resource cannot be determined in
+	 * advance.
+	 * 
+	 * @param headRejected {@code true} if {@code HEAD} requests should be
+	 *        rejected
+	 */
+	public void setHeadRejected(boolean headRejected)
+	{
+		this.headRejected = headRejected;
+	}
+
+	/**
+	 * Interrupts the body of the next {@code GET} response after the given
+	 * number of {@code Bytes} by closing the connection. If a changed content
+	 * is given, it replaces the content of the resource at the same time, as
+	 * if the resource had been modified during the download.
+	 * 
+	 * @param byteCount The number of {@code Bytes} sent before the
+	 *        interruption
+	 * @param path The path of the changed resource or {@code null}
+	 * @param changedContent The changed content or {@code null}
+	 * @param changedEntityTag The {@code ETag} of the changed content or
+	 *        {@code null}
+	 */
+	public void interruptNextResponse(int byteCount, String path, byte[] changedContent, String changedEntityTag)
+	{
+		interruption = new Interruption(byteCount, path, changedContent, changedEntityTag);
+	}
+
+	/**
+	 * Returns the number of received {@code GET} requests.
+	 * 
+	 * @return The number of {@code GET} requests
+	 */
+	public int getGetRequestCount()
+	{
+		return getRequestCount.get();
+	}
+
+	/**
+	 * Returns the number of received {@code HEAD} requests.
+	 * 
+	 * @return The number of {@code HEAD} requests
+	 */
+	public int getHeadRequestCount()
+	{
+		return headRequestCount.get();
+	}
+
+	/**
+	 * Stops the {@link TestStorageServer}.
+	 */
+	public void stop()
+	{
+		httpServer.stop(0);
+		executorService.shutdownNow();
+	}
+
+	/**
+	 * Responds to a {@code GET} or {@code HEAD} request with the registered
+	 * resource or the requested range of the resource.
+	 * 
+	 * @param httpExchange The {@code HttpExchange}
+	 * @param sendBody {@code true} if the body should be sent
+	 * @throws IOException If an I/O error occurs
+	 */
+	private void handleGet(HttpExchange httpExchange, boolean sendBody) throws IOException
+	{
+		String path = httpExchange.getRequestURI().getPath();
+
+		byte[] content = resources.get(path);
+
+		if(content == null)
+		{
+			httpExchange.sendResponseHeaders(404, -1L);
+
+			return;
+		}
+
+		String entityTag = entityTags.get(path);
+
+		Headers requestHeaders = httpExchange.getRequestHeaders();
+		Headers responseHeaders = httpExchange.getResponseHeaders();
+
+		String range = requestHeaders.getFirst("Range");
+		String ifRange = requestHeaders.getFirst("If-Range");
+
+		int firstBytePosition = 0;
+		int lastBytePosition = content.length - 1;
+
+		boolean partial = sendBody && range != null && range.startsWith("bytes=") && (ifRange == null || ifRange.equals(entityTag));
+
+		if(partial)
+		{
+			String byteRange = range.substring("bytes=".length()).trim();
+			int dashIndex = byteRange.indexOf('-');
+
+			firstBytePosition = Integer.parseInt(byteRange.substring(0, dashIndex).trim());
+
+			if(dashIndex < byteRange.length() - 1)
+			{
+				lastBytePosition = Math.min(Integer.parseInt(byteRange.substring(dashIndex + 1).trim()), content.length - 1);
+			}
+
+			if(firstBytePosition >= content.length || firstBytePosition > lastBytePosition)
+			{
+				responseHeaders.set("Content-Range", "bytes */" + content.length);
+				httpExchange.sendResponseHeaders(416, -1L);
+
+				return;
+			}
+
+			if(!contentRangeOmitted)
+			{
+				responseHeaders.set("Content-Range", "bytes " + firstBytePosition + "-" + lastBytePosition + "/" + content.length);
+			}
+		}
+
+		int length = lastBytePosition - firstBytePosition + 1;
+
+		responseHeaders.set("Content-Type", "application/octet-stream");
+		responseHeaders.set("ETag", entityTag);
+		responseHeaders.set("Accept-Ranges", "bytes");
+
+		if(!sendBody)
+		{
+			responseHeaders.set("Content-Length", String.valueOf(content.length));
+			responseHeaders.set("Connection", "close");
+			httpExchange.sendResponseHeaders(200, -1L);
+
+			return;
+		}
+
+		if(length == 0 && !chunked)
+		{
+			httpExchange.sendResponseHeaders(200, -1L);
+
+			return;
+		}
+
+		httpExchange.sendResponseHeaders(partial ? 206 : 200, chunked ? 0L : length);
+
+		OutputStream outputStream = httpExchange.getResponseBody();
+
+		Interruption currentInterruption = interruption;
+		interruption = null;
+
+		if(currentInterruption != null)
+		{
+			outputStream.write(content, firstBytePosition, Math.min(currentInterruption.byteCount, length));
+			outputStream.flush();
+
+			if(currentInterruption.changedContent != null)
+			{
+				putResource(currentInterruption.path, currentInterruption.changedContent, currentInterruption.changedEntityTag);
+			}
+
+			throw new IOException("The response has been interrupted.");
+		}
+
+		int position = firstBytePosition;
+
+		while(position <= lastBytePosition)
+		{
+			int count = Math.min(8192, lastBytePosition - position + 1);
+
+			outputStream.write(content, position, count);
+			outputStream.flush();
+
+			position += count;
+		}
+	}
+
+	/**
+	 * Creates the {@link URL} of the given path on this server.
+	 * 
+	 * @param path The path
+	 * @return The {@code URL}
+	 */
+	private URL createURL(String path)
+	{
+		try
+		{
+			return new URL("http", "127.0.0.1", httpServer.getAddress().getPort(), path);
+		}
+		catch(MalformedURLException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Creates content of the given length with a repeating pattern.
+	 * 
+	 * @param length The length in {@code Bytes}
+	 * @return The content
+	 */
+	public static byte[] createContent(int length)
+	{
+		return createContent(length, 0);
+	}
+
+	/**
+	 * Creates content of the given length with a repeating pattern, which is
+	 * shifted by the given seed, so that different versions of a resource can
+	 * be distinguished.
+	 * 
+	 * @param length The length in {@code Bytes}
+	 * @param seed The shift of the pattern
+	 * @return The content
+	 */
+	public static byte[] createContent(int length, int seed)
+	{
+		byte[] content = new byte[length];
+
+		for(int i = 0; i < length; i++)
+		{
+			content[i] = (byte) ((i + seed) % 251);
+		}
+
+		return content;
+	}
+
+	/**
+	 * An {@code Interruption} describes the planned interruption of the next
+	 * {@code GET} response.
+	 */
+	private static final class Interruption
+	{
+		private final int byteCount;
+		private final String path;
+		private final byte[] changedContent;
+		private final String changedEntityTag;
+
+		/**
+		 * Constructs an {@link Interruption}.
+		 * 
+		 * @param byteCount The number of {@code Bytes} sent before the
+		 *        interruption
+		 * @param path The path of the changed resource or {@code null}
+		 * @param changedContent The changed content or {@code null}
+		 * @param changedEntityTag The {@code ETag} of the changed content or
+		 *        {@code null}
+		 */
+		private Interruption(int byteCount, String path, byte[] changedContent, String changedEntityTag)
+		{
+			this.byteCount = byteCount;
+			this.path = path;
+			this.changedContent = changedContent;
+			this.changedEntityTag = changedEntityTag;
+		}
+	}
+}
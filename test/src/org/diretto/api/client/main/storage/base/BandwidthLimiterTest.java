@@ -0,0 +1,228 @@
+package org.diretto.api.client.main.storage.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests the rate accounting of the {@link BandwidthLimiter} and the early
+ * ending of a waiting reservation by its {@link AbortSignal}.
+ * 
+ * @author Tobias Schlecht
+ */
+public class BandwidthLimiterTest
+{
+	private static final long TIMEOUT = 10000L;
+
+	@Test
+	public void testUnlimited() throws Exception
+	{
+		BandwidthLimiter bandwidthLimiter = new BandwidthLimiter(0L, 1000L, null);
+
+		assertTrue(bandwidthLimiter.isUnlimited());
+		assertEquals(0L, bandwidthLimiter.reserve(1000000L));
+
+		bandwidthLimiter.acquire(1000000L);
+
+		assertEquals(2000000L, bandwidthLimiter.getTransmittedBytes());
+	}
+
+	/**
+	 * The <i>Burst Size</i> is available at once and every further
+	 * {@code Byte} is recorded as debt, which is paid off with the maximum
+	 * data rate.
+	 */
+	@Test
+	public void testRateAccounting()
+	{
+		BandwidthLimiter bandwidthLimiter = new BandwidthLimiter(1000000L, 10000L, null);
+
+		assertEquals(0L, bandwidthLimiter.reserve(10000L));
+
+		assertWaitTime(100L, bandwidthLimiter.reserve(100000L));
+		assertWaitTime(150L, bandwidthLimiter.reserve(50000L));
+
+		assertEquals(160000L, bandwidthLimiter.getTransmittedBytes());
+	}
+
+	/**
+	 * The limit of the parent {@code BandwidthLimiter} is enforced, although
+	 * the reservations are only counted by the child.
+	 */
+	@Test
+	public void testParentLimit()
+	{
+		BandwidthLimiter parentBandwidthLimiter = new BandwidthLimiter(1000000L, 10000L, null);
+		BandwidthLimiter bandwidthLimiter = new BandwidthLimiter(0L, 10000L, parentBandwidthLimiter);
+
+		assertFalse(bandwidthLimiter.isUnlimited());
+		assertEquals(0L, bandwidthLimiter.reserve(10000L));
+
+		assertWaitTime(100L, bandwidthLimiter.reserve(100000L));
+
+		assertEquals(110000L, bandwidthLimiter.getTransmittedBytes());
+		assertEquals(0L, parentBandwidthLimiter.getTransmittedBytes());
+	}
+
+	@Test
+	public void testSetMaxRate()
+	{
+		BandwidthLimiter bandwidthLimiter = new BandwidthLimiter(1000000L, 10000L, null);
+
+		assertEquals(0L, bandwidthLimiter.reserve(10000L));
+
+		bandwidthLimiter.setMaxRate(0L);
+
+		assertTrue(bandwidthLimiter.isUnlimited());
+		assertEquals(0L, bandwidthLimiter.reserve(100000L));
+	}
+
+	@Test
+	public void testAcquireWaits() throws Exception
+	{
+		BandwidthLimiter bandwidthLimiter = new BandwidthLimiter(1000000L, 1000L, null);
+
+		bandwidthLimiter.acquire(1000L);
+
+		long startTime = System.nanoTime();
+
+		bandwidthLimiter.acquire(50000L);
+
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) >= 45L);
+	}
+
+	@Test(expected = InterruptedIOException.class)
+	public void testAcquireAlreadyAborted() throws Exception
+	{
+		BandwidthLimiter bandwidthLimiter = new BandwidthLimiter(1000L, 1000L, null);
+
+		AbortSignal abortSignal = new AbortSignal();
+		abortSignal.abort();
+
+		bandwidthLimiter.acquire(1000000L, abortSignal);
+	}
+
+	/**
+	 * An aborted reservation wakes up its thread and its debt is refunded, so
+	 * that the next reservation does not have to wait for it.
+	 */
+	@Test
+	public void testAbortRefundsDebt() throws Exception
+	{
+		BandwidthLimiter bandwidthLimiter = new BandwidthLimiter(10000L, 1000L, null);
+
+		assertEquals(0L, bandwidthLimiter.reserve(1000L));
+
+		abortWaitingAcquire(bandwidthLimiter, 100000L);
+
+		assertWaitTime(100L, bandwidthLimiter.reserve(1000L));
+	}
+
+	/**
+	 * Only the debt of the aborted reservation is refunded, while the debt of
+	 * an earlier reservation is kept.
+	 */
+	@Test
+	public void testAbortKeepsOtherDebt() throws Exception
+	{
+		BandwidthLimiter bandwidthLimiter = new BandwidthLimiter(10000L, 1000L, null);
+
+		assertEquals(0L, bandwidthLimiter.reserve(1000L));
+		assertWaitTime(500L, bandwidthLimiter.reserve(5000L));
+
+		abortWaitingAcquire(bandwidthLimiter, 100000L);
+
+		long waitTime = TimeUnit.NANOSECONDS.toMillis(bandwidthLimiter.reserve(1000L));
+
+		assertTrue("Wait time " + waitTime + " ms", waitTime > 300L && waitTime <= 600L);
+	}
+
+	/**
+	 * The refund of an aborted reservation applies to the parent
+	 * {@code BandwidthLimiter} as well.
+	 */
+	@Test
+	public void testAbortRefundsParentDebt() throws Exception
+	{
+		BandwidthLimiter parentBandwidthLimiter = new BandwidthLimiter(10000L, 1000L, null);
+		BandwidthLimiter bandwidthLimiter = new BandwidthLimiter(0L, 1000L, parentBandwidthLimiter);
+
+		assertEquals(0L, bandwidthLimiter.reserve(1000L));
+
+		abortWaitingAcquire(bandwidthLimiter, 100000L);
+
+		assertWaitTime(100L, parentBandwidthLimiter.reserve(1000L));
+	}
+
+	/**
+	 * Starts a thread which acquires the given number of {@code Bytes}, waits
+	 * until it is parked by the given {@link BandwidthLimiter}, aborts it and
+	 * asserts that it has ended with an {@link InterruptedIOException}.
+	 * 
+	 * @param bandwidthLimiter The {@code BandwidthLimiter}
+	 * @param count The number of {@code Bytes} to be acquired
+	 * @throws Exception If the thread has not ended in time
+	 */
+	private static void abortWaitingAcquire(final BandwidthLimiter bandwidthLimiter, final long count) throws Exception
+	{
+		final AbortSignal abortSignal = new AbortSignal();
+		final Throwable[] failure = new Throwable[1];
+
+		Thread thread = new Thread(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					bandwidthLimiter.acquire(count, abortSignal);
+				}
+				catch(Throwable e)
+				{
+					failure[0] = e;
+				}
+			}
+		});
+
+		thread.start();
+
+		long deadline = System.currentTimeMillis() + TIMEOUT;
+
+		while(thread.getState() != Thread.State.TIMED_WAITING && System.currentTimeMillis() < deadline)
+		{
+			Thread.sleep(1L);
+		}
+
+		assertEquals(Thread.State.TIMED_WAITING, thread.getState());
+
+		long abortTime = System.nanoTime();
+
+		abortSignal.abort();
+
+		thread.join(TIMEOUT);
+
+		assertFalse(thread.isAlive());
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - abortTime) < 1000L);
+		assertTrue(failure[0] instanceof InterruptedIOException);
+	}
+
+	/**
+	 * Asserts that the given waiting time lies shortly below the expected
+	 * waiting time, since the bucket is refilled in the meantime.
+	 * 
+	 * @param expectedWaitTime The expected waiting time in
+	 *        {@code milliseconds}
+	 * @param waitTime The actual waiting time in {@code nanoseconds}
+	 */
+	private static void assertWaitTime(long expectedWaitTime, long waitTime)
+	{
+		long waitTimeMillis = TimeUnit.NANOSECONDS.toMillis(waitTime);
+
+		assertTrue("Wait time " + waitTimeMillis + " ms", waitTimeMillis <= expectedWaitTime && waitTimeMillis >= expectedWaitTime - 50L);
+	}
+}
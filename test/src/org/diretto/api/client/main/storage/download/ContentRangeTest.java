@@ -0,0 +1,102 @@
+package org.diretto.api.client.main.storage.download;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.message.BasicHeader;
+import org.junit.Test;
+
+/**
+ * Tests the parsing of the {@code Content-Range} header by the
+ * {@link ContentRange}.
+ * 
+ * @author Tobias Schlecht
+ */
+public class ContentRangeTest
+{
+	@Test
+	public void testParse() throws Exception
+	{
+		ContentRange contentRange = ContentRange.parse(new BasicHeader("Content-Range", "bytes 0-499/1234"));
+
+		assertEquals(0L, contentRange.getFirstBytePosition());
+		assertEquals(499L, contentRange.getLastBytePosition());
+		assertEquals(1234L, contentRange.getInstanceLength());
+	}
+
+	@Test
+	public void testParseLargePositions() throws Exception
+	{
+		ContentRange contentRange = ContentRange.parse(new BasicHeader("Content-Range", "bytes 4294967296-8589934591/8589934592"));
+
+		assertEquals(4294967296L, contentRange.getFirstBytePosition());
+		assertEquals(8589934591L, contentRange.getLastBytePosition());
+		assertEquals(8589934592L, contentRange.getInstanceLength());
+	}
+
+	@Test
+	public void testParseWhitespace() throws Exception
+	{
+		ContentRange contentRange = ContentRange.parse(new BasicHeader("Content-Range", " bytes 500 - 999 / 1000 "));
+
+		assertEquals(500L, contentRange.getFirstBytePosition());
+		assertEquals(999L, contentRange.getLastBytePosition());
+		assertEquals(1000L, contentRange.getInstanceLength());
+	}
+
+	@Test
+	public void testParseUnknownInstanceLength() throws Exception
+	{
+		ContentRange contentRange = ContentRange.parse(new BasicHeader("Content-Range", "bytes 100-199/*"));
+
+		assertEquals(100L, contentRange.getFirstBytePosition());
+		assertEquals(199L, contentRange.getLastBytePosition());
+		assertEquals(-1L, contentRange.getInstanceLength());
+	}
+
+	@Test(expected = ClientProtocolException.class)
+	public void testParseMissingHeader() throws Exception
+	{
+		ContentRange.parse(null);
+	}
+
+	@Test(expected = ClientProtocolException.class)
+	public void testParseOtherUnit() throws Exception
+	{
+		ContentRange.parse(new BasicHeader("Content-Range", "items 0-9/10"));
+	}
+
+	@Test(expected = ClientProtocolException.class)
+	public void testParseUnsatisfiedRange() throws Exception
+	{
+		ContentRange.parse(new BasicHeader("Content-Range", "bytes */1000"));
+	}
+
+	@Test(expected = ClientProtocolException.class)
+	public void testParseMissingInstanceLength() throws Exception
+	{
+		ContentRange.parse(new BasicHeader("Content-Range", "bytes 0-499"));
+	}
+
+	@Test(expected = ClientProtocolException.class)
+	public void testParseInvalidNumber() throws Exception
+	{
+		ContentRange.parse(new BasicHeader("Content-Range", "bytes 0-abc/1000"));
+	}
+
+	@Test
+	public void testParseUnsatisfiedInstanceLength()
+	{
+		assertEquals(1000L, ContentRange.parseUnsatisfiedInstanceLength(new BasicHeader("Content-Range", "bytes */1000")));
+		assertEquals(1000L, ContentRange.parseUnsatisfiedInstanceLength(new BasicHeader("Content-Range", "bytes  */ 1000")));
+	}
+
+	@Test
+	public void testParseUnsatisfiedInstanceLengthInvalid()
+	{
+		assertEquals(-1L, ContentRange.parseUnsatisfiedInstanceLength(null));
+		assertEquals(-1L, ContentRange.parseUnsatisfiedInstanceLength(new BasicHeader("Content-Range", "items */1000")));
+		assertEquals(-1L, ContentRange.parseUnsatisfiedInstanceLength(new BasicHeader("Content-Range", "bytes 0-499/1000")));
+		assertEquals(-1L, ContentRange.parseUnsatisfiedInstanceLength(new BasicHeader("Content-Range", "bytes */*")));
+	}
+}
@@ -0,0 +1,308 @@
+package org.diretto.api.client.main.storage.download;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.diretto.api.client.main.storage.TestStorageServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the storing, the eviction and the reloading of the copies of the
+ * {@link DownloadCache}.
+ * 
+ * @author Tobias Schlecht
+ */
+public class DownloadCacheTest
+{
+	private static final String CONTENT_TYPE = "application/octet-stream";
+
+	private File directory;
+	private File sourceFile;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		directory = File.createTempFile("download-cache-test-", "");
+		directory.delete();
+
+		sourceFile = File.createTempFile("download-cache-test-", ".bin");
+	}
+
+	@After
+	public void tearDown()
+	{
+		File[] files = directory.listFiles();
+
+		if(files != null)
+		{
+			for(File file : files)
+			{
+				file.delete();
+			}
+		}
+
+		directory.delete();
+		sourceFile.delete();
+	}
+
+	/**
+	 * A stored copy is read from the given region of the source and provides
+	 * the validators of the resource.
+	 */
+	@Test
+	public void testPut() throws Exception
+	{
+		DownloadCache downloadCache = new DownloadCache(directory, 100000L);
+
+		byte[] content = TestStorageServer.createContent(1000);
+		URL fileURL = new URL("http://localhost/storage/document/a.bin");
+
+		put(downloadCache, fileURL, content, 500L, "\"v1\"", null);
+
+		DownloadCacheEntry downloadCacheEntry = downloadCache.get(fileURL);
+
+		assertNotNull(downloadCacheEntry);
+		assertEquals(1000L, downloadCacheEntry.getSize());
+		assertEquals(CONTENT_TYPE, downloadCacheEntry.getContentType());
+		assertEquals("\"v1\"", downloadCacheEntry.getEntityTag());
+		assertNull(downloadCacheEntry.getLastModified());
+		assertEquals(1000L, downloadCache.getSize());
+		assertArrayEquals(content, read(downloadCache, downloadCacheEntry));
+
+		assertNull(downloadCache.get(new URL("http://localhost/storage/document/b.bin")));
+	}
+
+	/**
+	 * A resource without validators or a resource which exceeds the maximum
+	 * size is not stored.
+	 */
+	@Test
+	public void testPutNotCacheable() throws Exception
+	{
+		DownloadCache downloadCache = new DownloadCache(directory, 1000L);
+
+		URL fileURL = new URL("http://localhost/storage/document/a.bin");
+
+		put(downloadCache, fileURL, TestStorageServer.createContent(500), 0L, null, null);
+		put(downloadCache, fileURL, TestStorageServer.createContent(1001), 0L, "\"v1\"", null);
+
+		assertNull(downloadCache.get(fileURL));
+		assertEquals(0L, downloadCache.getSize());
+		assertEquals(0, directory.listFiles().length);
+	}
+
+	/**
+	 * A repeated store replaces the previous copy and its size.
+	 */
+	@Test
+	public void testPutReplaces() throws Exception
+	{
+		DownloadCache downloadCache = new DownloadCache(directory, 100000L);
+
+		URL fileURL = new URL("http://localhost/storage/document/a.bin");
+		byte[] changedContent = TestStorageServer.createContent(700, 1);
+
+		put(downloadCache, fileURL, TestStorageServer.createContent(1000), 0L, "\"v1\"", null);
+		put(downloadCache, fileURL, changedContent, 0L, "\"v2\"", null);
+
+		DownloadCacheEntry downloadCacheEntry = downloadCache.get(fileURL);
+
+		assertEquals("\"v2\"", downloadCacheEntry.getEntityTag());
+		assertEquals(700L, downloadCache.getSize());
+		assertArrayEquals(changedContent, read(downloadCache, downloadCacheEntry));
+		assertEquals(2, directory.listFiles().length);
+	}
+
+	/**
+	 * If the maximum size is exceeded, the least recently used copy is
+	 * evicted and its files are deleted.
+	 */
+	@Test
+	public void testEvictLeastRecentlyUsed() throws Exception
+	{
+		DownloadCache downloadCache = new DownloadCache(directory, 2500L);
+
+		URL firstURL = new URL("http://localhost/storage/document/a.bin");
+		URL secondURL = new URL("http://localhost/storage/document/b.bin");
+		URL thirdURL = new URL("http://localhost/storage/document/c.bin");
+
+		put(downloadCache, firstURL, TestStorageServer.createContent(1000, 1), 0L, "\"v1\"", null);
+		put(downloadCache, secondURL, TestStorageServer.createContent(1000, 2), 0L, "\"v1\"", null);
+
+		DownloadCacheEntry secondDownloadCacheEntry = downloadCache.get(secondURL);
+
+		read(downloadCache, downloadCache.get(firstURL));
+
+		put(downloadCache, thirdURL, TestStorageServer.createContent(1000, 3), 0L, "\"v1\"", null);
+
+		assertNotNull(downloadCache.get(firstURL));
+		assertNull(downloadCache.get(secondURL));
+		assertNotNull(downloadCache.get(thirdURL));
+		assertEquals(2000L, downloadCache.getSize());
+		assertFalse(secondDownloadCacheEntry.getDataFile().exists());
+		assertNull(downloadCache.open(secondDownloadCacheEntry));
+	}
+
+	/**
+	 * The copies are reloaded from the directory, while incomplete copies and
+	 * temporary files are deleted.
+	 */
+	@Test
+	public void testReload() throws Exception
+	{
+		DownloadCache downloadCache = new DownloadCache(directory, 100000L);
+
+		URL firstURL = new URL("http://localhost/storage/document/a.bin");
+		URL secondURL = new URL("http://localhost/storage/document/b.bin");
+		byte[] firstContent = TestStorageServer.createContent(1000, 1);
+
+		put(downloadCache, firstURL, firstContent, 0L, "\"v1\"", "Sat, 17 Oct 2026 08:00:00 GMT");
+		put(downloadCache, secondURL, TestStorageServer.createContent(2000, 2), 0L, "\"v1\"", null);
+
+		File secondDataFile = downloadCache.get(secondURL).getDataFile();
+		RandomAccessFile randomAccessFile = new RandomAccessFile(secondDataFile, "rw");
+
+		try
+		{
+			randomAccessFile.setLength(1500L);
+		}
+		finally
+		{
+			randomAccessFile.close();
+		}
+
+		File temporaryFile = new File(directory, "left.tmp");
+		assertTrue(temporaryFile.createNewFile());
+
+		DownloadCache reloadedDownloadCache = new DownloadCache(directory, 100000L);
+
+		DownloadCacheEntry downloadCacheEntry = reloadedDownloadCache.get(firstURL);
+
+		assertNotNull(downloadCacheEntry);
+		assertEquals(1000L, downloadCacheEntry.getSize());
+		assertEquals(CONTENT_TYPE, downloadCacheEntry.getContentType());
+		assertEquals("\"v1\"", downloadCacheEntry.getEntityTag());
+		assertEquals("Sat, 17 Oct 2026 08:00:00 GMT", downloadCacheEntry.getLastModified());
+		assertArrayEquals(firstContent, read(reloadedDownloadCache, downloadCacheEntry));
+
+		assertNull(reloadedDownloadCache.get(secondURL));
+		assertFalse(secondDataFile.exists());
+		assertFalse(temporaryFile.exists());
+		assertEquals(1000L, reloadedDownloadCache.getSize());
+		assertEquals(2, directory.listFiles().length);
+	}
+
+	/**
+	 * The reloaded copies are ordered by their last access, so that a smaller
+	 * maximum size evicts the least recently used copy.
+	 */
+	@Test
+	public void testReloadEvictsLeastRecentlyUsed() throws Exception
+	{
+		DownloadCache downloadCache = new DownloadCache(directory, 100000L);
+
+		URL firstURL = new URL("http://localhost/storage/document/a.bin");
+		URL secondURL = new URL("http://localhost/storage/document/b.bin");
+
+		put(downloadCache, firstURL, TestStorageServer.createContent(1000, 1), 0L, "\"v1\"", null);
+		put(downloadCache, secondURL, TestStorageServer.createContent(1000, 2), 0L, "\"v1\"", null);
+
+		long now = System.currentTimeMillis();
+
+		assertTrue(downloadCache.get(firstURL).getDataFile().setLastModified(now - 60000L));
+		assertTrue(downloadCache.get(secondURL).getDataFile().setLastModified(now - 120000L));
+
+		DownloadCache reloadedDownloadCache = new DownloadCache(directory, 1500L);
+
+		assertNotNull(reloadedDownloadCache.get(firstURL));
+		assertNull(reloadedDownloadCache.get(secondURL));
+		assertEquals(1000L, reloadedDownloadCache.getSize());
+	}
+
+	/**
+	 * Stores the given content as copy of the resource with the given
+	 * {@link URL}. The content is written to the source file behind the
+	 * given number of leading {@code Bytes}.
+	 * 
+	 * @param downloadCache The {@code DownloadCache}
+	 * @param fileURL The {@code URL} of the resource
+	 * @param content The content of the resource
+	 * @param position The position of the content within the source file
+	 * @param entityTag The {@code ETag} or {@code null}
+	 * @param lastModified The {@code Last-Modified} date or {@code null}
+	 * @throws IOException If an I/O error occurs
+	 */
+	private void put(DownloadCache downloadCache, URL fileURL, byte[] content, long position, String entityTag, String lastModified) throws IOException
+	{
+		FileOutputStream fileOutputStream = new FileOutputStream(sourceFile);
+
+		try
+		{
+			fileOutputStream.write(new byte[(int) position]);
+			fileOutputStream.write(content);
+		}
+		finally
+		{
+			fileOutputStream.close();
+		}
+
+		FileChannel fileChannel = new RandomAccessFile(sourceFile, "r").getChannel();
+
+		try
+		{
+			downloadCache.put(fileURL, fileChannel, position, content.length, CONTENT_TYPE, entityTag, lastModified);
+		}
+		finally
+		{
+			fileChannel.close();
+		}
+	}
+
+	/**
+	 * Reads the cached copy of the given {@link DownloadCacheEntry}.
+	 * 
+	 * @param downloadCache The {@code DownloadCache}
+	 * @param downloadCacheEntry The {@code DownloadCacheEntry}
+	 * @return The content of the cached copy
+	 * @throws IOException If an I/O error occurs
+	 */
+	private static byte[] read(DownloadCache downloadCache, DownloadCacheEntry downloadCacheEntry) throws IOException
+	{
+		FileChannel fileChannel = downloadCache.open(downloadCacheEntry);
+
+		assertNotNull(fileChannel);
+
+		try
+		{
+			ByteBuffer byteBuffer = ByteBuffer.allocate((int) fileChannel.size());
+
+			while(byteBuffer.hasRemaining())
+			{
+				if(fileChannel.read(byteBuffer) < 0)
+				{
+					throw new IOException("The cached copy is incomplete.");
+				}
+			}
+
+			return byteBuffer.array();
+		}
+		finally
+		{
+			fileChannel.close();
+		}
+	}
+}
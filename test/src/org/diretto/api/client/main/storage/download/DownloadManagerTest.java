@@ -0,0 +1,453 @@
+package org.diretto.api.client.main.storage.download;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.commons.configuration.XMLConfiguration;
+import org.apache.http.client.ClientProtocolException;
+import org.diretto.api.client.main.core.CoreService;
+import org.diretto.api.client.main.storage.TestStorageServer;
+import org.diretto.api.client.main.storage.base.ProcessFuture;
+import org.diretto.api.client.util.ConfigUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link DownloadManager} and its download processes against a
+ * {@link TestStorageServer}.
+ * 
+ * @author Tobias Schlecht
+ */
+public class DownloadManagerTest
+{
+	private static final String CONFIG_FILE = "org/diretto/api/client/main/storage/config.xml";
+	private static final int SEGMENT_SIZE = 65536;
+	private static final int SIZE_THRESHOLD = 200000;
+
+	private TestStorageServer testStorageServer;
+	private DownloadManager downloadManager;
+	private File file;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		testStorageServer = new TestStorageServer();
+
+		file = File.createTempFile("download-manager-test-", ".bin");
+	}
+
+	@After
+	public void tearDown()
+	{
+		if(downloadManager != null)
+		{
+			downloadManager.shutdown();
+		}
+
+		testStorageServer.stop();
+
+		file.delete();
+	}
+
+	/**
+	 * A {@link FileOutputStream} is written in order, even if the asynchronous
+	 * engine is configured, because it does not provide a positional
+	 * {@code FileChannel} target.
+	 */
+	@Test
+	public void testFileOutputStreamWithAsyncEngine() throws Exception
+	{
+		downloadManager = createDownloadManager("async", false);
+
+		byte[] content = TestStorageServer.createContent(300000);
+		URL fileURL = testStorageServer.putResource("document/attachment.bin", content, "\"v1\"");
+
+		FileOutputStream fileOutputStream = new FileOutputStream(file);
+
+		try
+		{
+			DownloadReport downloadReport = downloadManager.submitDownloadProcess(downloadManager.createDownloadProcess(fileURL, fileOutputStream)).get();
+
+			assertNotNull(downloadReport);
+		}
+		finally
+		{
+			fileOutputStream.close();
+		}
+
+		assertArrayEquals(content, readFile(file));
+		assertEquals(1, testStorageServer.getGetRequestCount());
+	}
+
+	/**
+	 * A {@link File} is downloaded in segments of the configured size, which
+	 * are written to their positions within the file.
+	 */
+	@Test
+	public void testSegmentedFileDownload() throws Exception
+	{
+		downloadManager = createDownloadManager("blocking", true);
+
+		byte[] content = TestStorageServer.createContent(300000);
+		URL fileURL = testStorageServer.putResource("document/attachment.bin", content, "\"v1\"");
+
+		DownloadReport downloadReport = downloadManager.submitDownloadProcess(downloadManager.createDownloadProcess(fileURL, file)).get();
+
+		assertNotNull(downloadReport);
+		assertArrayEquals(content, readFile(file));
+		assertEquals(5, testStorageServer.getGetRequestCount());
+	}
+
+	/**
+	 * An {@link OutputStream} is not downloaded in segments, even if the
+	 * segmentation is enabled, so that no segment has to be buffered in
+	 * memory.
+	 */
+	@Test
+	public void testOutputStreamIsNotSegmented() throws Exception
+	{
+		downloadManager = createDownloadManager("blocking", true);
+
+		byte[] content = TestStorageServer.createContent(300000);
+		URL fileURL = testStorageServer.putResource("document/attachment.bin", content, "\"v1\"");
+
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+		DownloadReport downloadReport = downloadManager.submitDownloadProcess(downloadManager.createDownloadProcess(fileURL, byteArrayOutputStream)).get();
+
+		assertNotNull(downloadReport);
+		assertArrayEquals(content, byteArrayOutputStream.toByteArray());
+		assertEquals(1, testStorageServer.getGetRequestCount());
+	}
+
+	/**
+	 * A large resource is moved to the <i>Large Lane</i> after its size has
+	 * been determined by a {@code HEAD} request, so that it is requested only
+	 * once.
+	 */
+	@Test
+	public void testLargeResourceIsProbedBeforeRequest() throws Exception
+	{
+		assertProbedDownload(300000);
+	}
+
+	/**
+	 * A small resource stays in the <i>Small Lane</i> after its size has been
+	 * determined by a {@code HEAD} request.
+	 */
+	@Test
+	public void testSmallResourceIsProbedBeforeRequest() throws Exception
+	{
+		assertProbedDownload(100000);
+	}
+
+	/**
+	 * A resource whose size cannot be determined is downloaded in the
+	 * current lane.
+	 */
+	@Test
+	public void testUnknownSizeStaysInCurrentLane() throws Exception
+	{
+		testStorageServer.setHeadRejected(true);
+
+		downloadManager = createDownloadManager("blocking", false);
+
+		byte[] content = TestStorageServer.createContent(300000);
+		URL fileURL = testStorageServer.putResource("document/attachment.bin", content, "\"v1\"");
+
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+		assertNotNull(downloadManager.submitDownloadProcess(downloadManager.createDownloadProcess(fileURL, byteArrayOutputStream)).get());
+
+		assertArrayEquals(content, byteArrayOutputStream.toByteArray());
+		assertEquals(1, testStorageServer.getHeadRequestCount());
+		assertEquals(1, testStorageServer.getGetRequestCount());
+	}
+
+	/**
+	 * A {@link File} whose resource changes during the download is restarted
+	 * by the blocking process instead of being resumed.
+	 */
+	@Test
+	public void testChangedResourceRestartsFile() throws Exception
+	{
+		downloadManager = createDownloadManager("blocking", false);
+
+		assertChangedResourceRestartsFile(3);
+	}
+
+	/**
+	 * A {@link File} whose resource changes during the download is restarted
+	 * by the asynchronous process instead of being resumed. The full response
+	 * to the resume request is written from the beginning of the file.
+	 */
+	@Test
+	public void testChangedResourceRestartsFileWithAsyncEngine() throws Exception
+	{
+		downloadManager = createDownloadManager("async", false);
+
+		assertChangedResourceRestartsFile(2);
+	}
+
+	/**
+	 * An {@link OutputStream} whose resource changes during the download
+	 * cannot be restarted, so that the download fails without further
+	 * attempts.
+	 */
+	@Test
+	public void testChangedResourceFailsOutputStream() throws Exception
+	{
+		downloadManager = createDownloadManager("blocking", false);
+
+		URL fileURL = testStorageServer.putResource("document/attachment.bin", TestStorageServer.createContent(300000), "\"v1\"");
+		testStorageServer.interruptNextResponse(100000, "document/attachment.bin", TestStorageServer.createContent(300000, 1), "\"v2\"");
+
+		try
+		{
+			downloadManager.submitDownloadProcess(downloadManager.createDownloadProcess(fileURL, new ByteArrayOutputStream())).get();
+
+			fail("The download of a changed resource has not failed.");
+		}
+		catch(ExecutionException e)
+		{
+			assertTrue(e.getCause() instanceof ClientProtocolException);
+		}
+
+		assertEquals(2, testStorageServer.getGetRequestCount());
+	}
+
+	/**
+	 * A {@link FileChannel} whose resource changes during the download cannot
+	 * be restarted, so that the asynchronous process fails without further
+	 * attempts.
+	 */
+	@Test
+	public void testChangedResourceFailsFileChannelWithAsyncEngine() throws Exception
+	{
+		downloadManager = createDownloadManager("async", false);
+
+		URL fileURL = testStorageServer.putResource("document/attachment.bin", TestStorageServer.createContent(300000), "\"v1\"");
+		testStorageServer.interruptNextResponse(100000, "document/attachment.bin", TestStorageServer.createContent(300000, 1), "\"v2\"");
+
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+
+		try
+		{
+			downloadManager.submitDownloadProcess(downloadManager.createDownloadProcess(fileURL, randomAccessFile.getChannel())).get();
+
+			fail("The download of a changed resource has not failed.");
+		}
+		catch(ExecutionException e)
+		{
+			assertTrue(e.getCause() instanceof ClientProtocolException);
+		}
+		finally
+		{
+			randomAccessFile.close();
+		}
+
+		assertEquals(2, testStorageServer.getGetRequestCount());
+	}
+
+	/**
+	 * A partial response without {@code Content-Range} header fails the
+	 * resumed asynchronous download with a {@link ClientProtocolException}.
+	 */
+	@Test
+	public void testMissingContentRangeWithAsyncEngine() throws Exception
+	{
+		downloadManager = createDownloadManager("async", false);
+
+		URL fileURL = testStorageServer.putResource("document/attachment.bin", TestStorageServer.createContent(300000), "\"v1\"");
+		testStorageServer.interruptNextResponse(100000, null, null, null);
+		testStorageServer.setContentRangeOmitted(true);
+
+		try
+		{
+			downloadManager.submitDownloadProcess(downloadManager.createDownloadProcess(fileURL, file)).get();
+
+			fail("The download without Content-Range header has not failed.");
+		}
+		catch(ExecutionException e)
+		{
+			assertTrue(e.getCause() instanceof ClientProtocolException);
+		}
+	}
+
+	/**
+	 * A cancelled download process has ended and reports the complete
+	 * progress, like an aborted one.
+	 */
+	@Test
+	public void testCancelledProgress() throws Exception
+	{
+		for(String engineType : new String[] {"blocking", "async"})
+		{
+			downloadManager = createDownloadManager(engineType, false);
+
+			URL fileURL = testStorageServer.putResource("document/attachment.bin", TestStorageServer.createContent(1000), "\"v1\"");
+
+			DownloadProcess downloadProcess = downloadManager.createDownloadProcess(fileURL, new ByteArrayOutputStream());
+
+			assertEquals(0, downloadProcess.getProgress());
+			assertTrue(((ProcessFuture<?>) downloadProcess).cancel(false));
+			assertEquals(DownloadState.CANCELLED, downloadProcess.getCurrentState());
+			assertEquals(100, downloadProcess.getProgress());
+
+			downloadManager.shutdown();
+		}
+	}
+
+	/**
+	 * Downloads a resource of the given size by means of the blocking process
+	 * and asserts that it has been probed once and requested once.
+	 * 
+	 * @param size The size of the resource in {@code Bytes}
+	 * @throws Exception If the download failed
+	 */
+	private void assertProbedDownload(int size) throws Exception
+	{
+		downloadManager = createDownloadManager("blocking", false);
+
+		byte[] content = TestStorageServer.createContent(size);
+		URL fileURL = testStorageServer.putResource("document/attachment.bin", content, "\"v1\"");
+
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+		DownloadReport downloadReport = downloadManager.submitDownloadProcess(downloadManager.createDownloadProcess(fileURL, byteArrayOutputStream)).get();
+
+		assertNotNull(downloadReport);
+		assertEquals(1, downloadReport.getDownloadAttempts());
+		assertArrayEquals(content, byteArrayOutputStream.toByteArray());
+		assertEquals(1, testStorageServer.getHeadRequestCount());
+		assertEquals(1, testStorageServer.getGetRequestCount());
+	}
+
+	/**
+	 * Downloads a resource into a {@link File}, while the resource changes
+	 * after the first response has been interrupted, and asserts that the
+	 * file contains the changed content.
+	 * 
+	 * @param expectedGetRequestCount The expected number of {@code GET}
+	 *        requests
+	 * @throws Exception If the download failed
+	 */
+	private void assertChangedResourceRestartsFile(int expectedGetRequestCount) throws Exception
+	{
+		byte[] changedContent = TestStorageServer.createContent(320000, 1);
+
+		URL fileURL = testStorageServer.putResource("document/attachment.bin", TestStorageServer.createContent(300000), "\"v1\"");
+		testStorageServer.interruptNextResponse(100000, "document/attachment.bin", changedContent, "\"v2\"");
+
+		DownloadReport downloadReport = downloadManager.submitDownloadProcess(downloadManager.createDownloadProcess(fileURL, file)).get();
+
+		assertNotNull(downloadReport);
+		assertArrayEquals(changedContent, readFile(file));
+		assertEquals(expectedGetRequestCount, testStorageServer.getGetRequestCount());
+	}
+
+	/**
+	 * Creates a {@link DownloadManager} for the {@link TestStorageServer} with
+	 * the given engine type. If the segmentation is enabled, the segment size
+	 * is {@value #SEGMENT_SIZE} {@code Bytes}. Resources larger than
+	 * {@value #SIZE_THRESHOLD} {@code Bytes} are downloaded in the <i>Large
+	 * Lane</i>.
+	 * 
+	 * @param engineType The engine type ({@code blocking} or {@code async})
+	 * @param segmentationEnabled {@code true} if the segmentation should be
+	 *        enabled
+	 * @return The {@code DownloadManager}
+	 * @throws IOException If the API base {@code URL} could not be created
+	 */
+	private DownloadManager createDownloadManager(String engineType, boolean segmentationEnabled) throws IOException
+	{
+		XMLConfiguration xmlConfiguration = (XMLConfiguration) ConfigUtils.getXMLConfiguration(CONFIG_FILE).clone();
+		xmlConfiguration.setProperty("download/engine/type", engineType);
+		xmlConfiguration.setProperty("download/segmentation/enabled", segmentationEnabled);
+		xmlConfiguration.setProperty("download/segmentation/segment-size", SEGMENT_SIZE);
+		xmlConfiguration.setProperty("download/scheduling/size-threshold", SIZE_THRESHOLD);
+
+		URL apiBaseURL = new URL(testStorageServer.getServiceURL(), "/v2");
+
+		return DownloadManager.getInstance(xmlConfiguration, createCoreService(), apiBaseURL, testStorageServer.getServiceURL(), null, null);
+	}
+
+	/**
+	 * Reads the content of the given {@link File}.
+	 * 
+	 * @param file The {@code File}
+	 * @return The content
+	 * @throws IOException If an I/O error occurs
+	 */
+	private static byte[] readFile(File file) throws IOException
+	{
+		byte[] content = new byte[(int) file.length()];
+
+		FileInputStream fileInputStream = new FileInputStream(file);
+
+		try
+		{
+			int position = 0;
+
+			while(position < content.length)
+			{
+				position += fileInputStream.read(content, position, content.length - position);
+			}
+		}
+		finally
+		{
+			fileInputStream.close();
+		}
+
+		return content;
+	}
+
+	/**
+	 * Creates a stand-in for the {@link CoreService}, which returns
+	 * {@code null} for every invocation of a service method.
+	 * 
+	 * @return The {@code CoreService} stand-in
+	 */
+	private static CoreService createCoreService()
+	{
+		return (CoreService) Proxy.newProxyInstance(CoreService.class.getClassLoader(), new Class<?>[] {CoreService.class}, new InvocationHandler()
+		{
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args)
+			{
+				if(method.getName().equals("equals"))
+				{
+					return proxy == args[0];
+				}
+				else if(method.getName().equals("hashCode"))
+				{
+					return System.identityHashCode(proxy);
+				}
+				else if(method.getName().equals("toString"))
+				{
+					return CoreService.class.getSimpleName();
+				}
+
+				return null;
+			}
+		});
+	}
+}
@@ -0,0 +1,265 @@
+package org.diretto.api.client.main.storage.nio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.diretto.api.client.main.storage.TestStorageServer;
+import org.diretto.api.client.main.storage.base.StorageLogLevel;
+import org.diretto.api.client.main.storage.base.StorageLogger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the framing of the response bodies by the {@link AsyncHttpEngine}
+ * against a {@link TestStorageServer}, which sends the bodies either with a
+ * {@code Content-Length} header or with the chunked transfer coding.
+ * 
+ * @author Tobias Schlecht
+ */
+public class AsyncHttpEngineTest
+{
+	private static final long TIMEOUT = 10000L;
+
+	private TestStorageServer testStorageServer;
+	private AsyncHttpEngine asyncHttpEngine;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		testStorageServer = new TestStorageServer();
+
+		asyncHttpEngine = new AsyncHttpEngine(1, 4, 30000L, "AsyncHttpEngineTest", new StorageLogger(StorageLogLevel.ERROR, 16));
+	}
+
+	@After
+	public void tearDown()
+	{
+		asyncHttpEngine.shutdown();
+
+		testStorageServer.stop();
+	}
+
+	@Test
+	public void testContentLength() throws Exception
+	{
+		assertBody(TestStorageServer.createContent(300000), false);
+	}
+
+	@Test
+	public void testChunked() throws Exception
+	{
+		assertBody(TestStorageServer.createContent(300000), true);
+	}
+
+	@Test
+	public void testEmptyContentLength() throws Exception
+	{
+		assertBody(new byte[0], false);
+	}
+
+	@Test
+	public void testEmptyChunked() throws Exception
+	{
+		assertBody(new byte[0], true);
+	}
+
+	/**
+	 * Two consecutive responses are separated correctly on a kept alive
+	 * connection.
+	 */
+	@Test
+	public void testConsecutiveResponses() throws Exception
+	{
+		for(boolean chunked : new boolean[] {false, true})
+		{
+			testStorageServer.setChunked(chunked);
+
+			byte[] firstContent = TestStorageServer.createContent(70000, 1);
+			byte[] secondContent = TestStorageServer.createContent(50000, 2);
+
+			URL firstURL = testStorageServer.putResource("document/first.bin", firstContent, "\"v1\"");
+			URL secondURL = testStorageServer.putResource("document/second.bin", secondContent, "\"v1\"");
+
+			assertArrayEquals(firstContent, execute(new AsyncHttpRequest("GET", firstURL)).getBody());
+			assertArrayEquals(secondContent, execute(new AsyncHttpRequest("GET", secondURL)).getBody());
+		}
+	}
+
+	/**
+	 * The response to a {@code HEAD} request has no body, although it
+	 * contains the {@code Content-Length} of the resource.
+	 */
+	@Test
+	public void testHead() throws Exception
+	{
+		URL url = testStorageServer.putResource("document/attachment.bin", TestStorageServer.createContent(300000), "\"v1\"");
+
+		RecordingHandler recordingHandler = execute(new AsyncHttpRequest("HEAD", url));
+
+		assertEquals(200, recordingHandler.getStatusCode());
+		assertEquals(300000L, recordingHandler.getContentLength());
+		assertEquals(0, recordingHandler.getBody().length);
+
+		byte[] content = TestStorageServer.createContent(1000, 3);
+
+		URL nextURL = testStorageServer.putResource("document/next.bin", content, "\"v1\"");
+
+		assertArrayEquals(content, execute(new AsyncHttpRequest("GET", nextURL)).getBody());
+	}
+
+	/**
+	 * A partial response is framed by its own {@code Content-Length}.
+	 */
+	@Test
+	public void testPartialContent() throws Exception
+	{
+		byte[] content = TestStorageServer.createContent(300000);
+
+		URL url = testStorageServer.putResource("document/attachment.bin", content, "\"v1\"");
+
+		AsyncHttpRequest asyncHttpRequest = new AsyncHttpRequest("GET", url);
+		asyncHttpRequest.addHeader("Range", "bytes=100000-");
+
+		RecordingHandler recordingHandler = execute(asyncHttpRequest);
+
+		byte[] expectedBody = new byte[200000];
+		System.arraycopy(content, 100000, expectedBody, 0, expectedBody.length);
+
+		assertEquals(206, recordingHandler.getStatusCode());
+		assertArrayEquals(expectedBody, recordingHandler.getBody());
+	}
+
+	/**
+	 * Executes a {@code GET} request of a resource with the given content and
+	 * asserts that the received body equals the content.
+	 * 
+	 * @param content The content of the resource
+	 * @param chunked {@code true} if the chunked transfer coding should be
+	 *        used
+	 * @throws Exception If the exchange failed
+	 */
+	private void assertBody(byte[] content, boolean chunked) throws Exception
+	{
+		testStorageServer.setChunked(chunked);
+
+		URL url = testStorageServer.putResource("document/attachment.bin", content, "\"v1\"");
+
+		RecordingHandler recordingHandler = execute(new AsyncHttpRequest("GET", url));
+
+		assertEquals(200, recordingHandler.getStatusCode());
+		assertArrayEquals(content, recordingHandler.getBody());
+	}
+
+	/**
+	 * Executes the given {@link AsyncHttpRequest} and waits until its
+	 * exchange has been completed.
+	 * 
+	 * @param asyncHttpRequest The {@code AsyncHttpRequest}
+	 * @return The {@code RecordingHandler} of the completed exchange
+	 * @throws Exception If the exchange failed or has not been completed in
+	 *         time
+	 */
+	private RecordingHandler execute(AsyncHttpRequest asyncHttpRequest) throws Exception
+	{
+		RecordingHandler recordingHandler = new RecordingHandler();
+
+		asyncHttpEngine.execute(asyncHttpRequest, recordingHandler);
+
+		assertTrue(recordingHandler.await());
+		assertNull(recordingHandler.getFailure());
+
+		return recordingHandler;
+	}
+
+	/**
+	 * A {@code RecordingHandler} records the status code, the
+	 * {@code Content-Length} and the body of a response.
+	 */
+	private static final class RecordingHandler implements AsyncHttpHandler
+	{
+		private final CountDownLatch countDownLatch = new CountDownLatch(1);
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+		private volatile int statusCode = -1;
+		private volatile long contentLength = -1L;
+		private volatile IOException failure = null;
+
+		@Override
+		public void responseReceived(AsyncHttpResponse asyncHttpResponse)
+		{
+			statusCode = asyncHttpResponse.getStatusCode();
+			contentLength = asyncHttpResponse.getContentLength();
+		}
+
+		@Override
+		public void contentReceived(ByteBuffer content)
+		{
+			synchronized(body)
+			{
+				while(content.hasRemaining())
+				{
+					body.write(content.get());
+				}
+			}
+		}
+
+		@Override
+		public void completed()
+		{
+			countDownLatch.countDown();
+		}
+
+		@Override
+		public void failed(IOException exception)
+		{
+			failure = exception;
+
+			countDownLatch.countDown();
+		}
+
+		/**
+		 * Waits until the exchange has been completed or has failed.
+		 * 
+		 * @return {@code true} if the exchange has ended in time; otherwise
+		 *         {@code false}
+		 * @throws InterruptedException If the thread has been interrupted
+		 */
+		private boolean await() throws InterruptedException
+		{
+			return countDownLatch.await(TIMEOUT, TimeUnit.MILLISECONDS);
+		}
+
+		private int getStatusCode()
+		{
+			return statusCode;
+		}
+
+		private long getContentLength()
+		{
+			return contentLength;
+		}
+
+		private IOException getFailure()
+		{
+			return failure;
+		}
+
+		private byte[] getBody()
+		{
+			synchronized(body)
+			{
+				return body.toByteArray();
+			}
+		}
+	}
+}